@@ -0,0 +1,80 @@
+package com.episode6.hackit.typed.benchmarks;
+
+import com.episode6.hackit.typed.core.codec.TaggedBinaryCodec;
+import com.episode6.hackit.typed.core.codec.TaggedReader;
+import com.episode6.hackit.typed.core.codec.TaggedWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A representative POJO used by the benchmarks, with a {@link TaggedBinaryCodec} for the binary paths.
+ */
+public class Profile {
+
+  public static final TaggedBinaryCodec<Profile> CODEC = new TaggedBinaryCodec<Profile>() {
+    @Override
+    protected void write(Profile value, TaggedWriter writer) {
+      writer.writeString(1, value.name)
+          .writeInt(2, value.age)
+          .writeLong(3, value.id)
+          .writeBoolean(4, value.active)
+          .writeDouble(5, value.score);
+      for (String tag : value.tags) {
+        writer.writeString(6, tag);
+      }
+    }
+
+    @Override
+    protected Profile read(TaggedReader reader) {
+      Profile profile = new Profile();
+      while (reader.next()) {
+        switch (reader.getTag()) {
+          case 1:
+            profile.name = reader.readString();
+            break;
+          case 2:
+            profile.age = reader.readInt();
+            break;
+          case 3:
+            profile.id = reader.readLong();
+            break;
+          case 4:
+            profile.active = reader.readBoolean();
+            break;
+          case 5:
+            profile.score = reader.readDouble();
+            break;
+          case 6:
+            profile.tags.add(reader.readString());
+            break;
+        }
+      }
+      return profile;
+    }
+  };
+
+  public String name;
+  public int age;
+  public long id;
+  public boolean active;
+  public double score;
+  public List<String> tags = new ArrayList<>();
+
+  /**
+   * @param tagCount The number of tags to add, which controls the size of the serialized profile
+   * @return A populated profile
+   */
+  public static Profile create(int tagCount) {
+    Profile profile = new Profile();
+    profile.name = "Some Person";
+    profile.age = 34;
+    profile.id = 1234567890123L;
+    profile.active = true;
+    profile.score = 98.6;
+    for (int i = 0; i < tagCount; i++) {
+      profile.tags.add("tag number " + i);
+    }
+    return profile;
+  }
+}
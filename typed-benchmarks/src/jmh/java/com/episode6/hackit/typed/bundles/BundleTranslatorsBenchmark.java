@@ -0,0 +1,216 @@
+package com.episode6.hackit.typed.bundles;
+
+import android.os.Bundle;
+import android.os.IBinder;
+import android.os.Parcelable;
+import android.util.Size;
+import android.util.SizeF;
+import android.util.SparseArray;
+import com.episode6.hackit.typed.benchmarks.Profile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks every translator in {@link DirectBundleTranslators} and {@link CustomBundleTranslators}
+ * against the in-memory {@link Bundle}. Array translators are fed 16 element lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BundleTranslatorsBenchmark {
+
+  private static final String KEY_NAME = "com.example.benchmark.key";
+  private static final int ARRAY_SIZE = 16;
+
+  private static class SampleParcelable implements Parcelable {}
+  private static class SampleBinder implements IBinder {}
+
+  @Param({
+      // direct translators
+      "BOOL", "INT", "STRING", "FLOAT", "LONG", "DOUBLE", "SHORT", "CHAR", "BYTE", "BUNDLE", "CHAR_SEQUENCE",
+      "SIZE", "SIZEF",
+      // custom translators
+      "PARCELABLE", "PARCELABLE_ARRAY", "PARCELABLE_ARRAY_LIST", "PARCELABLE_SPARSE_ARRAY_LIST", "SERIALIZABLE",
+      "IBINDER", "BOOL_ARRAY", "INT_ARRAY", "INT_ARRAY_LIST", "STRING_ARRAY", "STRING_ARRAY_LIST", "FLOAT_ARRAY",
+      "LONG_ARRAY", "DOUBLE_ARRAY", "SHORT_ARRAY", "CHAR_ARRAY", "BYTE_ARRAY", "CHAR_SEQUENCE_ARRAY",
+      "CHAR_SEQUENCE_ARRAY_LIST", "BINARY"})
+  public String translatorName;
+
+  private BundleTranslator mTranslator;
+  private Object mValue;
+  private Bundle mBundle;
+
+  @Setup
+  public void setUp() {
+    switch (translatorName) {
+      case "BOOL":
+        direct(Boolean.class, true);
+        break;
+      case "INT":
+        direct(Integer.class, 42);
+        break;
+      case "STRING":
+        direct(String.class, "some string");
+        break;
+      case "FLOAT":
+        direct(Float.class, 4.2f);
+        break;
+      case "LONG":
+        direct(Long.class, 42L);
+        break;
+      case "DOUBLE":
+        direct(Double.class, 4.2);
+        break;
+      case "SHORT":
+        direct(Short.class, (short) 42);
+        break;
+      case "CHAR":
+        direct(Character.class, 'c');
+        break;
+      case "BYTE":
+        direct(Byte.class, (byte) 42);
+        break;
+      case "BUNDLE":
+        direct(Bundle.class, new Bundle());
+        break;
+      case "CHAR_SEQUENCE":
+        direct(CharSequence.class, new StringBuilder("some chars"));
+        break;
+      case "SIZE":
+        direct(Size.class, new Size(4, 2));
+        break;
+      case "SIZEF":
+        direct(SizeF.class, new SizeF(4f, 2f));
+        break;
+      case "PARCELABLE":
+        use(CustomBundleTranslators.PARCELABLE, new SampleParcelable());
+        break;
+      case "PARCELABLE_ARRAY":
+        use(CustomBundleTranslators.PARCELABLE_ARRAY, parcelables());
+        break;
+      case "PARCELABLE_ARRAY_LIST":
+        use(CustomBundleTranslators.PARCELABLE_ARRAY_LIST, parcelables());
+        break;
+      case "PARCELABLE_SPARSE_ARRAY_LIST":
+        SparseArray<Parcelable> sparseArray = new SparseArray<>();
+        for (int i = 0; i < ARRAY_SIZE; i++) {
+          sparseArray.put(i * 2, new SampleParcelable());
+        }
+        use(CustomBundleTranslators.PARCELABLE_SPARSE_ARRAY_LIST, sparseArray);
+        break;
+      case "SERIALIZABLE":
+        use(CustomBundleTranslators.SERIALIZABLE, (Serializable) "serializable");
+        break;
+      case "IBINDER":
+        use(CustomBundleTranslators.IBINDER, new SampleBinder());
+        break;
+      case "BOOL_ARRAY":
+        use(CustomBundleTranslators.BOOL_ARRAY, list(true, false));
+        break;
+      case "INT_ARRAY":
+        use(CustomBundleTranslators.INT_ARRAY, list(4, 2));
+        break;
+      case "INT_ARRAY_LIST":
+        use(CustomBundleTranslators.INT_ARRAY_LIST, list(4, 2));
+        break;
+      case "STRING_ARRAY":
+        use(CustomBundleTranslators.STRING_ARRAY, list("four", "two"));
+        break;
+      case "STRING_ARRAY_LIST":
+        use(CustomBundleTranslators.STRING_ARRAY_LIST, list("four", "two"));
+        break;
+      case "FLOAT_ARRAY":
+        use(CustomBundleTranslators.FLOAT_ARRAY, list(4f, 2f));
+        break;
+      case "LONG_ARRAY":
+        use(CustomBundleTranslators.LONG_ARRAY, list(4L, 2L));
+        break;
+      case "DOUBLE_ARRAY":
+        use(CustomBundleTranslators.DOUBLE_ARRAY, list(4d, 2d));
+        break;
+      case "SHORT_ARRAY":
+        use(CustomBundleTranslators.SHORT_ARRAY, list((short) 4, (short) 2));
+        break;
+      case "CHAR_ARRAY":
+        use(CustomBundleTranslators.CHAR_ARRAY, list('4', '2'));
+        break;
+      case "BYTE_ARRAY":
+        use(CustomBundleTranslators.BYTE_ARRAY, ByteBuffer.wrap(new byte[ARRAY_SIZE]));
+        break;
+      case "CHAR_SEQUENCE_ARRAY":
+        use(CustomBundleTranslators.CHAR_SEQUENCE_ARRAY, list((CharSequence) "four", "two"));
+        break;
+      case "CHAR_SEQUENCE_ARRAY_LIST":
+        use(CustomBundleTranslators.CHAR_SEQUENCE_ARRAY_LIST, list((CharSequence) "four", "two"));
+        break;
+      case "BINARY":
+        use(CustomBundleTranslators.binary(Profile.CODEC), Profile.create(4));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown translator: " + translatorName);
+    }
+    mBundle = new Bundle();
+    mTranslator.writeToBundle(mBundle, KEY_NAME, mValue);
+  }
+
+  @Benchmark
+  public Object read() {
+    return mTranslator.getFromBundle(mBundle, KEY_NAME);
+  }
+
+  @Benchmark
+  public Bundle write() {
+    mTranslator.writeToBundle(mBundle, KEY_NAME, mValue);
+    return mBundle;
+  }
+
+  private void direct(Type type, Object value) {
+    BundleTranslator translator = DirectBundleTranslators.getDirectTranslator(type);
+    if (translator == null) {
+      throw new IllegalStateException("No direct translator for " + type);
+    }
+    use(translator, value);
+  }
+
+  private void use(BundleTranslator translator, Object value) {
+    mTranslator = translator;
+    mValue = value;
+  }
+
+  private static ArrayList<Parcelable> parcelables() {
+    ArrayList<Parcelable> list = new ArrayList<>(ARRAY_SIZE);
+    for (int i = 0; i < ARRAY_SIZE; i++) {
+      list.add(new SampleParcelable());
+    }
+    return list;
+  }
+
+  // repeats the given items until the list is ARRAY_SIZE long
+  @SafeVarargs
+  private static <T> ArrayList<T> list(T... items) {
+    ArrayList<T> list = new ArrayList<>(ARRAY_SIZE);
+    while (list.size() < ARRAY_SIZE) {
+      list.addAll(Arrays.asList(items));
+    }
+    return list;
+  }
+}
@@ -0,0 +1,83 @@
+package com.episode6.hackit.typed.bundles;
+
+import com.episode6.hackit.typed.benchmarks.Profile;
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks gets from a {@link TypedBundles#memoize(TypedBundle)}'d bundle, uncontended and contended,
+ * with the un-memoized {@link TypedBundleImpl} as a baseline
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class MemoizedTypedBundleBenchmark {
+
+  private static final BundleNamespace NAMESPACE = BundleNamespace.fromClass(MemoizedTypedBundleBenchmark.class);
+
+  private static final BundleKey<Profile> PROFILE_KEY = NAMESPACE.key(Profile.class)
+      .named("profile")
+      .buildWithDefault(new Profile());
+  private static final BundleKey<Integer> INT_KEY = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(0);
+
+  private TypedBundle mTypedBundle;
+  private TypedBundle mMemoizedBundle;
+
+  @Setup
+  public void setUp() {
+    mTypedBundle = TypedBundles.createFactory(new DefaultGsonSupplier()).create()
+        .put(PROFILE_KEY, Profile.create(4))
+        .put(INT_KEY, 42);
+    mMemoizedBundle = TypedBundles.memoize(mTypedBundle);
+    mMemoizedBundle.get(PROFILE_KEY);
+  }
+
+  @Benchmark
+  public Profile unmemoizedGet() {
+    return mTypedBundle.get(PROFILE_KEY);
+  }
+
+  @Benchmark
+  public Profile memoizedGet() {
+    return mMemoizedBundle.get(PROFILE_KEY);
+  }
+
+  @Benchmark
+  @Group("contendedGet")
+  @GroupThreads(4)
+  public Profile contendedGet() {
+    return mMemoizedBundle.get(PROFILE_KEY);
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(3)
+  public Profile readWriteGet() {
+    return mMemoizedBundle.get(PROFILE_KEY);
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(1)
+  public TypedBundle readWritePut() {
+    return mMemoizedBundle.put(INT_KEY, 43);
+  }
+}
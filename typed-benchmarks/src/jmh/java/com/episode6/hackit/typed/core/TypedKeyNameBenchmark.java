@@ -0,0 +1,76 @@
+package com.episode6.hackit.typed.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link TypedKeyName} construction, hashing and lookups
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypedKeyNameBenchmark {
+
+  private static final TypedKeyNamespace ROOT = new TypedKeyNamespace(".") {};
+  private static final TypedKeyNamespace NAMESPACE = new TypedKeyNamespace(ROOT, "com.example.benchmark") {};
+
+  private TypedKeyName mKeyName;
+  private TypedKeyName mEqualKeyName;
+  private Map<TypedKeyName, Object> mMap;
+
+  @Setup
+  public void setUp() {
+    mKeyName = TypedKeyRegistry.keyName(NAMESPACE, "someKey");
+    mEqualKeyName = new TypedKeyName(NAMESPACE, "someKey");
+    mMap = new HashMap<>();
+    for (int i = 0; i < 64; i++) {
+      mMap.put(TypedKeyRegistry.keyName(NAMESPACE, "key" + i), i);
+    }
+    mMap.put(mKeyName, "value");
+  }
+
+  @Benchmark
+  public TypedKeyName construct() {
+    return new TypedKeyName(NAMESPACE, "someKey");
+  }
+
+  @Benchmark
+  public TypedKeyName registryLookup() {
+    return TypedKeyRegistry.keyName(NAMESPACE, "someKey");
+  }
+
+  @Benchmark
+  public int hashKeyName() {
+    return mKeyName.hashCode();
+  }
+
+  @Benchmark
+  public boolean equalsKeyName() {
+    return mKeyName.equals(mEqualKeyName);
+  }
+
+  @Benchmark
+  public String keyNameToString() {
+    return mKeyName.toString();
+  }
+
+  @Benchmark
+  public Object hashMapGet() {
+    return mMap.get(mKeyName);
+  }
+}
@@ -0,0 +1,79 @@
+package com.episode6.hackit.typed.core.codec;
+
+import com.episode6.hackit.typed.benchmarks.Profile;
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the gson codec against the tagged binary codec (raw and Base64 encoded)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+  @Param({"4", "256"})
+  public int tagCount;
+
+  private Profile mProfile;
+  private TypedCodec<Profile> mGsonCodec;
+  private TypedCodec<Profile> mBase64Codec;
+  private String mJson;
+  private byte[] mBinary;
+  private String mBase64;
+
+  @Setup
+  public void setUp() {
+    mProfile = Profile.create(tagCount);
+    mGsonCodec = TypedCodecs.gson(new DefaultGsonSupplier(), Profile.class);
+    mBase64Codec = TypedCodecs.base64(Profile.CODEC);
+    mJson = mGsonCodec.encode(mProfile);
+    mBinary = Profile.CODEC.encode(mProfile);
+    mBase64 = mBase64Codec.encode(mProfile);
+  }
+
+  @Benchmark
+  public String gsonEncode() {
+    return mGsonCodec.encode(mProfile);
+  }
+
+  @Benchmark
+  public Profile gsonDecode() {
+    return mGsonCodec.decode(mJson);
+  }
+
+  @Benchmark
+  public byte[] binaryEncode() {
+    return Profile.CODEC.encode(mProfile);
+  }
+
+  @Benchmark
+  public Profile binaryDecode() {
+    return Profile.CODEC.decode(mBinary);
+  }
+
+  @Benchmark
+  public String base64Encode() {
+    return mBase64Codec.encode(mProfile);
+  }
+
+  @Benchmark
+  public Profile base64Decode() {
+    return mBase64Codec.decode(mBase64);
+  }
+}
@@ -0,0 +1,66 @@
+package com.episode6.hackit.typed.core.codec;
+
+import com.episode6.hackit.typed.benchmarks.Profile;
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Compression} on gson-encoded values, below and above the default threshold
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+  // ~100 bytes and ~120KB of json
+  @Param({"4", "4096"})
+  public int tagCount;
+
+  private Compression mCompression;
+  private String mJson;
+  private String mStoredString;
+  private byte[] mStoredBytes;
+
+  @Setup
+  public void setUp() {
+    mCompression = new Compression(Compression.DEFAULT_THRESHOLD);
+    mJson = TypedCodecs.<Profile>gson(new DefaultGsonSupplier(), Profile.class).encode(Profile.create(tagCount));
+    mStoredString = mCompression.compressToString(mJson);
+    mStoredBytes = mCompression.compressToBytes(mJson);
+  }
+
+  @Benchmark
+  public String compressToString() {
+    return mCompression.compressToString(mJson);
+  }
+
+  @Benchmark
+  public String decompressString() {
+    return mCompression.decompressString(mStoredString);
+  }
+
+  @Benchmark
+  public byte[] compressToBytes() {
+    return mCompression.compressToBytes(mJson);
+  }
+
+  @Benchmark
+  public String decompressBytes() {
+    return mCompression.decompressToString(mStoredBytes);
+  }
+}
@@ -0,0 +1,63 @@
+package com.episode6.hackit.typed.core.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reads of a {@link Suppliers#memoize(Supplier)}'d supplier, single threaded and contended
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuppliersBenchmark {
+
+  private Supplier<Object> mSupplier;
+  private Supplier<Object> mMemoized;
+
+  @Setup
+  public void setUp() {
+    mSupplier = new Supplier<Object>() {
+      @Override
+      public Object get() {
+        return new Object();
+      }
+    };
+    mMemoized = Suppliers.memoize(mSupplier);
+    mMemoized.get();
+  }
+
+  @Benchmark
+  public Object unmemoizedGet() {
+    return mSupplier.get();
+  }
+
+  @Benchmark
+  public Object memoizedGet() {
+    return mMemoized.get();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Object memoizedGetContended() {
+    return mMemoized.get();
+  }
+
+  @Benchmark
+  public Object memoizeAndGet() {
+    return Suppliers.memoize(mSupplier).get();
+  }
+}
@@ -0,0 +1,80 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.benchmarks.InMemorySharedPreferences;
+import com.episode6.hackit.typed.benchmarks.Profile;
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link CachingTypedPrefs} reads, compared with those in {@link TypedPrefsBenchmark},
+ * and the cost of a write that invalidates the cached value
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachingTypedPrefsBenchmark {
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("com.example.benchmark.caching");
+
+  private static final OptPrefKey<Profile> GSON_KEY = NAMESPACE.key(Profile.class)
+      .named("gsonProfile")
+      .buildOptional();
+  private static final OptPrefKey<Profile> BINARY_KEY = NAMESPACE.key(Profile.class)
+      .named("binaryProfile")
+      .binaryCodec(Profile.CODEC)
+      .buildOptional();
+  private static final PrefKey<Integer> INT_KEY = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(0);
+
+  private TypedPrefs mTypedPrefs;
+  private Profile mProfile;
+
+  @Setup
+  public void setUp() {
+    mTypedPrefs = TypedPrefs.Wrap.cachingSharedPrefs(new InMemorySharedPreferences(), new DefaultGsonSupplier());
+    mProfile = Profile.create(4);
+    mTypedPrefs.edit()
+        .put(GSON_KEY, mProfile)
+        .put(BINARY_KEY, mProfile)
+        .put(INT_KEY, 42)
+        .commit();
+  }
+
+  @Benchmark
+  public Profile getGsonProfile() {
+    return mTypedPrefs.get(GSON_KEY);
+  }
+
+  @Benchmark
+  public Profile getBinaryProfile() {
+    return mTypedPrefs.get(BINARY_KEY);
+  }
+
+  @Benchmark
+  public Integer getInt() {
+    return mTypedPrefs.get(INT_KEY);
+  }
+
+  @Benchmark
+  public Profile putThenGetGsonProfile() {
+    mTypedPrefs.edit()
+        .put(GSON_KEY, mProfile)
+        .commit();
+    return mTypedPrefs.get(GSON_KEY);
+  }
+}
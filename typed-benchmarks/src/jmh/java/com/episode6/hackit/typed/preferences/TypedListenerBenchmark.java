@@ -0,0 +1,123 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.benchmarks.InMemorySharedPreferences;
+import com.episode6.hackit.typed.benchmarks.Profile;
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a write to one key observed by many subscribers, dispatched through {@link TypedListener}s
+ * compared with one raw {@link SharedPreferences.OnSharedPreferenceChangeListener} per subscriber
+ * (each comparing the changed key's name and decoding the value itself)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypedListenerBenchmark {
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("com.example.benchmark.listeners");
+  private static final int KEY_COUNT = 50;
+
+  @Param({"1", "4"})
+  public int mListenersPerKey;
+
+  private final List<OptPrefKey<Profile>> mKeys = new ArrayList<>();
+  // android only holds weak references to its listeners
+  private final List<SharedPreferences.OnSharedPreferenceChangeListener> mRawListeners = new ArrayList<>();
+  private TypedPrefs mRawTypedPrefs;
+  private TypedPrefs mTypedPrefs;
+  private Profile mProfile;
+  private Blackhole mBlackhole;
+
+  @Setup
+  public void setUp() {
+    mProfile = Profile.create(4);
+    for (int i = 0; i < KEY_COUNT; i++) {
+      mKeys.add(NAMESPACE.key(Profile.class)
+          .named("profile" + i)
+          .buildOptional());
+    }
+
+    InMemorySharedPreferences rawPrefs = new InMemorySharedPreferences();
+    mRawTypedPrefs = TypedPrefs.Wrap.sharedPrefs(rawPrefs, new DefaultGsonSupplier());
+    for (final OptPrefKey<Profile> key : mKeys) {
+      final String keyName = key.getKeyName().toString();
+      for (int i = 0; i < mListenersPerKey; i++) {
+        SharedPreferences.OnSharedPreferenceChangeListener listener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+              @Override
+              public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key2) {
+                if (keyName.equals(key2)) {
+                  mBlackhole.consume(mRawTypedPrefs.get(key));
+                }
+              }
+            };
+        mRawListeners.add(listener);
+        rawPrefs.registerOnSharedPreferenceChangeListener(listener);
+      }
+    }
+
+    mTypedPrefs = TypedPrefs.Wrap.sharedPrefs(new InMemorySharedPreferences(), new DefaultGsonSupplier());
+    TypedListener<Profile> typedListener = new TypedListener<Profile>() {
+      @Override
+      public void onPrefChanged(AbstractPrefKey<Profile> prefKey, Profile newValue) {
+        mBlackhole.consume(newValue);
+      }
+    };
+    for (OptPrefKey<Profile> key : mKeys) {
+      for (int i = 0; i < mListenersPerKey; i++) {
+        // each subscriber is its own listener instance
+        mTypedPrefs.addListener(key, new ForwardingListener(typedListener));
+      }
+    }
+  }
+
+  @Benchmark
+  public void rawListeners(Blackhole blackhole) {
+    // listeners are called synchronously by the in-memory prefs
+    mBlackhole = blackhole;
+    mRawTypedPrefs.edit()
+        .put(mKeys.get(KEY_COUNT / 2), mProfile)
+        .commit();
+  }
+
+  @Benchmark
+  public void typedListeners(Blackhole blackhole) {
+    mBlackhole = blackhole;
+    mTypedPrefs.edit()
+        .put(mKeys.get(KEY_COUNT / 2), mProfile)
+        .commit();
+  }
+
+  private static class ForwardingListener implements TypedListener<Profile> {
+    private final TypedListener<Profile> mDelegate;
+
+    ForwardingListener(TypedListener<Profile> delegate) {
+      mDelegate = delegate;
+    }
+
+    @Override
+    public void onPrefChanged(AbstractPrefKey<Profile> prefKey, Profile newValue) {
+      mDelegate.onPrefChanged(prefKey, newValue);
+    }
+  }
+}
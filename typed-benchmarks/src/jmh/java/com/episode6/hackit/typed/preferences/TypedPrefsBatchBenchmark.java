@@ -0,0 +1,80 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.benchmarks.InMemorySharedPreferences;
+import com.episode6.hackit.typed.benchmarks.Profile;
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a batch of gson keys one at a time with {@link TypedPrefs#getAll(java.util.Collection)},
+ * with and without a decode executor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypedPrefsBatchBenchmark {
+
+  private static final int KEY_COUNT = 30;
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("com.example.benchmark.batch");
+
+  private final List<OptPrefKey<Profile>> mKeys = new ArrayList<>();
+  private TypedPrefs mTypedPrefs;
+  private ExecutorService mExecutor;
+
+  @Setup
+  public void setUp() {
+    mTypedPrefs = TypedPrefs.Wrap.sharedPrefs(new InMemorySharedPreferences(), new DefaultGsonSupplier());
+    mExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    TypedPrefs.Editor editor = mTypedPrefs.edit();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      OptPrefKey<Profile> key = NAMESPACE.key(Profile.class)
+          .named("profile" + i)
+          .buildOptional();
+      mKeys.add(key);
+      editor.put(key, Profile.create(4));
+    }
+    editor.commit();
+  }
+
+  @TearDown
+  public void tearDown() {
+    mExecutor.shutdown();
+  }
+
+  @Benchmark
+  public void getIndividually(Blackhole blackhole) {
+    for (OptPrefKey<Profile> key : mKeys) {
+      blackhole.consume(mTypedPrefs.get(key));
+    }
+  }
+
+  @Benchmark
+  public TypedPrefsSnapshot getAll() {
+    return mTypedPrefs.getAll(mKeys);
+  }
+
+  @Benchmark
+  public TypedPrefsSnapshot getAllParallel() {
+    return mTypedPrefs.getAll(mKeys, mExecutor);
+  }
+}
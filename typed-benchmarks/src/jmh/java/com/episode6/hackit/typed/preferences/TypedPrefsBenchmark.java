@@ -0,0 +1,158 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.benchmarks.InMemorySharedPreferences;
+import com.episode6.hackit.typed.benchmarks.Profile;
+import com.episode6.hackit.typed.core.codec.TypedCodecs;
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the primitive, gson and codec paths of {@link TypedPrefsImpl}
+ * against an {@link InMemorySharedPreferences}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypedPrefsBenchmark {
+
+  enum Planet {MERCURY, VENUS, EARTH, MARS}
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("com.example.benchmark");
+
+  private static final PrefKey<Integer> INT_KEY = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(0);
+  private static final PrefKey<Integer> MISSING_INT_KEY = NAMESPACE.key(Integer.class)
+      .named("missingInt")
+      .buildWithDefault(0);
+  private static final OptPrefKey<String> STRING_KEY = NAMESPACE.key(String.class)
+      .named("string")
+      .buildOptional();
+  private static final OptPrefKey<Profile> GSON_KEY = NAMESPACE.key(Profile.class)
+      .named("gsonProfile")
+      .buildOptional();
+  private static final OptPrefKey<Profile> BINARY_KEY = NAMESPACE.key(Profile.class)
+      .named("binaryProfile")
+      .binaryCodec(Profile.CODEC)
+      .buildOptional();
+  private static final OptPrefKey<Planet> GSON_ENUM_KEY = NAMESPACE.key(Planet.class)
+      .named("gsonPlanet")
+      .buildOptional();
+  private static final OptPrefKey<Planet> CODEC_ENUM_KEY = NAMESPACE.key(Planet.class)
+      .named("codecPlanet")
+      .codec(TypedCodecs.forEnum(Planet.class))
+      .buildOptional();
+  private static final IntPrefKey PRIMITIVE_INT_KEY = NAMESPACE.intKey("primitiveInt", 0);
+
+  private TypedPrefs mTypedPrefs;
+  private Profile mProfile;
+
+  @Setup
+  public void setUp() {
+    mTypedPrefs = TypedPrefs.Wrap.sharedPrefs(new InMemorySharedPreferences(), new DefaultGsonSupplier());
+    mProfile = Profile.create(4);
+    mTypedPrefs.edit()
+        .put(INT_KEY, 42)
+        .put(STRING_KEY, "some string")
+        .put(GSON_KEY, mProfile)
+        .put(BINARY_KEY, mProfile)
+        .put(GSON_ENUM_KEY, Planet.EARTH)
+        .put(CODEC_ENUM_KEY, Planet.EARTH)
+        .putInt(PRIMITIVE_INT_KEY, 42)
+        .commit();
+  }
+
+  @Benchmark
+  public Integer getInt() {
+    return mTypedPrefs.get(INT_KEY);
+  }
+
+  @Benchmark
+  public Integer getMissingInt() {
+    return mTypedPrefs.get(MISSING_INT_KEY);
+  }
+
+  @Benchmark
+  public int getPrimitiveInt() {
+    return mTypedPrefs.getInt(PRIMITIVE_INT_KEY);
+  }
+
+  @Benchmark
+  public String getString() {
+    return mTypedPrefs.get(STRING_KEY);
+  }
+
+  @Benchmark
+  public boolean contains() {
+    return mTypedPrefs.contains(INT_KEY);
+  }
+
+  @Benchmark
+  public Profile getGsonProfile() {
+    return mTypedPrefs.get(GSON_KEY);
+  }
+
+  @Benchmark
+  public Profile getBinaryProfile() {
+    return mTypedPrefs.get(BINARY_KEY);
+  }
+
+  @Benchmark
+  public Planet getGsonEnum() {
+    return mTypedPrefs.get(GSON_ENUM_KEY);
+  }
+
+  @Benchmark
+  public Planet getCodecEnum() {
+    return mTypedPrefs.get(CODEC_ENUM_KEY);
+  }
+
+  @Benchmark
+  public void putInt() {
+    mTypedPrefs.edit()
+        .put(INT_KEY, 43)
+        .commit();
+  }
+
+  @Benchmark
+  public void putPrimitiveInt() {
+    mTypedPrefs.edit()
+        .putInt(PRIMITIVE_INT_KEY, 43)
+        .commit();
+  }
+
+  @Benchmark
+  public void putGsonProfile() {
+    mTypedPrefs.edit()
+        .put(GSON_KEY, mProfile)
+        .commit();
+  }
+
+  @Benchmark
+  public void putBinaryProfile() {
+    mTypedPrefs.edit()
+        .put(BINARY_KEY, mProfile)
+        .commit();
+  }
+
+  @Benchmark
+  public void putCodecEnum() {
+    mTypedPrefs.edit()
+        .put(CODEC_ENUM_KEY, Planet.MARS)
+        .commit();
+  }
+}
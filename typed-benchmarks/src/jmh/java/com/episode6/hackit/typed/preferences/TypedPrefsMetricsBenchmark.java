@@ -0,0 +1,73 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.benchmarks.InMemorySharedPreferences;
+import com.episode6.hackit.typed.benchmarks.Profile;
+import com.episode6.hackit.typed.core.metrics.Metrics;
+import com.episode6.hackit.typed.core.metrics.MetricsRecorder;
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of {@link Metrics} instrumentation on {@link TypedPrefsImpl},
+ * with and without a {@link MetricsRecorder} installed
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypedPrefsMetricsBenchmark {
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("com.example.metricsBenchmark");
+
+  private static final PrefKey<Integer> INT_KEY = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(0);
+  private static final OptPrefKey<Profile> GSON_KEY = NAMESPACE.key(Profile.class)
+      .named("gsonProfile")
+      .buildOptional();
+
+  @Param({"false", "true"})
+  public boolean recording;
+
+  private TypedPrefs mTypedPrefs;
+
+  @Setup
+  public void setUp() {
+    Metrics.install(recording ? new MetricsRecorder() : null);
+    mTypedPrefs = TypedPrefs.Wrap.sharedPrefs(new InMemorySharedPreferences(), new DefaultGsonSupplier());
+    mTypedPrefs.edit()
+        .put(INT_KEY, 42)
+        .put(GSON_KEY, Profile.create(4))
+        .commit();
+  }
+
+  @TearDown
+  public void tearDown() {
+    Metrics.install(null);
+  }
+
+  @Benchmark
+  public Integer getInt() {
+    return mTypedPrefs.get(INT_KEY);
+  }
+
+  @Benchmark
+  public Profile getGsonProfile() {
+    return mTypedPrefs.get(GSON_KEY);
+  }
+}
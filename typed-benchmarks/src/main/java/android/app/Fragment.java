@@ -0,0 +1,19 @@
+package android.app;
+
+import android.os.Bundle;
+
+/**
+ * Stand-in for android.app.Fragment
+ */
+public class Fragment {
+
+  private Bundle mArguments;
+
+  public void setArguments(Bundle arguments) {
+    mArguments = arguments;
+  }
+
+  public Bundle getArguments() {
+    return mArguments;
+  }
+}
@@ -0,0 +1,11 @@
+package android.content;
+
+/**
+ * Stand-in for android.content.Context
+ */
+public abstract class Context {
+
+  public static final int MODE_PRIVATE = 0;
+
+  public abstract SharedPreferences getSharedPreferences(String name, int mode);
+}
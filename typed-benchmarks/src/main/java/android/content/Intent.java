@@ -0,0 +1,20 @@
+package android.content;
+
+import android.os.Bundle;
+
+/**
+ * Stand-in for android.content.Intent
+ */
+public class Intent {
+
+  private Bundle mExtras;
+
+  public Intent putExtras(Bundle extras) {
+    mExtras = new Bundle(extras);
+    return this;
+  }
+
+  public Bundle getExtras() {
+    return mExtras == null ? null : new Bundle(mExtras);
+  }
+}
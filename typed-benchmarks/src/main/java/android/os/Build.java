@@ -0,0 +1,19 @@
+package android.os;
+
+/**
+ * Stand-in for android.os.Build, reports Lollipop so every bundle translator is reachable
+ */
+public class Build {
+
+  public static class VERSION {
+    public static final int SDK_INT = VERSION_CODES.LOLLIPOP;
+  }
+
+  public static class VERSION_CODES {
+    public static final int FROYO = 8;
+    public static final int GINGERBREAD = 9;
+    public static final int HONEYCOMB = 11;
+    public static final int JELLY_BEAN_MR2 = 18;
+    public static final int LOLLIPOP = 21;
+  }
+}
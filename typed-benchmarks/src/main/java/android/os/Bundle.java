@@ -0,0 +1,373 @@
+package android.os;
+
+import android.util.Size;
+import android.util.SizeF;
+import android.util.SparseArray;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory stand-in for android.os.Bundle so the bundle code paths can be benchmarked on a
+ * plain JVM. Values are held in a HashMap and, like the real thing, typed getters return the
+ * default value when a key is missing or holds a different type.
+ */
+public final class Bundle {
+
+  private final Map<String, Object> mMap;
+
+  public Bundle() {
+    mMap = new HashMap<>();
+  }
+
+  public Bundle(Bundle bundle) {
+    mMap = new HashMap<>(bundle.mMap);
+  }
+
+  public int size() {
+    return mMap.size();
+  }
+
+  public boolean isEmpty() {
+    return mMap.isEmpty();
+  }
+
+  public void clear() {
+    mMap.clear();
+  }
+
+  public boolean containsKey(String key) {
+    return mMap.containsKey(key);
+  }
+
+  public Object get(String key) {
+    return mMap.get(key);
+  }
+
+  public void remove(String key) {
+    mMap.remove(key);
+  }
+
+  public void putAll(Bundle bundle) {
+    mMap.putAll(bundle.mMap);
+  }
+
+  public Set<String> keySet() {
+    return mMap.keySet();
+  }
+
+  public boolean getBoolean(String key) {
+    return getBoolean(key, false);
+  }
+
+  public boolean getBoolean(String key, boolean defaultValue) {
+    Object value = mMap.get(key);
+    return value instanceof Boolean ? (Boolean) value : defaultValue;
+  }
+
+  public void putBoolean(String key, boolean value) {
+    mMap.put(key, value);
+  }
+
+  public boolean[] getBooleanArray(String key) {
+    return typed(key, boolean[].class);
+  }
+
+  public void putBooleanArray(String key, boolean[] value) {
+    mMap.put(key, value);
+  }
+
+  public int getInt(String key) {
+    return getInt(key, 0);
+  }
+
+  public int getInt(String key, int defaultValue) {
+    Object value = mMap.get(key);
+    return value instanceof Integer ? (Integer) value : defaultValue;
+  }
+
+  public void putInt(String key, int value) {
+    mMap.put(key, value);
+  }
+
+  public int[] getIntArray(String key) {
+    return typed(key, int[].class);
+  }
+
+  public void putIntArray(String key, int[] value) {
+    mMap.put(key, value);
+  }
+
+  public long getLong(String key) {
+    return getLong(key, 0L);
+  }
+
+  public long getLong(String key, long defaultValue) {
+    Object value = mMap.get(key);
+    return value instanceof Long ? (Long) value : defaultValue;
+  }
+
+  public void putLong(String key, long value) {
+    mMap.put(key, value);
+  }
+
+  public long[] getLongArray(String key) {
+    return typed(key, long[].class);
+  }
+
+  public void putLongArray(String key, long[] value) {
+    mMap.put(key, value);
+  }
+
+  public float getFloat(String key) {
+    return getFloat(key, 0f);
+  }
+
+  public float getFloat(String key, float defaultValue) {
+    Object value = mMap.get(key);
+    return value instanceof Float ? (Float) value : defaultValue;
+  }
+
+  public void putFloat(String key, float value) {
+    mMap.put(key, value);
+  }
+
+  public float[] getFloatArray(String key) {
+    return typed(key, float[].class);
+  }
+
+  public void putFloatArray(String key, float[] value) {
+    mMap.put(key, value);
+  }
+
+  public double getDouble(String key) {
+    return getDouble(key, 0d);
+  }
+
+  public double getDouble(String key, double defaultValue) {
+    Object value = mMap.get(key);
+    return value instanceof Double ? (Double) value : defaultValue;
+  }
+
+  public void putDouble(String key, double value) {
+    mMap.put(key, value);
+  }
+
+  public double[] getDoubleArray(String key) {
+    return typed(key, double[].class);
+  }
+
+  public void putDoubleArray(String key, double[] value) {
+    mMap.put(key, value);
+  }
+
+  public short getShort(String key) {
+    return getShort(key, (short) 0);
+  }
+
+  public short getShort(String key, short defaultValue) {
+    Object value = mMap.get(key);
+    return value instanceof Short ? (Short) value : defaultValue;
+  }
+
+  public void putShort(String key, short value) {
+    mMap.put(key, value);
+  }
+
+  public short[] getShortArray(String key) {
+    return typed(key, short[].class);
+  }
+
+  public void putShortArray(String key, short[] value) {
+    mMap.put(key, value);
+  }
+
+  public char getChar(String key) {
+    return getChar(key, (char) 0);
+  }
+
+  public char getChar(String key, char defaultValue) {
+    Object value = mMap.get(key);
+    return value instanceof Character ? (Character) value : defaultValue;
+  }
+
+  public void putChar(String key, char value) {
+    mMap.put(key, value);
+  }
+
+  public char[] getCharArray(String key) {
+    return typed(key, char[].class);
+  }
+
+  public void putCharArray(String key, char[] value) {
+    mMap.put(key, value);
+  }
+
+  public byte getByte(String key) {
+    return getByte(key, (byte) 0);
+  }
+
+  public byte getByte(String key, byte defaultValue) {
+    Object value = mMap.get(key);
+    return value instanceof Byte ? (Byte) value : defaultValue;
+  }
+
+  public void putByte(String key, byte value) {
+    mMap.put(key, value);
+  }
+
+  public byte[] getByteArray(String key) {
+    return typed(key, byte[].class);
+  }
+
+  public void putByteArray(String key, byte[] value) {
+    mMap.put(key, value);
+  }
+
+  public String getString(String key) {
+    return typed(key, String.class);
+  }
+
+  public void putString(String key, String value) {
+    mMap.put(key, value);
+  }
+
+  public String[] getStringArray(String key) {
+    return typed(key, String[].class);
+  }
+
+  public void putStringArray(String key, String[] value) {
+    mMap.put(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public ArrayList<String> getStringArrayList(String key) {
+    return (ArrayList<String>) typed(key, ArrayList.class);
+  }
+
+  public void putStringArrayList(String key, ArrayList<String> value) {
+    mMap.put(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public ArrayList<Integer> getIntegerArrayList(String key) {
+    return (ArrayList<Integer>) typed(key, ArrayList.class);
+  }
+
+  public void putIntegerArrayList(String key, ArrayList<Integer> value) {
+    mMap.put(key, value);
+  }
+
+  public CharSequence getCharSequence(String key) {
+    return typed(key, CharSequence.class);
+  }
+
+  public void putCharSequence(String key, CharSequence value) {
+    mMap.put(key, value);
+  }
+
+  public CharSequence[] getCharSequenceArray(String key) {
+    return typed(key, CharSequence[].class);
+  }
+
+  public void putCharSequenceArray(String key, CharSequence[] value) {
+    mMap.put(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public ArrayList<CharSequence> getCharSequenceArrayList(String key) {
+    return (ArrayList<CharSequence>) typed(key, ArrayList.class);
+  }
+
+  public void putCharSequenceArrayList(String key, ArrayList<CharSequence> value) {
+    mMap.put(key, value);
+  }
+
+  public Bundle getBundle(String key) {
+    return typed(key, Bundle.class);
+  }
+
+  public void putBundle(String key, Bundle value) {
+    mMap.put(key, value);
+  }
+
+  public Parcelable[] getParcelableArray(String key) {
+    return typed(key, Parcelable[].class);
+  }
+
+  public void putParcelableArray(String key, Parcelable[] value) {
+    mMap.put(key, value);
+  }
+
+  public Serializable getSerializable(String key) {
+    return typed(key, Serializable.class);
+  }
+
+  public void putSerializable(String key, Serializable value) {
+    mMap.put(key, value);
+  }
+
+  public IBinder getBinder(String key) {
+    return typed(key, IBinder.class);
+  }
+
+  public void putBinder(String key, IBinder value) {
+    mMap.put(key, value);
+  }
+
+  public Size getSize(String key) {
+    return typed(key, Size.class);
+  }
+
+  public void putSize(String key, Size value) {
+    mMap.put(key, value);
+  }
+
+  public SizeF getSizeF(String key) {
+    return typed(key, SizeF.class);
+  }
+
+  public void putSizeF(String key, SizeF value) {
+    mMap.put(key, value);
+  }
+
+  public String getString(String key, String defaultValue) {
+    String value = getString(key);
+    return value == null ? defaultValue : value;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Parcelable> T getParcelable(String key) {
+    return (T) typed(key, Parcelable.class);
+  }
+
+  public void putParcelable(String key, Parcelable value) {
+    mMap.put(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Parcelable> ArrayList<T> getParcelableArrayList(String key) {
+    return typed(key, ArrayList.class);
+  }
+
+  public void putParcelableArrayList(String key, ArrayList<? extends Parcelable> value) {
+    mMap.put(key, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Parcelable> SparseArray<T> getSparseParcelableArray(String key) {
+    return typed(key, SparseArray.class);
+  }
+
+  public void putSparseParcelableArray(String key, SparseArray<? extends Parcelable> value) {
+    mMap.put(key, value);
+  }
+
+  private <T> T typed(String key, Class<T> type) {
+    Object value = mMap.get(key);
+    return type.isInstance(value) ? type.cast(value) : null;
+  }
+}
@@ -0,0 +1,33 @@
+package android.os;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for android.os.Handler, every Handler posts to a single daemon thread that plays the main thread
+ */
+public class Handler {
+
+  private static final ScheduledExecutorService sMainThread = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "main");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  public Handler(Looper looper) {}
+
+  public final boolean post(Runnable runnable) {
+    return postDelayed(runnable, 0);
+  }
+
+  public final boolean postDelayed(Runnable runnable, long delayMillis) {
+    sMainThread.schedule(runnable, delayMillis, TimeUnit.MILLISECONDS);
+    return true;
+  }
+}
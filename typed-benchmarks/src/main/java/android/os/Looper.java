@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * Stand-in for android.os.Looper, there is only a main looper (see {@link Handler})
+ */
+public final class Looper {
+
+  private static final Looper sMainLooper = new Looper();
+
+  private Looper() {}
+
+  public static Looper getMainLooper() {
+    return sMainLooper;
+  }
+}
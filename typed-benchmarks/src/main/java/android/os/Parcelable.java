@@ -0,0 +1,6 @@
+package android.os;
+
+/**
+ * Stand-in for android.os.Parcelable
+ */
+public interface Parcelable {}
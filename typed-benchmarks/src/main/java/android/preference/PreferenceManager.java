@@ -0,0 +1,14 @@
+package android.preference;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Stand-in for android.preference.PreferenceManager
+ */
+public class PreferenceManager {
+
+  public static SharedPreferences getDefaultSharedPreferences(Context context) {
+    return context.getSharedPreferences("default", Context.MODE_PRIVATE);
+  }
+}
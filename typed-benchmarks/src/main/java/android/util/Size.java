@@ -0,0 +1,23 @@
+package android.util;
+
+/**
+ * Stand-in for android.util.Size
+ */
+public final class Size {
+
+  private final int mWidth;
+  private final int mHeight;
+
+  public Size(int width, int height) {
+    mWidth = width;
+    mHeight = height;
+  }
+
+  public int getWidth() {
+    return mWidth;
+  }
+
+  public int getHeight() {
+    return mHeight;
+  }
+}
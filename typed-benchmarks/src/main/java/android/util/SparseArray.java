@@ -0,0 +1,23 @@
+package android.util;
+
+import java.util.TreeMap;
+
+/**
+ * Stand-in for android.util.SparseArray
+ */
+public class SparseArray<E> {
+
+  private final TreeMap<Integer, E> mMap = new TreeMap<>();
+
+  public E get(int key) {
+    return mMap.get(key);
+  }
+
+  public void put(int key, E value) {
+    mMap.put(key, value);
+  }
+
+  public int size() {
+    return mMap.size();
+  }
+}
@@ -0,0 +1,184 @@
+package com.episode6.hackit.typed.benchmarks;
+
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory implementation of {@link SharedPreferences} with the same semantics as the android
+ * one (edits are buffered until commit/apply, clear() is applied before any puts, typed getters
+ * throw ClassCastException on a type mismatch) minus the disk writes. Apply is synchronous.
+ */
+public class InMemorySharedPreferences implements SharedPreferences {
+
+  private final Map<String, Object> mMap = new HashMap<>();
+  private final List<OnSharedPreferenceChangeListener> mListeners = new ArrayList<>();
+
+  @Override
+  public synchronized Map<String, ?> getAll() {
+    return new HashMap<>(mMap);
+  }
+
+  @Override
+  public String getString(String key, String defValue) {
+    String value = (String) getValue(key);
+    return value == null ? defValue : value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Set<String> getStringSet(String key, Set<String> defValues) {
+    Set<String> value = (Set<String>) getValue(key);
+    return value == null ? defValues : value;
+  }
+
+  @Override
+  public int getInt(String key, int defValue) {
+    Integer value = (Integer) getValue(key);
+    return value == null ? defValue : value;
+  }
+
+  @Override
+  public long getLong(String key, long defValue) {
+    Long value = (Long) getValue(key);
+    return value == null ? defValue : value;
+  }
+
+  @Override
+  public float getFloat(String key, float defValue) {
+    Float value = (Float) getValue(key);
+    return value == null ? defValue : value;
+  }
+
+  @Override
+  public boolean getBoolean(String key, boolean defValue) {
+    Boolean value = (Boolean) getValue(key);
+    return value == null ? defValue : value;
+  }
+
+  @Override
+  public synchronized boolean contains(String key) {
+    return mMap.containsKey(key);
+  }
+
+  @Override
+  public Editor edit() {
+    return new EditorImpl();
+  }
+
+  @Override
+  public synchronized void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    mListeners.add(listener);
+  }
+
+  @Override
+  public synchronized void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    mListeners.remove(listener);
+  }
+
+  private synchronized Object getValue(String key) {
+    return mMap.get(key);
+  }
+
+  private void commitEdits(boolean clear, Map<String, Object> modified) {
+    List<OnSharedPreferenceChangeListener> listeners;
+    synchronized (this) {
+      if (clear) {
+        mMap.clear();
+      }
+      for (Map.Entry<String, Object> entry : modified.entrySet()) {
+        // the editor itself is used as a marker for removals
+        if (entry.getValue() == null || entry.getValue() instanceof EditorImpl) {
+          mMap.remove(entry.getKey());
+        } else {
+          mMap.put(entry.getKey(), entry.getValue());
+        }
+      }
+      if (mListeners.isEmpty()) {
+        return;
+      }
+      listeners = new ArrayList<>(mListeners);
+    }
+    for (String key : modified.keySet()) {
+      for (OnSharedPreferenceChangeListener listener : listeners) {
+        listener.onSharedPreferenceChanged(this, key);
+      }
+    }
+  }
+
+  private class EditorImpl implements Editor {
+
+    private final Map<String, Object> mModified = new HashMap<>();
+    private boolean mClear = false;
+
+    @Override
+    public Editor putString(String key, String value) {
+      return putValue(key, value);
+    }
+
+    @Override
+    public Editor putStringSet(String key, Set<String> values) {
+      return putValue(key, values == null ? null : new HashSet<>(values));
+    }
+
+    @Override
+    public Editor putInt(String key, int value) {
+      return putValue(key, value);
+    }
+
+    @Override
+    public Editor putLong(String key, long value) {
+      return putValue(key, value);
+    }
+
+    @Override
+    public Editor putFloat(String key, float value) {
+      return putValue(key, value);
+    }
+
+    @Override
+    public Editor putBoolean(String key, boolean value) {
+      return putValue(key, value);
+    }
+
+    @Override
+    public synchronized Editor remove(String key) {
+      return putValue(key, this);
+    }
+
+    @Override
+    public synchronized Editor clear() {
+      mClear = true;
+      return this;
+    }
+
+    @Override
+    public boolean commit() {
+      Map<String, Object> modified;
+      boolean clear;
+      synchronized (this) {
+        modified = new HashMap<>(mModified);
+        clear = mClear;
+        mModified.clear();
+        mClear = false;
+      }
+      commitEdits(clear, modified);
+      return true;
+    }
+
+    @Override
+    public void apply() {
+      commit();
+    }
+
+    private synchronized Editor putValue(String key, Object value) {
+      mModified.put(key, value);
+      return this;
+    }
+  }
+}
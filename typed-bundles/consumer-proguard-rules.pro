@@ -0,0 +1,8 @@
+# Generated gson TypeAdapters are looked up by name (see GeneratedTypeAdapters), so keep the
+# names of annotated classes, the annotation itself and the adapters' (Gson) constructors.
+-keepattributes RuntimeVisibleAnnotations
+-keep @interface com.episode6.hackit.typed.core.adapters.GenerateTypeAdapter
+-keepnames @com.episode6.hackit.typed.core.adapters.GenerateTypeAdapter class *
+-keep class **_TypeAdapter extends com.google.gson.TypeAdapter {
+  public <init>(com.google.gson.Gson);
+}
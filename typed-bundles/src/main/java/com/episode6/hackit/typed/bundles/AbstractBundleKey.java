@@ -1,7 +1,15 @@
 package com.episode6.hackit.typed.bundles;
 
+import android.os.Bundle;
 import com.episode6.hackit.typed.core.TypedKey;
 import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.GsonAdapterCache;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Versioning;
+import com.episode6.hackit.typed.core.metrics.TypedMetrics;
+import com.episode6.hackit.typed.core.util.Supplier;
+import com.google.gson.Gson;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.Type;
@@ -13,15 +21,28 @@ public abstract class AbstractBundleKey<V> implements TypedKey<V> {
 
   private final TypedKeyName mKeyName;
   private final Type mObjectType;
+  private final int mHashCode;
   private final @Nullable BundleTranslator mTranslator;
+  private final @Nullable TypedCodec<V> mCodec;
+  private final @Nullable Compression mCompression;
+  private final @Nullable Versioning mVersioning;
+  private final GsonAdapterCache<V> mAdapterCache;
 
   public AbstractBundleKey(
       TypedKeyName keyName,
       Type objectType,
-      @Nullable BundleTranslator translator) {
+      @Nullable BundleTranslator translator,
+      @Nullable TypedCodec<V> codec,
+      @Nullable Compression compression,
+      @Nullable Versioning versioning) {
     mKeyName = keyName;
     mObjectType = objectType;
+    mHashCode = 31 * keyName.hashCode() + objectType.hashCode();
     mTranslator = translator;
+    mCodec = codec;
+    mCompression = compression;
+    mVersioning = versioning;
+    mAdapterCache = new GsonAdapterCache<>(objectType);
   }
 
   @Override
@@ -38,6 +59,103 @@ public abstract class AbstractBundleKey<V> implements TypedKey<V> {
     return mTranslator;
   }
 
+  /**
+   * Read this key's value from a bundle, for keys that don't have a translator (i.e. values stored
+   * as encoded Strings, or compressed byte arrays if this key is compressed). If this key is versioned
+   * and the stored value is from an older schema version, the migrated value is written back to the bundle.
+   */
+  @Nullable V readEncoded(
+      Bundle bundle,
+      String keyName,
+      Supplier<Gson> gsonSupplier,
+      @Nullable TypedMetrics metrics) {
+    final Object stored = mCompression == null ? bundle.getString(keyName) : bundle.get(keyName);
+    if (stored == null) {
+      return null;
+    }
+    final long startNanos = metrics == null ? 0 : System.nanoTime();
+    final int storedSize;
+    String encoded;
+    if (stored instanceof byte[]) {
+      encoded = mCompression.decompressToString((byte[]) stored);
+      storedSize = ((byte[]) stored).length;
+    } else {
+      encoded = (String) stored;
+      storedSize = encoded.length();
+    }
+    if (mVersioning != null) {
+      boolean current = mVersioning.isCurrent(encoded);
+      encoded = mVersioning.unwrap(encoded);
+      if (!current) {
+        writeStored(bundle, keyName, mVersioning.wrap(encoded));
+      }
+    }
+    final V instance = decode(encoded, gsonSupplier);
+    if (metrics != null) {
+      metrics.onDecode(this, System.nanoTime() - startNanos, storedSize);
+    }
+    return instance;
+  }
+
+  /**
+   * Write this key's value to a bundle, for keys that don't have a translator
+   */
+  void writeEncoded(
+      Bundle bundle,
+      String keyName,
+      V instance,
+      Supplier<Gson> gsonSupplier,
+      @Nullable TypedMetrics metrics) {
+    final long startNanos = metrics == null ? 0 : System.nanoTime();
+    String encoded = encode(instance, gsonSupplier);
+    if (mVersioning != null) {
+      encoded = mVersioning.wrap(encoded);
+    }
+    final int storedSize = writeStored(bundle, keyName, encoded);
+    if (metrics != null) {
+      metrics.onEncode(this, System.nanoTime() - startNanos, storedSize);
+    }
+  }
+
+  /**
+   * Copy this key's stored value between bundles without decoding it, for keys that don't have a translator
+   */
+  void copyEncoded(Bundle source, Bundle destination, String keyName) {
+    if (mCompression != null) {
+      Object stored = source.get(keyName);
+      if (stored instanceof byte[]) {
+        destination.putByteArray(keyName, (byte[]) stored);
+        return;
+      }
+    }
+    destination.putString(keyName, source.getString(keyName));
+  }
+
+  // returns the size of the stored value
+  private int writeStored(Bundle bundle, String keyName, String encoded) {
+    if (mCompression != null && mCompression.shouldCompress(encoded)) {
+      byte[] compressed = mCompression.compressToBytes(encoded);
+      bundle.putByteArray(keyName, compressed);
+      return compressed.length;
+    }
+    bundle.putString(keyName, encoded);
+    return encoded.length();
+  }
+
+  private @Nullable V decode(String encoded, Supplier<Gson> gsonSupplier) {
+    if (mCodec != null) {
+      return mCodec.decode(encoded);
+    }
+    return mAdapterCache.fromJson(gsonSupplier.get(), encoded);
+  }
+
+  private String encode(V instance, Supplier<Gson> gsonSupplier) {
+    if (mCodec != null) {
+      return mCodec.encode(instance);
+    }
+    return mAdapterCache.toJson(gsonSupplier.get(), instance);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -52,13 +170,11 @@ public abstract class AbstractBundleKey<V> implements TypedKey<V> {
     if (!mKeyName.equals(that.mKeyName)) {
       return false;
     }
-    return mObjectType.equals(that.mObjectType);
+    return mObjectType == that.mObjectType || mObjectType.equals(that.mObjectType);
   }
 
   @Override
   public int hashCode() {
-    int result = mKeyName.hashCode();
-    result = 31 * result + mObjectType.hashCode();
-    return result;
+    return mHashCode;
   }
 }
@@ -1,6 +1,9 @@
 package com.episode6.hackit.typed.bundles;
 
 import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Versioning;
 import com.episode6.hackit.typed.core.util.Supplier;
 
 import javax.annotation.Nullable;
@@ -17,8 +20,11 @@ public final class BundleKey<V> extends AbstractBundleKey<V> {
       TypedKeyName keyName,
       Type objectType,
       @Nullable BundleTranslator translator,
+      @Nullable TypedCodec<V> codec,
+      @Nullable Compression compression,
+      @Nullable Versioning versioning,
       Supplier<V> defaultValueSupplier) {
-    super(keyName, objectType, translator);
+    super(keyName, objectType, translator, codec, compression, versioning);
     mDefaultValueSupplier = defaultValueSupplier;
   }
 
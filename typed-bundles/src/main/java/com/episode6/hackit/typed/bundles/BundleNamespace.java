@@ -5,11 +5,19 @@ import android.os.Build;
 import android.os.IBinder;
 import android.os.Parcelable;
 import android.util.SparseArray;
-import com.episode6.hackit.typed.core.TypedKeyName;
 import com.episode6.hackit.typed.core.TypedKeyNamespace;
+import com.episode6.hackit.typed.core.TypedKeyRegistry;
+import com.episode6.hackit.typed.core.codec.BinaryCodec;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.codec.TypedCodecs;
+import com.episode6.hackit.typed.core.migration.Migration;
+import com.episode6.hackit.typed.core.migration.Versioning;
+import com.episode6.hackit.typed.core.util.Copier;
 import com.episode6.hackit.typed.core.util.InstanceSupplier;
 import com.episode6.hackit.typed.core.util.Preconditions;
 import com.episode6.hackit.typed.core.util.Supplier;
+import com.episode6.hackit.typed.core.util.Suppliers;
 import com.google.gson.reflect.TypeToken;
 
 import javax.annotation.Nullable;
@@ -17,6 +25,8 @@ import java.io.Serializable;
 import java.lang.reflect.Type;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A namespace under which all {@link BundleKey}s, {@link OptBundleKey}s and {@link ReqBundleKey}s exist.
@@ -307,6 +317,11 @@ public class BundleNamespace extends TypedKeyNamespace {
     private final @Nullable BundleTranslator mTranslator;
 
     private @Nullable String mName;
+    private @Nullable TypedCodec<V> mCodec;
+    private @Nullable BinaryCodec<V> mBinaryCodec;
+    private @Nullable Integer mCompressionThreshold;
+    private @Nullable Integer mSchemaVersion;
+    private final Map<Integer, Migration> mMigrations = new HashMap<>();
 
     private KeyBuilder(
         BundleNamespace namespace,
@@ -327,6 +342,78 @@ public class BundleNamespace extends TypedKeyNamespace {
       return this;
     }
 
+    /**
+     * Define a custom codec to translate this key's values to/from the String they are stored as.
+     * Setting a codec overrides any direct or custom translation this key would otherwise use, and
+     * replaces gson translation for all other types.
+     * @param codec The codec to use for this key
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> codec(TypedCodec<V> codec) {
+      mCodec = Preconditions.checkNotNull(codec);
+      mBinaryCodec = null;
+      return this;
+    }
+
+    /**
+     * Define a binary codec to translate this key's values (i.e. a
+     * {@link com.episode6.hackit.typed.core.codec.TaggedBinaryCodec}). Values are stored as byte arrays
+     * (using Bundle.getByteArray/putByteArray), overriding any other translation this key would use.
+     * @param binaryCodec The binary codec to use for this key
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> binaryCodec(BinaryCodec<V> binaryCodec) {
+      mBinaryCodec = Preconditions.checkNotNull(binaryCodec);
+      mCodec = null;
+      return this;
+    }
+
+    /**
+     * Deflate compress this key's values when their encoded form is larger than
+     * {@link Compression#DEFAULT_THRESHOLD}. Only supported for gson translated keys and keys with
+     * a codec or binary codec. Compressed values are stored as byte arrays.
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> compressed() {
+      return compressed(Compression.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Deflate compress this key's values when their encoded form is larger than the given threshold.
+     * Only supported for gson translated keys and keys with a codec or binary codec. Compressed values
+     * are stored as byte arrays.
+     * @param threshold The encoded size (in chars, or bytes for binary codecs) above which values are compressed
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> compressed(int threshold) {
+      mCompressionThreshold = threshold;
+      return this;
+    }
+
+    /**
+     * Tag this key's stored values with a schema version. Values stored with an older version
+     * (or before this key was versioned, i.e. version 0) are migrated lazily, the first time they
+     * are read, using the migrations added via {@link #migration(int, Migration)}.
+     * Only supported for gson translated keys and keys with a codec.
+     * @param version The current schema version of this key's values, must be at least 1
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> version(int version) {
+      mSchemaVersion = version;
+      return this;
+    }
+
+    /**
+     * Add a migration to this key's chain of migrations. Requires a {@link #version(int)}.
+     * @param fromVersion The schema version this migration migrates from (it migrates to fromVersion + 1)
+     * @param migration The migration
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> migration(int fromVersion, Migration migration) {
+      mMigrations.put(fromVersion, Preconditions.checkNotNull(migration));
+      return this;
+    }
+
     /**
      * Build a {@link BundleKey} with a default value.
      *
@@ -344,16 +431,45 @@ public class BundleNamespace extends TypedKeyNamespace {
     /**
      * Build a {@link BundleKey} with a default value.
      *
-     * @param defaultInstanceSupplier A supplier for the instance to provide as a default.
+     * @param defaultInstanceSupplier A supplier for the instance to provide as a default. It is called every
+     *                                time the unset key is read, see {@link #buildWithMemoizedDefault(Supplier)}
+     *                                and {@link #buildWithDefault(Supplier, Copier)} for cheaper alternatives.
      * @return The new {@link BundleKey}
      */
     public BundleKey<V> buildWithDefault(Supplier<V> defaultInstanceSupplier) {
       Preconditions.checkNotNull(defaultInstanceSupplier);
-      return new BundleKey<V>(
-          new TypedKeyName(mNamespace, mName),
+      return TypedKeyRegistry.registerKey(new BundleKey<V>(
+          TypedKeyRegistry.keyName(mNamespace, mName),
           mObjectType,
-          mTranslator,
-          defaultInstanceSupplier);
+          getTranslator(),
+          mCodec,
+          getCompression(),
+          getVersioning(),
+          defaultInstanceSupplier));
+    }
+
+    /**
+     * Build a {@link BundleKey} whose default value is built once, the first time it's needed, and
+     * shared by every read of the unset key. Only use this method if the default value is never modified.
+     *
+     * @param defaultInstanceSupplier A supplier for the instance to provide as a default, it will only be called once.
+     * @return The new {@link BundleKey}
+     */
+    public BundleKey<V> buildWithMemoizedDefault(Supplier<V> defaultInstanceSupplier) {
+      return buildWithDefault(Suppliers.memoize(defaultInstanceSupplier));
+    }
+
+    /**
+     * Build a {@link BundleKey} whose default value is built once, and then copied for every read
+     * of the unset key. Use this method for mutable defaults that are cheaper to copy than to build.
+     *
+     * @param prototypeSupplier A supplier for the instance to provide as a default, it will only be called once.
+     * @param copier Copies the instance returned by prototypeSupplier.
+     * @return The new {@link BundleKey}
+     */
+    public BundleKey<V> buildWithDefault(Supplier<V> prototypeSupplier, Copier<V> copier) {
+      Preconditions.checkNotNull(prototypeSupplier);
+      return buildWithDefault(Suppliers.copyOnRead(prototypeSupplier, copier));
     }
 
     /**
@@ -363,10 +479,13 @@ public class BundleNamespace extends TypedKeyNamespace {
      * @return The new {@link ReqBundleKey}
      */
     public ReqBundleKey<V> buildRequired() {
-      return new ReqBundleKey<V>(
-          new TypedKeyName(mNamespace, mName),
+      return TypedKeyRegistry.registerKey(new ReqBundleKey<V>(
+          TypedKeyRegistry.keyName(mNamespace, mName),
           mObjectType,
-          mTranslator);
+          getTranslator(),
+          mCodec,
+          getCompression(),
+          getVersioning()));
     }
 
     /**
@@ -375,10 +494,48 @@ public class BundleNamespace extends TypedKeyNamespace {
      * @return The new {@link OptBundleKey}
      */
     public OptBundleKey<V> buildOptional() {
-      return new OptBundleKey<V>(
-          new TypedKeyName(mNamespace, mName),
+      return TypedKeyRegistry.registerKey(new OptBundleKey<V>(
+          TypedKeyRegistry.keyName(mNamespace, mName),
           mObjectType,
-          mTranslator);
+          getTranslator(),
+          mCodec,
+          getCompression(),
+          getVersioning()));
+    }
+
+    private @Nullable BundleTranslator getTranslator() {
+      if (mBinaryCodec != null) {
+        return CustomBundleTranslators.binary(mCompressionThreshold == null ?
+            mBinaryCodec :
+            TypedCodecs.compressed(mBinaryCodec, mCompressionThreshold));
+      }
+      if (mCodec != null) {
+        return null;
+      }
+      if (mTranslator != null && mCompressionThreshold != null) {
+        throw new IllegalStateException("Cannot compress directly translated key " + mName + " of type " + mObjectType);
+      }
+      return mTranslator;
+    }
+
+    private @Nullable Compression getCompression() {
+      if (mCompressionThreshold == null || mBinaryCodec != null) {
+        return null;
+      }
+      return new Compression(mCompressionThreshold);
+    }
+
+    private @Nullable Versioning getVersioning() {
+      if (mSchemaVersion == null) {
+        if (!mMigrations.isEmpty()) {
+          throw new IllegalStateException("Key " + mName + " has migrations but no schema version");
+        }
+        return null;
+      }
+      if (getTranslator() != null) {
+        throw new IllegalStateException("Cannot version translated key " + mName + " of type " + mObjectType);
+      }
+      return new Versioning(mSchemaVersion, mMigrations);
     }
   }
 
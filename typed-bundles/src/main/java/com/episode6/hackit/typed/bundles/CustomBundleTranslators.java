@@ -6,6 +6,7 @@ import android.os.Bundle;
 import android.os.IBinder;
 import android.os.Parcelable;
 import android.util.SparseArray;
+import com.episode6.hackit.typed.core.codec.BinaryCodec;
 
 import java.io.Serializable;
 import java.nio.ByteBuffer;
@@ -333,4 +334,19 @@ public class CustomBundleTranslators {
       b.putCharSequenceArrayList(keyName, (ArrayList<CharSequence>) instance);
     }
   };
+
+  static <V> BundleTranslator binary(final BinaryCodec<V> binaryCodec) {
+    return new BundleTranslator() {
+      @Override
+      public Object getFromBundle(Bundle b, String keyName) {
+        byte[] bytes = b.getByteArray(keyName);
+        return bytes == null ? null : binaryCodec.decode(bytes);
+      }
+
+      @Override
+      public void writeToBundle(Bundle b, String keyName, Object instance) {
+        b.putByteArray(keyName, binaryCodec.encode((V) instance));
+      }
+    };
+  }
 }
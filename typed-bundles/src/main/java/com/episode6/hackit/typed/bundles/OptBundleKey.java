@@ -1,6 +1,9 @@
 package com.episode6.hackit.typed.bundles;
 
 import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Versioning;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.Type;
@@ -10,7 +13,13 @@ import java.lang.reflect.Type;
  */
 public final class OptBundleKey<V> extends AbstractBundleKey<V> {
 
-  OptBundleKey(TypedKeyName keyName, Type objectType, @Nullable BundleTranslator translator) {
-    super(keyName, objectType, translator);
+  OptBundleKey(
+      TypedKeyName keyName,
+      Type objectType,
+      @Nullable BundleTranslator translator,
+      @Nullable TypedCodec<V> codec,
+      @Nullable Compression compression,
+      @Nullable Versioning versioning) {
+    super(keyName, objectType, translator, codec, compression, versioning);
   }
 }
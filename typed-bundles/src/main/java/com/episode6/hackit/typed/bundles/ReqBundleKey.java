@@ -1,6 +1,9 @@
 package com.episode6.hackit.typed.bundles;
 
 import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Versioning;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.Type;
@@ -13,7 +16,10 @@ public final class ReqBundleKey<V> extends AbstractBundleKey<V> {
   ReqBundleKey(
       TypedKeyName keyName,
       Type objectType,
-      @Nullable BundleTranslator translator) {
-    super(keyName, objectType, translator);
+      @Nullable BundleTranslator translator,
+      @Nullable TypedCodec<V> codec,
+      @Nullable Compression compression,
+      @Nullable Versioning versioning) {
+    super(keyName, objectType, translator, codec, compression, versioning);
   }
 }
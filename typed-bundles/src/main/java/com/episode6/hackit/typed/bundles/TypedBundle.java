@@ -146,6 +146,34 @@ public interface TypedBundle {
    */
   <T> TypedBundle remove(OptBundleKey<?> key);
 
+  /**
+   * Remove every key registered under the given namespace (and its sub-namespaces) from the underlying bundle.
+   * Keys are registered when they're built, so values of keys whose declaring classes haven't been loaded
+   * yet are left alone (the same goes for {@link #putAll(TypedBundle, BundleNamespace)} and
+   * {@link #snapshot(BundleNamespace)}).
+   * @param namespace the namespace to remove
+   * @return this {@link TypedBundle} (for chaining)
+   */
+  TypedBundle remove(BundleNamespace namespace);
+
+  /**
+   * Copy the values of every key registered under the given namespace (and its sub-namespaces)
+   * from the source bundle into this one. Values are copied as they are stored, without being
+   * deserialized.
+   * @param source the {@link TypedBundle} to copy values from
+   * @param namespace the namespace to copy
+   * @return this {@link TypedBundle} (for chaining)
+   */
+  TypedBundle putAll(TypedBundle source, BundleNamespace namespace);
+
+  /**
+   * Create a new {@link TypedBundle} containing a copy of only the values registered under the given
+   * namespace (and its sub-namespaces).
+   * @param namespace the namespace to copy
+   * @return a new {@link TypedBundle}
+   */
+  TypedBundle snapshot(BundleNamespace namespace);
+
   /**
    * @return the underlying bundle.
    */
@@ -2,6 +2,9 @@ package com.episode6.hackit.typed.bundles;
 
 import android.os.Bundle;
 import com.episode6.hackit.typed.core.TypedKey;
+import com.episode6.hackit.typed.core.TypedKeyRegistry;
+import com.episode6.hackit.typed.core.metrics.Metrics;
+import com.episode6.hackit.typed.core.metrics.TypedMetrics;
 import com.episode6.hackit.typed.core.util.Preconditions;
 import com.episode6.hackit.typed.core.util.Supplier;
 import com.episode6.hackit.typed.core.util.Suppliers;
@@ -24,37 +27,45 @@ class TypedBundleImpl implements TypedBundle {
 
   @Override
   public boolean contains(BundleKey<?> key) {
-    return containsInternal(key);
+    return containsInstrumented(key);
   }
 
   @Override
   public boolean contains(ReqBundleKey<?> key) {
-    return containsInternal(key);
+    return containsInstrumented(key);
   }
 
   @Override
   public boolean contains(OptBundleKey<?> key) {
-    return containsInternal(key);
+    return containsInstrumented(key);
   }
 
   @Override
   public <T> T get(BundleKey<T> key) {
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(key);
+    }
     if (!containsInternal(key)) {
-      return key.getDefaultValue();
+      return getDefaultValue(key, metrics);
     }
-    T instance = getInternal(key);
+    T instance = getInternal(key, metrics);
     if (instance == null) {
-      return key.getDefaultValue();
+      return getDefaultValue(key, metrics);
     }
     return instance;
   }
 
   @Override
   public <T> T get(ReqBundleKey<T> key) {
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(key);
+    }
     if (!containsInternal(key)) {
       throw new MissingPropertyException(key);
     }
-    T instance = getInternal(key);
+    T instance = getInternal(key, metrics);
     if (instance == null) {
       throw new MissingPropertyException(key);
     }
@@ -64,21 +75,25 @@ class TypedBundleImpl implements TypedBundle {
   @Nullable
   @Override
   public <T> T get(OptBundleKey<T> key) {
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(key);
+    }
     if (!containsInternal(key)) {
       return null;
     }
-    return getInternal(key);
+    return getInternal(key, metrics);
   }
 
   @Override
   public <T> TypedBundle put(BundleKey<T> key, T value) {
-    putInternal(key, Preconditions.checkNotNull(value));
+    putInternal(key, Preconditions.checkNotNull(value), Metrics.get());
     return this;
   }
 
   @Override
   public <T> TypedBundle put(ReqBundleKey<T> key, T value) {
-    putInternal(key, Preconditions.checkNotNull(value));
+    putInternal(key, Preconditions.checkNotNull(value), Metrics.get());
     return this;
   }
 
@@ -87,7 +102,7 @@ class TypedBundleImpl implements TypedBundle {
     if (value == null) {
       removeInternal(key);
     } else {
-      putInternal(key, value);
+      putInternal(key, value, Metrics.get());
     }
     return this;
   }
@@ -110,11 +125,54 @@ class TypedBundleImpl implements TypedBundle {
     return this;
   }
 
+  @Override
+  public TypedBundle remove(BundleNamespace namespace) {
+    for (TypedKey<?> key : TypedKeyRegistry.getKeys(namespace)) {
+      removeInternal(key);
+    }
+    return this;
+  }
+
+  @Override
+  public TypedBundle putAll(TypedBundle source, BundleNamespace namespace) {
+    final Bundle sourceBundle = source.asBundle();
+    for (TypedKey<?> key : TypedKeyRegistry.getKeys(namespace)) {
+      if (!(key instanceof AbstractBundleKey)) {
+        continue;
+      }
+      final String keyName = key.getKeyName().toString();
+      if (!sourceBundle.containsKey(keyName)) {
+        continue;
+      }
+      final AbstractBundleKey<?> bundleKey = (AbstractBundleKey<?>) key;
+      final @Nullable BundleTranslator translator = bundleKey.getTranslator();
+      if (translator != null) {
+        translator.writeToBundle(mDelegate, keyName, translator.getFromBundle(sourceBundle, keyName));
+      } else {
+        bundleKey.copyEncoded(sourceBundle, mDelegate, keyName);
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public TypedBundle snapshot(BundleNamespace namespace) {
+    return new TypedBundleImpl(mGsonSupplier, new Bundle()).putAll(this, namespace);
+  }
+
   @Override
   public Bundle asBundle() {
     return mDelegate;
   }
 
+  private boolean containsInstrumented(TypedKey<?> key) {
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onContains(key);
+    }
+    return containsInternal(key);
+  }
+
   private boolean containsInternal(TypedKey<?> key) {
     return mDelegate.containsKey(key.getKeyName().toString());
   }
@@ -123,26 +181,34 @@ class TypedBundleImpl implements TypedBundle {
     mDelegate.remove(key.getKeyName().toString());
   }
 
+  private <T> T getDefaultValue(BundleKey<T> key, @Nullable TypedMetrics metrics) {
+    if (metrics != null) {
+      metrics.onDefaultValue(key);
+    }
+    return key.getDefaultValue();
+  }
+
   @SuppressWarnings("unchecked")
-  private @Nullable <T> T getInternal(AbstractBundleKey<T> key) {
+  private @Nullable <T> T getInternal(AbstractBundleKey<T> key, @Nullable TypedMetrics metrics) {
     final String keyName = key.getKeyName().toString();
     final @Nullable BundleTranslator translator = key.getTranslator();
     if (translator != null) {
       return (T) translator.getFromBundle(mDelegate, keyName);
     } else {
-      String translation = mDelegate.getString(keyName);
-      return mGsonSupplier.get().fromJson(translation, key.getObjectType());
+      return key.readEncoded(mDelegate, keyName, mGsonSupplier, metrics);
     }
   }
 
-  private <T> void putInternal(AbstractBundleKey<T> key, T value) {
+  private <T> void putInternal(AbstractBundleKey<T> key, T value, @Nullable TypedMetrics metrics) {
     final String keyName = key.getKeyName().toString();
     final @Nullable BundleTranslator translator = key.getTranslator();
+    if (metrics != null) {
+      metrics.onPut(key);
+    }
     if (translator != null) {
       translator.writeToBundle(mDelegate, keyName, value);
     } else {
-      String translation = mGsonSupplier.get().toJson(value, key.getObjectType());
-      mDelegate.putString(keyName, translation);
+      key.writeEncoded(mDelegate, keyName, value, mGsonSupplier, metrics);
     }
   }
 
@@ -2,12 +2,13 @@ package com.episode6.hackit.typed.bundles;
 
 import android.content.Intent;
 import android.os.Bundle;
+import com.episode6.hackit.typed.core.TypedKey;
+import com.episode6.hackit.typed.core.TypedKeyMap;
+import com.episode6.hackit.typed.core.TypedKeyRegistry;
 import com.episode6.hackit.typed.core.util.*;
 import com.google.gson.Gson;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Utility class for createing {@link TypedBundle}s
@@ -168,7 +169,7 @@ public class TypedBundles {
   private static class MemoizedTypedBundle implements TypedBundle {
 
     private final TypedBundle mDelegate;
-    private final Map<AbstractBundleKey<?>, Object> mCache = new HashMap<>();
+    private final TypedKeyMap<AbstractBundleKey<?>, Object> mCache = new TypedKeyMap<>();
 
     MemoizedTypedBundle(TypedBundle delegate) {
       mDelegate = delegate;
@@ -265,9 +266,36 @@ public class TypedBundles {
       return this;
     }
 
+    @Override
+    public synchronized TypedBundle remove(BundleNamespace namespace) {
+      mDelegate.remove(namespace);
+      evictNamespace(namespace);
+      return this;
+    }
+
+    @Override
+    public synchronized TypedBundle putAll(TypedBundle source, BundleNamespace namespace) {
+      mDelegate.putAll(source, namespace);
+      evictNamespace(namespace);
+      return this;
+    }
+
+    @Override
+    public TypedBundle snapshot(BundleNamespace namespace) {
+      return mDelegate.snapshot(namespace);
+    }
+
     @Override
     public Bundle asBundle() {
       return mDelegate.asBundle();
     }
+
+    private void evictNamespace(BundleNamespace namespace) {
+      for (TypedKey<?> key : TypedKeyRegistry.getKeys(namespace)) {
+        if (key instanceof AbstractBundleKey) {
+          mCache.remove((AbstractBundleKey<?>) key);
+        }
+      }
+    }
   }
 }
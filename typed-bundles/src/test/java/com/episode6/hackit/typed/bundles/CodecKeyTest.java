@@ -0,0 +1,157 @@
+package com.episode6.hackit.typed.bundles;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.BinaryCodec;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedBundleImpl} with keys that use a custom {@link TypedCodec}
+ */
+@MockPolicy({TestResources.MockPolicy.class})
+public class CodecKeyTest {
+
+  static class TestObj {}
+
+  static final BundleNamespace NAMESPACE = BundleNamespace.fromClass(CodecKeyTest.class);
+
+  final TestResources t = new TestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedCodec<TestObj> mCodec;
+  @Mock BinaryCodec<TestObj> mBinaryCodec;
+
+  @Test
+  public void testGetWithCodec() {
+    OptBundleKey<TestObj> key = NAMESPACE.key(TestObj.class).named("getKey").codec(mCodec).buildOptional();
+    String keyName = key.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.bundle.containsKey(keyName)).thenReturn(true);
+    when(t.bundle.getString(keyName)).thenReturn("encoded");
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    TestObj result = t.typedBundle.get(key);
+
+    assertThat(result).isEqualTo(expected);
+    InOrder inOrder = Mockito.inOrder(t.bundle, mCodec);
+    inOrder.verify(t.bundle).containsKey(keyName);
+    inOrder.verify(t.bundle).getString(keyName);
+    inOrder.verify(mCodec).decode("encoded");
+    verifyNoMoreInteractions(t.bundle, t.gson, mCodec);
+  }
+
+  @Test
+  public void testPutWithCodec() {
+    OptBundleKey<TestObj> key = NAMESPACE.key(TestObj.class).named("putKey").codec(mCodec).buildOptional();
+    String keyName = key.getKeyName().toString();
+    TestObj value = new TestObj();
+    when(mCodec.encode(value)).thenReturn("encoded");
+
+    t.typedBundle.put(key, value);
+
+    InOrder inOrder = Mockito.inOrder(t.bundle, mCodec);
+    inOrder.verify(mCodec).encode(value);
+    inOrder.verify(t.bundle).putString(keyName, "encoded");
+    verifyNoMoreInteractions(t.bundle, t.gson, mCodec);
+  }
+
+  @Test
+  public void testCodecOverridesDirectTranslation() {
+    @SuppressWarnings("unchecked")
+    TypedCodec<Integer> intCodec = Mockito.mock(TypedCodec.class);
+    BundleKey<Integer> key = NAMESPACE.key(Integer.class).named("intKey").codec(intCodec).buildWithDefault(0);
+    String keyName = key.getKeyName().toString();
+    when(intCodec.encode(5)).thenReturn("five");
+
+    t.typedBundle.put(key, 5);
+
+    Mockito.verify(t.bundle).putString(keyName, "five");
+    verifyNoMoreInteractions(t.bundle, t.gson);
+  }
+
+  @Test
+  public void testGetWithBinaryCodec() {
+    OptBundleKey<TestObj> key = NAMESPACE.key(TestObj.class).named("getBinaryKey").binaryCodec(mBinaryCodec).buildOptional();
+    String keyName = key.getKeyName().toString();
+    byte[] bytes = new byte[]{1, 2, 3};
+    TestObj expected = new TestObj();
+    when(t.bundle.containsKey(keyName)).thenReturn(true);
+    when(t.bundle.getByteArray(keyName)).thenReturn(bytes);
+    when(mBinaryCodec.decode(bytes)).thenReturn(expected);
+
+    TestObj result = t.typedBundle.get(key);
+
+    assertThat(result).isEqualTo(expected);
+    InOrder inOrder = Mockito.inOrder(t.bundle, mBinaryCodec);
+    inOrder.verify(t.bundle).containsKey(keyName);
+    inOrder.verify(t.bundle).getByteArray(keyName);
+    inOrder.verify(mBinaryCodec).decode(bytes);
+    verifyNoMoreInteractions(t.bundle, t.gson, mBinaryCodec);
+  }
+
+  @Test
+  public void testPutWithBinaryCodec() {
+    OptBundleKey<TestObj> key = NAMESPACE.key(TestObj.class).named("putBinaryKey").binaryCodec(mBinaryCodec).buildOptional();
+    String keyName = key.getKeyName().toString();
+    byte[] bytes = new byte[]{1, 2, 3};
+    TestObj value = new TestObj();
+    when(mBinaryCodec.encode(value)).thenReturn(bytes);
+
+    t.typedBundle.put(key, value);
+
+    InOrder inOrder = Mockito.inOrder(t.bundle, mBinaryCodec);
+    inOrder.verify(mBinaryCodec).encode(value);
+    inOrder.verify(t.bundle).putByteArray(keyName, bytes);
+    verifyNoMoreInteractions(t.bundle, t.gson, mBinaryCodec);
+  }
+
+  @Test
+  public void testPutCompressed() {
+    OptBundleKey<TestObj> key = NAMESPACE.key(TestObj.class).named("compressedKey").codec(mCodec).compressed(16).buildOptional();
+    String keyName = key.getKeyName().toString();
+    TestObj smallValue = new TestObj();
+    TestObj largeValue = new TestObj();
+    when(mCodec.encode(smallValue)).thenReturn("small");
+    when(mCodec.encode(largeValue)).thenReturn("largelargelargelargelargelargelarge");
+
+    t.typedBundle.put(key, smallValue);
+    t.typedBundle.put(key, largeValue);
+
+    Mockito.verify(t.bundle).putString(keyName, "small");
+    Mockito.verify(t.bundle).putByteArray(keyName, new Compression(16).compressToBytes("largelargelargelargelargelargelarge"));
+    verifyNoMoreInteractions(t.bundle, t.gson);
+  }
+
+  @Test
+  public void testGetCompressed() {
+    OptBundleKey<TestObj> key = NAMESPACE.key(TestObj.class).named("compressedKey").codec(mCodec).compressed(16).buildOptional();
+    String keyName = key.getKeyName().toString();
+    String encoded = "largelargelargelargelargelargelarge";
+    TestObj expected = new TestObj();
+    when(t.bundle.containsKey(keyName)).thenReturn(true);
+    when(t.bundle.get(keyName)).thenReturn(new Compression(16).compressToBytes(encoded));
+    when(mCodec.decode(encoded)).thenReturn(expected);
+
+    TestObj result = t.typedBundle.get(key);
+
+    assertThat(result).isEqualTo(expected);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCompressingDirectKeyFails() {
+    NAMESPACE.key(Integer.class).named("compressedInt").compressed().buildWithDefault(1);
+  }
+}
@@ -0,0 +1,102 @@
+package com.episode6.hackit.typed.bundles;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.metrics.Metrics;
+import com.episode6.hackit.typed.core.metrics.TypedMetrics;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that {@link TypedBundleImpl} reports to the installed {@link TypedMetrics}
+ */
+@MockPolicy({TestResources.MockPolicy.class})
+public class MetricsTest {
+
+  static class TestObj {}
+
+  static final BundleNamespace NAMESPACE = BundleNamespace.fromClass(MetricsTest.class);
+  static final BundleKey<Integer> INT_KEY = NAMESPACE.key(Integer.class).named("int").buildWithDefault(5);
+
+  final TestResources t = new TestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedMetrics mMetrics;
+  @Mock TypedCodec<TestObj> mCodec;
+
+  @Before
+  public void setUp() {
+    Metrics.install(mMetrics);
+  }
+
+  @After
+  public void tearDown() {
+    Metrics.install(null);
+  }
+
+  @Test
+  public void testGetDefaultValue() {
+    Integer result = t.typedBundle.get(INT_KEY);
+
+    assertThat(result).isEqualTo(5);
+    InOrder inOrder = Mockito.inOrder(mMetrics);
+    inOrder.verify(mMetrics).onGet(INT_KEY);
+    inOrder.verify(mMetrics).onDefaultValue(INT_KEY);
+    verifyNoMoreInteractions(mMetrics);
+  }
+
+  @Test
+  public void testGetDecoded() {
+    OptBundleKey<TestObj> key = NAMESPACE.key(TestObj.class).named("getKey").codec(mCodec).buildOptional();
+    String keyName = key.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.bundle.containsKey(keyName)).thenReturn(true);
+    when(t.bundle.getString(keyName)).thenReturn("encoded");
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    TestObj result = t.typedBundle.get(key);
+
+    assertThat(result).isEqualTo(expected);
+    InOrder inOrder = Mockito.inOrder(mMetrics);
+    inOrder.verify(mMetrics).onGet(key);
+    inOrder.verify(mMetrics).onDecode(eq(key), anyLong(), eq(7));
+    verifyNoMoreInteractions(mMetrics);
+  }
+
+  @Test
+  public void testPutEncoded() {
+    OptBundleKey<TestObj> key = NAMESPACE.key(TestObj.class).named("putKey").codec(mCodec).buildOptional();
+    TestObj value = new TestObj();
+    when(mCodec.encode(value)).thenReturn("encoded");
+
+    t.typedBundle.put(key, value);
+
+    InOrder inOrder = Mockito.inOrder(mMetrics);
+    inOrder.verify(mMetrics).onPut(key);
+    inOrder.verify(mMetrics).onEncode(eq(key), anyLong(), eq(7));
+    verifyNoMoreInteractions(mMetrics);
+  }
+
+  @Test
+  public void testContains() {
+    t.typedBundle.contains(INT_KEY);
+
+    Mockito.verify(mMetrics).onContains(INT_KEY);
+    verifyNoMoreInteractions(mMetrics);
+  }
+}
@@ -7,17 +7,27 @@ import com.episode6.hackit.mockspresso.annotation.RealObject;
 import com.episode6.hackit.typed.core.TypedKey;
 import com.google.common.base.VerifyException;
 import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.core.spi.PowerMockPolicy;
 import org.powermock.mockpolicies.MockPolicyClassLoadingSettings;
 import org.powermock.mockpolicies.MockPolicyInterceptionSettings;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
@@ -47,6 +57,7 @@ public class TestResources {
 
   @Mock Bundle bundle;
   @Mock Gson gson;
+  @Mock TypeAdapter<Object> typeAdapter;
 
   @RealObject(implementation = TypedBundleImpl.class) TypedBundle typedBundle;
 
@@ -146,32 +157,74 @@ public class TestResources {
 
   <T> void testGetGsonTranslated(TypedKey<T> key, T retValue) {
     final String keyName = key.getKeyName().toString();
-    final String fakeJson = "someFakeJson:" + keyName;
+    final String fakeJson = "\"someFakeJson:" + keyName + "\"";
     when(bundle.containsKey(keyName)).thenReturn(true);
     when(bundle.getString(keyName)).thenReturn(fakeJson);
-    when(gson.fromJson(fakeJson, key.getObjectType())).thenReturn(retValue);
+    when(gson.getAdapter(any(TypeToken.class))).thenReturn(typeAdapter);
+    try {
+      when(typeAdapter.read(any(JsonReader.class))).thenAnswer(skipValueAndReturn(retValue));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
 
     T instance = get(key);
 
     assertThat(instance).isEqualTo(retValue);
-    InOrder inOrder = Mockito.inOrder(bundle, gson);
+    InOrder inOrder = Mockito.inOrder(bundle, gson, typeAdapter);
     inOrder.verify(bundle).containsKey(keyName);
     inOrder.verify(bundle).getString(keyName);
-    inOrder.verify(gson).fromJson(fakeJson, key.getObjectType());
-    verifyNoMoreInteractions(bundle, gson);
+    verifyAdapterResolved(inOrder, key.getObjectType());
+    try {
+      inOrder.verify(typeAdapter).read(any(JsonReader.class));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    verifyNoMoreInteractions(bundle, gson, typeAdapter);
   }
 
   <T> void testPutGsonTranslated(TypedKey<T> key, T instanceToPut) {
     final String keyName = key.getKeyName().toString();
     final String fakeJson = "someFakeJson:" + keyName;
-    when(gson.toJson(instanceToPut, key.getObjectType())).thenReturn(fakeJson);
+    when(gson.getAdapter(any(TypeToken.class))).thenReturn(typeAdapter);
+    try {
+      doAnswer(new Answer() {
+        @Override
+        public Object answer(InvocationOnMock invocation) throws Throwable {
+          ((JsonWriter) invocation.getArgument(0)).jsonValue(fakeJson);
+          return null;
+        }
+      }).when(typeAdapter).write(any(JsonWriter.class), any());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
 
     put(key, instanceToPut);
 
-    InOrder inOrder = Mockito.inOrder(bundle, gson);
-    inOrder.verify(gson).toJson(instanceToPut, key.getObjectType());
+    InOrder inOrder = Mockito.inOrder(bundle, gson, typeAdapter);
+    verifyAdapterResolved(inOrder, key.getObjectType());
+    try {
+      inOrder.verify(typeAdapter).write(any(JsonWriter.class), eq(instanceToPut));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
     inOrder.verify(bundle).putString(keyName, fakeJson);
-    verifyNoMoreInteractions(bundle, gson);
+    verifyNoMoreInteractions(bundle, gson, typeAdapter);
+  }
+
+  private static Answer<Object> skipValueAndReturn(final Object retValue) {
+    return new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        ((JsonReader) invocation.getArgument(0)).skipValue();
+        return retValue;
+      }
+    };
+  }
+
+  private void verifyAdapterResolved(InOrder inOrder, Type type) {
+    inOrder.verify(gson).getAdapter(TypeToken.get(type));
+    inOrder.verify(gson).htmlSafe();
+    inOrder.verify(gson).serializeNulls();
   }
 
   @SuppressWarnings("unchecked")
@@ -0,0 +1,63 @@
+package com.episode6.hackit.typed.bundles;
+
+import android.os.Bundle;
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedBundleImpl} namespace-scoped operations
+ */
+@MockPolicy({TestResources.MockPolicy.class})
+public class TypedBundleNamespaceTest {
+
+  final TestResources t = new TestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  static class TestObj {}
+
+  static final BundleNamespace NAMESPACE = BundleNamespace.fromClass(TypedBundleNamespaceTest.class);
+  static final BundleNamespace FEATURE_NAMESPACE = NAMESPACE.extend("feature");
+
+  static final BundleKey<Integer> INT_KEY = FEATURE_NAMESPACE.key(Integer.class).named("intKey").buildWithDefault(1);
+  static final OptBundleKey<TestObj> OBJ_KEY = FEATURE_NAMESPACE.extend("sub").key(TestObj.class).named("objKey").buildOptional();
+  static final OptBundleKey<String> OTHER_KEY = NAMESPACE.extend("other").key(String.class).named("otherKey").buildOptional();
+
+  @Mock Bundle mSourceBundle;
+  @Mock TypedBundle mSource;
+
+  @Test
+  public void testRemoveNamespace() {
+    t.typedBundle.remove(NAMESPACE.extend("feature"));
+
+    verify(t.bundle).remove(INT_KEY.getKeyName().toString());
+    verify(t.bundle).remove(OBJ_KEY.getKeyName().toString());
+    verifyNoMoreInteractions(t.bundle, t.gson);
+  }
+
+  @Test
+  public void testPutAllNamespace() {
+    String intKeyName = INT_KEY.getKeyName().toString();
+    String objKeyName = OBJ_KEY.getKeyName().toString();
+    when(mSource.asBundle()).thenReturn(mSourceBundle);
+    when(mSourceBundle.containsKey(intKeyName)).thenReturn(true);
+    when(mSourceBundle.getInt(intKeyName)).thenReturn(5);
+    when(mSourceBundle.containsKey(objKeyName)).thenReturn(true);
+    when(mSourceBundle.getString(objKeyName)).thenReturn("someFakeJson");
+
+    t.typedBundle.putAll(mSource, FEATURE_NAMESPACE);
+
+    verify(t.bundle).putInt(intKeyName, 5);
+    verify(t.bundle).putString(objKeyName, "someFakeJson");
+    verifyNoMoreInteractions(t.bundle, t.gson);
+  }
+}
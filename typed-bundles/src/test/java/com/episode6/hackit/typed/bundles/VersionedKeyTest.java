@@ -0,0 +1,100 @@
+package com.episode6.hackit.typed.bundles;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Migration;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedBundleImpl} with versioned keys
+ */
+@MockPolicy({TestResources.MockPolicy.class})
+public class VersionedKeyTest {
+
+  static class TestObj {}
+
+  static final BundleNamespace NAMESPACE = BundleNamespace.fromClass(VersionedKeyTest.class);
+
+  final TestResources t = new TestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedCodec<TestObj> mCodec;
+  @Mock Migration mMigration;
+
+  private OptBundleKey<TestObj> buildVersionedKey(String name) {
+    return NAMESPACE.key(TestObj.class)
+        .named(name)
+        .codec(mCodec)
+        .version(1)
+        .migration(0, mMigration)
+        .buildOptional();
+  }
+
+  @Test
+  public void testPutIsTagged() {
+    OptBundleKey<TestObj> key = buildVersionedKey("putKey");
+    String keyName = key.getKeyName().toString();
+    TestObj value = new TestObj();
+    when(mCodec.encode(value)).thenReturn("encoded");
+
+    t.typedBundle.put(key, value);
+
+    verify(t.bundle).putString(keyName, "~v1:encoded");
+  }
+
+  @Test
+  public void testGetCurrentVersion() {
+    OptBundleKey<TestObj> key = buildVersionedKey("currentKey");
+    String keyName = key.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.bundle.containsKey(keyName)).thenReturn(true);
+    when(t.bundle.getString(keyName)).thenReturn("~v1:encoded");
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    TestObj result = t.typedBundle.get(key);
+
+    assertThat(result).isEqualTo(expected);
+    verify(t.bundle, never()).putString(anyString(), anyString());
+    verifyNoMoreInteractions(mMigration);
+  }
+
+  @Test
+  public void testGetLegacyValueMigratesAndWritesBack() {
+    OptBundleKey<TestObj> key = buildVersionedKey("legacyKey");
+    String keyName = key.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.bundle.containsKey(keyName)).thenReturn(true);
+    when(t.bundle.getString(keyName)).thenReturn("legacy");
+    when(mMigration.migrate("legacy")).thenReturn("migrated");
+    when(mCodec.decode("migrated")).thenReturn(expected);
+
+    TestObj result = t.typedBundle.get(key);
+
+    assertThat(result).isEqualTo(expected);
+    InOrder inOrder = Mockito.inOrder(t.bundle, mMigration, mCodec);
+    inOrder.verify(t.bundle).getString(keyName);
+    inOrder.verify(mMigration).migrate("legacy");
+    inOrder.verify(t.bundle).putString(keyName, "~v1:migrated");
+    inOrder.verify(mCodec).decode("migrated");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testVersioningDirectKeyFails() {
+    NAMESPACE.key(Integer.class).named("intKey").version(1).buildOptional();
+  }
+}
@@ -0,0 +1,143 @@
+package com.episode6.hackit.typed.compiler;
+
+import com.episode6.hackit.typed.core.adapters.GeneratedAdapterReads;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single field serialized by a generated TypeAdapter
+ */
+class AdapterField {
+
+  /**
+   * How a field's value is read/written. Direct kinds go straight to the JsonReader/JsonWriter
+   * (reading via GeneratedAdapterReads, which validates values like gson), DELEGATE asks gson for
+   * the field type's adapter.
+   */
+  enum Kind {
+    BOOLEAN("readBoolean"),
+    BYTE("readByte"),
+    SHORT("readShort"),
+    INT("readInt"),
+    LONG("readLong"),
+    FLOAT("readFloat"),
+    DOUBLE("readDouble"),
+    CHAR("readChar"),
+    STRING("readString"),
+    DELEGATE(null);
+
+    private final String mReadMethod;
+
+    Kind(String readMethod) {
+      mReadMethod = readMethod;
+    }
+
+    String readExpression() {
+      return GeneratedAdapterReads.class.getName() + "." + mReadMethod + "(in)";
+    }
+  }
+
+  private final String mFieldName;
+  private final String mSerializedName;
+  private final List<String> mAlternateNames;
+  private final String mTypeName;
+  private final Kind mKind;
+  private final boolean mPrimitive;
+  private final boolean mParameterized;
+
+  AdapterField(
+      String fieldName,
+      String serializedName,
+      List<String> alternateNames,
+      TypeMirror type,
+      Types typeUtils) {
+    mFieldName = fieldName;
+    mSerializedName = serializedName;
+    mAlternateNames = alternateNames;
+    mTypeName = type.toString();
+    mPrimitive = type.getKind().isPrimitive();
+    mKind = kindOf(type, typeUtils);
+    mParameterized = type.getKind() == TypeKind.ARRAY ||
+        (type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty());
+  }
+
+  String getFieldName() {
+    return mFieldName;
+  }
+
+  String getSerializedName() {
+    return mSerializedName;
+  }
+
+  List<String> getAlternateNames() {
+    return mAlternateNames;
+  }
+
+  /**
+   * @return the serialized name followed by any alternate names
+   */
+  List<String> getAllNames() {
+    List<String> names = new ArrayList<>(mAlternateNames.size() + 1);
+    names.add(mSerializedName);
+    names.addAll(mAlternateNames);
+    return names;
+  }
+
+  String getTypeName() {
+    return mTypeName;
+  }
+
+  Kind getKind() {
+    return mKind;
+  }
+
+  boolean isPrimitive() {
+    return mPrimitive;
+  }
+
+  /**
+   * @return true if this field's type must be captured by a TypeToken, rather than a class literal
+   */
+  boolean isParameterized() {
+    return mParameterized;
+  }
+
+  private static Kind kindOf(TypeMirror type, Types typeUtils) {
+    TypeMirror unboxed = type;
+    if (type.getKind() == TypeKind.DECLARED) {
+      if (type.toString().equals("java.lang.String")) {
+        return Kind.STRING;
+      }
+      try {
+        unboxed = typeUtils.unboxedType(type);
+      } catch (IllegalArgumentException e) {
+        return Kind.DELEGATE;
+      }
+    }
+    switch (unboxed.getKind()) {
+      case BOOLEAN:
+        return Kind.BOOLEAN;
+      case BYTE:
+        return Kind.BYTE;
+      case SHORT:
+        return Kind.SHORT;
+      case INT:
+        return Kind.INT;
+      case LONG:
+        return Kind.LONG;
+      case FLOAT:
+        return Kind.FLOAT;
+      case DOUBLE:
+        return Kind.DOUBLE;
+      case CHAR:
+        return Kind.CHAR;
+      default:
+        return Kind.DELEGATE;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package com.episode6.hackit.typed.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the source of a generated TypeAdapter. Generated adapters read and write fields directly
+ * (primitives, their boxes and Strings go straight to the JsonReader/JsonWriter) and only ask
+ * gson for adapters of other field types, lazily, the first time each one is needed.
+ */
+class AdapterWriter {
+
+  private final String mPackageName;
+  private final String mAdapterName;
+  private final String mValueTypeName;
+  private final List<AdapterField> mFields;
+
+  AdapterWriter(String packageName, String adapterName, String valueTypeName, List<AdapterField> fields) {
+    mPackageName = packageName;
+    mAdapterName = adapterName;
+    mValueTypeName = valueTypeName;
+    mFields = fields;
+  }
+
+  void write(Writer writer) throws IOException {
+    StringBuilder out = new StringBuilder();
+    if (!mPackageName.isEmpty()) {
+      out.append("package ").append(mPackageName).append(";\n\n");
+    }
+    out.append("// Generated by typed-compiler. Do not edit.\n")
+        .append("public final class ").append(mAdapterName)
+        .append(" extends com.google.gson.TypeAdapter<").append(mValueTypeName).append("> {\n\n")
+        .append("  private final com.google.gson.Gson mGson;\n");
+    for (int i = 0; i < mFields.size(); i++) {
+      AdapterField field = mFields.get(i);
+      if (field.getKind() == AdapterField.Kind.DELEGATE) {
+        out.append("  private com.google.gson.TypeAdapter<").append(field.getTypeName()).append("> mAdapter")
+            .append(i).append(";\n");
+      }
+    }
+    out.append("\n")
+        .append("  public ").append(mAdapterName).append("(com.google.gson.Gson gson) {\n")
+        .append("    mGson = gson;\n")
+        .append("  }\n\n");
+    writeWriteMethod(out);
+    writeReadMethod(out);
+    writeDelegateGetters(out);
+    out.append("}\n");
+    writer.write(out.toString());
+  }
+
+  private void writeWriteMethod(StringBuilder out) {
+    out.append("  @Override\n")
+        .append("  public void write(com.google.gson.stream.JsonWriter out, ").append(mValueTypeName)
+        .append(" value) throws java.io.IOException {\n")
+        .append("    if (value == null) {\n")
+        .append("      out.nullValue();\n")
+        .append("      return;\n")
+        .append("    }\n")
+        .append("    out.beginObject();\n");
+    for (int i = 0; i < mFields.size(); i++) {
+      AdapterField field = mFields.get(i);
+      String fieldRef = "value." + field.getFieldName();
+      out.append("    out.name(").append(literal(field.getSerializedName())).append(");\n");
+      if (field.isPrimitive()) {
+        out.append("    ").append(writeStatement(field, i, fieldRef)).append("\n");
+      } else {
+        out.append("    if (").append(fieldRef).append(" == null) {\n")
+            .append("      out.nullValue();\n")
+            .append("    } else {\n")
+            .append("      ").append(writeStatement(field, i, fieldRef)).append("\n")
+            .append("    }\n");
+      }
+    }
+    out.append("    out.endObject();\n")
+        .append("  }\n\n");
+  }
+
+  private void writeReadMethod(StringBuilder out) {
+    out.append("  @Override\n")
+        .append("  public ").append(mValueTypeName)
+        .append(" read(com.google.gson.stream.JsonReader in) throws java.io.IOException {\n")
+        .append("    if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n")
+        .append("      in.nextNull();\n")
+        .append("      return null;\n")
+        .append("    }\n")
+        .append("    ").append(mValueTypeName).append(" value = new ").append(mValueTypeName).append("();\n")
+        .append("    in.beginObject();\n")
+        .append("    while (in.hasNext()) {\n")
+        .append("      switch (in.nextName()) {\n");
+    for (int i = 0; i < mFields.size(); i++) {
+      AdapterField field = mFields.get(i);
+      String fieldRef = "value." + field.getFieldName();
+      out.append("        case ").append(literal(field.getSerializedName())).append(":\n");
+      for (String alternateName : field.getAlternateNames()) {
+        out.append("        case ").append(literal(alternateName)).append(":\n");
+      }
+      out.append("          if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n")
+          .append("            in.nextNull();\n");
+      if (!field.isPrimitive()) {
+        out.append("            ").append(fieldRef).append(" = null;\n");
+      }
+      out.append("          } else {\n")
+          .append("            ").append(fieldRef).append(" = ").append(readExpression(field, i)).append(";\n")
+          .append("          }\n")
+          .append("          break;\n");
+    }
+    out.append("        default:\n")
+        .append("          in.skipValue();\n")
+        .append("      }\n")
+        .append("    }\n")
+        .append("    in.endObject();\n")
+        .append("    return value;\n")
+        .append("  }\n");
+  }
+
+  private void writeDelegateGetters(StringBuilder out) {
+    for (int i = 0; i < mFields.size(); i++) {
+      AdapterField field = mFields.get(i);
+      if (field.getKind() != AdapterField.Kind.DELEGATE) {
+        continue;
+      }
+      String typeToken = field.isParameterized() ?
+          "new com.google.gson.reflect.TypeToken<" + field.getTypeName() + ">() {}" :
+          field.getTypeName() + ".class";
+      out.append("\n")
+          .append("  private com.google.gson.TypeAdapter<").append(field.getTypeName()).append("> adapter")
+          .append(i).append("() {\n")
+          .append("    if (mAdapter").append(i).append(" == null) {\n")
+          .append("      mAdapter").append(i).append(" = mGson.getAdapter(").append(typeToken).append(");\n")
+          .append("    }\n")
+          .append("    return mAdapter").append(i).append(";\n")
+          .append("  }\n");
+    }
+  }
+
+  private static String writeStatement(AdapterField field, int index, String fieldRef) {
+    switch (field.getKind()) {
+      case BOOLEAN:
+        return "out.value(" + fieldRef + (field.isPrimitive() ? "" : ".booleanValue()") + ");";
+      case FLOAT:
+        // write floats via Number#toString (like gson does) rather than widening them to doubles
+        return "out.value(java.lang.Float.valueOf(" + fieldRef + "));";
+      case CHAR:
+        return "out.value(java.lang.String.valueOf(" + fieldRef + "));";
+      case DELEGATE:
+        return "adapter" + index + "().write(out, " + fieldRef + ");";
+      default:
+        return "out.value(" + fieldRef + ");";
+    }
+  }
+
+  private static String readExpression(AdapterField field, int index) {
+    if (field.getKind() == AdapterField.Kind.DELEGATE) {
+      return "adapter" + index + "().read(in)";
+    }
+    return field.getKind().readExpression();
+  }
+
+  private static String literal(String value) {
+    StringBuilder builder = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        default:
+          if (c < 0x20 || c > 0x7e) {
+            builder.append(String.format("\\u%04x", (int) c));
+          } else {
+            builder.append(c);
+          }
+      }
+    }
+    return builder.append('"').toString();
+  }
+}
@@ -0,0 +1,246 @@
+package com.episode6.hackit.typed.compiler;
+
+import com.episode6.hackit.typed.core.adapters.GenerateTypeAdapter;
+import com.episode6.hackit.typed.core.adapters.GeneratedTypeAdapters;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates a gson TypeAdapter for every class annotated
+ * with {@link GenerateTypeAdapter}. See {@link AdapterWriter} for the shape of the generated code.
+ */
+public class TypeAdapterProcessor extends AbstractProcessor {
+
+  private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(GenerateTypeAdapter.class.getCanonicalName());
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(GenerateTypeAdapter.class)) {
+      if (element.getKind() != ElementKind.CLASS) {
+        error(element, "@GenerateTypeAdapter can only be applied to classes");
+        continue;
+      }
+      TypeElement typeElement = (TypeElement) element;
+      List<AdapterField> fields = collectFields(typeElement);
+      if (fields != null) {
+        writeAdapter(typeElement, fields);
+      }
+    }
+    return true;
+  }
+
+  // returns null if the class cannot have an adapter generated (errors will have been reported)
+  private List<AdapterField> collectFields(TypeElement typeElement) {
+    boolean valid = true;
+    if (!typeElement.getTypeParameters().isEmpty()) {
+      error(typeElement, "@GenerateTypeAdapter classes cannot be generic");
+      valid = false;
+    }
+    if (typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+      error(typeElement, "@GenerateTypeAdapter classes cannot be abstract");
+      valid = false;
+    }
+    if (typeElement.getNestingKind() != NestingKind.TOP_LEVEL &&
+        (typeElement.getNestingKind() != NestingKind.MEMBER || !typeElement.getModifiers().contains(Modifier.STATIC))) {
+      error(typeElement, "@GenerateTypeAdapter classes must be top-level or static nested classes");
+      valid = false;
+    }
+    if (!hasAccessibleNoArgConstructor(typeElement)) {
+      error(typeElement, "@GenerateTypeAdapter classes must have a non-private no-arg constructor");
+      valid = false;
+    }
+
+    PackageElement adapterPackage = processingEnv.getElementUtils().getPackageOf(typeElement);
+    List<AdapterField> fields = new ArrayList<>();
+    Set<String> seenFieldNames = new LinkedHashSet<>();
+    Set<String> seenNames = new LinkedHashSet<>();
+    TypeElement current = typeElement;
+    while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+          continue;
+        }
+        if (!isAccessibleFrom(field, adapterPackage)) {
+          error(field, "Fields serialized by a generated TypeAdapter must be accessible from package " +
+              adapterPackage.getQualifiedName() + " (i.e. not private)");
+          valid = false;
+          continue;
+        }
+        if (modifiers.contains(Modifier.FINAL)) {
+          error(field, "Fields serialized by a generated TypeAdapter cannot be final");
+          valid = false;
+          continue;
+        }
+        if (containsTypeVariable(field.asType())) {
+          error(field, "Fields serialized by a generated TypeAdapter cannot use type variables");
+          valid = false;
+          continue;
+        }
+        if (!seenFieldNames.add(field.getSimpleName().toString())) {
+          error(field, "Fields serialized by a generated TypeAdapter cannot be shadowed");
+          valid = false;
+          continue;
+        }
+        AdapterField adapterField = createField(field);
+        for (String name : adapterField.getAllNames()) {
+          if (!seenNames.add(name)) {
+            error(field, "Duplicate serialized name: " + name);
+            valid = false;
+          }
+        }
+        fields.add(adapterField);
+      }
+      current = superclassOf(current);
+    }
+    return valid ? fields : null;
+  }
+
+  private AdapterField createField(VariableElement field) {
+    String serializedName = field.getSimpleName().toString();
+    List<String> alternateNames = new ArrayList<>();
+    for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (!annotationType.getQualifiedName().contentEquals(SERIALIZED_NAME)) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+          processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+        String valueName = entry.getKey().getSimpleName().toString();
+        if (valueName.equals("value")) {
+          serializedName = (String) entry.getValue().getValue();
+        } else if (valueName.equals("alternate")) {
+          @SuppressWarnings("unchecked")
+          List<? extends AnnotationValue> alternates = (List<? extends AnnotationValue>) entry.getValue().getValue();
+          for (AnnotationValue alternate : alternates) {
+            alternateNames.add((String) alternate.getValue());
+          }
+        }
+      }
+    }
+    return new AdapterField(
+        field.getSimpleName().toString(),
+        serializedName,
+        alternateNames,
+        field.asType(),
+        processingEnv.getTypeUtils());
+  }
+
+  private void writeAdapter(TypeElement typeElement, List<AdapterField> fields) {
+    String packageName = processingEnv.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+    String adapterQualifiedName = GeneratedTypeAdapters.adapterName(binaryName);
+    String adapterSimpleName = packageName.isEmpty() ?
+        adapterQualifiedName :
+        adapterQualifiedName.substring(packageName.length() + 1);
+
+    AdapterWriter adapterWriter = new AdapterWriter(
+        packageName,
+        adapterSimpleName,
+        typeElement.getQualifiedName().toString(),
+        fields);
+    try {
+      JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(adapterQualifiedName, typeElement);
+      Writer writer = sourceFile.openWriter();
+      try {
+        adapterWriter.write(writer);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      error(typeElement, "Failed to write generated TypeAdapter: " + e.getMessage());
+    }
+  }
+
+  private boolean hasAccessibleNoArgConstructor(TypeElement typeElement) {
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isAccessibleFrom(VariableElement field, PackageElement adapterPackage) {
+    Set<Modifier> modifiers = field.getModifiers();
+    if (modifiers.contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    if (modifiers.contains(Modifier.PUBLIC)) {
+      return true;
+    }
+    return processingEnv.getElementUtils().getPackageOf(field).equals(adapterPackage);
+  }
+
+  private static boolean containsTypeVariable(TypeMirror type) {
+    switch (type.getKind()) {
+      case TYPEVAR:
+        return true;
+      case ARRAY:
+        return containsTypeVariable(((ArrayType) type).getComponentType());
+      case WILDCARD:
+        WildcardType wildcardType = (WildcardType) type;
+        return (wildcardType.getExtendsBound() != null && containsTypeVariable(wildcardType.getExtendsBound())) ||
+            (wildcardType.getSuperBound() != null && containsTypeVariable(wildcardType.getSuperBound()));
+      case DECLARED:
+        for (TypeMirror typeArgument : ((DeclaredType) type).getTypeArguments()) {
+          if (containsTypeVariable(typeArgument)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  private static TypeElement superclassOf(TypeElement typeElement) {
+    TypeMirror superclass = typeElement.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    return (TypeElement) ((DeclaredType) superclass).asElement();
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
@@ -0,0 +1,258 @@
+package com.episode6.hackit.typed.compiler;
+
+import com.episode6.hackit.typed.core.adapters.GeneratedTypeAdapters;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.CompilationSubject;
+import com.google.testing.compile.Compiler;
+import com.google.testing.compile.JavaFileObjects;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link TypeAdapterProcessor} by compiling sources with it and comparing the generated
+ * adapters to gson's reflective ones.
+ */
+public class TypeAdapterProcessorTest {
+
+  private static final JavaFileObject VALUE_SOURCE = JavaFileObjects.forSourceLines(
+      "test.Value",
+      "package test;",
+      "",
+      "import com.episode6.hackit.typed.core.adapters.GenerateTypeAdapter;",
+      "import com.google.gson.annotations.SerializedName;",
+      "import java.util.List;",
+      "import java.util.Map;",
+      "",
+      "@GenerateTypeAdapter",
+      "public class Value {",
+      "  public boolean aBoolean;",
+      "  public byte aByte;",
+      "  public short aShort;",
+      "  public int anInt;",
+      "  public long aLong;",
+      "  public float aFloat;",
+      "  public double aDouble;",
+      "  public char aChar;",
+      "  public Boolean boxedBoolean;",
+      "  public Byte boxedByte;",
+      "  public Short boxedShort;",
+      "  public Integer boxedInt;",
+      "  public Long boxedLong;",
+      "  public Float boxedFloat;",
+      "  public Double boxedDouble;",
+      "  public Character boxedChar;",
+      "  public String string;",
+      "  public int[] ints;",
+      "  public String[] strings;",
+      "  public List<String> list;",
+      "  public Map<String, Integer> map;",
+      "  public Nested nested;",
+      "  @SerializedName(value = \"renamed\", alternate = {\"oldName\", \"olderName\"})",
+      "  public String renamedField;",
+      "",
+      "  @GenerateTypeAdapter",
+      "  public static class Nested {",
+      "    public String name;",
+      "    public List<Nested> children;",
+      "  }",
+      "}");
+
+  private static final String FULL_JSON = "{" +
+      "\"aBoolean\":true,\"aByte\":-12,\"aShort\":1234,\"anInt\":123456,\"aLong\":12345678901," +
+      "\"aFloat\":1.25,\"aDouble\":2.5e10,\"aChar\":\"c\"," +
+      "\"boxedBoolean\":false,\"boxedByte\":7,\"boxedShort\":-7,\"boxedInt\":42,\"boxedLong\":-42," +
+      "\"boxedFloat\":0.5,\"boxedDouble\":-0.25,\"boxedChar\":\"\\u00e9\"," +
+      "\"string\":\"some \\\"quoted\\\" string\"," +
+      "\"ints\":[1,2,3],\"strings\":[\"a\",null,\"c\"]," +
+      "\"list\":[\"x\",\"y\"],\"map\":{\"one\":1,\"two\":2}," +
+      "\"nested\":{\"name\":\"parent\",\"children\":[{\"name\":\"child\"}]}," +
+      "\"renamed\":\"new\"}";
+
+  private Class<?> mValueClass;
+  private Gson mReflectiveGson;
+  private Gson mGeneratedGson;
+
+  @Before
+  public void setup() throws ClassNotFoundException {
+    Compilation compilation = compile(VALUE_SOURCE);
+    CompilationSubject.assertThat(compilation).succeeded();
+    CompilationSubject.assertThat(compilation).generatedSourceFile("test.Value_TypeAdapter");
+    CompilationSubject.assertThat(compilation).generatedSourceFile("test.Value_Nested_TypeAdapter");
+
+    mValueClass = new CompilationClassLoader(compilation).loadClass("test.Value");
+    mReflectiveGson = new Gson();
+    mGeneratedGson = new GsonBuilder()
+        .registerTypeAdapterFactory(GeneratedTypeAdapters.factory())
+        .create();
+  }
+
+  @Test
+  public void testUsesGeneratedAdapter() {
+    assertThat(mGeneratedGson.getAdapter(mValueClass).getClass().getName()).isEqualTo("test.Value_TypeAdapter");
+  }
+
+  @Test
+  public void testWritesLikeReflectiveGson() {
+    Object value = mReflectiveGson.fromJson(FULL_JSON, mValueClass);
+
+    String json = mGeneratedGson.toJson(value);
+
+    assertThat(json).isEqualTo(mReflectiveGson.toJson(value));
+  }
+
+  @Test
+  public void testReadsLikeReflectiveGson() {
+    Object generated = mGeneratedGson.fromJson(FULL_JSON, mValueClass);
+    Object reflective = mReflectiveGson.fromJson(FULL_JSON, mValueClass);
+
+    assertThat(mReflectiveGson.toJson(generated)).isEqualTo(mReflectiveGson.toJson(reflective));
+  }
+
+  @Test
+  public void testReadsDefaultsLikeReflectiveGson() {
+    String json = "{\"ints\":null,\"unknown\":{\"a\":[1,2]},\"anInt\":3}";
+
+    Object generated = mGeneratedGson.fromJson(json, mValueClass);
+    Object reflective = mReflectiveGson.fromJson(json, mValueClass);
+
+    assertThat(mReflectiveGson.toJson(generated)).isEqualTo(mReflectiveGson.toJson(reflective));
+  }
+
+  @Test
+  public void testReadsAlternateNames() {
+    for (String name : new String[]{"renamed", "oldName", "olderName"}) {
+      String json = "{\"" + name + "\":\"value\"}";
+
+      Object generated = mGeneratedGson.fromJson(json, mValueClass);
+      Object reflective = mReflectiveGson.fromJson(json, mValueClass);
+
+      assertThat(mReflectiveGson.toJson(generated)).isEqualTo(mReflectiveGson.toJson(reflective));
+    }
+  }
+
+  @Test
+  public void testReadsLenientValuesLikeReflectiveGson() {
+    String json = "{\"aBoolean\":\"true\",\"string\":false,\"anInt\":\"5\",\"aByte\":255,\"aShort\":65535}";
+
+    Object generated = mGeneratedGson.fromJson(json, mValueClass);
+    Object reflective = mReflectiveGson.fromJson(json, mValueClass);
+
+    assertThat(mReflectiveGson.toJson(generated)).isEqualTo(mReflectiveGson.toJson(reflective));
+  }
+
+  @Test
+  public void testRejectsInvalidValues() {
+    String[] invalidJson = {
+        "{\"aByte\":256}",
+        "{\"aByte\":-129}",
+        "{\"boxedByte\":1000}",
+        "{\"aShort\":65536}",
+        "{\"boxedShort\":-32769}",
+        "{\"aChar\":\"\"}",
+        "{\"boxedChar\":\"ab\"}",
+        "{\"anInt\":\"abc\"}",
+        "{\"aLong\":1.5}",
+    };
+    for (String json : invalidJson) {
+      try {
+        mGeneratedGson.fromJson(json, mValueClass);
+        fail("expected JsonSyntaxException for " + json);
+      } catch (JsonSyntaxException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testPrivateFieldIsAnError() {
+    Compilation compilation = compile(JavaFileObjects.forSourceLines(
+        "test.PrivateField",
+        "package test;",
+        "",
+        "@com.episode6.hackit.typed.core.adapters.GenerateTypeAdapter",
+        "public class PrivateField {",
+        "  private String value;",
+        "}"));
+
+    CompilationSubject.assertThat(compilation).failed();
+    CompilationSubject.assertThat(compilation).hadErrorContaining("must be accessible from package test");
+  }
+
+  @Test
+  public void testNonStaticNestedClassIsAnError() {
+    Compilation compilation = compile(JavaFileObjects.forSourceLines(
+        "test.Outer",
+        "package test;",
+        "",
+        "public class Outer {",
+        "  @com.episode6.hackit.typed.core.adapters.GenerateTypeAdapter",
+        "  public class Inner {",
+        "    String value;",
+        "  }",
+        "}"));
+
+    CompilationSubject.assertThat(compilation).failed();
+    CompilationSubject.assertThat(compilation).hadErrorContaining("must be top-level or static nested classes");
+  }
+
+  private static Compilation compile(JavaFileObject source) {
+    return Compiler.javac()
+        .withProcessors(new TypeAdapterProcessor())
+        .compile(source);
+  }
+
+  /**
+   * Loads the classes written by a {@link Compilation}, falling back to the test's classpath
+   */
+  private static class CompilationClassLoader extends ClassLoader {
+
+    private final Compilation mCompilation;
+
+    CompilationClassLoader(Compilation compilation) {
+      super(TypeAdapterProcessorTest.class.getClassLoader());
+      mCompilation = compilation;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      String path = "/" + name.replace('.', '/') + ".class";
+      for (JavaFileObject file : mCompilation.generatedFiles()) {
+        if (file.getKind() == JavaFileObject.Kind.CLASS && file.toUri().getPath().endsWith(path)) {
+          byte[] bytes = readBytes(file);
+          return defineClass(name, bytes, 0, bytes.length);
+        }
+      }
+      throw new ClassNotFoundException(name);
+    }
+
+    private static byte[] readBytes(JavaFileObject file) throws ClassNotFoundException {
+      try {
+        InputStream in = file.openInputStream();
+        try {
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          byte[] buffer = new byte[4096];
+          int read;
+          while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+          }
+          return out.toByteArray();
+        } finally {
+          in.close();
+        }
+      } catch (IOException e) {
+        throw new ClassNotFoundException(file.getName(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package com.episode6.hackit.typed.core;
+
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A map of {@link TypedKey}s to values that's indexed by the ordinals of their {@link TypedKeyName}s (see
+ * {@link TypedKeyRegistry}) instead of their hash codes. Ordinals are dense, so they're used as table indexes
+ * directly, and a lookup only calls a key's equals() when the slot holds a different key instance with the same name.
+ *
+ * Keys that share a name share an entry, so putting one replaces the other. Entries can be iterated by index, like
+ * android's SparseArray (removing an entry moves the last one into its index). Not thread-safe.
+ * @param <K> The type of key
+ * @param <V> The type of value
+ */
+public final class TypedKeyMap<K extends TypedKey<?>, V> {
+
+  private static final int MIN_TABLE_SIZE = 8;
+
+  // open-addressed by ordinal, each slot holds (index + 1) of its entry, or 0 if it's empty
+  private int[] mTable = new int[MIN_TABLE_SIZE];
+  private Object[] mKeys = new Object[MIN_TABLE_SIZE / 2];
+  private Object[] mValues = new Object[MIN_TABLE_SIZE / 2];
+  private int mSize = 0;
+
+  /**
+   * @return The number of entries in the map
+   */
+  public int size() {
+    return mSize;
+  }
+
+  public boolean isEmpty() {
+    return mSize == 0;
+  }
+
+  /**
+   * @param index An index between 0 and {@link #size()}
+   * @return The key of the entry at the given index
+   */
+  @SuppressWarnings("unchecked")
+  public K keyAt(int index) {
+    checkIndex(index);
+    return (K) mKeys[index];
+  }
+
+  /**
+   * @param index An index between 0 and {@link #size()}
+   * @return The value of the entry at the given index
+   */
+  @SuppressWarnings("unchecked")
+  public @Nullable V valueAt(int index) {
+    checkIndex(index);
+    return (V) mValues[index];
+  }
+
+  public boolean containsKey(K key) {
+    return indexOf(key) >= 0;
+  }
+
+  /**
+   * @return The value mapped to the key, or null if there isn't one
+   */
+  @SuppressWarnings("unchecked")
+  public @Nullable V get(K key) {
+    int index = indexOf(key);
+    return index < 0 ? null : (V) mValues[index];
+  }
+
+  /**
+   * Map a value to the key, replacing the entry of any key with the same name.
+   */
+  public void put(K key, @Nullable V value) {
+    Preconditions.checkNotNull(key);
+    int slot = findSlot(key.getKeyName().getOrdinal());
+    if (mTable[slot] != 0) {
+      int index = mTable[slot] - 1;
+      mKeys[index] = key;
+      mValues[index] = value;
+      return;
+    }
+    if ((mSize + 1) * 2 > mTable.length) {
+      resize(mTable.length * 2);
+      slot = findSlot(key.getKeyName().getOrdinal());
+    }
+    if (mSize == mKeys.length) {
+      mKeys = Arrays.copyOf(mKeys, mSize * 2);
+      mValues = Arrays.copyOf(mValues, mSize * 2);
+    }
+    mKeys[mSize] = key;
+    mValues[mSize] = value;
+    mSize++;
+    mTable[slot] = mSize;
+  }
+
+  /**
+   * @return true if the key had an entry that was removed
+   */
+  public boolean remove(K key) {
+    int slot = findSlot(key.getKeyName().getOrdinal());
+    if (mTable[slot] == 0 || !matches(mTable[slot] - 1, key)) {
+      return false;
+    }
+    int index = mTable[slot] - 1;
+    deleteSlot(slot);
+    int last = mSize - 1;
+    if (index != last) {
+      // move the last entry into the removed one's index
+      mKeys[index] = mKeys[last];
+      mValues[index] = mValues[last];
+      mTable[findSlot(ordinalAt(index))] = index + 1;
+    }
+    mKeys[last] = null;
+    mValues[last] = null;
+    mSize--;
+    return true;
+  }
+
+  public void clear() {
+    Arrays.fill(mTable, 0);
+    Arrays.fill(mKeys, 0, mSize, null);
+    Arrays.fill(mValues, 0, mSize, null);
+    mSize = 0;
+  }
+
+  private int indexOf(K key) {
+    int entry = mTable[findSlot(key.getKeyName().getOrdinal())];
+    if (entry == 0 || !matches(entry - 1, key)) {
+      return -1;
+    }
+    return entry - 1;
+  }
+
+  private boolean matches(int index, K key) {
+    Object stored = mKeys[index];
+    return stored == key || stored.equals(key);
+  }
+
+  private int ordinalAt(int index) {
+    return ((TypedKey<?>) mKeys[index]).getKeyName().getOrdinal();
+  }
+
+  // the slot holding the given ordinal's entry, or the empty slot where it belongs
+  private int findSlot(int ordinal) {
+    int mask = mTable.length - 1;
+    int slot = ordinal & mask;
+    while (mTable[slot] != 0 && ordinalAt(mTable[slot] - 1) != ordinal) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  // empties a slot, shifting back any later entries in its probe run so they can still be found
+  private void deleteSlot(int slot) {
+    int mask = mTable.length - 1;
+    int next = slot;
+    while (true) {
+      next = (next + 1) & mask;
+      if (mTable[next] == 0) {
+        break;
+      }
+      int home = ordinalAt(mTable[next] - 1) & mask;
+      boolean movable = slot <= next ? (home <= slot || home > next) : (home <= slot && home > next);
+      if (movable) {
+        mTable[slot] = mTable[next];
+        slot = next;
+      }
+    }
+    mTable[slot] = 0;
+  }
+
+  private void resize(int tableSize) {
+    mTable = new int[tableSize];
+    for (int index = 0; index < mSize; index++) {
+      mTable[findSlot(ordinalAt(index))] = index + 1;
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= mSize) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + mSize);
+    }
+  }
+}
@@ -3,7 +3,9 @@ package com.episode6.hackit.typed.core;
 import com.episode6.hackit.typed.core.util.Preconditions;
 
 /**
- *
+ * The fully-qualified name of a {@link TypedKey}. Every TypedKeyName is registered with the
+ * {@link TypedKeyRegistry}, which assigns equal names the same ordinal, so equality is an int
+ * comparison.
  */
 public class TypedKeyName {
 
@@ -11,11 +13,33 @@ public class TypedKeyName {
   private final String mName;
 
   private final String mFullName;
+  private final int mOrdinal;
+  private final int mHashCode;
 
   public TypedKeyName(TypedKeyNamespace namespace, String name) {
+    this(namespace, name, TypedKeyRegistry.keyName(namespace, name).getOrdinal());
+  }
+
+  TypedKeyName(TypedKeyNamespace namespace, String name, int ordinal) {
     mNamespace = Preconditions.checkNotNull(namespace);
     mName = Preconditions.checkNotNull(name);
     mFullName = mNamespace.getNameForChild(name);
+    mOrdinal = ordinal;
+    mHashCode = 31 * mNamespace.hashCode() + mName.hashCode();
+  }
+
+  /**
+   * @return The namespace this name belongs to
+   */
+  public TypedKeyNamespace getNamespace() {
+    return mNamespace;
+  }
+
+  /**
+   * @return The dense ordinal assigned to this name by the {@link TypedKeyRegistry}
+   */
+  public int getOrdinal() {
+    return mOrdinal;
   }
 
   @Override
@@ -30,14 +54,11 @@ public class TypedKeyName {
 
     TypedKeyName that = (TypedKeyName) o;
 
-    if (!mNamespace.equals(that.mNamespace)) return false;
-    return mName.equals(that.mName);
+    return mOrdinal == that.mOrdinal;
   }
 
   @Override
   public int hashCode() {
-    int result = mNamespace.hashCode();
-    result = 31 * result + mName.hashCode();
-    return result;
+    return mHashCode;
   }
 }
@@ -11,12 +11,16 @@ public class TypedKeyNamespace {
   @Nullable private final String mName;
 
   private final String mFullName;
+  private final String mChildPrefix;
+  private final int mHashCode;
 
   protected TypedKeyNamespace(String delineator) {
     mDelineator = Preconditions.checkNotNull(delineator);
     mParent = null;
     mName = null;
     mFullName = "";
+    mChildPrefix = "";
+    mHashCode = computeHashCode();
   }
 
   protected TypedKeyNamespace(TypedKeyNamespace parent, String childName) {
@@ -24,17 +28,30 @@ public class TypedKeyNamespace {
     mDelineator = parent.mDelineator;
     mName = Preconditions.checkNotNull(childName);
     mFullName = parent.getNameForChild(childName);
+    mChildPrefix = mFullName + mDelineator;
+    mHashCode = computeHashCode();
+    TypedKeyRegistry.registerNamespace(parent, this);
   }
 
-  String getNameForChild(String childName) {
-    if (isAnonymous()) {
-      return childName;
-    }
-    return mFullName + mDelineator + childName;
+  /**
+   * @return The namespace this namespace was extended from, or null if this is a root namespace
+   */
+  public @Nullable TypedKeyNamespace getParent() {
+    return mParent;
+  }
+
+  /**
+   * Check whether a stored key name belongs to this namespace (or one of its sub-namespaces). Unlike
+   * {@link TypedKeyRegistry#getKeys(TypedKeyNamespace)}, this also matches names whose keys haven't been built yet.
+   * @param fullKeyName The full name of a key, as it's stored (see {@link TypedKeyName#toString()})
+   * @return true if the name starts with this namespace's full name, followed by its delineator
+   */
+  public boolean containsKeyName(String fullKeyName) {
+    return fullKeyName.startsWith(mChildPrefix);
   }
 
-  private boolean isAnonymous() {
-    return mName == null;
+  String getNameForChild(String childName) {
+    return mChildPrefix + childName;
   }
 
   @Override
@@ -49,6 +66,7 @@ public class TypedKeyNamespace {
 
     TypedKeyNamespace that = (TypedKeyNamespace) o;
 
+    if (mHashCode != that.mHashCode) return false;
     if (!mDelineator.equals(that.mDelineator)) return false;
     if (mParent != null ? !mParent.equals(that.mParent) : that.mParent != null) return false;
     return mName != null ? mName.equals(that.mName) : that.mName == null;
@@ -57,6 +75,11 @@ public class TypedKeyNamespace {
 
   @Override
   public int hashCode() {
+    return mHashCode;
+  }
+
+  // namespaces are immutable and hashed on every key lookup, so only walk the parent chain once
+  private int computeHashCode() {
     int result = mDelineator.hashCode();
     result = 31 * result + (mParent != null ? mParent.hashCode() : 0);
     result = 31 * result + (mName != null ? mName.hashCode() : 0);
@@ -0,0 +1,118 @@
+package com.episode6.hackit.typed.core;
+
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process-wide registry of {@link TypedKeyName}s. Each distinct name is canonicalized to a single
+ * instance the first time it's built and assigned a dense int ordinal (0, 1, 2...), so that hot-path
+ * equality checks are a single int comparison and caches can index arrays instead of hashing.
+ *
+ * The registry also indexes every {@link TypedKeyNamespace} and {@link TypedKey} under its parent
+ * namespace, so bulk operations can visit exactly the keys in a namespace (see {@link #getKeys(TypedKeyNamespace)})
+ * instead of scanning a whole backing store.
+ */
+public final class TypedKeyRegistry {
+
+  private static final Map<TypedKeyNamespace, NamespaceNode> sNamespaces = new HashMap<>();
+  private static final List<TypedKeyName> sByOrdinal = new ArrayList<>();
+
+  private TypedKeyRegistry() {}
+
+  /**
+   * Get the canonical {@link TypedKeyName} for the given namespace and name, creating and
+   * registering it (with the next available ordinal) if it doesn't exist yet.
+   * @param namespace The namespace the key lives in
+   * @param name The name of the key
+   * @return The canonical {@link TypedKeyName} instance
+   */
+  public static synchronized TypedKeyName keyName(TypedKeyNamespace namespace, String name) {
+    Preconditions.checkNotNull(namespace);
+    Preconditions.checkNotNull(name);
+    NamespaceNode node = getNode(namespace);
+    TypedKeyName keyName = node.mNames.get(name);
+    if (keyName == null) {
+      keyName = new TypedKeyName(namespace, name, sByOrdinal.size());
+      node.mNames.put(name, keyName);
+      sByOrdinal.add(keyName);
+    }
+    return keyName;
+  }
+
+  /**
+   * @param ordinal The ordinal of a registered {@link TypedKeyName}
+   * @return the canonical {@link TypedKeyName} with the given ordinal
+   */
+  public static synchronized TypedKeyName forOrdinal(int ordinal) {
+    return sByOrdinal.get(ordinal);
+  }
+
+  /**
+   * @return The number of ordinals that have been assigned so far. Every registered
+   * {@link TypedKeyName#getOrdinal()} is less than this value, making it a safe size
+   * for an ordinal-indexed array.
+   */
+  public static synchronized int size() {
+    return sByOrdinal.size();
+  }
+
+  /**
+   * Index a key under its namespace. Key builders should call this with every key they build.
+   * @param key The key to register
+   * @param <K> The type of key
+   * @return the key that was passed in
+   */
+  public static synchronized <K extends TypedKey<?>> K registerKey(K key) {
+    getNode(key.getKeyName().getNamespace()).mKeys.add(key);
+    return key;
+  }
+
+  /**
+   * Get all the keys that have been registered under the given namespace and its sub-namespaces.
+   * Note that a key is only registered once it has been built, i.e. once the class that declares it
+   * has been initialized.
+   * @param namespace The namespace to list keys from
+   * @return A new list containing every registered key in the namespace's subtree
+   */
+  public static synchronized List<TypedKey<?>> getKeys(TypedKeyNamespace namespace) {
+    List<TypedKey<?>> keys = new ArrayList<>();
+    NamespaceNode node = sNamespaces.get(namespace);
+    if (node != null) {
+      collectKeys(node, keys);
+    }
+    return keys;
+  }
+
+  static synchronized void registerNamespace(TypedKeyNamespace parent, TypedKeyNamespace child) {
+    getNode(parent).mChildren.add(child);
+    getNode(child);
+  }
+
+  private static NamespaceNode getNode(TypedKeyNamespace namespace) {
+    NamespaceNode node = sNamespaces.get(namespace);
+    if (node == null) {
+      node = new NamespaceNode();
+      sNamespaces.put(namespace, node);
+    }
+    return node;
+  }
+
+  private static void collectKeys(NamespaceNode node, List<TypedKey<?>> outKeys) {
+    outKeys.addAll(node.mKeys);
+    for (TypedKeyNamespace child : node.mChildren) {
+      collectKeys(sNamespaces.get(child), outKeys);
+    }
+  }
+
+  private static class NamespaceNode {
+    final Map<String, TypedKeyName> mNames = new HashMap<>();
+    final Set<TypedKey<?>> mKeys = new LinkedHashSet<>();
+    final Set<TypedKeyNamespace> mChildren = new LinkedHashSet<>();
+  }
+}
@@ -0,0 +1,21 @@
+package com.episode6.hackit.typed.core.adapters;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a value class that the typed-compiler annotation processor should generate a
+ * gson {@link com.google.gson.TypeAdapter} for. Generated adapters are picked up by
+ * {@link GeneratedTypeAdapters#factory()}, and replace gson's reflective adapter for the class.
+ *
+ * Annotated classes must be top-level or static nested, non-generic, and have a non-private no-arg
+ * constructor. Every non-static, non-transient field is serialized and must not be private.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GenerateTypeAdapter {
+}
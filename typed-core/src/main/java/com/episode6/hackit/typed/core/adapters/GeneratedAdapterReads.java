@@ -0,0 +1,85 @@
+package com.episode6.hackit.typed.core.adapters;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads the values of fields that generated TypeAdapters handle directly (primitives, their boxes
+ * and Strings) the same way gson's built-in adapters do, including which values are rejected with a
+ * {@link JsonSyntaxException}. Callers must have already handled a null token.
+ *
+ * Only meant to be called from code generated by typed-compiler.
+ */
+public final class GeneratedAdapterReads {
+
+  private GeneratedAdapterReads() {}
+
+  public static boolean readBoolean(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.STRING) {
+      // gson accepts booleans written as strings
+      return Boolean.parseBoolean(in.nextString());
+    }
+    return in.nextBoolean();
+  }
+
+  public static byte readByte(JsonReader in) throws IOException {
+    int value = readInt(in);
+    // like gson, values up to 255 are accepted as unsigned bytes
+    if (value > 255 || value < Byte.MIN_VALUE) {
+      throw new JsonSyntaxException("Lossy conversion from " + value + " to byte; at path " + in.getPath());
+    }
+    return (byte) value;
+  }
+
+  public static short readShort(JsonReader in) throws IOException {
+    int value = readInt(in);
+    // like gson, values up to 65535 are accepted as unsigned shorts
+    if (value > 65535 || value < Short.MIN_VALUE) {
+      throw new JsonSyntaxException("Lossy conversion from " + value + " to short; at path " + in.getPath());
+    }
+    return (short) value;
+  }
+
+  public static int readInt(JsonReader in) throws IOException {
+    try {
+      return in.nextInt();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  public static long readLong(JsonReader in) throws IOException {
+    try {
+      return in.nextLong();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  public static float readFloat(JsonReader in) throws IOException {
+    return (float) in.nextDouble();
+  }
+
+  public static double readDouble(JsonReader in) throws IOException {
+    return in.nextDouble();
+  }
+
+  public static char readChar(JsonReader in) throws IOException {
+    String value = in.nextString();
+    if (value.length() != 1) {
+      throw new JsonSyntaxException("Expecting character, got: " + value + "; at path " + in.getPath());
+    }
+    return value.charAt(0);
+  }
+
+  public static String readString(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.BOOLEAN) {
+      // gson accepts strings written as booleans
+      return Boolean.toString(in.nextBoolean());
+    }
+    return in.nextString();
+  }
+}
@@ -0,0 +1,84 @@
+package com.episode6.hackit.typed.core.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the {@link TypeAdapterFactory} that hands gson the adapters generated for classes
+ * annotated with {@link GenerateTypeAdapter}. It is registered with the default gson used by
+ * typed modules; register it yourself when supplying a custom Gson instance.
+ */
+public class GeneratedTypeAdapters {
+
+  /**
+   * Suffix appended to the (flattened) name of an annotated class to get the name of its generated adapter
+   */
+  public static final String ADAPTER_SUFFIX = "_TypeAdapter";
+
+  private static final TypeAdapterFactory FACTORY = new GeneratedTypeAdapterFactory();
+
+  /**
+   * @return a {@link TypeAdapterFactory} that supplies generated adapters
+   */
+  public static TypeAdapterFactory factory() {
+    return FACTORY;
+  }
+
+  /**
+   * @param binaryName The binary name of an annotated class (i.e. {@link Class#getName()})
+   * @return the binary name of the adapter generated for that class
+   */
+  public static String adapterName(String binaryName) {
+    return binaryName.replace('$', '_') + ADAPTER_SUFFIX;
+  }
+
+  private static class GeneratedTypeAdapterFactory implements TypeAdapterFactory {
+
+    // rawType -> generated adapter constructor
+    private final Map<Class<?>, Constructor<?>> mConstructors = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @Nullable <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      Class<? super T> rawType = type.getRawType();
+      if (!rawType.isAnnotationPresent(GenerateTypeAdapter.class)) {
+        return null;
+      }
+      try {
+        return (TypeAdapter<T>) getConstructor(rawType).newInstance(gson);
+      } catch (InstantiationException e) {
+        throw new IllegalStateException("Unable to create generated adapter for " + rawType, e);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("Unable to create generated adapter for " + rawType, e);
+      } catch (InvocationTargetException e) {
+        throw new IllegalStateException("Unable to create generated adapter for " + rawType, e);
+      }
+    }
+
+    private Constructor<?> getConstructor(Class<?> rawType) {
+      Constructor<?> constructor = mConstructors.get(rawType);
+      if (constructor != null) {
+        return constructor;
+      }
+      try {
+        constructor = Class.forName(adapterName(rawType.getName()), true, rawType.getClassLoader())
+            .getConstructor(Gson.class);
+      } catch (ClassNotFoundException e) {
+        throw new IllegalStateException("No generated adapter found for " + rawType +
+            ", is the typed-compiler annotation processor configured?", e);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException("Generated adapter for " + rawType + " is missing its constructor", e);
+      }
+      mConstructors.put(rawType, constructor);
+      return constructor;
+    }
+  }
+}
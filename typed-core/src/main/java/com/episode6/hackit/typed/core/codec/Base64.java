@@ -0,0 +1,88 @@
+package com.episode6.hackit.typed.core.codec;
+
+import java.util.Arrays;
+
+/**
+ * Minimal (standard alphabet, padded, unwrapped) Base64 implementation, so binary
+ * codecs don't depend on android.util.Base64 or java.util.Base64.
+ */
+final class Base64 {
+
+  private static final char[] ALPHABET =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+  private static final int[] DECODE_TABLE = new int[128];
+
+  static {
+    Arrays.fill(DECODE_TABLE, -1);
+    for (int i = 0; i < ALPHABET.length; i++) {
+      DECODE_TABLE[ALPHABET[i]] = i;
+    }
+  }
+
+  private Base64() {}
+
+  static String encode(byte[] bytes) {
+    char[] out = new char[(bytes.length + 2) / 3 * 4];
+    int outPos = 0;
+    int i = 0;
+    for (; i + 2 < bytes.length; i += 3) {
+      int chunk = ((bytes[i] & 0xFF) << 16) | ((bytes[i + 1] & 0xFF) << 8) | (bytes[i + 2] & 0xFF);
+      out[outPos++] = ALPHABET[chunk >>> 18];
+      out[outPos++] = ALPHABET[(chunk >>> 12) & 0x3F];
+      out[outPos++] = ALPHABET[(chunk >>> 6) & 0x3F];
+      out[outPos++] = ALPHABET[chunk & 0x3F];
+    }
+    int remaining = bytes.length - i;
+    if (remaining > 0) {
+      int chunk = (bytes[i] & 0xFF) << 16;
+      if (remaining == 2) {
+        chunk |= (bytes[i + 1] & 0xFF) << 8;
+      }
+      out[outPos++] = ALPHABET[chunk >>> 18];
+      out[outPos++] = ALPHABET[(chunk >>> 12) & 0x3F];
+      out[outPos++] = remaining == 2 ? ALPHABET[(chunk >>> 6) & 0x3F] : '=';
+      out[outPos] = '=';
+    }
+    return new String(out);
+  }
+
+  static byte[] decode(String encoded) {
+    int length = encoded.length();
+    while (length > 0 && encoded.charAt(length - 1) == '=') {
+      length--;
+    }
+    if (length % 4 == 1) {
+      throw new IllegalArgumentException("Invalid Base64 length");
+    }
+    byte[] out = new byte[length * 3 / 4];
+    int outPos = 0;
+    int chunk = 0;
+    for (int i = 0; i < length; i++) {
+      chunk = (chunk << 6) | decodeChar(encoded.charAt(i));
+      if (i % 4 == 3) {
+        out[outPos++] = (byte) (chunk >>> 16);
+        out[outPos++] = (byte) (chunk >>> 8);
+        out[outPos++] = (byte) chunk;
+        chunk = 0;
+      }
+    }
+    switch (length % 4) {
+      case 2:
+        out[outPos] = (byte) (chunk >>> 4);
+        break;
+      case 3:
+        out[outPos++] = (byte) (chunk >>> 10);
+        out[outPos] = (byte) (chunk >>> 2);
+        break;
+    }
+    return out;
+  }
+
+  private static int decodeChar(char c) {
+    int value = c < 128 ? DECODE_TABLE[c] : -1;
+    if (value < 0) {
+      throw new IllegalArgumentException("Invalid Base64 character: " + c);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,13 @@
+package com.episode6.hackit.typed.core.codec;
+
+/**
+ * Translates values of a key's type to and from a compact binary form. Bundle keys store
+ * the bytes directly, pref keys store them Base64 encoded (see {@link TypedCodecs#base64(BinaryCodec)}).
+ *
+ * Stores never pass null to a codec.
+ * @param <V> The type of value this codec translates
+ */
+public interface BinaryCodec<V> {
+  byte[] encode(V value);
+  V decode(byte[] encoded);
+}
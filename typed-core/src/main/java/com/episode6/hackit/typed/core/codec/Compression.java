@@ -0,0 +1,185 @@
+package com.episode6.hackit.typed.core.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression for stored values that exceed a size threshold. Smaller values (and values
+ * that don't shrink when compressed) are stored as-is, so enabling compression on a key stays
+ * cheap for the common case.
+ *
+ * Compressed bytes carry a 1 byte marker header ({@link #HEADER_RAW} or {@link #HEADER_DEFLATE}).
+ * Compressed Strings are stored as {@code "~z" + Base64(deflated UTF-8)}, uncompressed Strings
+ * are stored unchanged unless they start with {@code '~'}, in which case another {@code '~'} is
+ * prepended so they can't be mistaken for a compressed value.
+ */
+public final class Compression {
+
+  /**
+   * The default threshold (in chars for Strings, bytes for binary values) above which values get compressed
+   */
+  public static final int DEFAULT_THRESHOLD = 4 * 1024;
+
+  static final byte HEADER_RAW = 0;
+  static final byte HEADER_DEFLATE = 1;
+
+  private static final char ESCAPE = '~';
+  private static final String COMPRESSED_PREFIX = "~z";
+
+  private final int mThreshold;
+
+  public Compression(int threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Invalid compression threshold: " + threshold);
+    }
+    mThreshold = threshold;
+  }
+
+  public int getThreshold() {
+    return mThreshold;
+  }
+
+  /**
+   * @param value A value that's about to be stored
+   * @return true if value is large enough to compress
+   */
+  public boolean shouldCompress(String value) {
+    return value.length() > mThreshold;
+  }
+
+  /**
+   * Compress a String into a String, for stores that can only hold Strings.
+   * @param value The value to compress
+   * @return The String to store
+   */
+  public String compressToString(String value) {
+    if (shouldCompress(value)) {
+      byte[] compressed = deflate(value.getBytes(TaggedWriter.UTF_8));
+      if (compressed != null) {
+        return COMPRESSED_PREFIX + Base64.encode(compressed);
+      }
+    }
+    if (!value.isEmpty() && value.charAt(0) == ESCAPE) {
+      return ESCAPE + value;
+    }
+    return value;
+  }
+
+  /**
+   * Reverse {@link #compressToString(String)}
+   * @param stored The stored String
+   * @return The original value
+   */
+  public String decompressString(String stored) {
+    if (stored.startsWith(COMPRESSED_PREFIX)) {
+      return new String(inflate(Base64.decode(stored.substring(COMPRESSED_PREFIX.length()))), TaggedWriter.UTF_8);
+    }
+    if (!stored.isEmpty() && stored.charAt(0) == ESCAPE) {
+      return stored.substring(1);
+    }
+    return stored;
+  }
+
+  /**
+   * Compress a String into bytes (with a marker header).
+   * @param value The value to compress
+   * @return The bytes to store
+   */
+  public byte[] compressToBytes(String value) {
+    return compress(value.getBytes(TaggedWriter.UTF_8));
+  }
+
+  /**
+   * Reverse {@link #compressToBytes(String)}
+   * @param stored The stored bytes
+   * @return The original value
+   */
+  public String decompressToString(byte[] stored) {
+    return new String(decompress(stored), TaggedWriter.UTF_8);
+  }
+
+  /**
+   * Compress bytes (if they're over the threshold), adding a marker header.
+   * @param value The bytes to compress
+   * @return The bytes to store
+   */
+  public byte[] compress(byte[] value) {
+    if (value.length > mThreshold) {
+      byte[] compressed = deflate(value);
+      if (compressed != null) {
+        return compressed;
+      }
+    }
+    byte[] raw = new byte[value.length + 1];
+    raw[0] = HEADER_RAW;
+    System.arraycopy(value, 0, raw, 1, value.length);
+    return raw;
+  }
+
+  /**
+   * Reverse {@link #compress(byte[])}
+   * @param stored The stored bytes
+   * @return The original bytes
+   */
+  public byte[] decompress(byte[] stored) {
+    if (stored.length == 0) {
+      throw new IllegalArgumentException("Compressed value is missing its header");
+    }
+    switch (stored[0]) {
+      case HEADER_RAW:
+        return Arrays.copyOfRange(stored, 1, stored.length);
+      case HEADER_DEFLATE:
+        return inflate(stored);
+      default:
+        throw new IllegalArgumentException("Unknown compression header: " + stored[0]);
+    }
+  }
+
+  // returns the deflated value (with its header) or null if compression didn't make it any smaller
+  private static byte[] deflate(byte[] value) {
+    Deflater deflater = new Deflater();
+    try {
+      deflater.setInput(value);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(value.length / 4 + 16);
+      out.write(HEADER_DEFLATE);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+        if (out.size() > value.length) {
+          return null;
+        }
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] stored) {
+    if (stored.length == 0 || stored[0] != HEADER_DEFLATE) {
+      throw new IllegalArgumentException("Value is not deflate compressed");
+    }
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(stored, 1, stored.length - 1);
+      ByteArrayOutputStream out = new ByteArrayOutputStream(stored.length * 4);
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IllegalArgumentException("Compressed value is truncated");
+        }
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Compressed value is malformed", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
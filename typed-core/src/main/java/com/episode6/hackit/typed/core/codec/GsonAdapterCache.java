@@ -0,0 +1,138 @@
+package com.episode6.hackit.typed.core.codec;
+
+import com.episode6.hackit.typed.core.util.Preconditions;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * Holds the {@link TypeAdapter}s gson resolved for a single type, so that repeated translations
+ * skip {@link Gson#getAdapter(TypeToken)}. Adapters are kept for the last few Gson instances (matched
+ * by identity), and both the Gson and its adapter are only weakly referenced, so the cache never
+ * keeps a Gson alive (the Gson itself keeps its adapters alive for as long as it's used).
+ *
+ * Reads and writes behave like {@link Gson#fromJson(String, Type)} and {@link Gson#toJson(Object, Type)},
+ * but reuse per-thread reader/writer plumbing (see {@link JsonBuffers}) instead of allocating it each time.
+ * @param <V> The type being translated
+ */
+public final class GsonAdapterCache<V> {
+
+  private static final int MAX_ENTRIES = 4;
+
+  private final Type mType;
+  // most recently added first, replaced (never modified) under the lock of this cache
+  private volatile Entry<?>[] mEntries = new Entry<?>[0];
+
+  public GsonAdapterCache(Type type) {
+    mType = Preconditions.checkNotNull(type);
+  }
+
+  /**
+   * Deserialize a value from json
+   * @param gson The gson instance to use
+   * @param json The json to deserialize
+   * @return The deserialized value, or null if the json was empty
+   */
+  public @Nullable V fromJson(Gson gson, String json) {
+    Entry<V> entry = getEntry(gson);
+    if (isBlank(json)) {
+      // an empty document, gson treats this as null
+      return null;
+    }
+    try {
+      return JsonBuffers.get().read(entry.getAdapter(gson, mType), json);
+    } catch (IllegalStateException e) {
+      throw new JsonSyntaxException(e);
+    } catch (IOException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  /**
+   * Serialize a value to json
+   * @param gson The gson instance to use
+   * @param value The value to serialize
+   * @return The json representation of value
+   */
+  public String toJson(Gson gson, @Nullable V value) {
+    Entry<V> entry = getEntry(gson);
+    try {
+      return JsonBuffers.get().write(entry.getAdapter(gson, mType), value, entry.mHtmlSafe, entry.mSerializeNulls);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  private static boolean isBlank(String json) {
+    for (int i = 0; i < json.length(); i++) {
+      if (!Character.isWhitespace(json.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Entry<V> getEntry(Gson gson) {
+    for (Entry<?> entry : mEntries) {
+      if (entry.get() == gson) {
+        return (Entry<V>) entry;
+      }
+    }
+    return addEntry(gson);
+  }
+
+  @SuppressWarnings("unchecked")
+  private synchronized Entry<V> addEntry(Gson gson) {
+    Entry<?>[] entries = mEntries;
+    for (Entry<?> entry : entries) {
+      if (entry.get() == gson) {
+        return (Entry<V>) entry;
+      }
+    }
+    Entry<V> newEntry = new Entry<>(
+        gson,
+        (TypeAdapter<V>) gson.getAdapter(TypeToken.get(mType)),
+        gson.htmlSafe(),
+        gson.serializeNulls());
+    // keep the entries whose Gson hasn't been collected, dropping the oldest if there are too many
+    Entry<?>[] newEntries = new Entry<?>[Math.min(entries.length + 1, MAX_ENTRIES)];
+    newEntries[0] = newEntry;
+    int size = 1;
+    for (int i = 0; i < entries.length && size < newEntries.length; i++) {
+      if (entries[i].get() != null) {
+        newEntries[size++] = entries[i];
+      }
+    }
+    mEntries = size == newEntries.length ? newEntries : Arrays.copyOf(newEntries, size);
+    return newEntry;
+  }
+
+  private static class Entry<V> extends WeakReference<Gson> {
+    final WeakReference<TypeAdapter<V>> mAdapter;
+    final boolean mHtmlSafe;
+    final boolean mSerializeNulls;
+
+    Entry(Gson gson, TypeAdapter<V> adapter, boolean htmlSafe, boolean serializeNulls) {
+      super(gson);
+      mAdapter = new WeakReference<>(adapter);
+      mHtmlSafe = htmlSafe;
+      mSerializeNulls = serializeNulls;
+    }
+
+    @SuppressWarnings("unchecked")
+    TypeAdapter<V> getAdapter(Gson gson, Type type) {
+      TypeAdapter<V> adapter = mAdapter.get();
+      // gson caches its adapters, so this is only hit if it let go of ours
+      return adapter != null ? adapter : (TypeAdapter<V>) gson.getAdapter(TypeToken.get(type));
+    }
+  }
+}
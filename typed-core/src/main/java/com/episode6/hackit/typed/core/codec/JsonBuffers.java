@@ -0,0 +1,179 @@
+package com.episode6.hackit.typed.core.codec;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Per-thread JSON writer/reader plumbing for {@link GsonAdapterCache}, so translating a value
+ * doesn't allocate a new writer, string buffers and readers every time.
+ *
+ * The JsonWriter is kept lenient, which lets it write one top-level value after another. Reads get a
+ * new lenient JsonReader (like {@link com.google.gson.Gson#fromJson(String, java.lang.reflect.Type)})
+ * over a reused Reader, and content after the value is rejected. A reader keeps state (and buffered
+ * input) between values, so it isn't safe to share one across documents. If a write fails part way
+ * through, the thread's writer is discarded, since its state can no longer be trusted. Re-entrant
+ * calls (i.e. a TypeAdapter that translates another value from within read/write) fall back to
+ * one-off instances.
+ */
+final class JsonBuffers {
+
+  // don't hold on to huge buffers just because one large value was written
+  private static final int MAX_RETAINED_CHARS = 16 * 1024;
+
+  private static final ThreadLocal<JsonBuffers> sBuffers = new ThreadLocal<JsonBuffers>() {
+    @Override
+    protected JsonBuffers initialValue() {
+      return new JsonBuffers();
+    }
+  };
+
+  static JsonBuffers get() {
+    return sBuffers.get();
+  }
+
+  private final StringBuilderWriter mOutput = new StringBuilderWriter();
+  private final ValueSource mInput = new ValueSource();
+  private JsonWriter mJsonWriter;
+  private boolean mWriting;
+  private boolean mReading;
+
+  private JsonBuffers() {}
+
+  <V> String write(TypeAdapter<V> adapter, V value, boolean htmlSafe, boolean serializeNulls) throws IOException {
+    if (mWriting) {
+      StringWriter stringWriter = new StringWriter();
+      adapter.write(configure(new JsonWriter(stringWriter), htmlSafe, serializeNulls), value);
+      return stringWriter.toString();
+    }
+    mWriting = true;
+    boolean success = false;
+    try {
+      if (mJsonWriter == null) {
+        mJsonWriter = new JsonWriter(mOutput);
+      }
+      mOutput.reset();
+      adapter.write(configure(mJsonWriter, htmlSafe, serializeNulls), value);
+      String result = mOutput.toString();
+      success = true;
+      return result;
+    } finally {
+      if (!success) {
+        mJsonWriter = null;
+      }
+      mOutput.trim();
+      mWriting = false;
+    }
+  }
+
+  <V> V read(TypeAdapter<V> adapter, String json) throws IOException {
+    if (mReading) {
+      return read(adapter, new JsonReader(new StringReader(json)));
+    }
+    mReading = true;
+    try {
+      mInput.set(json);
+      return read(adapter, new JsonReader(mInput));
+    } finally {
+      mInput.set("");
+      mReading = false;
+    }
+  }
+
+  private static <V> V read(TypeAdapter<V> adapter, JsonReader reader) throws IOException {
+    reader.setLenient(true);
+    V result = adapter.read(reader);
+    if (reader.peek() != JsonToken.END_DOCUMENT) {
+      throw new MalformedJsonException("JSON document was not fully consumed.");
+    }
+    return result;
+  }
+
+  private static JsonWriter configure(JsonWriter writer, boolean htmlSafe, boolean serializeNulls) {
+    writer.setLenient(true);
+    writer.setHtmlSafe(htmlSafe);
+    writer.setSerializeNulls(serializeNulls);
+    return writer;
+  }
+
+  private static class StringBuilderWriter extends Writer {
+
+    private StringBuilder mBuilder = new StringBuilder(256);
+
+    void reset() {
+      mBuilder.setLength(0);
+    }
+
+    void trim() {
+      if (mBuilder.capacity() > MAX_RETAINED_CHARS) {
+        mBuilder = new StringBuilder(256);
+      }
+    }
+
+    @Override
+    public void write(int c) {
+      mBuilder.append((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+      mBuilder.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+      mBuilder.append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+      mBuilder.append(csq);
+      return this;
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public String toString() {
+      return mBuilder.toString();
+    }
+  }
+
+  // a Reader over a String that can be pointed at a new one, so it isn't allocated per read
+  private static class ValueSource extends Reader {
+
+    private String mValue = "";
+    private int mPosition;
+
+    void set(String value) {
+      mValue = value;
+      mPosition = 0;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      int count = Math.min(len, mValue.length() - mPosition);
+      if (count <= 0) {
+        return len == 0 ? 0 : -1;
+      }
+      mValue.getChars(mPosition, mPosition + count, cbuf, off);
+      mPosition += count;
+      return count;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
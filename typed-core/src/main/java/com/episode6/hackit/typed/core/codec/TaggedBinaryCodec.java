@@ -0,0 +1,58 @@
+package com.episode6.hackit.typed.core.codec;
+
+/**
+ * A {@link BinaryCodec} that writes values as a series of tagged fields (using the same wire
+ * format as protocol buffers). Each field is written with a numeric tag, and fields the
+ * reader doesn't recognize are skipped, so fields can be added and removed over time as long as
+ * tags are never reused.
+ *
+ * For example...
+ * <pre>{@code
+ * static final TaggedBinaryCodec<Profile> PROFILE_CODEC = new TaggedBinaryCodec<Profile>() {
+ *   protected void write(Profile profile, TaggedWriter writer) {
+ *     writer.writeString(1, profile.name);
+ *     writer.writeInt(2, profile.age);
+ *   }
+ *
+ *   protected Profile read(TaggedReader reader) {
+ *     Profile profile = new Profile();
+ *     while (reader.next()) {
+ *       switch (reader.getTag()) {
+ *         case 1: profile.name = reader.readString(); break;
+ *         case 2: profile.age = reader.readInt(); break;
+ *       }
+ *     }
+ *     return profile;
+ *   }
+ * };
+ * }</pre>
+ * @param <V> The type of value this codec translates
+ */
+public abstract class TaggedBinaryCodec<V> implements BinaryCodec<V> {
+
+  /**
+   * Write the fields of value
+   * @param value The (non-null) value to write
+   * @param writer The writer to write fields to
+   */
+  protected abstract void write(V value, TaggedWriter writer);
+
+  /**
+   * Read a value from its fields. Fields that aren't read are skipped.
+   * @param reader The reader to read fields from
+   * @return The value that was read
+   */
+  protected abstract V read(TaggedReader reader);
+
+  @Override
+  public final byte[] encode(V value) {
+    TaggedWriter writer = new TaggedWriter();
+    write(value, writer);
+    return writer.toByteArray();
+  }
+
+  @Override
+  public final V decode(byte[] encoded) {
+    return read(new TaggedReader(encoded, 0, encoded.length));
+  }
+}
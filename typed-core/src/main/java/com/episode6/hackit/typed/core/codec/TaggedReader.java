@@ -0,0 +1,176 @@
+package com.episode6.hackit.typed.core.codec;
+
+import java.util.Arrays;
+
+/**
+ * Reads tagged fields for a {@link TaggedBinaryCodec}. Call {@link #next()} to advance to each
+ * field, then {@link #getTag()} to identify it and the read method matching how it was written.
+ * Fields that are advanced past without being read are skipped.
+ */
+public final class TaggedReader {
+
+  private final byte[] mBuffer;
+  private final int mLimit;
+  private int mPosition;
+  private int mTag;
+  private int mWireType;
+  private boolean mConsumed = true;
+
+  TaggedReader(byte[] buffer, int offset, int length) {
+    mBuffer = buffer;
+    mPosition = offset;
+    mLimit = offset + length;
+  }
+
+  /**
+   * Advance to the next field, skipping the current one if it wasn't read.
+   * @return true if there is another field to read, false if the end of the value has been reached
+   */
+  public boolean next() {
+    if (!mConsumed) {
+      skip();
+    }
+    if (mPosition >= mLimit) {
+      return false;
+    }
+    long key = readVarint();
+    mTag = (int) (key >>> 3);
+    mWireType = (int) (key & 0x7);
+    mConsumed = false;
+    return true;
+  }
+
+  /**
+   * @return The tag of the current field
+   */
+  public int getTag() {
+    return mTag;
+  }
+
+  public int readInt() {
+    return (int) readLong();
+  }
+
+  public long readLong() {
+    consume(TaggedWriter.WIRE_VARINT);
+    long value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public boolean readBoolean() {
+    consume(TaggedWriter.WIRE_VARINT);
+    return readVarint() != 0;
+  }
+
+  public float readFloat() {
+    consume(TaggedWriter.WIRE_FIXED32);
+    return Float.intBitsToFloat((int) readFixed(4));
+  }
+
+  public double readDouble() {
+    consume(TaggedWriter.WIRE_FIXED64);
+    return Double.longBitsToDouble(readFixed(8));
+  }
+
+  public String readString() {
+    consume(TaggedWriter.WIRE_LENGTH_DELIMITED);
+    int length = readLength();
+    String value = new String(mBuffer, mPosition, length, TaggedWriter.UTF_8);
+    mPosition += length;
+    return value;
+  }
+
+  public byte[] readBytes() {
+    consume(TaggedWriter.WIRE_LENGTH_DELIMITED);
+    int length = readLength();
+    byte[] value = Arrays.copyOfRange(mBuffer, mPosition, mPosition + length);
+    mPosition += length;
+    return value;
+  }
+
+  /**
+   * Read a nested value written by {@link TaggedWriter#writeValue(int, Object, TaggedBinaryCodec)}
+   * @param codec The codec for the nested value
+   * @param <T> The type of the nested value
+   * @return The nested value
+   */
+  public <T> T readValue(TaggedBinaryCodec<T> codec) {
+    consume(TaggedWriter.WIRE_LENGTH_DELIMITED);
+    int length = readLength();
+    T value = codec.read(new TaggedReader(mBuffer, mPosition, length));
+    mPosition += length;
+    return value;
+  }
+
+  private void consume(int expectedWireType) {
+    if (mConsumed) {
+      throw new IllegalStateException("No current field to read, call next() first");
+    }
+    if (mWireType != expectedWireType) {
+      throw new IllegalStateException("Field " + mTag + " has wire type " + mWireType +
+          ", expected " + expectedWireType);
+    }
+    mConsumed = true;
+  }
+
+  private void skip() {
+    switch (mWireType) {
+      case TaggedWriter.WIRE_VARINT:
+        readVarint();
+        break;
+      case TaggedWriter.WIRE_FIXED64:
+        advance(8);
+        break;
+      case TaggedWriter.WIRE_LENGTH_DELIMITED:
+        advance(readLength());
+        break;
+      case TaggedWriter.WIRE_FIXED32:
+        advance(4);
+        break;
+      default:
+        throw new IllegalArgumentException("Malformed tagged value, unknown wire type: " + mWireType);
+    }
+    mConsumed = true;
+  }
+
+  private long readVarint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (mPosition >= mLimit) {
+        throw new IllegalArgumentException("Malformed tagged value, truncated varint");
+      }
+      byte b = mBuffer[mPosition++];
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed tagged value, varint too long");
+  }
+
+  private long readFixed(int byteCount) {
+    if (mPosition + byteCount > mLimit) {
+      throw new IllegalArgumentException("Malformed tagged value, truncated field");
+    }
+    long value = 0;
+    for (int i = 0; i < byteCount; i++) {
+      value |= (long) (mBuffer[mPosition++] & 0xFF) << (8 * i);
+    }
+    return value;
+  }
+
+  private int readLength() {
+    long length = readVarint();
+    if (length < 0 || length > mLimit - mPosition) {
+      throw new IllegalArgumentException("Malformed tagged value, invalid length: " + length);
+    }
+    return (int) length;
+  }
+
+  private void advance(int byteCount) {
+    if (byteCount > mLimit - mPosition) {
+      throw new IllegalArgumentException("Malformed tagged value, truncated field");
+    }
+    mPosition += byteCount;
+  }
+}
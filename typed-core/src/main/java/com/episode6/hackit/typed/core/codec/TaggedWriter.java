@@ -0,0 +1,121 @@
+package com.episode6.hackit.typed.core.codec;
+
+import javax.annotation.Nullable;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Writes tagged fields for a {@link TaggedBinaryCodec}. Integers are written as zig-zag varints,
+ * floating point values as little-endian fixed width values and Strings, byte arrays and nested
+ * values are length-prefixed. Null values are not written at all.
+ */
+public final class TaggedWriter {
+
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  static final int WIRE_VARINT = 0;
+  static final int WIRE_FIXED64 = 1;
+  static final int WIRE_LENGTH_DELIMITED = 2;
+  static final int WIRE_FIXED32 = 5;
+
+  static final int MAX_TAG = (1 << 29) - 1;
+
+  private byte[] mBuffer = new byte[64];
+  private int mSize;
+
+  TaggedWriter() {}
+
+  public TaggedWriter writeInt(int tag, int value) {
+    return writeLong(tag, value);
+  }
+
+  public TaggedWriter writeLong(int tag, long value) {
+    writeKey(tag, WIRE_VARINT);
+    writeVarint((value << 1) ^ (value >> 63));
+    return this;
+  }
+
+  public TaggedWriter writeBoolean(int tag, boolean value) {
+    writeKey(tag, WIRE_VARINT);
+    writeVarint(value ? 1 : 0);
+    return this;
+  }
+
+  public TaggedWriter writeFloat(int tag, float value) {
+    writeKey(tag, WIRE_FIXED32);
+    writeFixed(Float.floatToRawIntBits(value), 4);
+    return this;
+  }
+
+  public TaggedWriter writeDouble(int tag, double value) {
+    writeKey(tag, WIRE_FIXED64);
+    writeFixed(Double.doubleToRawLongBits(value), 8);
+    return this;
+  }
+
+  public TaggedWriter writeString(int tag, @Nullable String value) {
+    if (value != null) {
+      writeBytes(tag, value.getBytes(UTF_8));
+    }
+    return this;
+  }
+
+  public TaggedWriter writeBytes(int tag, @Nullable byte[] value) {
+    if (value != null) {
+      writeKey(tag, WIRE_LENGTH_DELIMITED);
+      writeVarint(value.length);
+      ensureCapacity(value.length);
+      System.arraycopy(value, 0, mBuffer, mSize, value.length);
+      mSize += value.length;
+    }
+    return this;
+  }
+
+  /**
+   * Write a nested value using its own codec
+   * @param tag The field's tag
+   * @param value The value to write
+   * @param codec The codec for value
+   * @param <T> The type of value
+   * @return this TaggedWriter
+   */
+  public <T> TaggedWriter writeValue(int tag, @Nullable T value, TaggedBinaryCodec<T> codec) {
+    if (value != null) {
+      writeBytes(tag, codec.encode(value));
+    }
+    return this;
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(mBuffer, mSize);
+  }
+
+  private void writeKey(int tag, int wireType) {
+    if (tag < 1 || tag > MAX_TAG) {
+      throw new IllegalArgumentException("Invalid tag: " + tag);
+    }
+    writeVarint(((long) tag << 3) | wireType);
+  }
+
+  private void writeVarint(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      mBuffer[mSize++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    mBuffer[mSize++] = (byte) value;
+  }
+
+  private void writeFixed(long value, int byteCount) {
+    ensureCapacity(byteCount);
+    for (int i = 0; i < byteCount; i++) {
+      mBuffer[mSize++] = (byte) (value >> (8 * i));
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    if (mSize + extra > mBuffer.length) {
+      mBuffer = Arrays.copyOf(mBuffer, Math.max(mBuffer.length * 2, mSize + extra));
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.episode6.hackit.typed.core.codec;
+
+/**
+ * Translates values of a key's type to and from the String form they're stored in. A key
+ * can carry its own codec (see the KeyBuilders in typed-preferences and typed-bundles), otherwise
+ * the store's Gson instance is used.
+ *
+ * Stores never pass null to a codec.
+ * @param <V> The type of value this codec translates
+ */
+public interface TypedCodec<V> {
+  String encode(V value);
+  V decode(String encoded);
+}
@@ -0,0 +1,194 @@
+package com.episode6.hackit.typed.core.codec;
+
+import com.episode6.hackit.typed.core.util.Preconditions;
+import com.episode6.hackit.typed.core.util.Supplier;
+import com.episode6.hackit.typed.core.util.Suppliers;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Static factories for the built-in {@link TypedCodec}s
+ */
+public class TypedCodecs {
+
+  /**
+   * A codec that translates values via gson. This is equivalent to the behavior
+   * of a key with no codec set, except that the supplied gson is used instead of the store's.
+   * @param gsonSupplier A supplier for the Gson instance to use
+   * @param type The type of value being translated
+   * @param <V> The type of value being translated
+   * @return a new gson-backed {@link TypedCodec}
+   */
+  public static <V> TypedCodec<V> gson(Supplier<Gson> gsonSupplier, Type type) {
+    return new GsonCodec<>(gsonSupplier, type);
+  }
+
+  /**
+   * A codec for enums that stores the constant's name, skipping gson entirely. Values
+   * are stored in the same form gson would use by default, and names that don't match a constant
+   * decode to null, as they do in gson (note: {@code @SerializedName} annotations are not supported).
+   * @param enumClass The enum class
+   * @param <E> The enum type
+   * @return a new enum {@link TypedCodec}
+   */
+  public static <E extends Enum<E>> TypedCodec<E> forEnum(Class<E> enumClass) {
+    return new EnumCodec<>(enumClass);
+  }
+
+  /**
+   * Adapts a {@link BinaryCodec} to a {@link TypedCodec} by Base64 encoding its output. Used for
+   * stores that can only hold Strings (i.e. SharedPreferences).
+   * @param binaryCodec The binary codec to adapt
+   * @param <V> The type of value being translated
+   * @return a new {@link TypedCodec} that stores Base64 Strings
+   */
+  public static <V> TypedCodec<V> base64(BinaryCodec<V> binaryCodec) {
+    return new Base64Codec<>(binaryCodec);
+  }
+
+  /**
+   * Wraps a {@link BinaryCodec} so that encoded values over the threshold are deflate compressed.
+   * See {@link Compression} for the stored format.
+   * @param binaryCodec The binary codec to wrap
+   * @param compressionThreshold The size (in bytes) above which encoded values are compressed
+   * @param <V> The type of value being translated
+   * @return a new compressing {@link BinaryCodec}
+   */
+  public static <V> BinaryCodec<V> compressed(BinaryCodec<V> binaryCodec, int compressionThreshold) {
+    return new CompressedBinaryCodec<>(binaryCodec, new Compression(compressionThreshold));
+  }
+
+  private static class GsonCodec<V> implements TypedCodec<V> {
+
+    private final Supplier<Gson> mGsonSupplier;
+    private final GsonAdapterCache<V> mAdapterCache;
+
+    GsonCodec(Supplier<Gson> gsonSupplier, Type type) {
+      mGsonSupplier = Suppliers.memoize(gsonSupplier);
+      mAdapterCache = new GsonAdapterCache<>(type);
+    }
+
+    @Override
+    public String encode(V value) {
+      return mAdapterCache.toJson(mGsonSupplier.get(), value);
+    }
+
+    @Override
+    public V decode(String encoded) {
+      return mAdapterCache.fromJson(mGsonSupplier.get(), encoded);
+    }
+  }
+
+  private static class EnumCodec<E extends Enum<E>> implements TypedCodec<E> {
+
+    // reads a constant's name the way gson's enum adapter does
+    private static final TypeAdapter<String> NAME_ADAPTER = new TypeAdapter<String>() {
+      @Override
+      public void write(JsonWriter out, String value) throws IOException {
+        out.value(value);
+      }
+
+      @Override
+      public @Nullable String read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          return null;
+        }
+        return in.nextString();
+      }
+    };
+
+    private final Class<E> mEnumClass;
+
+    EnumCodec(Class<E> enumClass) {
+      mEnumClass = Preconditions.checkNotNull(enumClass);
+    }
+
+    @Override
+    public String encode(E value) {
+      return "\"" + value.name() + "\"";
+    }
+
+    /**
+     * Behaves like gson: unknown names decode to null and malformed json throws a {@link JsonSyntaxException}.
+     */
+    @Override
+    public @Nullable E decode(String encoded) {
+      int end = encoded.length() - 1;
+      if (end > 0 && encoded.charAt(0) == '"' && encoded.indexOf('"', 1) == end && encoded.indexOf('\\') < 0) {
+        // a plain quoted name, which is what encode() writes
+        return forName(encoded.substring(1, end));
+      }
+      if (encoded.trim().isEmpty()) {
+        // an empty document, gson treats this as null
+        return null;
+      }
+      try {
+        return forName(JsonBuffers.get().read(NAME_ADAPTER, encoded));
+      } catch (IllegalStateException e) {
+        throw new JsonSyntaxException(e);
+      } catch (IOException e) {
+        throw new JsonSyntaxException(e);
+      }
+    }
+
+    private @Nullable E forName(@Nullable String name) {
+      if (name == null) {
+        return null;
+      }
+      try {
+        return Enum.valueOf(mEnumClass, name);
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+  }
+
+  private static class Base64Codec<V> implements TypedCodec<V> {
+
+    private final BinaryCodec<V> mBinaryCodec;
+
+    Base64Codec(BinaryCodec<V> binaryCodec) {
+      mBinaryCodec = Preconditions.checkNotNull(binaryCodec);
+    }
+
+    @Override
+    public String encode(V value) {
+      return Base64.encode(mBinaryCodec.encode(value));
+    }
+
+    @Override
+    public V decode(String encoded) {
+      return mBinaryCodec.decode(Base64.decode(encoded));
+    }
+  }
+
+  private static class CompressedBinaryCodec<V> implements BinaryCodec<V> {
+
+    private final BinaryCodec<V> mBinaryCodec;
+    private final Compression mCompression;
+
+    CompressedBinaryCodec(BinaryCodec<V> binaryCodec, Compression compression) {
+      mBinaryCodec = Preconditions.checkNotNull(binaryCodec);
+      mCompression = compression;
+    }
+
+    @Override
+    public byte[] encode(V value) {
+      return mCompression.compress(mBinaryCodec.encode(value));
+    }
+
+    @Override
+    public V decode(byte[] encoded) {
+      return mBinaryCodec.decode(mCompression.decompress(encoded));
+    }
+  }
+}
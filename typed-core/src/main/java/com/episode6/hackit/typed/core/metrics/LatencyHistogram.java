@@ -0,0 +1,75 @@
+package com.episode6.hackit.typed.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of nanosecond latencies, bucketed by powers of 2 (bucket i
+ * holds latencies in [2^(i-1), 2^i), bucket 0 holds latencies of 0).
+ */
+public final class LatencyHistogram {
+
+  private static final int BUCKET_COUNT = 64;
+
+  private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+
+  void record(long durationNanos) {
+    mBuckets.incrementAndGet(bucketFor(durationNanos));
+  }
+
+  /**
+   * @return The total number of recorded latencies
+   */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      count += mBuckets.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * @return A copy of the bucket counts
+   */
+  public long[] getBuckets() {
+    long[] buckets = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = mBuckets.get(i);
+    }
+    return buckets;
+  }
+
+  /**
+   * @param percentile A percentile between 0 and 100
+   * @return The upper bound (in nanos) of the bucket containing the given percentile, or 0 if empty
+   */
+  public long getPercentileUpperBound(double percentile) {
+    long[] buckets = getBuckets();
+    long count = 0;
+    for (long bucket : buckets) {
+      count += bucket;
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long target = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets[i];
+      if (seen >= Math.max(target, 1)) {
+        return upperBound(i);
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  static int bucketFor(long durationNanos) {
+    if (durationNanos <= 0) {
+      return 0;
+    }
+    return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(durationNanos));
+  }
+
+  private static long upperBound(int bucket) {
+    return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+}
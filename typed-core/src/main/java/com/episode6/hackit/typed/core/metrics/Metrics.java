@@ -0,0 +1,27 @@
+package com.episode6.hackit.typed.core.metrics;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds the installed {@link TypedMetrics} listener (if any). When nothing is installed, instrumented
+ * code paths cost a single volatile read.
+ */
+public class Metrics {
+
+  private static volatile @Nullable TypedMetrics sMetrics;
+
+  /**
+   * Install a {@link TypedMetrics} listener, replacing any existing one
+   * @param metrics The listener to install, or null to uninstall the current one
+   */
+  public static void install(@Nullable TypedMetrics metrics) {
+    sMetrics = metrics;
+  }
+
+  /**
+   * @return The installed {@link TypedMetrics} listener, or null if there isn't one
+   */
+  public static @Nullable TypedMetrics get() {
+    return sMetrics;
+  }
+}
@@ -0,0 +1,152 @@
+package com.episode6.hackit.typed.core.metrics;
+
+import com.episode6.hackit.typed.core.TypedKey;
+import com.episode6.hackit.typed.core.TypedKeyName;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link TypedMetrics} implementation that aggregates per-key counters, latency histograms
+ * and stored sizes.
+ */
+public class MetricsRecorder implements TypedMetrics {
+
+  private final ConcurrentMap<TypedKeyName, KeyStats> mStats = new ConcurrentHashMap<>();
+
+  @Override
+  public void onGet(TypedKey<?> key) {
+    statsFor(key).mGetCount.incrementAndGet();
+  }
+
+  @Override
+  public void onPut(TypedKey<?> key) {
+    statsFor(key).mPutCount.incrementAndGet();
+  }
+
+  @Override
+  public void onContains(TypedKey<?> key) {
+    statsFor(key).mContainsCount.incrementAndGet();
+  }
+
+  @Override
+  public void onDefaultValue(TypedKey<?> key) {
+    statsFor(key).mDefaultValueCount.incrementAndGet();
+  }
+
+  @Override
+  public void onDecode(TypedKey<?> key, long durationNanos, int storedSize) {
+    KeyStats stats = statsFor(key);
+    stats.mDecodeLatency.record(durationNanos);
+    stats.recordStoredSize(storedSize);
+  }
+
+  @Override
+  public void onEncode(TypedKey<?> key, long durationNanos, int storedSize) {
+    KeyStats stats = statsFor(key);
+    stats.mEncodeLatency.record(durationNanos);
+    stats.recordStoredSize(storedSize);
+  }
+
+  /**
+   * @param key The key to get stats for
+   * @return The stats recorded for key, or null if nothing has been recorded
+   */
+  public @Nullable KeyStats getStats(TypedKey<?> key) {
+    return mStats.get(key.getKeyName());
+  }
+
+  /**
+   * @return A copy of the stats recorded for every key
+   */
+  public Map<TypedKeyName, KeyStats> getAllStats() {
+    return new HashMap<>(mStats);
+  }
+
+  /**
+   * Clear all recorded stats
+   */
+  public void reset() {
+    mStats.clear();
+  }
+
+  private KeyStats statsFor(TypedKey<?> key) {
+    KeyStats stats = mStats.get(key.getKeyName());
+    if (stats == null) {
+      KeyStats newStats = new KeyStats();
+      stats = mStats.putIfAbsent(key.getKeyName(), newStats);
+      if (stats == null) {
+        stats = newStats;
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * The metrics recorded for a single key
+   */
+  public static final class KeyStats {
+
+    private final AtomicLong mGetCount = new AtomicLong();
+    private final AtomicLong mPutCount = new AtomicLong();
+    private final AtomicLong mContainsCount = new AtomicLong();
+    private final AtomicLong mDefaultValueCount = new AtomicLong();
+    private final LatencyHistogram mDecodeLatency = new LatencyHistogram();
+    private final LatencyHistogram mEncodeLatency = new LatencyHistogram();
+    private final AtomicInteger mLastStoredSize = new AtomicInteger();
+    private final AtomicInteger mMaxStoredSize = new AtomicInteger();
+
+    KeyStats() {}
+
+    public long getGetCount() {
+      return mGetCount.get();
+    }
+
+    public long getPutCount() {
+      return mPutCount.get();
+    }
+
+    public long getContainsCount() {
+      return mContainsCount.get();
+    }
+
+    public long getDefaultValueCount() {
+      return mDefaultValueCount.get();
+    }
+
+    public LatencyHistogram getDecodeLatency() {
+      return mDecodeLatency;
+    }
+
+    public LatencyHistogram getEncodeLatency() {
+      return mEncodeLatency;
+    }
+
+    /**
+     * @return The size of the most recently encoded/decoded value
+     */
+    public int getLastStoredSize() {
+      return mLastStoredSize.get();
+    }
+
+    /**
+     * @return The size of the largest encoded/decoded value
+     */
+    public int getMaxStoredSize() {
+      return mMaxStoredSize.get();
+    }
+
+    private void recordStoredSize(int storedSize) {
+      mLastStoredSize.set(storedSize);
+      int max = mMaxStoredSize.get();
+      while (storedSize > max && !mMaxStoredSize.compareAndSet(max, storedSize)) {
+        max = mMaxStoredSize.get();
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.episode6.hackit.typed.core.metrics;
+
+import com.episode6.hackit.typed.core.TypedKey;
+
+/**
+ * Listener SPI for instrumenting typed! stores. Install an implementation via
+ * {@link Metrics#install(TypedMetrics)}, or use {@link MetricsRecorder} to aggregate
+ * per-key counters and latency histograms.
+ *
+ * Callbacks are made synchronously on the thread doing the get/put, so implementations
+ * should be thread-safe and cheap.
+ */
+public interface TypedMetrics {
+
+  /**
+   * Called when a key's value is read
+   */
+  void onGet(TypedKey<?> key);
+
+  /**
+   * Called when a key's value is written
+   */
+  void onPut(TypedKey<?> key);
+
+  /**
+   * Called when a key's existence is checked
+   */
+  void onContains(TypedKey<?> key);
+
+  /**
+   * Called when a read falls back to the key's default value
+   */
+  void onDefaultValue(TypedKey<?> key);
+
+  /**
+   * Called after a key's stored value is decoded (via its codec or gson)
+   * @param key The key that was decoded
+   * @param durationNanos How long decoding took
+   * @param storedSize The size of the stored value (chars for Strings, bytes for byte arrays)
+   */
+  void onDecode(TypedKey<?> key, long durationNanos, int storedSize);
+
+  /**
+   * Called after a key's value is encoded (via its codec or gson)
+   * @param key The key that was encoded
+   * @param durationNanos How long encoding took
+   * @param storedSize The size of the stored value (chars for Strings, bytes for byte arrays)
+   */
+  void onEncode(TypedKey<?> key, long durationNanos, int storedSize);
+}
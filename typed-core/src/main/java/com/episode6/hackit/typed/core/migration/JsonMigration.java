@@ -0,0 +1,21 @@
+package com.episode6.hackit.typed.core.migration;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * A {@link Migration} for gson-translated values that operates on the parsed json tree.
+ */
+public abstract class JsonMigration implements Migration {
+
+  /**
+   * @param json The value's json tree in the previous schema version. It may be modified and returned.
+   * @return The value's json tree in the next schema version
+   */
+  protected abstract JsonElement migrate(JsonElement json);
+
+  @Override
+  public final String migrate(String encoded) {
+    return migrate(new JsonParser().parse(encoded)).toString();
+  }
+}
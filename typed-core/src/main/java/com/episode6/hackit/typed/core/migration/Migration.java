@@ -0,0 +1,14 @@
+package com.episode6.hackit.typed.core.migration;
+
+/**
+ * Migrates a key's encoded value (i.e. the String produced by its codec or gson) from one
+ * schema version to the next. See {@link JsonMigration} for migrating gson-translated values.
+ */
+public interface Migration {
+
+  /**
+   * @param encoded The value, encoded in the previous schema version
+   * @return The value, encoded in the next schema version
+   */
+  String migrate(String encoded);
+}
@@ -0,0 +1,107 @@
+package com.episode6.hackit.typed.core.migration;
+
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tags a key's encoded values with a schema version and lazily migrates values stored in older versions.
+ *
+ * Versioned values are stored as "~v" + version + ":" + encoded value. Values without a version tag
+ * (i.e. written before the key was versioned) are treated as version 0.
+ */
+public final class Versioning {
+
+  private static final String PREFIX = "~v";
+  private static final char SEPARATOR = ':';
+
+  private final int mVersion;
+  private final Map<Integer, Migration> mMigrations;
+
+  /**
+   * @param version The current schema version, must be at least 1
+   * @param migrations The migrations to get from each old version to the one after it, keyed by the version they
+   *                   migrate from.
+   */
+  public Versioning(int version, Map<Integer, Migration> migrations) {
+    if (version < 1) {
+      throw new IllegalArgumentException("Schema version must be at least 1, got: " + version);
+    }
+    for (Integer fromVersion : migrations.keySet()) {
+      if (fromVersion < 0 || fromVersion >= version) {
+        throw new IllegalArgumentException("Migration from version " + fromVersion + " is not below the " +
+            "current schema version " + version);
+      }
+      Preconditions.checkNotNull(migrations.get(fromVersion));
+    }
+    mVersion = version;
+    mMigrations = Collections.unmodifiableMap(new HashMap<>(migrations));
+  }
+
+  public int getVersion() {
+    return mVersion;
+  }
+
+  /**
+   * @param encoded A value encoded in the current schema version
+   * @return The value tagged with the current schema version
+   */
+  public String wrap(String encoded) {
+    return PREFIX + mVersion + SEPARATOR + encoded;
+  }
+
+  /**
+   * @param stored A stored value
+   * @return true if the stored value is tagged with the current schema version
+   */
+  public boolean isCurrent(String stored) {
+    return versionOf(stored) == mVersion;
+  }
+
+  /**
+   * Strip the version tag from a stored value, migrating it to the current schema version if needed.
+   * @param stored A stored value (as returned by {@link #wrap(String)}, or a legacy un-tagged value)
+   * @return The value encoded in the current schema version
+   * @throws IllegalStateException if the value was stored by a newer schema version, or a migration is missing
+   */
+  public String unwrap(String stored) {
+    int storedVersion = versionOf(stored);
+    String encoded = storedVersion == 0 ? stored : stored.substring(stored.indexOf(SEPARATOR) + 1);
+    if (storedVersion > mVersion) {
+      throw new IllegalStateException("Value was stored with schema version " + storedVersion +
+          " which is newer than the current version " + mVersion);
+    }
+    for (int version = storedVersion; version < mVersion; version++) {
+      Migration migration = mMigrations.get(version);
+      if (migration == null) {
+        throw new IllegalStateException("No migration from schema version " + version + " to " + (version + 1));
+      }
+      encoded = migration.migrate(encoded);
+    }
+    return encoded;
+  }
+
+  /**
+   * @param stored A stored value
+   * @return The schema version the value is tagged with, or 0 if it has no tag
+   */
+  static int versionOf(String stored) {
+    if (!stored.startsWith(PREFIX)) {
+      return 0;
+    }
+    int version = 0;
+    for (int i = PREFIX.length(); i < stored.length(); i++) {
+      char c = stored.charAt(i);
+      if (c == SEPARATOR) {
+        return i == PREFIX.length() ? 0 : version;
+      }
+      if (c < '0' || c > '9' || version > (Integer.MAX_VALUE - 9) / 10) {
+        return 0;
+      }
+      version = version * 10 + (c - '0');
+    }
+    return 0;
+  }
+}
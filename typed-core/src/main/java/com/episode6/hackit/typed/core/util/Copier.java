@@ -0,0 +1,9 @@
+package com.episode6.hackit.typed.core.util;
+
+/**
+ * Makes copies of mutable instances. Used for default values that are built once and copied
+ * on each read, when copying is cheaper than building a new default.
+ */
+public interface Copier<V> {
+  V copy(V instance);
+}
@@ -1,5 +1,6 @@
 package com.episode6.hackit.typed.core.util;
 
+import com.episode6.hackit.typed.core.adapters.GeneratedTypeAdapters;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -11,6 +12,7 @@ public class DefaultGsonSupplier implements Supplier<Gson> {
   public Gson get() {
     return new GsonBuilder()
         .enableComplexMapKeySerialization()
+        .registerTypeAdapterFactory(GeneratedTypeAdapters.factory())
         .create();
   }
 }
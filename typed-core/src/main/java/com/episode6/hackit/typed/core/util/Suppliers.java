@@ -31,6 +31,31 @@ public class Suppliers {
     return new MemoizedSupplier<>(delegate);
   }
 
+  /**
+   * @param prototypeSupplier Supplies the prototype instance, it will only be called once
+   * @param copier Copies the prototype
+   * @return A supplier that returns a new copy of the (memoized) prototype on every call
+   */
+  public static <T> Supplier<T> copyOnRead(Supplier<T> prototypeSupplier, Copier<T> copier) {
+    return new CopyingSupplier<>(memoize(prototypeSupplier), copier);
+  }
+
+  private static class CopyingSupplier<T> implements Supplier<T> {
+
+    private final Supplier<T> mPrototypeSupplier;
+    private final Copier<T> mCopier;
+
+    private CopyingSupplier(Supplier<T> prototypeSupplier, Copier<T> copier) {
+      mPrototypeSupplier = prototypeSupplier;
+      mCopier = Preconditions.checkNotNull(copier);
+    }
+
+    @Override
+    public T get() {
+      return mCopier.copy(mPrototypeSupplier.get());
+    }
+  }
+
   private static class MemoizedSupplier<T> implements Supplier<T> {
 
     private final Supplier<T> mDelegate;
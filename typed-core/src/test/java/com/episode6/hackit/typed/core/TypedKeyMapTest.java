@@ -0,0 +1,128 @@
+package com.episode6.hackit.typed.core;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link TypedKeyMap}
+ */
+public class TypedKeyMapTest {
+
+  private static final TypedKeyNamespace NAMESPACE = new TypedKeyNamespace(new TypedKeyNamespace("/"), "keyMapTest");
+
+  private final TypedKeyMap<TestKey, String> mMap = new TypedKeyMap<>();
+
+  @Test
+  public void testPutAndGet() {
+    TestKey key1 = new TestKey("key1", String.class);
+    TestKey key2 = new TestKey("key2", String.class);
+
+    mMap.put(key1, "value1");
+    mMap.put(key2, null);
+
+    assertThat(mMap.size()).isEqualTo(2);
+    assertThat(mMap.get(key1)).isEqualTo("value1");
+    assertThat(mMap.containsKey(key2)).isTrue();
+    assertThat(mMap.get(key2)).isNull();
+    assertThat(mMap.containsKey(new TestKey("key3", String.class))).isFalse();
+  }
+
+  @Test
+  public void testKeysWithSameNameShareEntry() {
+    TestKey stringKey = new TestKey("shared", String.class);
+    TestKey intKey = new TestKey("shared", Integer.class);
+
+    mMap.put(stringKey, "string");
+    mMap.put(intKey, "int");
+
+    assertThat(mMap.size()).isEqualTo(1);
+    assertThat(mMap.keyAt(0)).isSameAs(intKey);
+    assertThat(mMap.get(intKey)).isEqualTo("int");
+    assertThat(mMap.containsKey(stringKey)).isFalse();
+  }
+
+  @Test
+  public void testRemoveMovesLastEntry() {
+    TestKey key1 = new TestKey("remove1", String.class);
+    TestKey key2 = new TestKey("remove2", String.class);
+    TestKey key3 = new TestKey("remove3", String.class);
+    mMap.put(key1, "value1");
+    mMap.put(key2, "value2");
+    mMap.put(key3, "value3");
+
+    assertThat(mMap.remove(key1)).isTrue();
+
+    assertThat(mMap.size()).isEqualTo(2);
+    assertThat(mMap.keyAt(0)).isSameAs(key3);
+    assertThat(mMap.valueAt(0)).isEqualTo("value3");
+    assertThat(mMap.get(key2)).isEqualTo("value2");
+    assertThat(mMap.get(key3)).isEqualTo("value3");
+    assertThat(mMap.containsKey(key1)).isFalse();
+    assertThat(mMap.remove(key1)).isFalse();
+  }
+
+  @Test
+  public void testGrowsPastInitialSize() {
+    TestKey[] keys = new TestKey[100];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = new TestKey("grow" + i, String.class);
+      mMap.put(keys[i], "value" + i);
+    }
+    for (int i = 0; i < keys.length; i += 2) {
+      mMap.remove(keys[i]);
+    }
+
+    assertThat(mMap.size()).isEqualTo(50);
+    for (int i = 0; i < keys.length; i++) {
+      assertThat(mMap.get(keys[i])).isEqualTo(i % 2 == 0 ? null : "value" + i);
+    }
+  }
+
+  @Test
+  public void testClear() {
+    TestKey key = new TestKey("clear", String.class);
+    mMap.put(key, "value");
+
+    mMap.clear();
+
+    assertThat(mMap.isEmpty()).isTrue();
+    assertThat(mMap.containsKey(key)).isFalse();
+  }
+
+  private static class TestKey implements TypedKey<Object> {
+    private final TypedKeyName mKeyName;
+    private final Type mObjectType;
+
+    TestKey(String name, Type objectType) {
+      mKeyName = TypedKeyRegistry.keyName(NAMESPACE, name);
+      mObjectType = objectType;
+    }
+
+    @Override
+    public TypedKeyName getKeyName() {
+      return mKeyName;
+    }
+
+    @Override
+    public Type getObjectType() {
+      return mObjectType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof TestKey)) {
+        return false;
+      }
+      TestKey that = (TestKey) o;
+      return mKeyName.equals(that.mKeyName) && mObjectType.equals(that.mObjectType);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * mKeyName.hashCode() + mObjectType.hashCode();
+    }
+  }
+}
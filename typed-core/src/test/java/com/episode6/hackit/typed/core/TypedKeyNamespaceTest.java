@@ -75,4 +75,27 @@ public class TypedKeyNamespaceTest {
     assertThat(namespace1).isNotEqualTo(namespace2);
     assertThat(namespace1.hashCode()).isNotEqualTo(namespace2.hashCode());
   }
+
+  @Test
+  public void testParent() {
+    TypedKeyNamespace parentNamespace = new TypedKeyNamespace(mAnonymousNamespace, "parent");
+    TypedKeyNamespace namespace = new TypedKeyNamespace(parentNamespace, "child");
+
+    assertThat(namespace.getParent()).isSameAs(parentNamespace);
+    assertThat(parentNamespace.getParent()).isSameAs(mAnonymousNamespace);
+    assertThat(mAnonymousNamespace.getParent()).isNull();
+  }
+
+  @Test
+  public void testContainsKeyName() {
+    TypedKeyNamespace parentNamespace = new TypedKeyNamespace(mAnonymousNamespace, "parent");
+    TypedKeyNamespace namespace = new TypedKeyNamespace(parentNamespace, "child");
+
+    assertThat(namespace.containsKeyName("parent/child/key")).isTrue();
+    assertThat(namespace.containsKeyName("parent/child/sub/key")).isTrue();
+    assertThat(namespace.containsKeyName("parent/children/key")).isFalse();
+    assertThat(namespace.containsKeyName("parent/key")).isFalse();
+    assertThat(parentNamespace.containsKeyName("parent/child/key")).isTrue();
+    assertThat(mAnonymousNamespace.containsKeyName("anything")).isTrue();
+  }
 }
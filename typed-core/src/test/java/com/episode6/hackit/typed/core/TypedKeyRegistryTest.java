@@ -0,0 +1,106 @@
+package com.episode6.hackit.typed.core;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link TypedKeyRegistry}
+ */
+public class TypedKeyRegistryTest {
+
+  private static final TypedKeyNamespace ROOT = new TypedKeyNamespace("/");
+
+  @Test
+  public void testSameNameIsCanonicalized() {
+    TypedKeyNamespace namespace1 = new TypedKeyNamespace(ROOT, "registryTest");
+    TypedKeyNamespace namespace2 = new TypedKeyNamespace(ROOT, "registryTest");
+
+    TypedKeyName name1 = TypedKeyRegistry.keyName(namespace1, "canonical");
+    TypedKeyName name2 = TypedKeyRegistry.keyName(namespace2, "canonical");
+
+    assertThat(name1).isSameAs(name2);
+    assertThat(TypedKeyRegistry.forOrdinal(name1.getOrdinal())).isSameAs(name1);
+  }
+
+  @Test
+  public void testConstructedNameSharesOrdinal() {
+    TypedKeyNamespace namespace = new TypedKeyNamespace(ROOT, "registryTest");
+
+    TypedKeyName canonical = TypedKeyRegistry.keyName(namespace, "constructed");
+    TypedKeyName constructed = new TypedKeyName(namespace, "constructed");
+
+    assertThat(constructed).isNotSameAs(canonical);
+    assertThat(constructed.getOrdinal()).isEqualTo(canonical.getOrdinal());
+    assertThat(constructed).isEqualTo(canonical);
+    assertThat(constructed.hashCode()).isEqualTo(canonical.hashCode());
+  }
+
+  @Test
+  public void testDifferentNamesGetDenseOrdinals() {
+    TypedKeyNamespace namespace = new TypedKeyNamespace(ROOT, "registryTest");
+
+    TypedKeyName name1 = TypedKeyRegistry.keyName(namespace, "dense1");
+    TypedKeyName name2 = TypedKeyRegistry.keyName(namespace, "dense2");
+
+    assertThat(name1).isNotEqualTo(name2);
+    assertThat(name2.getOrdinal()).isEqualTo(name1.getOrdinal() + 1);
+    assertThat(TypedKeyRegistry.size()).isGreaterThan(name2.getOrdinal());
+  }
+
+  @Test
+  public void testSameNameDifferentNamespace() {
+    TypedKeyName name1 = TypedKeyRegistry.keyName(new TypedKeyNamespace(ROOT, "registryTest1"), "name");
+    TypedKeyName name2 = TypedKeyRegistry.keyName(new TypedKeyNamespace(ROOT, "registryTest2"), "name");
+
+    assertThat(name1).isNotEqualTo(name2);
+    assertThat(name1.getOrdinal()).isNotEqualTo(name2.getOrdinal());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullNameFails() {
+    TypedKeyRegistry.keyName(ROOT, null);
+  }
+
+  @Test
+  public void testGetKeysIncludesSubNamespaces() {
+    TypedKeyNamespace parent = new TypedKeyNamespace(ROOT, "keysTest");
+    TypedKey<String> parentKey = TypedKeyRegistry.registerKey(new TestKey(parent, "parentKey"));
+    TypedKey<String> childKey = TypedKeyRegistry.registerKey(
+        new TestKey(new TypedKeyNamespace(parent, "child"), "childKey"));
+    TypedKey<String> otherKey = TypedKeyRegistry.registerKey(
+        new TestKey(new TypedKeyNamespace(ROOT, "otherKeysTest"), "otherKey"));
+
+    assertThat(TypedKeyRegistry.getKeys(new TypedKeyNamespace(ROOT, "keysTest")))
+        .containsOnly(parentKey, childKey);
+    assertThat(TypedKeyRegistry.getKeys(new TypedKeyNamespace(parent, "child")))
+        .containsOnly(childKey);
+    assertThat(TypedKeyRegistry.getKeys(ROOT))
+        .contains(parentKey, childKey, otherKey);
+  }
+
+  @Test
+  public void testGetKeysUnknownNamespace() {
+    assertThat(TypedKeyRegistry.getKeys(new TypedKeyNamespace(ROOT, "unknownKeysTest"))).isEmpty();
+  }
+
+  private static class TestKey implements TypedKey<String> {
+    private final TypedKeyName mKeyName;
+
+    TestKey(TypedKeyNamespace namespace, String name) {
+      mKeyName = TypedKeyRegistry.keyName(namespace, name);
+    }
+
+    @Override
+    public TypedKeyName getKeyName() {
+      return mKeyName;
+    }
+
+    @Override
+    public Type getObjectType() {
+      return String.class;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.episode6.hackit.typed.core.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link GeneratedTypeAdapters}
+ */
+public class GeneratedTypeAdaptersTest {
+
+  @GenerateTypeAdapter
+  static class Annotated {
+    String value;
+  }
+
+  static class NotAnnotated {
+    String value;
+  }
+
+  @Test
+  public void testAdapterName() {
+    assertThat(GeneratedTypeAdapters.adapterName("com.example.Outer$Inner"))
+        .isEqualTo("com.example.Outer_Inner_TypeAdapter");
+  }
+
+  @Test
+  public void testFactoryFindsGeneratedAdapter() {
+    Gson gson = new GsonBuilder()
+        .registerTypeAdapterFactory(GeneratedTypeAdapters.factory())
+        .create();
+
+    TypeAdapter<Annotated> adapter = gson.getAdapter(Annotated.class);
+    Annotated value = gson.fromJson("{}", Annotated.class);
+
+    assertThat(adapter).isInstanceOf(GeneratedTypeAdaptersTest_Annotated_TypeAdapter.class);
+    assertThat(value.value).isEqualTo("fromGeneratedAdapter");
+  }
+
+  @Test
+  public void testFactoryIgnoresUnannotatedTypes() {
+    Gson gson = new Gson();
+
+    TypeAdapter<NotAnnotated> adapter = GeneratedTypeAdapters.factory().create(gson, TypeToken.get(NotAnnotated.class));
+
+    assertThat(adapter).isNull();
+  }
+}
@@ -0,0 +1,29 @@
+package com.episode6.hackit.typed.core.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Stands in for the adapter typed-compiler would generate for {@link GeneratedTypeAdaptersTest.Annotated}
+ */
+public final class GeneratedTypeAdaptersTest_Annotated_TypeAdapter extends TypeAdapter<GeneratedTypeAdaptersTest.Annotated> {
+
+  public GeneratedTypeAdaptersTest_Annotated_TypeAdapter(Gson gson) {}
+
+  @Override
+  public void write(JsonWriter out, GeneratedTypeAdaptersTest.Annotated value) throws IOException {
+    out.nullValue();
+  }
+
+  @Override
+  public GeneratedTypeAdaptersTest.Annotated read(JsonReader in) throws IOException {
+    in.skipValue();
+    GeneratedTypeAdaptersTest.Annotated value = new GeneratedTypeAdaptersTest.Annotated();
+    value.value = "fromGeneratedAdapter";
+    return value;
+  }
+}
@@ -0,0 +1,91 @@
+package com.episode6.hackit.typed.core.codec;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link Compression}
+ */
+public class CompressionTest {
+
+  private static final Compression COMPRESSION = new Compression(64);
+
+  @Test
+  public void testSmallStringsAreUnchanged() {
+    String stored = COMPRESSION.compressToString("{\"small\":true}");
+
+    assertThat(stored).isEqualTo("{\"small\":true}");
+    assertThat(COMPRESSION.decompressString(stored)).isEqualTo("{\"small\":true}");
+  }
+
+  @Test
+  public void testLargeStringsAreCompressed() {
+    String value = repeat("{\"name\":\"value\"},", 100);
+
+    String stored = COMPRESSION.compressToString(value);
+
+    assertThat(stored).startsWith("~z");
+    assertThat(stored.length()).isLessThan(value.length() / 4);
+    assertThat(COMPRESSION.decompressString(stored)).isEqualTo(value);
+  }
+
+  @Test
+  public void testOnlyValuesAboveThresholdAreCompressed() {
+    String atThreshold = repeat("a", 64);
+
+    assertThat(COMPRESSION.shouldCompress(atThreshold)).isFalse();
+    assertThat(COMPRESSION.shouldCompress(atThreshold + "a")).isTrue();
+    assertThat(COMPRESSION.compress(atThreshold.getBytes())[0]).isEqualTo(Compression.HEADER_RAW);
+    assertThat(COMPRESSION.compress((atThreshold + "a").getBytes())[0]).isEqualTo(Compression.HEADER_DEFLATE);
+  }
+
+  @Test
+  public void testMarkerIsEscaped() {
+    String stored = COMPRESSION.compressToString("~zNotCompressed");
+
+    assertThat(stored).isEqualTo("~~zNotCompressed");
+    assertThat(COMPRESSION.decompressString(stored)).isEqualTo("~zNotCompressed");
+  }
+
+  @Test
+  public void testBytesRoundTrip() {
+    String value = repeat("[1,2,3,4]", 100);
+
+    byte[] stored = COMPRESSION.compressToBytes(value);
+
+    assertThat(stored[0]).isEqualTo(Compression.HEADER_DEFLATE);
+    assertThat(stored.length).isLessThan(value.length() / 4);
+    assertThat(COMPRESSION.decompressToString(stored)).isEqualTo(value);
+  }
+
+  @Test
+  public void testIncompressibleBytesAreStoredRaw() {
+    byte[] value = new byte[256];
+    new Random(42).nextBytes(value);
+
+    byte[] stored = COMPRESSION.compress(value);
+
+    assertThat(stored[0]).isEqualTo(Compression.HEADER_RAW);
+    assertThat(stored.length).isEqualTo(value.length + 1);
+    assertThat(Arrays.equals(COMPRESSION.decompress(stored), value)).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncatedValueThrows() {
+    byte[] stored = COMPRESSION.compressToBytes(repeat("abcdefgh", 100));
+
+    COMPRESSION.decompress(Arrays.copyOf(stored, stored.length / 2));
+  }
+
+  private static String repeat(String value, int times) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < times; i++) {
+      builder.append(value);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,144 @@
+package com.episode6.hackit.typed.core.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link GsonAdapterCache}
+ */
+public class GsonAdapterCacheTest {
+
+  static class TestObj {
+    String name = "<name>";
+    Integer count = null;
+  }
+
+  @Test
+  public void testMatchesGson() {
+    Gson gson = new Gson();
+    GsonAdapterCache<TestObj> cache = new GsonAdapterCache<>(TestObj.class);
+
+    String json = cache.toJson(gson, new TestObj());
+    TestObj decoded = cache.fromJson(gson, json);
+
+    assertThat(json).isEqualTo(gson.toJson(new TestObj(), TestObj.class));
+    assertThat(decoded.name).isEqualTo("<name>");
+  }
+
+  @Test
+  public void testRespectsGsonSettings() {
+    Gson gson = new GsonBuilder()
+        .serializeNulls()
+        .disableHtmlEscaping()
+        .create();
+    GsonAdapterCache<TestObj> cache = new GsonAdapterCache<>(TestObj.class);
+
+    String json = cache.toJson(gson, new TestObj());
+
+    assertThat(json).isEqualTo("{\"name\":\"<name>\",\"count\":null}");
+  }
+
+  @Test
+  public void testEmptyJsonIsNull() {
+    GsonAdapterCache<TestObj> cache = new GsonAdapterCache<>(TestObj.class);
+
+    assertThat(cache.fromJson(new Gson(), "")).isNull();
+  }
+
+  @Test
+  public void testRepeatedTranslationsReuseBuffers() {
+    Gson gson = new Gson();
+    GsonAdapterCache<TestObj> objCache = new GsonAdapterCache<>(TestObj.class);
+    GsonAdapterCache<Integer> intCache = new GsonAdapterCache<>(Integer.class);
+
+    for (int i = 0; i < 100; i++) {
+      TestObj obj = new TestObj();
+      obj.count = i;
+      String objJson = objCache.toJson(gson, obj);
+      String intJson = intCache.toJson(gson, i);
+
+      assertThat(objCache.fromJson(gson, objJson).count).isEqualTo(i);
+      assertThat(intCache.fromJson(gson, intJson)).isEqualTo(i);
+      assertThat(objJson).isEqualTo(gson.toJson(obj));
+    }
+  }
+
+  @Test
+  public void testTrailingContentIsRejected() {
+    Gson gson = new Gson();
+    GsonAdapterCache<Integer> cache = new GsonAdapterCache<>(Integer.class);
+
+    try {
+      cache.fromJson(gson, "5 6");
+      fail("expected JsonSyntaxException");
+    } catch (JsonSyntaxException e) {
+      // expected
+    }
+
+    assertThat(cache.fromJson(gson, "7")).isEqualTo(7);
+  }
+
+  @Test
+  public void testTrailingValuesDontLeakIntoLaterReads() {
+    Gson gson = new Gson();
+    GsonAdapterCache<Integer> cache = new GsonAdapterCache<>(Integer.class);
+
+    try {
+      cache.fromJson(gson, "1,null,2");
+      fail("expected JsonSyntaxException");
+    } catch (JsonSyntaxException e) {
+      // expected
+    }
+
+    assertThat(cache.fromJson(gson, "5")).isEqualTo(5);
+  }
+
+  @Test
+  public void testMalformedJsonDoesntAffectLaterReads() {
+    Gson gson = new Gson();
+    GsonAdapterCache<TestObj> cache = new GsonAdapterCache<>(TestObj.class);
+
+    try {
+      cache.fromJson(gson, "{\"name\":");
+      fail("expected JsonSyntaxException");
+    } catch (JsonSyntaxException e) {
+      // expected
+    }
+
+    assertThat(cache.fromJson(gson, "{\"name\":\"hi\"}").name).isEqualTo("hi");
+  }
+
+  @Test
+  public void testAlternatingGsonInstances() {
+    Gson gson = new Gson();
+    Gson nullsGson = new GsonBuilder().serializeNulls().create();
+    GsonAdapterCache<TestObj> cache = new GsonAdapterCache<>(TestObj.class);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(cache.toJson(gson, new TestObj())).isEqualTo(gson.toJson(new TestObj()));
+      assertThat(cache.toJson(nullsGson, new TestObj())).isEqualTo(nullsGson.toJson(new TestObj()));
+    }
+  }
+
+  @Test
+  public void testDoesntKeepGsonAlive() {
+    GsonAdapterCache<TestObj> cache = new GsonAdapterCache<>(TestObj.class);
+    Gson gson = new Gson();
+    cache.toJson(gson, new TestObj());
+    WeakReference<Gson> gsonRef = new WeakReference<>(gson);
+    gson = null;
+
+    for (int i = 0; i < 10 && gsonRef.get() != null; i++) {
+      System.gc();
+    }
+
+    assertThat(gsonRef.get()).isNull();
+  }
+}
@@ -0,0 +1,196 @@
+package com.episode6.hackit.typed.core.codec;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link TaggedBinaryCodec}, {@link TaggedWriter} and {@link TaggedReader}
+ */
+public class TaggedBinaryCodecTest {
+
+  static class Profile {
+    String name;
+    int age;
+    long id;
+    boolean active;
+    float score;
+    double ratio;
+    List<String> tags = new ArrayList<>();
+    Profile friend;
+  }
+
+  // same as Profile, but only knows about some fields
+  static class OldProfile {
+    String name;
+    long id;
+  }
+
+  static final TaggedBinaryCodec<Profile> PROFILE_CODEC = new TaggedBinaryCodec<Profile>() {
+    @Override
+    protected void write(Profile value, TaggedWriter writer) {
+      writer.writeString(1, value.name)
+          .writeInt(2, value.age)
+          .writeLong(3, value.id)
+          .writeBoolean(4, value.active)
+          .writeFloat(5, value.score)
+          .writeDouble(6, value.ratio)
+          .writeValue(8, value.friend, this);
+      for (String tag : value.tags) {
+        writer.writeString(7, tag);
+      }
+    }
+
+    @Override
+    protected Profile read(TaggedReader reader) {
+      Profile profile = new Profile();
+      while (reader.next()) {
+        switch (reader.getTag()) {
+          case 1:
+            profile.name = reader.readString();
+            break;
+          case 2:
+            profile.age = reader.readInt();
+            break;
+          case 3:
+            profile.id = reader.readLong();
+            break;
+          case 4:
+            profile.active = reader.readBoolean();
+            break;
+          case 5:
+            profile.score = reader.readFloat();
+            break;
+          case 6:
+            profile.ratio = reader.readDouble();
+            break;
+          case 7:
+            profile.tags.add(reader.readString());
+            break;
+          case 8:
+            profile.friend = reader.readValue(this);
+            break;
+        }
+      }
+      return profile;
+    }
+  };
+
+  static final TaggedBinaryCodec<OldProfile> OLD_PROFILE_CODEC = new TaggedBinaryCodec<OldProfile>() {
+    @Override
+    protected void write(OldProfile value, TaggedWriter writer) {
+      writer.writeString(1, value.name)
+          .writeLong(3, value.id);
+    }
+
+    @Override
+    protected OldProfile read(TaggedReader reader) {
+      OldProfile profile = new OldProfile();
+      while (reader.next()) {
+        switch (reader.getTag()) {
+          case 1:
+            profile.name = reader.readString();
+            break;
+          case 3:
+            profile.id = reader.readLong();
+            break;
+        }
+      }
+      return profile;
+    }
+  };
+
+  @Test
+  public void testRoundTrip() {
+    Profile profile = createProfile();
+
+    Profile decoded = PROFILE_CODEC.decode(PROFILE_CODEC.encode(profile));
+
+    assertThat(decoded.name).isEqualTo("Player \u00e9\u4e2d");
+    assertThat(decoded.age).isEqualTo(-34);
+    assertThat(decoded.id).isEqualTo(Long.MAX_VALUE);
+    assertThat(decoded.active).isTrue();
+    assertThat(decoded.score).isEqualTo(1.5f);
+    assertThat(decoded.ratio).isEqualTo(-0.25);
+    assertThat(decoded.tags).containsExactly("one", "two");
+    assertThat(decoded.friend.name).isEqualTo("friend");
+    assertThat(decoded.friend.friend).isNull();
+  }
+
+  @Test
+  public void testUnknownFieldsAreSkipped() {
+    OldProfile decoded = OLD_PROFILE_CODEC.decode(PROFILE_CODEC.encode(createProfile()));
+
+    assertThat(decoded.name).isEqualTo("Player \u00e9\u4e2d");
+    assertThat(decoded.id).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testMissingFieldsAreDefaulted() {
+    OldProfile oldProfile = new OldProfile();
+    oldProfile.name = "old";
+    oldProfile.id = 7;
+
+    Profile decoded = PROFILE_CODEC.decode(OLD_PROFILE_CODEC.encode(oldProfile));
+
+    assertThat(decoded.name).isEqualTo("old");
+    assertThat(decoded.id).isEqualTo(7);
+    assertThat(decoded.age).isEqualTo(0);
+    assertThat(decoded.tags).isEmpty();
+  }
+
+  @Test
+  public void testSmallerThanGson() {
+    Profile profile = createProfile();
+
+    int binarySize = PROFILE_CODEC.encode(profile).length;
+    int base64Size = TypedCodecs.base64(PROFILE_CODEC).encode(profile).length();
+    int gsonSize = new Gson().toJson(profile).getBytes(TaggedWriter.UTF_8).length;
+
+    assertThat(binarySize).isLessThan(gsonSize / 2);
+    assertThat(base64Size).isLessThan(gsonSize);
+  }
+
+  @Test
+  public void testBase64RoundTrip() {
+    TypedCodec<byte[]> codec = TypedCodecs.base64(new BinaryCodec<byte[]>() {
+      @Override
+      public byte[] encode(byte[] value) {
+        return value;
+      }
+
+      @Override
+      public byte[] decode(byte[] encoded) {
+        return encoded;
+      }
+    });
+
+    for (int length = 0; length < 8; length++) {
+      byte[] bytes = new byte[length];
+      for (int i = 0; i < length; i++) {
+        bytes[i] = (byte) (i * 97 - 128);
+      }
+      assertThat(Arrays.equals(codec.decode(codec.encode(bytes)), bytes)).isTrue();
+    }
+    assertThat(codec.encode("Ma".getBytes(TaggedWriter.UTF_8))).isEqualTo("TWE=");
+  }
+
+  private static Profile createProfile() {
+    Profile profile = new Profile();
+    profile.name = "Player \u00e9\u4e2d";
+    profile.age = -34;
+    profile.id = Long.MAX_VALUE;
+    profile.active = true;
+    profile.score = 1.5f;
+    profile.ratio = -0.25;
+    profile.tags.addAll(Arrays.asList("one", "two"));
+    profile.friend = new Profile();
+    profile.friend.name = "friend";
+    return profile;
+  }
+}
@@ -0,0 +1,79 @@
+package com.episode6.hackit.typed.core.codec;
+
+import com.episode6.hackit.typed.core.util.Supplier;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link TypedCodecs}
+ */
+public class TypedCodecsTest {
+
+  enum TestEnum {
+    ONE,
+    TWO
+  }
+
+  private static final Supplier<Gson> GSON_SUPPLIER = new Supplier<Gson>() {
+    @Override
+    public Gson get() {
+      return new Gson();
+    }
+  };
+
+  @Test
+  public void testEnumCodec() {
+    TypedCodec<TestEnum> codec = TypedCodecs.forEnum(TestEnum.class);
+
+    String encoded = codec.encode(TestEnum.TWO);
+    TestEnum decoded = codec.decode(encoded);
+
+    assertThat(encoded).isEqualTo("\"TWO\"");
+    assertThat(decoded).isEqualTo(TestEnum.TWO);
+  }
+
+  @Test
+  public void testEnumCodecMatchesGson() {
+    TypedCodec<TestEnum> enumCodec = TypedCodecs.forEnum(TestEnum.class);
+    TypedCodec<TestEnum> gsonCodec = TypedCodecs.gson(GSON_SUPPLIER, TestEnum.class);
+
+    assertThat(enumCodec.encode(TestEnum.ONE)).isEqualTo(gsonCodec.encode(TestEnum.ONE));
+    assertThat(enumCodec.decode(gsonCodec.encode(TestEnum.TWO))).isEqualTo(TestEnum.TWO);
+    assertThat(gsonCodec.decode(enumCodec.encode(TestEnum.ONE))).isEqualTo(TestEnum.ONE);
+  }
+
+  @Test
+  public void testEnumCodecUnknownNameMatchesGson() {
+    TypedCodec<TestEnum> enumCodec = TypedCodecs.forEnum(TestEnum.class);
+    TypedCodec<TestEnum> gsonCodec = TypedCodecs.gson(GSON_SUPPLIER, TestEnum.class);
+
+    assertThat(gsonCodec.decode("\"THREE\"")).isNull();
+    assertThat(enumCodec.decode("\"THREE\"")).isNull();
+    assertThat(enumCodec.decode("null")).isNull();
+  }
+
+  @Test
+  public void testEnumCodecReadsEscapedNames() {
+    TypedCodec<TestEnum> enumCodec = TypedCodecs.forEnum(TestEnum.class);
+
+    assertThat(enumCodec.decode("\"T\\u0057O\"")).isEqualTo(TestEnum.TWO);
+  }
+
+  @Test
+  public void testEnumCodecRejectsMalformedJson() {
+    TypedCodec<TestEnum> enumCodec = TypedCodecs.forEnum(TestEnum.class);
+
+    for (String malformed : new String[]{"\"", "\"TWO", "{\"TWO\"}", "\"ONE\" \"TWO\""}) {
+      try {
+        enumCodec.decode(malformed);
+        fail("expected JsonSyntaxException for " + malformed);
+      } catch (JsonSyntaxException e) {
+        // expected
+      }
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.episode6.hackit.typed.core.metrics;
+
+import com.episode6.hackit.typed.core.TypedKey;
+import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.TypedKeyNamespace;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link MetricsRecorder} and {@link LatencyHistogram}
+ */
+public class MetricsRecorderTest {
+
+  private static final TypedKeyNamespace NAMESPACE = new TypedKeyNamespace("/") {};
+
+  private static class TestKey implements TypedKey<String> {
+    final TypedKeyName mKeyName;
+
+    TestKey(String name) {
+      mKeyName = new TypedKeyName(NAMESPACE, name);
+    }
+
+    @Override
+    public TypedKeyName getKeyName() {
+      return mKeyName;
+    }
+
+    @Override
+    public Type getObjectType() {
+      return String.class;
+    }
+  }
+
+  @Test
+  public void testCounters() {
+    MetricsRecorder recorder = new MetricsRecorder();
+    TestKey key = new TestKey("counters");
+
+    recorder.onGet(key);
+    recorder.onGet(new TestKey("counters"));
+    recorder.onPut(key);
+    recorder.onContains(key);
+    recorder.onContains(key);
+    recorder.onContains(key);
+    recorder.onDefaultValue(key);
+
+    MetricsRecorder.KeyStats stats = recorder.getStats(key);
+    assertThat(stats.getGetCount()).isEqualTo(2);
+    assertThat(stats.getPutCount()).isEqualTo(1);
+    assertThat(stats.getContainsCount()).isEqualTo(3);
+    assertThat(stats.getDefaultValueCount()).isEqualTo(1);
+    assertThat(recorder.getStats(new TestKey("other"))).isNull();
+  }
+
+  @Test
+  public void testLatencyAndSizes() {
+    MetricsRecorder recorder = new MetricsRecorder();
+    TestKey key = new TestKey("latency");
+
+    recorder.onEncode(key, 1000, 50);
+    recorder.onDecode(key, 100, 200);
+    recorder.onDecode(key, 3000, 20);
+
+    MetricsRecorder.KeyStats stats = recorder.getStats(key);
+    assertThat(stats.getEncodeLatency().getCount()).isEqualTo(1);
+    assertThat(stats.getDecodeLatency().getCount()).isEqualTo(2);
+    assertThat(stats.getLastStoredSize()).isEqualTo(20);
+    assertThat(stats.getMaxStoredSize()).isEqualTo(200);
+  }
+
+  @Test
+  public void testReset() {
+    MetricsRecorder recorder = new MetricsRecorder();
+    TestKey key = new TestKey("reset");
+    recorder.onGet(key);
+
+    recorder.reset();
+
+    assertThat(recorder.getStats(key)).isNull();
+    assertThat(recorder.getAllStats()).isEmpty();
+  }
+
+  @Test
+  public void testHistogramBuckets() {
+    assertThat(LatencyHistogram.bucketFor(0)).isEqualTo(0);
+    assertThat(LatencyHistogram.bucketFor(1)).isEqualTo(1);
+    assertThat(LatencyHistogram.bucketFor(2)).isEqualTo(2);
+    assertThat(LatencyHistogram.bucketFor(3)).isEqualTo(2);
+    assertThat(LatencyHistogram.bucketFor(1024)).isEqualTo(11);
+    assertThat(LatencyHistogram.bucketFor(Long.MAX_VALUE)).isEqualTo(63);
+  }
+
+  @Test
+  public void testHistogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertThat(histogram.getPercentileUpperBound(50)).isEqualTo(0);
+
+    for (int i = 0; i < 9; i++) {
+      histogram.record(100);
+    }
+    histogram.record(5000);
+
+    assertThat(histogram.getCount()).isEqualTo(10);
+    assertThat(histogram.getPercentileUpperBound(50)).isEqualTo(127);
+    assertThat(histogram.getPercentileUpperBound(90)).isEqualTo(127);
+    assertThat(histogram.getPercentileUpperBound(99)).isEqualTo(8191);
+  }
+}
@@ -0,0 +1,114 @@
+package com.episode6.hackit.typed.core.migration;
+
+import com.google.gson.JsonElement;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link Versioning}
+ */
+public class VersioningTest {
+
+  private static final Migration APPEND_ONE = new Migration() {
+    @Override
+    public String migrate(String encoded) {
+      return encoded + "1";
+    }
+  };
+
+  private static final Migration APPEND_TWO = new Migration() {
+    @Override
+    public String migrate(String encoded) {
+      return encoded + "2";
+    }
+  };
+
+  @Test
+  public void testWrap() {
+    Versioning versioning = versioning(3);
+
+    String stored = versioning.wrap("value");
+
+    assertThat(stored).isEqualTo("~v3:value");
+    assertThat(versioning.isCurrent(stored)).isTrue();
+    assertThat(versioning.unwrap(stored)).isEqualTo("value");
+  }
+
+  @Test
+  public void testUntaggedValuesAreVersionZero() {
+    Versioning versioning = versioning(2, APPEND_ONE, APPEND_TWO);
+
+    assertThat(versioning.isCurrent("value")).isFalse();
+    assertThat(versioning.unwrap("value")).isEqualTo("value12");
+  }
+
+  @Test
+  public void testMigratesFromStoredVersion() {
+    Versioning versioning = versioning(2, APPEND_ONE, APPEND_TWO);
+
+    assertThat(versioning.unwrap("~v1:value")).isEqualTo("value2");
+  }
+
+  @Test
+  public void testMalformedTagsAreVersionZero() {
+    assertThat(Versioning.versionOf("~v:value")).isEqualTo(0);
+    assertThat(Versioning.versionOf("~vx:value")).isEqualTo(0);
+    assertThat(Versioning.versionOf("~v12")).isEqualTo(0);
+    assertThat(Versioning.versionOf("~v99999999999:value")).isEqualTo(0);
+    assertThat(Versioning.versionOf("~v12:value")).isEqualTo(12);
+  }
+
+  @Test
+  public void testJsonMigration() {
+    Map<Integer, Migration> migrations = new HashMap<>();
+    migrations.put(0, new JsonMigration() {
+      @Override
+      protected JsonElement migrate(JsonElement json) {
+        json.getAsJsonObject().add("fullName", json.getAsJsonObject().remove("name"));
+        return json;
+      }
+    });
+    Versioning versioning = new Versioning(1, migrations);
+
+    assertThat(versioning.unwrap("{\"name\":\"bob\"}")).isEqualTo("{\"fullName\":\"bob\"}");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNewerVersionFails() {
+    versioning(1, APPEND_ONE).unwrap("~v2:value");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMissingMigrationFails() {
+    Map<Integer, Migration> migrations = new HashMap<>();
+    migrations.put(1, APPEND_TWO);
+
+    new Versioning(2, migrations).unwrap("value");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testVersionZeroFails() {
+    versioning(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMigrationFromCurrentVersionFails() {
+    Map<Integer, Migration> migrations = new HashMap<>();
+    migrations.put(1, APPEND_ONE);
+
+    new Versioning(1, migrations);
+  }
+
+  // migrations are keyed by their index, i.e. migrations[0] migrates from version 0 to 1
+  private static Versioning versioning(int version, Migration... migrations) {
+    Map<Integer, Migration> migrationMap = new HashMap<>();
+    for (int i = 0; i < migrations.length; i++) {
+      migrationMap.put(i, migrations[i]);
+    }
+    return new Versioning(version, migrationMap);
+  }
+}
@@ -0,0 +1,67 @@
+package com.episode6.hackit.typed.core.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Tests {@link Suppliers}
+ */
+public class SuppliersTest {
+
+  private static class CountingSupplier implements Supplier<List<String>> {
+    int mCalls = 0;
+
+    @Override
+    public List<String> get() {
+      mCalls++;
+      List<String> list = new ArrayList<>();
+      list.add("default");
+      return list;
+    }
+  }
+
+  private static final Copier<List<String>> LIST_COPIER = new Copier<List<String>>() {
+    @Override
+    public List<String> copy(List<String> instance) {
+      return new ArrayList<>(instance);
+    }
+  };
+
+  @Test
+  public void testMemoize() {
+    CountingSupplier delegate = new CountingSupplier();
+    Supplier<List<String>> supplier = Suppliers.memoize(delegate);
+
+    List<String> first = supplier.get();
+    List<String> second = supplier.get();
+
+    assertThat(first).isSameAs(second);
+    assertThat(delegate.mCalls).isEqualTo(1);
+  }
+
+  @Test
+  public void testMemoizeTwiceReturnsSameSupplier() {
+    Supplier<List<String>> supplier = Suppliers.memoize(new CountingSupplier());
+
+    assertThat(Suppliers.memoize(supplier)).isSameAs(supplier);
+  }
+
+  @Test
+  public void testCopyOnRead() {
+    CountingSupplier delegate = new CountingSupplier();
+    Supplier<List<String>> supplier = Suppliers.copyOnRead(delegate, LIST_COPIER);
+
+    List<String> first = supplier.get();
+    first.add("modified");
+    List<String> second = supplier.get();
+
+    assertThat(first).isNotSameAs(second);
+    assertThat(second).hasSize(1);
+    assertThat(second.get(0)).isEqualTo("default");
+    assertThat(delegate.mCalls).isEqualTo(1);
+  }
+}
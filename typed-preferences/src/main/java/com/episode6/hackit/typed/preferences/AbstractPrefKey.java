@@ -2,7 +2,14 @@ package com.episode6.hackit.typed.preferences;
 
 import com.episode6.hackit.typed.core.TypedKey;
 import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.GsonAdapterCache;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Versioning;
+import com.episode6.hackit.typed.core.util.Supplier;
+import com.google.gson.Gson;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Type;
 
 /**
@@ -12,10 +19,28 @@ public abstract class AbstractPrefKey<V> implements TypedKey<V> {
 
   private final TypedKeyName mKeyName;
   private final Type mObjectType;
+  private final @Nullable PrefTranslator mTranslator;
+  private final @Nullable TypedCodec<V> mCodec;
+  private final @Nullable Compression mCompression;
+  private final @Nullable Versioning mVersioning;
+  private final GsonAdapterCache<V> mAdapterCache;
+  private final int mHashCode;
 
-  public AbstractPrefKey(TypedKeyName keyName, Type objectType) {
+  public AbstractPrefKey(
+      TypedKeyName keyName,
+      Type objectType,
+      @Nullable PrefTranslator translator,
+      @Nullable TypedCodec<V> codec,
+      @Nullable Compression compression,
+      @Nullable Versioning versioning) {
     mKeyName = keyName;
     mObjectType = objectType;
+    mTranslator = translator;
+    mCodec = codec;
+    mCompression = compression;
+    mVersioning = versioning;
+    mAdapterCache = new GsonAdapterCache<>(objectType);
+    mHashCode = 31 * keyName.hashCode() + objectType.hashCode();
   }
 
   @Override
@@ -28,6 +53,55 @@ public abstract class AbstractPrefKey<V> implements TypedKey<V> {
     return mObjectType;
   }
 
+  /**
+   * @return The translator used to read/write this key directly to/from SharedPreferences,
+   * or null if this key is stored as an encoded String.
+   */
+  @Nullable PrefTranslator getTranslator() {
+    return mTranslator;
+  }
+
+  @Nullable V decode(@Nullable String encoded, Supplier<Gson> gsonSupplier) {
+    if (encoded == null) {
+      return null;
+    }
+    if (mCompression != null) {
+      encoded = mCompression.decompressString(encoded);
+    }
+    if (mVersioning != null) {
+      encoded = mVersioning.unwrap(encoded);
+    }
+    if (mCodec != null) {
+      return mCodec.decode(encoded);
+    }
+    return mAdapterCache.fromJson(gsonSupplier.get(), encoded);
+  }
+
+  String encode(V instance, Supplier<Gson> gsonSupplier) {
+    String encoded = mCodec != null ? mCodec.encode(instance) : mAdapterCache.toJson(gsonSupplier.get(), instance);
+    if (mVersioning != null) {
+      encoded = mVersioning.wrap(encoded);
+    }
+    return mCompression == null ? encoded : mCompression.compressToString(encoded);
+  }
+
+  /**
+   * Migrate a stored value to this key's current schema version without decoding it
+   * @param stored The value as stored in SharedPreferences
+   * @return The value to store in its place, or null if it's already current (or this key isn't versioned)
+   */
+  @Nullable String migrate(String stored) {
+    if (mVersioning == null) {
+      return null;
+    }
+    String encoded = mCompression == null ? stored : mCompression.decompressString(stored);
+    if (mVersioning.isCurrent(encoded)) {
+      return null;
+    }
+    String migrated = mVersioning.wrap(mVersioning.unwrap(encoded));
+    return mCompression == null ? migrated : mCompression.compressToString(migrated);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -42,13 +116,11 @@ public abstract class AbstractPrefKey<V> implements TypedKey<V> {
     if (!mKeyName.equals(that.mKeyName)) {
       return false;
     }
-    return mObjectType.equals(that.mObjectType);
+    return mObjectType == that.mObjectType || mObjectType.equals(that.mObjectType);
   }
 
   @Override
   public int hashCode() {
-    int result = mKeyName.hashCode();
-    result = 31 * result + mObjectType.hashCode();
-    return result;
+    return mHashCode;
   }
 }
@@ -0,0 +1,463 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.annotation.TargetApi;
+import com.episode6.hackit.typed.core.TypedKey;
+import com.episode6.hackit.typed.core.TypedKeyRegistry;
+import com.episode6.hackit.typed.core.metrics.Metrics;
+import com.episode6.hackit.typed.core.metrics.TypedMetrics;
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link TypedPrefs} whose {@link Editor#apply()} hands the edit to a background executor, where its values are
+ * encoded and applied to the wrapped TypedPrefs. Edits are applied in the order apply() was called. Until an edit
+ * reaches the wrapped TypedPrefs, its values are served from an in-memory overlay, so they're visible to reads as
+ * soon as apply() returns.
+ *
+ * {@link Editor#commit()} and the bulk reads (getAll/snapshot) first run any pending edits on the calling thread.
+ */
+class AsyncApplyTypedPrefs implements TypedPrefs {
+
+  // returned by getOverlaid() when the overlay doesn't cover a key
+  private static final Object NOT_OVERLAID = new Object();
+
+  private final TypedPrefs mDelegate;
+  private final Executor mExecutor;
+
+  private final Queue<PendingApply> mQueue = new ArrayDeque<>(); // guarded by mQueue
+  private final Object mRunLock = new Object();
+  private final ConcurrentMap<String, OverlayEntry> mOverlay = new ConcurrentHashMap<>();
+
+  // set while a cleared edit is pending, every key that isn't in the overlay reads as unset
+  private final AtomicReference<PendingApply> mPendingClear = new AtomicReference<>();
+
+  private final Runnable mDrainRunnable = new Runnable() {
+    @Override
+    public void run() {
+      drain();
+    }
+  };
+
+  AsyncApplyTypedPrefs(TypedPrefs delegate, Executor executor) {
+    mDelegate = Preconditions.checkNotNull(delegate);
+    mExecutor = Preconditions.checkNotNull(executor);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T get(PrefKey<T> prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    if (overlaid == NOT_OVERLAID) {
+      return mDelegate.get(prefKey);
+    }
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(prefKey);
+    }
+    if (overlaid == null) {
+      if (metrics != null) {
+        metrics.onDefaultValue(prefKey);
+      }
+      return prefKey.getDefaultValue();
+    }
+    return (T) overlaid;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  @Override
+  public <T> T get(OptPrefKey<T> prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    if (overlaid == NOT_OVERLAID) {
+      return mDelegate.get(prefKey);
+    }
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(prefKey);
+    }
+    return (T) overlaid;
+  }
+
+  @Override
+  public boolean contains(PrefKey<?> prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    return overlaid == NOT_OVERLAID ? mDelegate.contains(prefKey) : overlaid != null;
+  }
+
+  @Override
+  public boolean contains(OptPrefKey<?> prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    return overlaid == NOT_OVERLAID ? mDelegate.contains(prefKey) : overlaid != null;
+  }
+
+  @Override
+  public int getInt(IntPrefKey prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    if (overlaid == NOT_OVERLAID) {
+      return mDelegate.getInt(prefKey);
+    }
+    reportOverlaidGet(prefKey, overlaid);
+    return overlaid == null ? prefKey.getDefaultValue() : (Integer) overlaid;
+  }
+
+  @Override
+  public long getLong(LongPrefKey prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    if (overlaid == NOT_OVERLAID) {
+      return mDelegate.getLong(prefKey);
+    }
+    reportOverlaidGet(prefKey, overlaid);
+    return overlaid == null ? prefKey.getDefaultValue() : (Long) overlaid;
+  }
+
+  @Override
+  public boolean getBoolean(BoolPrefKey prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    if (overlaid == NOT_OVERLAID) {
+      return mDelegate.getBoolean(prefKey);
+    }
+    reportOverlaidGet(prefKey, overlaid);
+    return overlaid == null ? prefKey.getDefaultValue() : (Boolean) overlaid;
+  }
+
+  @Override
+  public float getFloat(FloatPrefKey prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    if (overlaid == NOT_OVERLAID) {
+      return mDelegate.getFloat(prefKey);
+    }
+    reportOverlaidGet(prefKey, overlaid);
+    return overlaid == null ? prefKey.getDefaultValue() : (Float) overlaid;
+  }
+
+  @Override
+  public double getDouble(DoublePrefKey prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    if (overlaid == NOT_OVERLAID) {
+      return mDelegate.getDouble(prefKey);
+    }
+    reportOverlaidGet(prefKey, overlaid);
+    return overlaid == null ? prefKey.getDefaultValue() : (Double) overlaid;
+  }
+
+  @Override
+  public boolean contains(PrimitivePrefKey<?> prefKey) {
+    Object overlaid = getOverlaid(prefKey);
+    return overlaid == NOT_OVERLAID ? mDelegate.contains(prefKey) : overlaid != null;
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys) {
+    drain();
+    return mDelegate.getAll(prefKeys);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys, Executor decodeExecutor) {
+    drain();
+    return mDelegate.getAll(prefKeys, decodeExecutor);
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot() {
+    drain();
+    return mDelegate.snapshot();
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot(PrefNamespace namespace) {
+    drain();
+    return mDelegate.snapshot(namespace);
+  }
+
+  @Override
+  public <T> void addListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    mDelegate.addListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void addListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    mDelegate.addListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    mDelegate.removeListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    mDelegate.removeListener(prefKey, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      TypedBatchListener listener) {
+    mDelegate.addBatchListener(prefKeys, windowMillis, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      ScheduledExecutorService deliveryExecutor,
+      TypedBatchListener listener) {
+    mDelegate.addBatchListener(prefKeys, windowMillis, deliveryExecutor, listener);
+  }
+
+  @Override
+  public void removeBatchListener(TypedBatchListener listener) {
+    mDelegate.removeBatchListener(listener);
+  }
+
+  @Override
+  public Editor edit() {
+    return new AsyncApplyEditor(mDelegate.edit());
+  }
+
+  /**
+   * @return the value a pending edit has put for the key (null if it removed it), or {@link #NOT_OVERLAID}
+   * if no pending edit covers the key
+   */
+  private @Nullable Object getOverlaid(AbstractPrefKey<?> prefKey) {
+    if (mOverlay.isEmpty() && mPendingClear.get() == null) {
+      return NOT_OVERLAID;
+    }
+    OverlayEntry entry = mOverlay.get(prefKey.getKeyName().toString());
+    if (entry == null) {
+      return mPendingClear.get() == null ? NOT_OVERLAID : null;
+    }
+    if (entry.mPrefKey == null || !entry.mPrefKey.equals(prefKey)) {
+      // the pending value is only available in its stored form (or as another key's type), so apply it first
+      drain();
+      return NOT_OVERLAID;
+    }
+    return entry.mValue;
+  }
+
+  // reports a read that was served from the overlay, since it never reaches the wrapped TypedPrefs
+  private static void reportOverlaidGet(AbstractPrefKey<?> prefKey, @Nullable Object overlaid) {
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(prefKey);
+      if (overlaid == null) {
+        metrics.onDefaultValue(prefKey);
+      }
+    }
+  }
+
+  private void enqueue(PendingApply pendingApply) {
+    synchronized (mQueue) {
+      mQueue.add(pendingApply);
+    }
+    mExecutor.execute(mDrainRunnable);
+  }
+
+  // runs every pending edit in order, on the calling thread
+  private void drain() {
+    RuntimeException failure = null;
+    synchronized (mRunLock) {
+      while (true) {
+        PendingApply pendingApply;
+        synchronized (mQueue) {
+          pendingApply = mQueue.poll();
+        }
+        if (pendingApply == null) {
+          break;
+        }
+        try {
+          pendingApply.mDelegateEditor.apply();
+        } catch (RuntimeException e) {
+          if (failure == null) {
+            failure = e;
+          }
+        } finally {
+          pendingApply.removeFromOverlay();
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private class PendingApply {
+    final Editor mDelegateEditor;
+    final Map<String, OverlayEntry> mOverlayEntries;
+
+    PendingApply(Editor delegateEditor, Map<String, OverlayEntry> overlayEntries) {
+      mDelegateEditor = delegateEditor;
+      mOverlayEntries = overlayEntries;
+    }
+
+    // entries that have since been overwritten by a newer edit are left alone
+    void removeFromOverlay() {
+      for (Map.Entry<String, OverlayEntry> entry : mOverlayEntries.entrySet()) {
+        mOverlay.remove(entry.getKey(), entry.getValue());
+      }
+      mPendingClear.compareAndSet(this, null);
+    }
+  }
+
+  private static class OverlayEntry {
+    final @Nullable AbstractPrefKey<?> mPrefKey; // null for raw values copied from a snapshot
+    final @Nullable Object mValue;
+
+    OverlayEntry(@Nullable AbstractPrefKey<?> prefKey, @Nullable Object value) {
+      mPrefKey = prefKey;
+      mValue = value;
+    }
+  }
+
+  /**
+   * Forwards every edit to the wrapped TypedPrefs' editor (which only records them) and keeps track of the
+   * values it will write, to be overlaid once it's applied
+   */
+  private class AsyncApplyEditor implements TypedPrefs.Editor {
+
+    private final TypedPrefs.Editor mDelegateEditor;
+    private final Map<String, OverlayEntry> mEdits = new HashMap<>();
+    private final Map<String, OverlayEntry> mRawEdits = new HashMap<>();
+    private boolean mCleared = false;
+
+    AsyncApplyEditor(TypedPrefs.Editor delegateEditor) {
+      mDelegateEditor = delegateEditor;
+    }
+
+    @TargetApi(9)
+    @Override
+    public void apply() {
+      Map<String, OverlayEntry> overlayEntries = new HashMap<>(mRawEdits);
+      overlayEntries.putAll(mEdits);
+      PendingApply pendingApply = new PendingApply(mDelegateEditor, overlayEntries);
+      if (mCleared) {
+        mPendingClear.set(pendingApply);
+        mOverlay.clear();
+      }
+      mOverlay.putAll(overlayEntries);
+      enqueue(pendingApply);
+    }
+
+    @Override
+    public void commit() {
+      drain();
+      mDelegateEditor.commit();
+    }
+
+    @Override
+    public void commit(CommitCallback callback) {
+      drain();
+      mDelegateEditor.commit(callback);
+    }
+
+    @Override
+    public <T> Editor put(PrefKey<T> prefKey, T instance) {
+      mDelegateEditor.put(prefKey, instance);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, instance));
+      return this;
+    }
+
+    @Override
+    public <T> Editor put(OptPrefKey<T> prefKey, @Nullable T instance) {
+      mDelegateEditor.put(prefKey, instance);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, instance));
+      return this;
+    }
+
+    @Override
+    public Editor putInt(IntPrefKey prefKey, int value) {
+      mDelegateEditor.putInt(prefKey, value);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, value));
+      return this;
+    }
+
+    @Override
+    public Editor putLong(LongPrefKey prefKey, long value) {
+      mDelegateEditor.putLong(prefKey, value);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, value));
+      return this;
+    }
+
+    @Override
+    public Editor putBoolean(BoolPrefKey prefKey, boolean value) {
+      mDelegateEditor.putBoolean(prefKey, value);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, value));
+      return this;
+    }
+
+    @Override
+    public Editor putFloat(FloatPrefKey prefKey, float value) {
+      mDelegateEditor.putFloat(prefKey, value);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, value));
+      return this;
+    }
+
+    @Override
+    public Editor putDouble(DoublePrefKey prefKey, double value) {
+      mDelegateEditor.putDouble(prefKey, value);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, value));
+      return this;
+    }
+
+    @Override
+    public Editor clear() {
+      mDelegateEditor.clear();
+      mCleared = true;
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrefKey<?> prefKey) {
+      mDelegateEditor.remove(prefKey);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, null));
+      return this;
+    }
+
+    @Override
+    public Editor remove(OptPrefKey<?> prefKey) {
+      mDelegateEditor.remove(prefKey);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, null));
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrimitivePrefKey<?> prefKey) {
+      mDelegateEditor.remove(prefKey);
+      mEdits.put(prefKey.getKeyName().toString(), new OverlayEntry(prefKey, null));
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrefNamespace namespace) {
+      mDelegateEditor.remove(namespace);
+      for (TypedKey<?> key : TypedKeyRegistry.getKeys(namespace)) {
+        if (key instanceof AbstractPrefKey) {
+          mEdits.put(key.getKeyName().toString(), new OverlayEntry((AbstractPrefKey<?>) key, null));
+        }
+      }
+      return this;
+    }
+
+    @Override
+    public Editor putAll(TypedPrefsSnapshot snapshot) {
+      mDelegateEditor.putAll(snapshot);
+      for (String keyName : snapshot.getRawValues().keySet()) {
+        mRawEdits.put(keyName, new OverlayEntry(null, null));
+      }
+      return this;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.core.TypedKeyName;
+
+/**
+ * A key representing a boolean preference in {@link android.content.SharedPreferences}, with a default value that's
+ * returned when it's unset. See {@link TypedPrefs#getBoolean(BoolPrefKey)}
+ */
+public final class BoolPrefKey extends PrimitivePrefKey<Boolean> {
+  private final boolean mDefaultValue;
+
+  BoolPrefKey(TypedKeyName keyName, boolean defaultValue) {
+    super(keyName, Boolean.class);
+    mDefaultValue = defaultValue;
+  }
+
+  boolean getDefaultValue() {
+    return mDefaultValue;
+  }
+}
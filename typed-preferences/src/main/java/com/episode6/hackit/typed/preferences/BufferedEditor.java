@@ -0,0 +1,124 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.annotation.TargetApi;
+import android.content.SharedPreferences;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base for the editors of our SharedPreferences decorators. Collects edits like android's editor does (a null value
+ * or a remove() is recorded as {@link #REMOVED}), and leaves it to subclasses to decide how and when the changes
+ * reach a backing editor, usually via {@link #putAll(SharedPreferences.Editor, boolean, Map)}.
+ *
+ * Subclasses should hold the editor's lock (i.e. be synchronized) while reading and resetting the changes.
+ */
+@TargetApi(11)
+abstract class BufferedEditor implements CallbackEditor {
+
+  // marks a removed key in a map of changes
+  static final Object REMOVED = new Object();
+
+  final Map<String, Object> mModified = new HashMap<>();
+  boolean mClear = false;
+
+  @Override
+  public SharedPreferences.Editor putString(String key, @Nullable String value) {
+    return putValue(key, value);
+  }
+
+  @Override
+  public SharedPreferences.Editor putStringSet(String key, @Nullable Set<String> values) {
+    return putValue(key, values == null ? null : new HashSet<>(values));
+  }
+
+  @Override
+  public SharedPreferences.Editor putInt(String key, int value) {
+    return putValue(key, value);
+  }
+
+  @Override
+  public SharedPreferences.Editor putLong(String key, long value) {
+    return putValue(key, value);
+  }
+
+  @Override
+  public SharedPreferences.Editor putFloat(String key, float value) {
+    return putValue(key, value);
+  }
+
+  @Override
+  public SharedPreferences.Editor putBoolean(String key, boolean value) {
+    return putValue(key, value);
+  }
+
+  @Override
+  public synchronized SharedPreferences.Editor remove(String key) {
+    mModified.put(key, REMOVED);
+    return this;
+  }
+
+  @Override
+  public synchronized SharedPreferences.Editor clear() {
+    mClear = true;
+    return this;
+  }
+
+  /**
+   * Commits synchronously and calls back with the result, subclasses that can commit without blocking override this
+   */
+  @Override
+  public void commit(CommitCallback callback) {
+    callback.onCommitted(commit());
+  }
+
+  /**
+   * Forget the collected changes, once they've been handed off
+   */
+  synchronized void reset() {
+    mModified.clear();
+    mClear = false;
+  }
+
+  private synchronized SharedPreferences.Editor putValue(String key, @Nullable Object value) {
+    mModified.put(key, value == null ? REMOVED : value);
+    return this;
+  }
+
+  /**
+   * Hand a set of changes to a backing editor
+   */
+  static void putAll(SharedPreferences.Editor editor, boolean clear, Map<String, Object> modified) {
+    if (clear) {
+      editor.clear();
+    }
+    for (Map.Entry<String, Object> entry : modified.entrySet()) {
+      putValue(editor, entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Hand a single change to a backing editor, by the type of its value
+   */
+  @SuppressWarnings("unchecked")
+  static void putValue(SharedPreferences.Editor editor, String key, Object value) {
+    if (value == REMOVED) {
+      editor.remove(key);
+    } else if (value instanceof String) {
+      editor.putString(key, (String) value);
+    } else if (value instanceof Integer) {
+      editor.putInt(key, (Integer) value);
+    } else if (value instanceof Long) {
+      editor.putLong(key, (Long) value);
+    } else if (value instanceof Float) {
+      editor.putFloat(key, (Float) value);
+    } else if (value instanceof Boolean) {
+      editor.putBoolean(key, (Boolean) value);
+    } else {
+      editor.putStringSet(key, (Set<String>) value);
+    }
+  }
+}
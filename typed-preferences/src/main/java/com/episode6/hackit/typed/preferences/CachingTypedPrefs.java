@@ -0,0 +1,368 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.annotation.TargetApi;
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.core.TypedKey;
+import com.episode6.hackit.typed.core.TypedKeyRegistry;
+import com.episode6.hackit.typed.core.metrics.Metrics;
+import com.episode6.hackit.typed.core.metrics.TypedMetrics;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link TypedPrefs} that caches the decoded values of codec/gson-translated keys, so repeated reads
+ * of an unchanged key don't need to be deserialized again. Cached values are invalidated by writes made
+ * through this object's {@link Editor} and by the backing {@link SharedPreferences}' change listener.
+ *
+ * Directly stored keys (primitives and Strings) are not cached, since reading them is already cheap.
+ */
+class CachingTypedPrefs implements TypedPrefs {
+
+  private final SharedPreferences mBackingPrefs;
+  private final TypedPrefsImpl mDelegate;
+  private final ConcurrentMap<String, CachedValue> mCache = new ConcurrentHashMap<>();
+
+  // incremented on every invalidation, so values decoded during an invalidation are not cached
+  private final AtomicLong mGeneration = new AtomicLong();
+
+  // SharedPreferences only holds weak references to its listeners, so we have to keep a strong one
+  private final SharedPreferences.OnSharedPreferenceChangeListener mChangeListener =
+      new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, @Nullable String key) {
+          // a null key means the prefs were cleared (on newer versions of android)
+          if (key == null) {
+            invalidateAll();
+          } else {
+            invalidate(key);
+          }
+        }
+      };
+
+  CachingTypedPrefs(SharedPreferences backingPrefs, TypedPrefsImpl delegate) {
+    mBackingPrefs = backingPrefs;
+    mDelegate = delegate;
+    mBackingPrefs.registerOnSharedPreferenceChangeListener(mChangeListener);
+  }
+
+  @Override
+  public <T> T get(PrefKey<T> prefKey) {
+    if (prefKey.getTranslator() != null) {
+      return mDelegate.get(prefKey);
+    }
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(prefKey);
+    }
+    T instance = getCached(prefKey);
+    if (instance == null) {
+      if (metrics != null) {
+        metrics.onDefaultValue(prefKey);
+      }
+      return prefKey.getDefaultValue();
+    }
+    return instance;
+  }
+
+  @Nullable
+  @Override
+  public <T> T get(OptPrefKey<T> prefKey) {
+    if (prefKey.getTranslator() != null) {
+      return mDelegate.get(prefKey);
+    }
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(prefKey);
+    }
+    return getCached(prefKey);
+  }
+
+  @Override
+  public boolean contains(PrefKey<?> prefKey) {
+    return mDelegate.contains(prefKey);
+  }
+
+  @Override
+  public boolean contains(OptPrefKey<?> prefKey) {
+    return mDelegate.contains(prefKey);
+  }
+
+  @Override
+  public int getInt(IntPrefKey prefKey) {
+    return mDelegate.getInt(prefKey);
+  }
+
+  @Override
+  public long getLong(LongPrefKey prefKey) {
+    return mDelegate.getLong(prefKey);
+  }
+
+  @Override
+  public boolean getBoolean(BoolPrefKey prefKey) {
+    return mDelegate.getBoolean(prefKey);
+  }
+
+  @Override
+  public float getFloat(FloatPrefKey prefKey) {
+    return mDelegate.getFloat(prefKey);
+  }
+
+  @Override
+  public double getDouble(DoublePrefKey prefKey) {
+    return mDelegate.getDouble(prefKey);
+  }
+
+  @Override
+  public boolean contains(PrimitivePrefKey<?> prefKey) {
+    return mDelegate.contains(prefKey);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys) {
+    return mDelegate.getAll(prefKeys);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys, Executor decodeExecutor) {
+    return mDelegate.getAll(prefKeys, decodeExecutor);
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot() {
+    return mDelegate.snapshot();
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot(PrefNamespace namespace) {
+    return mDelegate.snapshot(namespace);
+  }
+
+  @Override
+  public <T> void addListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    mDelegate.addListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void addListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    mDelegate.addListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    mDelegate.removeListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    mDelegate.removeListener(prefKey, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      TypedBatchListener listener) {
+    mDelegate.addBatchListener(prefKeys, windowMillis, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      ScheduledExecutorService deliveryExecutor,
+      TypedBatchListener listener) {
+    mDelegate.addBatchListener(prefKeys, windowMillis, deliveryExecutor, listener);
+  }
+
+  @Override
+  public void removeBatchListener(TypedBatchListener listener) {
+    mDelegate.removeBatchListener(listener);
+  }
+
+  @Override
+  public Editor edit() {
+    return new CachingEditor(mDelegate.edit());
+  }
+
+  @SuppressWarnings("unchecked")
+  private @Nullable <T> T getCached(AbstractPrefKey<T> prefKey) {
+    String keyName = prefKey.getKeyName().toString();
+    CachedValue cachedValue = mCache.get(keyName);
+    if (cachedValue != null && cachedValue.mKey.equals(prefKey)) {
+      return (T) cachedValue.mValue;
+    }
+    long generation = mGeneration.get();
+    T instance = mDelegate.getStored(prefKey);
+    CachedValue newValue = new CachedValue(prefKey, instance);
+    mCache.put(keyName, newValue);
+    if (mGeneration.get() != generation) {
+      // the value may have changed while we were reading it
+      mCache.remove(keyName, newValue);
+    }
+    return instance;
+  }
+
+  private void invalidate(String keyName) {
+    mGeneration.incrementAndGet();
+    mCache.remove(keyName);
+  }
+
+  private void invalidateAll() {
+    mGeneration.incrementAndGet();
+    mCache.clear();
+  }
+
+  private static class CachedValue {
+    final AbstractPrefKey<?> mKey;
+    final @Nullable Object mValue;
+
+    CachedValue(AbstractPrefKey<?> key, @Nullable Object value) {
+      mKey = key;
+      mValue = value;
+    }
+  }
+
+  /**
+   * Invalidates the cached values of every key it writes, once its changes are committed/applied
+   */
+  private class CachingEditor implements TypedPrefs.Editor {
+
+    private final TypedPrefs.Editor mDelegateEditor;
+    private final Set<String> mEditedKeyNames = new HashSet<>();
+    private boolean mInvalidateAll = false;
+
+    CachingEditor(TypedPrefs.Editor delegateEditor) {
+      mDelegateEditor = delegateEditor;
+    }
+
+    @TargetApi(9)
+    @Override
+    public void apply() {
+      mDelegateEditor.apply();
+      invalidateEdits();
+    }
+
+    @Override
+    public void commit() {
+      mDelegateEditor.commit();
+      invalidateEdits();
+    }
+
+    @Override
+    public void commit(CommitCallback callback) {
+      mDelegateEditor.commit(callback);
+      invalidateEdits();
+    }
+
+    @Override
+    public <T> Editor put(PrefKey<T> prefKey, T instance) {
+      mDelegateEditor.put(prefKey, instance);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public <T> Editor put(OptPrefKey<T> prefKey, @Nullable T instance) {
+      mDelegateEditor.put(prefKey, instance);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor putInt(IntPrefKey prefKey, int value) {
+      mDelegateEditor.putInt(prefKey, value);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor putLong(LongPrefKey prefKey, long value) {
+      mDelegateEditor.putLong(prefKey, value);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor putBoolean(BoolPrefKey prefKey, boolean value) {
+      mDelegateEditor.putBoolean(prefKey, value);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor putFloat(FloatPrefKey prefKey, float value) {
+      mDelegateEditor.putFloat(prefKey, value);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor putDouble(DoublePrefKey prefKey, double value) {
+      mDelegateEditor.putDouble(prefKey, value);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor clear() {
+      mDelegateEditor.clear();
+      mInvalidateAll = true;
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrefKey<?> prefKey) {
+      mDelegateEditor.remove(prefKey);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor remove(OptPrefKey<?> prefKey) {
+      mDelegateEditor.remove(prefKey);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrimitivePrefKey<?> prefKey) {
+      mDelegateEditor.remove(prefKey);
+      mEditedKeyNames.add(prefKey.getKeyName().toString());
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrefNamespace namespace) {
+      mDelegateEditor.remove(namespace);
+      for (TypedKey<?> key : TypedKeyRegistry.getKeys(namespace)) {
+        mEditedKeyNames.add(key.getKeyName().toString());
+      }
+      return this;
+    }
+
+    @Override
+    public Editor putAll(TypedPrefsSnapshot snapshot) {
+      mDelegateEditor.putAll(snapshot);
+      mEditedKeyNames.addAll(snapshot.getRawValues().keySet());
+      return this;
+    }
+
+    private void invalidateEdits() {
+      if (mInvalidateAll) {
+        invalidateAll();
+        return;
+      }
+      for (String keyName : mEditedKeyNames) {
+        invalidate(keyName);
+      }
+    }
+  }
+}
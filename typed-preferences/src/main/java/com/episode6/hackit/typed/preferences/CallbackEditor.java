@@ -0,0 +1,16 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+
+/**
+ * A {@link SharedPreferences.Editor} that can report when its changes have been written without blocking the caller
+ * (see {@link GroupCommitSharedPreferences}). {@link TypedPrefs.Editor#commit(CommitCallback)} hands its callback to
+ * backing editors that implement this, and commits any other editor synchronously.
+ */
+interface CallbackEditor extends SharedPreferences.Editor {
+
+  /**
+   * Commit the changes, calling back once they've been written (possibly on another thread)
+   */
+  void commit(CommitCallback callback);
+}
@@ -0,0 +1,13 @@
+package com.episode6.hackit.typed.preferences;
+
+/**
+ * Notified once the changes of a {@link TypedPrefs.Editor} have been committed.
+ * See {@link TypedPrefs.Editor#commit(CommitCallback)}
+ */
+public interface CommitCallback {
+
+  /**
+   * @param success true if the changes were successfully written to persistent storage
+   */
+  void onCommitted(boolean success);
+}
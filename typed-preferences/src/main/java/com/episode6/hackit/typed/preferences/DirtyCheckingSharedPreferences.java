@@ -0,0 +1,190 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.annotation.TargetApi;
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wraps a {@link SharedPreferences} so that editors only write the values that differ from what's already stored.
+ * Values are compared in their stored form (i.e. gson/codec-translated objects by their encoded strings), and an
+ * editor whose changes are all no-ops doesn't touch the backing SharedPreferences at all, so it triggers neither a
+ * write nor any change listeners.
+ *
+ * Editors compare and write while holding a single lock, so concurrent editors of this object can't drop each
+ * other's changes (the last writer still wins). Writes that bypass this object aren't covered by it.
+ */
+@TargetApi(11)
+class DirtyCheckingSharedPreferences implements SharedPreferences, StoredValueResolver {
+
+  private static final Object REMOVED = BufferedEditor.REMOVED;
+
+  private final SharedPreferences mBackingPrefs;
+
+  // held from comparing an editor's changes to the stored values until they've been handed to the backing prefs
+  private final Object mWriteLock = new Object();
+
+  DirtyCheckingSharedPreferences(SharedPreferences backingPrefs) {
+    mBackingPrefs = Preconditions.checkNotNull(backingPrefs);
+  }
+
+  @Override
+  public Map<String, ?> getAll() {
+    return mBackingPrefs.getAll();
+  }
+
+  @Override
+  public @Nullable Object resolve(String keyName, Object storedValue) {
+    return mBackingPrefs instanceof StoredValueResolver ?
+        ((StoredValueResolver) mBackingPrefs).resolve(keyName, storedValue) :
+        storedValue;
+  }
+
+  @Override
+  public String getString(String key, String defValue) {
+    return mBackingPrefs.getString(key, defValue);
+  }
+
+  @Override
+  public Set<String> getStringSet(String key, Set<String> defValues) {
+    return mBackingPrefs.getStringSet(key, defValues);
+  }
+
+  @Override
+  public int getInt(String key, int defValue) {
+    return mBackingPrefs.getInt(key, defValue);
+  }
+
+  @Override
+  public long getLong(String key, long defValue) {
+    return mBackingPrefs.getLong(key, defValue);
+  }
+
+  @Override
+  public float getFloat(String key, float defValue) {
+    return mBackingPrefs.getFloat(key, defValue);
+  }
+
+  @Override
+  public boolean getBoolean(String key, boolean defValue) {
+    return mBackingPrefs.getBoolean(key, defValue);
+  }
+
+  @Override
+  public boolean contains(String key) {
+    return mBackingPrefs.contains(key);
+  }
+
+  @Override
+  public Editor edit() {
+    return new DirtyCheckingEditor();
+  }
+
+  @Override
+  public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    mBackingPrefs.registerOnSharedPreferenceChangeListener(listener);
+  }
+
+  @Override
+  public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    mBackingPrefs.unregisterOnSharedPreferenceChangeListener(listener);
+  }
+
+  // true if the backing prefs already hold this value (or don't contain the key, for REMOVED)
+  @SuppressWarnings("unchecked")
+  private boolean isStored(String key, Object value) {
+    if (value == REMOVED) {
+      return !mBackingPrefs.contains(key);
+    }
+    if (!mBackingPrefs.contains(key)) {
+      return false;
+    }
+    try {
+      if (value instanceof String) {
+        return value.equals(mBackingPrefs.getString(key, null));
+      } else if (value instanceof Integer) {
+        return (Integer) value == mBackingPrefs.getInt(key, 0);
+      } else if (value instanceof Long) {
+        return (Long) value == mBackingPrefs.getLong(key, 0L);
+      } else if (value instanceof Float) {
+        return value.equals(mBackingPrefs.getFloat(key, 0f));
+      } else if (value instanceof Boolean) {
+        return (Boolean) value == mBackingPrefs.getBoolean(key, false);
+      } else {
+        return value.equals(mBackingPrefs.getStringSet(key, null));
+      }
+    } catch (ClassCastException e) {
+      // stored as a different type, so it's definitely a change
+      return false;
+    }
+  }
+
+  /**
+   * Collects edits like android's editor does, and only hands the ones that change something to a backing editor
+   */
+  private class DirtyCheckingEditor extends BufferedEditor {
+
+    @Override
+    public boolean commit() {
+      synchronized (mWriteLock) {
+        @Nullable SharedPreferences.Editor editor = toBackingEditor();
+        return editor == null || editor.commit();
+      }
+    }
+
+    @Override
+    public void apply() {
+      synchronized (mWriteLock) {
+        @Nullable SharedPreferences.Editor editor = toBackingEditor();
+        if (editor != null) {
+          editor.apply();
+        }
+      }
+    }
+
+    /**
+     * Hands the callback to the backing editor if it can commit without blocking (i.e. when wrapping a
+     * {@link GroupCommitSharedPreferences}), otherwise commits synchronously
+     */
+    @Override
+    public void commit(CommitCallback callback) {
+      Preconditions.checkNotNull(callback);
+      boolean success;
+      synchronized (mWriteLock) {
+        @Nullable SharedPreferences.Editor editor = toBackingEditor();
+        if (editor instanceof CallbackEditor) {
+          ((CallbackEditor) editor).commit(callback);
+          return;
+        }
+        success = editor == null || editor.commit();
+      }
+      callback.onCommitted(success);
+    }
+
+    /**
+     * @return a backing editor holding the changes that aren't no-ops, or null if there aren't any
+     */
+    private synchronized @Nullable SharedPreferences.Editor toBackingEditor() {
+      if (!mClear) {
+        // after a clear every remaining value is a change, so there's nothing to compare against
+        for (Iterator<Map.Entry<String, Object>> iterator = mModified.entrySet().iterator(); iterator.hasNext(); ) {
+          Map.Entry<String, Object> entry = iterator.next();
+          if (isStored(entry.getKey(), entry.getValue())) {
+            iterator.remove();
+          }
+        }
+        if (mModified.isEmpty()) {
+          return null;
+        }
+      }
+      SharedPreferences.Editor editor = mBackingPrefs.edit();
+      putAll(editor, mClear, mModified);
+      reset();
+      return editor;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.core.TypedKeyName;
+
+/**
+ * A key representing a double preference in {@link android.content.SharedPreferences}, with a default value that's
+ * returned when it's unset. See {@link TypedPrefs#getDouble(DoublePrefKey)}
+ */
+public final class DoublePrefKey extends PrimitivePrefKey<Double> {
+  private final double mDefaultValue;
+
+  DoublePrefKey(TypedKeyName keyName, double defaultValue) {
+    super(keyName, Double.class);
+    mDefaultValue = defaultValue;
+  }
+
+  double getDefaultValue() {
+    return mDefaultValue;
+  }
+}
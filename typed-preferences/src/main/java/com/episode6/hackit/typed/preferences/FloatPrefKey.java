@@ -0,0 +1,20 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.core.TypedKeyName;
+
+/**
+ * A key representing a float preference in {@link android.content.SharedPreferences}, with a default value that's
+ * returned when it's unset. See {@link TypedPrefs#getFloat(FloatPrefKey)}
+ */
+public final class FloatPrefKey extends PrimitivePrefKey<Float> {
+  private final float mDefaultValue;
+
+  FloatPrefKey(TypedKeyName keyName, float defaultValue) {
+    super(keyName, Float.class);
+    mDefaultValue = defaultValue;
+  }
+
+  float getDefaultValue() {
+    return mDefaultValue;
+  }
+}
@@ -0,0 +1,292 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.annotation.TargetApi;
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a {@link SharedPreferences} so that edits applied within a short window of each other are merged and
+ * written with a single commit to the backing SharedPreferences, instead of one write per editor.
+ *
+ * Applied edits are merged into a pending map in the order they were applied (so the last writer of a key wins),
+ * and reads are served from it until the group has been committed. If the backing commit fails, the group's values
+ * that haven't been superseded since are merged back into the pending map and retried with the next group.
+ */
+@TargetApi(11)
+class GroupCommitSharedPreferences implements SharedPreferences, StoredValueResolver {
+
+  // marks a removed key in the pending/in-flight maps, shared with our editors' changes
+  private static final Object REMOVED = BufferedEditor.REMOVED;
+
+  private final SharedPreferences mBackingPrefs;
+  private final ScheduledExecutorService mScheduler;
+  private final long mWindowMillis;
+
+  private final Object mFlushLock = new Object();
+
+  // edits waiting for the next group commit, guarded by this
+  private Map<String, Object> mPending = new LinkedHashMap<>();
+  private boolean mPendingClear = false;
+  private List<CommitCallback> mPendingCallbacks = new ArrayList<>();
+  private boolean mFlushScheduled = false;
+
+  // the group currently being committed, still served to reads until the commit completes, guarded by this
+  private Map<String, Object> mInFlight = new HashMap<>();
+  private boolean mInFlightClear = false;
+
+  private final Runnable mFlushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      flush();
+    }
+  };
+
+  GroupCommitSharedPreferences(SharedPreferences backingPrefs, ScheduledExecutorService scheduler, long windowMillis) {
+    mBackingPrefs = Preconditions.checkNotNull(backingPrefs);
+    mScheduler = Preconditions.checkNotNull(scheduler);
+    mWindowMillis = windowMillis;
+  }
+
+  @Override
+  public Map<String, ?> getAll() {
+    Map<String, Object> all = new HashMap<>();
+    synchronized (this) {
+      if (!mPendingClear && !mInFlightClear) {
+        all.putAll(mBackingPrefs.getAll());
+      }
+      if (!mPendingClear) {
+        mergeInto(all, mInFlight);
+      }
+      mergeInto(all, mPending);
+    }
+    return all;
+  }
+
+  @Override
+  public @Nullable Object resolve(String keyName, Object storedValue) {
+    // pending values are held as they were put, only the backing prefs' values can be in a stored form
+    if (getValue(keyName) != null || !(mBackingPrefs instanceof StoredValueResolver)) {
+      return storedValue;
+    }
+    return ((StoredValueResolver) mBackingPrefs).resolve(keyName, storedValue);
+  }
+
+  @Override
+  public String getString(String key, String defValue) {
+    Object value = getValue(key);
+    return value == null ? mBackingPrefs.getString(key, defValue) : value == REMOVED ? defValue : (String) value;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Set<String> getStringSet(String key, Set<String> defValues) {
+    Object value = getValue(key);
+    return value == null ?
+        mBackingPrefs.getStringSet(key, defValues) :
+        value == REMOVED ? defValues : (Set<String>) value;
+  }
+
+  @Override
+  public int getInt(String key, int defValue) {
+    Object value = getValue(key);
+    return value == null ? mBackingPrefs.getInt(key, defValue) : value == REMOVED ? defValue : (Integer) value;
+  }
+
+  @Override
+  public long getLong(String key, long defValue) {
+    Object value = getValue(key);
+    return value == null ? mBackingPrefs.getLong(key, defValue) : value == REMOVED ? defValue : (Long) value;
+  }
+
+  @Override
+  public float getFloat(String key, float defValue) {
+    Object value = getValue(key);
+    return value == null ? mBackingPrefs.getFloat(key, defValue) : value == REMOVED ? defValue : (Float) value;
+  }
+
+  @Override
+  public boolean getBoolean(String key, boolean defValue) {
+    Object value = getValue(key);
+    return value == null ? mBackingPrefs.getBoolean(key, defValue) : value == REMOVED ? defValue : (Boolean) value;
+  }
+
+  @Override
+  public boolean contains(String key) {
+    Object value = getValue(key);
+    return value == null ? mBackingPrefs.contains(key) : value != REMOVED;
+  }
+
+  @Override
+  public Editor edit() {
+    return new GroupEditor();
+  }
+
+  @Override
+  public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    mBackingPrefs.registerOnSharedPreferenceChangeListener(listener);
+  }
+
+  @Override
+  public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    mBackingPrefs.unregisterOnSharedPreferenceChangeListener(listener);
+  }
+
+  /**
+   * @return the pending value of the key, {@link #REMOVED} if it's pending removal, or null if the backing
+   * prefs should be read
+   */
+  private synchronized @Nullable Object getValue(String key) {
+    Object value = mPending.get(key);
+    if (value != null) {
+      return value;
+    }
+    if (mPendingClear) {
+      return REMOVED;
+    }
+    value = mInFlight.get(key);
+    if (value != null) {
+      return value;
+    }
+    return mInFlightClear ? REMOVED : null;
+  }
+
+  private synchronized void merge(boolean clear, Map<String, Object> modified, @Nullable CommitCallback callback) {
+    if (clear) {
+      mPending.clear();
+      mPendingClear = true;
+    }
+    for (Map.Entry<String, Object> entry : modified.entrySet()) {
+      // re-insert so the pending map stays in last-write order
+      mPending.remove(entry.getKey());
+      mPending.put(entry.getKey(), entry.getValue());
+    }
+    if (callback != null) {
+      mPendingCallbacks.add(callback);
+    }
+    if (!mFlushScheduled) {
+      mFlushScheduled = true;
+      mScheduler.schedule(mFlushRunnable, mWindowMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  // commits everything that's pending with a single backing commit
+  private boolean flush() {
+    synchronized (mFlushLock) {
+      Map<String, Object> group;
+      boolean clear;
+      List<CommitCallback> callbacks;
+      synchronized (this) {
+        mFlushScheduled = false;
+        if (mPending.isEmpty() && !mPendingClear) {
+          return true;
+        }
+        group = mPending;
+        clear = mPendingClear;
+        callbacks = mPendingCallbacks;
+        mInFlight = group;
+        mInFlightClear = clear;
+        mPending = new LinkedHashMap<>();
+        mPendingClear = false;
+        mPendingCallbacks = new ArrayList<>();
+      }
+      boolean success = false;
+      try {
+        success = commitGroup(clear, group);
+      } finally {
+        synchronized (this) {
+          mInFlight = new HashMap<>();
+          mInFlightClear = false;
+          if (!success) {
+            requeue(clear, group);
+          }
+        }
+        for (CommitCallback callback : callbacks) {
+          callback.onCommitted(success);
+        }
+      }
+      return success;
+    }
+  }
+
+  // merges a group that failed to commit back into the pending edits, under the ones that have been made since
+  private synchronized void requeue(boolean clear, Map<String, Object> group) {
+    if (mPendingClear) {
+      // cleared since, so none of the failed group's values matter anymore
+      return;
+    }
+    mPendingClear = clear;
+    Map<String, Object> pending = new LinkedHashMap<>(group);
+    for (Map.Entry<String, Object> entry : mPending.entrySet()) {
+      pending.remove(entry.getKey());
+      pending.put(entry.getKey(), entry.getValue());
+    }
+    mPending = pending;
+    if (!mFlushScheduled) {
+      mFlushScheduled = true;
+      mScheduler.schedule(mFlushRunnable, mWindowMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private boolean commitGroup(boolean clear, Map<String, Object> group) {
+    SharedPreferences.Editor editor = mBackingPrefs.edit();
+    BufferedEditor.putAll(editor, clear, group);
+    return editor.commit();
+  }
+
+  private static void mergeInto(Map<String, Object> all, Map<String, Object> edits) {
+    for (Map.Entry<String, Object> entry : edits.entrySet()) {
+      if (entry.getValue() == REMOVED) {
+        all.remove(entry.getKey());
+      } else {
+        all.put(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Collects edits like android's editor does, and merges them into the next group commit when applied
+   */
+  private class GroupEditor extends BufferedEditor {
+
+    /**
+     * Merges the changes into the next group commit and blocks until it has been written
+     */
+    @Override
+    public boolean commit() {
+      mergeChanges(null);
+      return flush();
+    }
+
+    /**
+     * Merges the changes into the next group commit, which happens once the window has passed
+     */
+    @Override
+    public void apply() {
+      mergeChanges(null);
+    }
+
+    /**
+     * Like {@link #apply()}, but calls back (on the scheduler's thread) once the group has been committed. If the
+     * commit fails, the callback is told so even though the changes are retried with the next group.
+     */
+    @Override
+    public void commit(CommitCallback callback) {
+      mergeChanges(Preconditions.checkNotNull(callback));
+    }
+
+    private synchronized void mergeChanges(@Nullable CommitCallback callback) {
+      merge(mClear, mModified, callback);
+      reset();
+    }
+  }
+}
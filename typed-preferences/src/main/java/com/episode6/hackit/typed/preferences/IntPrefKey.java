@@ -0,0 +1,20 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.core.TypedKeyName;
+
+/**
+ * A key representing an int preference in {@link android.content.SharedPreferences}, with a default value that's
+ * returned when it's unset. See {@link TypedPrefs#getInt(IntPrefKey)}
+ */
+public final class IntPrefKey extends PrimitivePrefKey<Integer> {
+  private final int mDefaultValue;
+
+  IntPrefKey(TypedKeyName keyName, int defaultValue) {
+    super(keyName, Integer.class);
+    mDefaultValue = defaultValue;
+  }
+
+  int getDefaultValue() {
+    return mDefaultValue;
+  }
+}
@@ -0,0 +1,20 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.core.TypedKeyName;
+
+/**
+ * A key representing a long preference in {@link android.content.SharedPreferences}, with a default value that's
+ * returned when it's unset. See {@link TypedPrefs#getLong(LongPrefKey)}
+ */
+public final class LongPrefKey extends PrimitivePrefKey<Long> {
+  private final long mDefaultValue;
+
+  LongPrefKey(TypedKeyName keyName, long defaultValue) {
+    super(keyName, Long.class);
+    mDefaultValue = defaultValue;
+  }
+
+  long getDefaultValue() {
+    return mDefaultValue;
+  }
+}
@@ -1,7 +1,11 @@
 package com.episode6.hackit.typed.preferences;
 
 import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Versioning;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Type;
 
 /**
@@ -10,7 +14,13 @@ import java.lang.reflect.Type;
  */
 public final class OptPrefKey<V> extends AbstractPrefKey<V> {
 
-  OptPrefKey(TypedKeyName keyName, Type objectType) {
-    super(keyName, objectType);
+  OptPrefKey(
+      TypedKeyName keyName,
+      Type objectType,
+      @Nullable PrefTranslator translator,
+      @Nullable TypedCodec<V> codec,
+      @Nullable Compression compression,
+      @Nullable Versioning versioning) {
+    super(keyName, objectType, translator, codec, compression, versioning);
   }
 }
@@ -1,8 +1,12 @@
 package com.episode6.hackit.typed.preferences;
 
 import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Versioning;
 import com.episode6.hackit.typed.core.util.Supplier;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Type;
 
 /**
@@ -12,8 +16,15 @@ import java.lang.reflect.Type;
 public final class PrefKey<V> extends AbstractPrefKey<V> {
   private final Supplier<V> mDefaultValueSupplier;
 
-  PrefKey(TypedKeyName keyName, Type objectType, Supplier<V> defaultValueSupplier) {
-    super(keyName, objectType);
+  PrefKey(
+      TypedKeyName keyName,
+      Type objectType,
+      @Nullable PrefTranslator translator,
+      @Nullable TypedCodec<V> codec,
+      @Nullable Compression compression,
+      @Nullable Versioning versioning,
+      Supplier<V> defaultValueSupplier) {
+    super(keyName, objectType, translator, codec, compression, versioning);
     mDefaultValueSupplier = defaultValueSupplier;
   }
 
@@ -1,14 +1,24 @@
 package com.episode6.hackit.typed.preferences;
 
-import com.episode6.hackit.typed.core.TypedKeyName;
 import com.episode6.hackit.typed.core.TypedKeyNamespace;
+import com.episode6.hackit.typed.core.TypedKeyRegistry;
+import com.episode6.hackit.typed.core.codec.BinaryCodec;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.codec.TypedCodecs;
+import com.episode6.hackit.typed.core.migration.Migration;
+import com.episode6.hackit.typed.core.migration.Versioning;
+import com.episode6.hackit.typed.core.util.Copier;
 import com.episode6.hackit.typed.core.util.InstanceSupplier;
 import com.episode6.hackit.typed.core.util.Preconditions;
 import com.episode6.hackit.typed.core.util.Supplier;
+import com.episode6.hackit.typed.core.util.Suppliers;
 import com.google.gson.reflect.TypeToken;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A Namespace under which all {@link PrefKey}s and {@link OptPrefKey}s exist. Each module or feature
@@ -61,6 +71,56 @@ public class PrefNamespace extends TypedKeyNamespace {
     return new KeyBuilder<T>(this, keyType.getType());
   }
 
+  /**
+   * Create a key that represents an int shared preference, whose value can be read without boxing
+   * @param name The name of the key
+   * @param defaultValue The value to be returned when this key has not been set
+   * @return A new {@link IntPrefKey}
+   */
+  public IntPrefKey intKey(String name, int defaultValue) {
+    return TypedKeyRegistry.registerKey(new IntPrefKey(TypedKeyRegistry.keyName(this, name), defaultValue));
+  }
+
+  /**
+   * Create a key that represents a long shared preference, whose value can be read without boxing
+   * @param name The name of the key
+   * @param defaultValue The value to be returned when this key has not been set
+   * @return A new {@link LongPrefKey}
+   */
+  public LongPrefKey longKey(String name, long defaultValue) {
+    return TypedKeyRegistry.registerKey(new LongPrefKey(TypedKeyRegistry.keyName(this, name), defaultValue));
+  }
+
+  /**
+   * Create a key that represents a boolean shared preference, whose value can be read without boxing
+   * @param name The name of the key
+   * @param defaultValue The value to be returned when this key has not been set
+   * @return A new {@link BoolPrefKey}
+   */
+  public BoolPrefKey boolKey(String name, boolean defaultValue) {
+    return TypedKeyRegistry.registerKey(new BoolPrefKey(TypedKeyRegistry.keyName(this, name), defaultValue));
+  }
+
+  /**
+   * Create a key that represents a float shared preference, whose value can be read without boxing
+   * @param name The name of the key
+   * @param defaultValue The value to be returned when this key has not been set
+   * @return A new {@link FloatPrefKey}
+   */
+  public FloatPrefKey floatKey(String name, float defaultValue) {
+    return TypedKeyRegistry.registerKey(new FloatPrefKey(TypedKeyRegistry.keyName(this, name), defaultValue));
+  }
+
+  /**
+   * Create a key that represents a double shared preference, whose value can be read without boxing
+   * @param name The name of the key
+   * @param defaultValue The value to be returned when this key has not been set
+   * @return A new {@link DoublePrefKey}
+   */
+  public DoublePrefKey doubleKey(String name, double defaultValue) {
+    return TypedKeyRegistry.registerKey(new DoublePrefKey(TypedKeyRegistry.keyName(this, name), defaultValue));
+  }
+
   /**
    * A Builder class used for creating {@link PrefKey}s and {@link OptPrefKey}s
    * @param <V> The type of object for the key we are creating
@@ -70,6 +130,11 @@ public class PrefNamespace extends TypedKeyNamespace {
     private final Type mObjectType;
 
     private @Nullable String mName;
+    private @Nullable TypedCodec<V> mCodec;
+    private @Nullable BinaryCodec<V> mBinaryCodec;
+    private @Nullable Integer mCompressionThreshold;
+    private @Nullable Integer mSchemaVersion;
+    private final Map<Integer, Migration> mMigrations = new HashMap<>();
 
     private KeyBuilder(PrefNamespace namespace, Type objectType) {
       mNamespace = namespace;
@@ -87,6 +152,76 @@ public class PrefNamespace extends TypedKeyNamespace {
       return this;
     }
 
+    /**
+     * Define a custom codec to translate this key's values to/from the String they are stored as.
+     * Without a codec, Primitive types are stored directly and all other types are translated via gson.
+     * Setting a codec on a Primitive type will cause it to be stored as a String.
+     * @param codec The codec to use for this key
+     * @return this KeyBuilder
+     */
+    public KeyBuilder<V> codec(TypedCodec<V> codec) {
+      mCodec = Preconditions.checkNotNull(codec);
+      mBinaryCodec = null;
+      return this;
+    }
+
+    /**
+     * Define a binary codec to translate this key's values (i.e. a
+     * {@link com.episode6.hackit.typed.core.codec.TaggedBinaryCodec}). Values are stored as Base64 Strings.
+     * @param binaryCodec The binary codec to use for this key
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> binaryCodec(BinaryCodec<V> binaryCodec) {
+      mBinaryCodec = Preconditions.checkNotNull(binaryCodec);
+      mCodec = null;
+      return this;
+    }
+
+    /**
+     * Deflate compress this key's values when their encoded form is larger than
+     * {@link Compression#DEFAULT_THRESHOLD}. Only supported for keys that are stored as Strings
+     * (i.e. gson translated keys and keys with a codec).
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> compressed() {
+      return compressed(Compression.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Deflate compress this key's values when their encoded form is larger than the given threshold.
+     * Only supported for keys that are stored as Strings (i.e. gson translated keys and keys with a codec).
+     * @param threshold The encoded size (in chars, or bytes for binary codecs) above which values are compressed
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> compressed(int threshold) {
+      mCompressionThreshold = threshold;
+      return this;
+    }
+
+    /**
+     * Tag this key's stored values with a schema version. Values stored with an older version
+     * (or before this key was versioned, i.e. version 0) are migrated lazily, the first time they
+     * are read, using the migrations added via {@link #migration(int, Migration)}.
+     * Only supported for keys that are stored as Strings (i.e. gson translated keys and keys with a codec).
+     * @param version The current schema version of this key's values, must be at least 1
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> version(int version) {
+      mSchemaVersion = version;
+      return this;
+    }
+
+    /**
+     * Add a migration to this key's chain of migrations. Requires a {@link #version(int)}.
+     * @param fromVersion The schema version this migration migrates from (it migrates to fromVersion + 1)
+     * @param migration The migration
+     * @return This KeyBuilder
+     */
+    public KeyBuilder<V> migration(int fromVersion, Migration migration) {
+      mMigrations.put(fromVersion, Preconditions.checkNotNull(migration));
+      return this;
+    }
+
     /**
      * Builds a {@link PrefKey} with the supplied default value.
      * @param defaultInstance The default value to be returned when this key has not been set
@@ -103,15 +238,43 @@ public class PrefNamespace extends TypedKeyNamespace {
      * Builds a {@link PrefKey} with the supplied default value.
      * @param defaultInstanceSupplier A supplier for the default value to be returned when this key has not been set
      *                                in {@link android.content.SharedPreferences}. Use this method if your key is
-     *                                not a Primitive type.
+     *                                not a Primitive type. It is called every time the unset key is read, see
+     *                                {@link #buildWithMemoizedDefault(Supplier)} and
+     *                                {@link #buildWithDefault(Supplier, Copier)} for cheaper alternatives.
      * @return A new {@link PrefKey}
      */
     public PrefKey<V> buildWithDefault(Supplier<V> defaultInstanceSupplier) {
       Preconditions.checkNotNull(defaultInstanceSupplier);
-      return new PrefKey<V>(
-          new TypedKeyName(mNamespace, mName),
+      return TypedKeyRegistry.registerKey(new PrefKey<V>(
+          TypedKeyRegistry.keyName(mNamespace, mName),
           mObjectType,
-          defaultInstanceSupplier);
+          getTranslator(),
+          getCodec(),
+          getCompression(),
+          getVersioning(),
+          defaultInstanceSupplier));
+    }
+
+    /**
+     * Builds a {@link PrefKey} whose default value is built once, the first time it's needed, and shared
+     * by every read of the unset key. Only use this method if the default value is never modified.
+     * @param defaultInstanceSupplier A supplier for the default value, it will only be called once
+     * @return A new {@link PrefKey}
+     */
+    public PrefKey<V> buildWithMemoizedDefault(Supplier<V> defaultInstanceSupplier) {
+      return buildWithDefault(Suppliers.memoize(defaultInstanceSupplier));
+    }
+
+    /**
+     * Builds a {@link PrefKey} whose default value is built once, and then copied for every read of the
+     * unset key. Use this method for mutable defaults that are cheaper to copy than to build.
+     * @param prototypeSupplier A supplier for the default value, it will only be called once
+     * @param copier Copies the default value returned by prototypeSupplier
+     * @return A new {@link PrefKey}
+     */
+    public PrefKey<V> buildWithDefault(Supplier<V> prototypeSupplier, Copier<V> copier) {
+      Preconditions.checkNotNull(prototypeSupplier);
+      return buildWithDefault(Suppliers.copyOnRead(prototypeSupplier, copier));
     }
 
     /**
@@ -119,9 +282,54 @@ public class PrefNamespace extends TypedKeyNamespace {
      * @return a new {@link OptPrefKey}
      */
     public OptPrefKey<V> buildOptional() {
-      return new OptPrefKey<V>(
-          new TypedKeyName(mNamespace, mName),
-          mObjectType);
+      return TypedKeyRegistry.registerKey(new OptPrefKey<V>(
+          TypedKeyRegistry.keyName(mNamespace, mName),
+          mObjectType,
+          getTranslator(),
+          getCodec(),
+          getCompression(),
+          getVersioning()));
+    }
+
+    private @Nullable PrefTranslator getTranslator() {
+      if (mCodec != null || mBinaryCodec != null) {
+        return null;
+      }
+      PrefTranslator translator = PrefTranslators.getDirectTranslator(mObjectType);
+      if (translator != null && mCompressionThreshold != null) {
+        throw new IllegalStateException("Cannot compress directly stored key " + mName + " of type " + mObjectType);
+      }
+      if (translator != null && mSchemaVersion != null) {
+        throw new IllegalStateException("Cannot version directly stored key " + mName + " of type " + mObjectType);
+      }
+      return translator;
+    }
+
+    private @Nullable TypedCodec<V> getCodec() {
+      if (mBinaryCodec == null) {
+        return mCodec;
+      }
+      // compress binary values before Base64 encoding them
+      return TypedCodecs.base64(mCompressionThreshold == null ?
+          mBinaryCodec :
+          TypedCodecs.compressed(mBinaryCodec, mCompressionThreshold));
+    }
+
+    private @Nullable Compression getCompression() {
+      if (mCompressionThreshold == null || mBinaryCodec != null) {
+        return null;
+      }
+      return new Compression(mCompressionThreshold);
+    }
+
+    private @Nullable Versioning getVersioning() {
+      if (mSchemaVersion == null) {
+        if (!mMigrations.isEmpty()) {
+          throw new IllegalStateException("Key " + mName + " has migrations but no schema version");
+        }
+        return null;
+      }
+      return new Versioning(mSchemaVersion, mMigrations);
     }
   }
 }
@@ -0,0 +1,21 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads and writes the values of keys whose types {@link SharedPreferences} can store directly
+ * (see {@link PrefTranslators}), so they skip gson. Values are untyped Objects, callers are
+ * responsible for only passing a translator values of the type it was picked for.
+ */
+interface PrefTranslator {
+
+  /**
+   * @return The stored value, or null if the key is not set. Implementations should only access
+   * the backing prefs once when the value is set (i.e. no contains() check before reading it).
+   */
+  @Nullable Object getFromPrefs(SharedPreferences prefs, String keyName);
+
+  void writeToEditor(SharedPreferences.Editor editor, String keyName, Object instance);
+}
@@ -0,0 +1,133 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Type;
+
+/**
+ * Holds our static {@link PrefTranslator}s for the types that {@link SharedPreferences}
+ * can store directly. A key's translator is resolved once, when the key is built, via
+ * {@link #getDirectTranslator(Type)}. Keys without a direct translator are stored as
+ * Strings, translated by their codec (or gson).
+ */
+class PrefTranslators {
+
+  static @Nullable PrefTranslator getDirectTranslator(Type keyType) {
+    if (keyType == Boolean.class) {
+      return BOOL;
+    } else if (keyType == Float.class) {
+      return FLOAT;
+    } else if (keyType == Integer.class) {
+      return INT;
+    } else if (keyType == Long.class) {
+      return LONG;
+    } else if (keyType == String.class) {
+      return STRING;
+    } else if (keyType == Double.class) {
+      return DOUBLE;
+    }
+    return null;
+  }
+
+  // Unlikely values, passed as the defValue when reading primitives. Only when one of these is returned
+  // do we need a second lookup (a call to contains()) to know if the key is actually set.
+  private static final int UNSET_INT = 0x7e57ab1e;
+  private static final long UNSET_LONG = 0x7e57ab1e7e57ab1eL;
+  private static final int UNSET_FLOAT_BITS = 0x7fc57ab1; // a NaN with a payload
+
+  private static final PrefTranslator BOOL = new PrefTranslator() {
+    @Override
+    public @Nullable Object getFromPrefs(SharedPreferences prefs, String keyName) {
+      // there's no room for an unset sentinel here, so only false values need to be double-checked
+      boolean value = prefs.getBoolean(keyName, false);
+      if (!value && !prefs.contains(keyName)) {
+        return null;
+      }
+      return value;
+    }
+
+    @Override
+    public void writeToEditor(SharedPreferences.Editor editor, String keyName, Object instance) {
+      editor.putBoolean(keyName, (Boolean) instance);
+    }
+  };
+
+  private static final PrefTranslator FLOAT = new PrefTranslator() {
+    @Override
+    public @Nullable Object getFromPrefs(SharedPreferences prefs, String keyName) {
+      float value = prefs.getFloat(keyName, Float.intBitsToFloat(UNSET_FLOAT_BITS));
+      if (Float.floatToRawIntBits(value) == UNSET_FLOAT_BITS && !prefs.contains(keyName)) {
+        return null;
+      }
+      return value;
+    }
+
+    @Override
+    public void writeToEditor(SharedPreferences.Editor editor, String keyName, Object instance) {
+      editor.putFloat(keyName, (Float) instance);
+    }
+  };
+
+  private static final PrefTranslator INT = new PrefTranslator() {
+    @Override
+    public @Nullable Object getFromPrefs(SharedPreferences prefs, String keyName) {
+      int value = prefs.getInt(keyName, UNSET_INT);
+      if (value == UNSET_INT && !prefs.contains(keyName)) {
+        return null;
+      }
+      return value;
+    }
+
+    @Override
+    public void writeToEditor(SharedPreferences.Editor editor, String keyName, Object instance) {
+      editor.putInt(keyName, (Integer) instance);
+    }
+  };
+
+  private static final PrefTranslator LONG = new PrefTranslator() {
+    @Override
+    public @Nullable Object getFromPrefs(SharedPreferences prefs, String keyName) {
+      long value = prefs.getLong(keyName, UNSET_LONG);
+      if (value == UNSET_LONG && !prefs.contains(keyName)) {
+        return null;
+      }
+      return value;
+    }
+
+    @Override
+    public void writeToEditor(SharedPreferences.Editor editor, String keyName, Object instance) {
+      editor.putLong(keyName, (Long) instance);
+    }
+  };
+
+  private static final PrefTranslator STRING = new PrefTranslator() {
+    @Override
+    public @Nullable Object getFromPrefs(SharedPreferences prefs, String keyName) {
+      return prefs.getString(keyName, null);
+    }
+
+    @Override
+    public void writeToEditor(SharedPreferences.Editor editor, String keyName, Object instance) {
+      editor.putString(keyName, (String) instance);
+    }
+  };
+
+  // SharedPreferences doesn't support doubles, so we store their raw long bits
+  private static final PrefTranslator DOUBLE = new PrefTranslator() {
+    @Override
+    public @Nullable Object getFromPrefs(SharedPreferences prefs, String keyName) {
+      long doubleBits = prefs.getLong(keyName, UNSET_LONG);
+      if (doubleBits == UNSET_LONG && !prefs.contains(keyName)) {
+        return null;
+      }
+      return Double.longBitsToDouble(doubleBits);
+    }
+
+    @Override
+    public void writeToEditor(SharedPreferences.Editor editor, String keyName, Object instance) {
+      long doubleBits = Double.doubleToRawLongBits((Double) instance);
+      editor.putLong(keyName, doubleBits);
+    }
+  };
+}
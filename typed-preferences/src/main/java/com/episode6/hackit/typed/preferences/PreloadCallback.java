@@ -0,0 +1,14 @@
+package com.episode6.hackit.typed.preferences;
+
+/**
+ * Notified once a {@link PreloadedTypedPrefs} has finished loading.
+ * See {@link PreloadedTypedPrefs#whenReady(PreloadCallback)}
+ */
+public interface PreloadCallback {
+
+  /**
+   * @param success true if the SharedPreferences were loaded, false if loading them failed (in which case
+   *                reading from the {@link PreloadedTypedPrefs} will throw)
+   */
+  void onPreloaded(boolean success);
+}
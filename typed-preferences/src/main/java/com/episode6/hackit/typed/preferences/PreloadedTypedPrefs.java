@@ -0,0 +1,23 @@
+package com.episode6.hackit.typed.preferences;
+
+/**
+ * A {@link TypedPrefs} that loads its {@link android.content.SharedPreferences} (and decodes its startup keys)
+ * on a background executor. See {@link TypedPrefs.Wrap#preloadSharedPrefs}
+ *
+ * Every {@link TypedPrefs} method waits for the load to finish, so use {@link #isReady()} or
+ * {@link #whenReady(PreloadCallback)} to avoid blocking the main thread on it.
+ */
+public interface PreloadedTypedPrefs extends TypedPrefs {
+
+  /**
+   * @return true once loading has finished (successfully or not), i.e. when reading won't block
+   */
+  boolean isReady();
+
+  /**
+   * Register a callback to be called once loading has finished. It's called on the thread that finished
+   * loading, or right away on the calling thread if loading has already finished.
+   * @param callback The callback to call
+   */
+  void whenReady(PreloadCallback callback);
+}
@@ -0,0 +1,263 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.core.util.Preconditions;
+import com.episode6.hackit.typed.core.util.Supplier;
+import com.episode6.hackit.typed.core.util.Suppliers;
+import com.google.gson.Gson;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * A {@link PreloadedTypedPrefs} that gets its {@link SharedPreferences} and waits for them to be parsed on a
+ * background executor, then builds the Gson instance and decodes the startup keys once, so their classes and
+ * adapters are loaded before the first reads. If caching is enabled, the startup keys are decoded into a
+ * {@link CachingTypedPrefs}, so their first reads are served from memory.
+ *
+ * Every TypedPrefs method is delegated to the loaded TypedPrefs, waiting for the load to finish if it hasn't yet.
+ */
+class PreloadingTypedPrefs implements PreloadedTypedPrefs {
+
+  private final FutureTask<TypedPrefs> mLoadTask;
+
+  // set once the load task has finished, so reads after that don't go through the FutureTask
+  private volatile @Nullable TypedPrefs mLoaded;
+
+  private final List<PreloadCallback> mCallbacks = new ArrayList<>(); // guarded by mCallbacks
+  private boolean mCallbacksCalled = false; // guarded by mCallbacks
+
+  PreloadingTypedPrefs(
+      final Supplier<SharedPreferences> sharedPrefsSupplier,
+      Supplier<Gson> gsonSupplier,
+      Executor loadExecutor,
+      Collection<? extends AbstractPrefKey<?>> startupKeys,
+      final boolean caching) {
+    Preconditions.checkNotNull(sharedPrefsSupplier);
+    final Supplier<Gson> memoizedGsonSupplier = Suppliers.memoize(gsonSupplier);
+    final List<AbstractPrefKey<?>> startupKeysCopy = new ArrayList<>(startupKeys);
+    mLoadTask = new FutureTask<TypedPrefs>(new Callable<TypedPrefs>() {
+      @Override
+      public TypedPrefs call() throws Exception {
+        return load(sharedPrefsSupplier.get(), memoizedGsonSupplier, startupKeysCopy, caching);
+      }
+    }) {
+      @Override
+      protected void done() {
+        onLoadFinished();
+      }
+    };
+    loadExecutor.execute(mLoadTask);
+  }
+
+  @Override
+  public boolean isReady() {
+    return mLoadTask.isDone();
+  }
+
+  @Override
+  public void whenReady(PreloadCallback callback) {
+    Preconditions.checkNotNull(callback);
+    synchronized (mCallbacks) {
+      if (!mCallbacksCalled) {
+        mCallbacks.add(callback);
+        return;
+      }
+    }
+    callback.onPreloaded(mLoaded != null);
+  }
+
+  @Override
+  public <T> T get(PrefKey<T> prefKey) {
+    return getLoaded().get(prefKey);
+  }
+
+  @Nullable
+  @Override
+  public <T> T get(OptPrefKey<T> prefKey) {
+    return getLoaded().get(prefKey);
+  }
+
+  @Override
+  public boolean contains(PrefKey<?> prefKey) {
+    return getLoaded().contains(prefKey);
+  }
+
+  @Override
+  public boolean contains(OptPrefKey<?> prefKey) {
+    return getLoaded().contains(prefKey);
+  }
+
+  @Override
+  public int getInt(IntPrefKey prefKey) {
+    return getLoaded().getInt(prefKey);
+  }
+
+  @Override
+  public long getLong(LongPrefKey prefKey) {
+    return getLoaded().getLong(prefKey);
+  }
+
+  @Override
+  public boolean getBoolean(BoolPrefKey prefKey) {
+    return getLoaded().getBoolean(prefKey);
+  }
+
+  @Override
+  public float getFloat(FloatPrefKey prefKey) {
+    return getLoaded().getFloat(prefKey);
+  }
+
+  @Override
+  public double getDouble(DoublePrefKey prefKey) {
+    return getLoaded().getDouble(prefKey);
+  }
+
+  @Override
+  public boolean contains(PrimitivePrefKey<?> prefKey) {
+    return getLoaded().contains(prefKey);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys) {
+    return getLoaded().getAll(prefKeys);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys, Executor decodeExecutor) {
+    return getLoaded().getAll(prefKeys, decodeExecutor);
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot() {
+    return getLoaded().snapshot();
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot(PrefNamespace namespace) {
+    return getLoaded().snapshot(namespace);
+  }
+
+  @Override
+  public <T> void addListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    getLoaded().addListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void addListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    getLoaded().addListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    getLoaded().removeListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    getLoaded().removeListener(prefKey, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      TypedBatchListener listener) {
+    getLoaded().addBatchListener(prefKeys, windowMillis, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      ScheduledExecutorService deliveryExecutor,
+      TypedBatchListener listener) {
+    getLoaded().addBatchListener(prefKeys, windowMillis, deliveryExecutor, listener);
+  }
+
+  @Override
+  public void removeBatchListener(TypedBatchListener listener) {
+    getLoaded().removeBatchListener(listener);
+  }
+
+  @Override
+  public Editor edit() {
+    return getLoaded().edit();
+  }
+
+  private static TypedPrefs load(
+      SharedPreferences sharedPreferences,
+      Supplier<Gson> gsonSupplier,
+      List<AbstractPrefKey<?>> startupKeys,
+      boolean caching) {
+    // blocks until the SharedPreferences' file has been parsed
+    sharedPreferences.getAll();
+    TypedPrefsImpl typedPrefsImpl = new TypedPrefsImpl(sharedPreferences, gsonSupplier);
+    TypedPrefs typedPrefs = caching ? new CachingTypedPrefs(sharedPreferences, typedPrefsImpl) : typedPrefsImpl;
+    gsonSupplier.get();
+    for (AbstractPrefKey<?> prefKey : startupKeys) {
+      // directly stored keys aren't decoded, so there's nothing to warm up
+      if (prefKey.getTranslator() != null) {
+        continue;
+      }
+      try {
+        if (prefKey instanceof PrefKey) {
+          typedPrefs.get((PrefKey<?>) prefKey);
+        } else if (prefKey instanceof OptPrefKey) {
+          typedPrefs.get((OptPrefKey<?>) prefKey);
+        }
+      } catch (RuntimeException e) {
+        // a value that can't be decoded will fail again when it's read, on the caller's thread
+      }
+    }
+    return typedPrefs;
+  }
+
+  private void onLoadFinished() {
+    try {
+      mLoaded = mLoadTask.get();
+    } catch (InterruptedException | ExecutionException | RuntimeException e) {
+      // the failure is rethrown by getLoaded()
+    }
+    List<PreloadCallback> callbacks;
+    synchronized (mCallbacks) {
+      mCallbacksCalled = true;
+      callbacks = new ArrayList<>(mCallbacks);
+      mCallbacks.clear();
+    }
+    for (PreloadCallback callback : callbacks) {
+      callback.onPreloaded(mLoaded != null);
+    }
+  }
+
+  private TypedPrefs getLoaded() {
+    TypedPrefs loaded = mLoaded;
+    if (loaded != null) {
+      return loaded;
+    }
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return mLoadTask.get();
+        } catch (InterruptedException e) {
+          // keep waiting, there's nothing to read until the load has finished
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to load SharedPreferences", e.getCause());
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.core.TypedKeyName;
+
+import java.lang.reflect.Type;
+
+/**
+ * Base class of the keys that represent a primitive preference in {@link android.content.SharedPreferences}
+ * ({@link IntPrefKey}, {@link LongPrefKey}, {@link BoolPrefKey}, {@link FloatPrefKey} and {@link DoublePrefKey}).
+ * Their values are read and written via the primitive methods of {@link TypedPrefs} (i.e.
+ * {@link TypedPrefs#getInt(IntPrefKey)}), which never box them.
+ */
+public abstract class PrimitivePrefKey<V> extends AbstractPrefKey<V> {
+
+  PrimitivePrefKey(TypedKeyName keyName, Type objectType) {
+    super(keyName, objectType, PrefTranslators.getDirectTranslator(objectType), null, null, null);
+  }
+}
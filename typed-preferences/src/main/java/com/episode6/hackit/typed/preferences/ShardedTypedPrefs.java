@@ -0,0 +1,428 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.annotation.TargetApi;
+import com.episode6.hackit.typed.core.TypedKey;
+import com.episode6.hackit.typed.core.TypedKeyName;
+import com.episode6.hackit.typed.core.TypedKeyNamespace;
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link TypedPrefs} that spreads its keys across several TypedPrefs (i.e. separate SharedPreferences files).
+ * Each key lives in the shard mapped to its closest {@link PrefNamespace} (itself or an ancestor), or in the
+ * default shard if none of them is mapped. A key's shard is resolved the first time it's used, and remembered.
+ *
+ * Editors split their changes by shard, so a commit only rewrites the files that were actually edited.
+ */
+class ShardedTypedPrefs implements TypedPrefs {
+
+  private final TypedPrefs mDefaultShard;
+  private final Map<TypedKeyNamespace, TypedPrefs> mNamespaceShards;
+  private final Set<TypedPrefs> mAllShards = new LinkedHashSet<>();
+  private final ConcurrentMap<TypedKeyName, TypedPrefs> mRoutes = new ConcurrentHashMap<>();
+
+  ShardedTypedPrefs(TypedPrefs defaultShard, Map<PrefNamespace, TypedPrefs> namespaceShards) {
+    mDefaultShard = Preconditions.checkNotNull(defaultShard);
+    mNamespaceShards = new HashMap<TypedKeyNamespace, TypedPrefs>(Preconditions.checkNotNull(namespaceShards));
+    mAllShards.add(mDefaultShard);
+    for (TypedPrefs shard : mNamespaceShards.values()) {
+      mAllShards.add(Preconditions.checkNotNull(shard));
+    }
+  }
+
+  @Override
+  public <T> T get(PrefKey<T> prefKey) {
+    return getShard(prefKey).get(prefKey);
+  }
+
+  @Nullable
+  @Override
+  public <T> T get(OptPrefKey<T> prefKey) {
+    return getShard(prefKey).get(prefKey);
+  }
+
+  @Override
+  public boolean contains(PrefKey<?> prefKey) {
+    return getShard(prefKey).contains(prefKey);
+  }
+
+  @Override
+  public boolean contains(OptPrefKey<?> prefKey) {
+    return getShard(prefKey).contains(prefKey);
+  }
+
+  @Override
+  public int getInt(IntPrefKey prefKey) {
+    return getShard(prefKey).getInt(prefKey);
+  }
+
+  @Override
+  public long getLong(LongPrefKey prefKey) {
+    return getShard(prefKey).getLong(prefKey);
+  }
+
+  @Override
+  public boolean getBoolean(BoolPrefKey prefKey) {
+    return getShard(prefKey).getBoolean(prefKey);
+  }
+
+  @Override
+  public float getFloat(FloatPrefKey prefKey) {
+    return getShard(prefKey).getFloat(prefKey);
+  }
+
+  @Override
+  public double getDouble(DoublePrefKey prefKey) {
+    return getShard(prefKey).getDouble(prefKey);
+  }
+
+  @Override
+  public boolean contains(PrimitivePrefKey<?> prefKey) {
+    return getShard(prefKey).contains(prefKey);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys) {
+    return getAllInternal(prefKeys, null);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys, Executor decodeExecutor) {
+    return getAllInternal(prefKeys, Preconditions.checkNotNull(decodeExecutor));
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot() {
+    List<TypedPrefsSnapshot> snapshots = new ArrayList<>(mAllShards.size());
+    for (TypedPrefs shard : mAllShards) {
+      snapshots.add(shard.snapshot());
+    }
+    return TypedPrefsSnapshot.merge(snapshots);
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot(PrefNamespace namespace) {
+    Set<TypedPrefs> shards = getShards(namespace);
+    if (shards.size() == 1) {
+      return shards.iterator().next().snapshot(namespace);
+    }
+    List<TypedPrefsSnapshot> snapshots = new ArrayList<>(shards.size());
+    for (TypedPrefs shard : shards) {
+      snapshots.add(shard.snapshot(namespace));
+    }
+    return TypedPrefsSnapshot.merge(snapshots);
+  }
+
+  @Override
+  public <T> void addListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    getShard(prefKey).addListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void addListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    getShard(prefKey).addListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    getShard(prefKey).removeListener(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    getShard(prefKey).removeListener(prefKey, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      TypedBatchListener listener) {
+    for (Map.Entry<TypedPrefs, List<AbstractPrefKey<?>>> entry : groupByShard(prefKeys).entrySet()) {
+      entry.getKey().addBatchListener(entry.getValue(), windowMillis, listener);
+    }
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      ScheduledExecutorService deliveryExecutor,
+      TypedBatchListener listener) {
+    for (Map.Entry<TypedPrefs, List<AbstractPrefKey<?>>> entry : groupByShard(prefKeys).entrySet()) {
+      entry.getKey().addBatchListener(entry.getValue(), windowMillis, deliveryExecutor, listener);
+    }
+  }
+
+  @Override
+  public void removeBatchListener(TypedBatchListener listener) {
+    for (TypedPrefs shard : mAllShards) {
+      shard.removeBatchListener(listener);
+    }
+  }
+
+  @Override
+  public Editor edit() {
+    return new ShardedEditor();
+  }
+
+  private TypedPrefs getShard(TypedKey<?> key) {
+    TypedKeyName keyName = key.getKeyName();
+    TypedPrefs shard = mRoutes.get(keyName);
+    if (shard == null) {
+      shard = resolveShard(keyName.getNamespace());
+      mRoutes.put(keyName, shard);
+    }
+    return shard;
+  }
+
+  private TypedPrefs resolveShard(@Nullable TypedKeyNamespace namespace) {
+    while (namespace != null) {
+      TypedPrefs shard = mNamespaceShards.get(namespace);
+      if (shard != null) {
+        return shard;
+      }
+      namespace = namespace.getParent();
+    }
+    return mDefaultShard;
+  }
+
+  /**
+   * Resolves a stored key name's shard by matching it against the mapped namespaces' names, so it works for keys
+   * that haven't been built (or registered) yet.
+   */
+  private TypedPrefs resolveShard(String keyName) {
+    TypedPrefs shard = mDefaultShard;
+    int matchedLength = -1;
+    for (Map.Entry<TypedKeyNamespace, TypedPrefs> entry : mNamespaceShards.entrySet()) {
+      // of the mapped namespaces containing the name, the one with the longest name is the closest
+      int length = entry.getKey().toString().length();
+      if (length > matchedLength && entry.getKey().containsKeyName(keyName)) {
+        shard = entry.getValue();
+        matchedLength = length;
+      }
+    }
+    return shard;
+  }
+
+  // the shards that can hold keys under a namespace: its own shard, plus those of its mapped sub-namespaces
+  private Set<TypedPrefs> getShards(TypedKeyNamespace namespace) {
+    Set<TypedPrefs> shards = new LinkedHashSet<>();
+    shards.add(resolveShard(namespace));
+    for (Map.Entry<TypedKeyNamespace, TypedPrefs> entry : mNamespaceShards.entrySet()) {
+      if (namespace.containsKeyName(entry.getKey().toString())) {
+        shards.add(entry.getValue());
+      }
+    }
+    return shards;
+  }
+
+  private Map<TypedPrefs, List<AbstractPrefKey<?>>> groupByShard(Collection<? extends AbstractPrefKey<?>> prefKeys) {
+    Map<TypedPrefs, List<AbstractPrefKey<?>>> grouped = new LinkedHashMap<>();
+    for (AbstractPrefKey<?> prefKey : prefKeys) {
+      TypedPrefs shard = getShard(prefKey);
+      List<AbstractPrefKey<?>> shardKeys = grouped.get(shard);
+      if (shardKeys == null) {
+        shardKeys = new ArrayList<>();
+        grouped.put(shard, shardKeys);
+      }
+      shardKeys.add(prefKey);
+    }
+    return grouped;
+  }
+
+  private TypedPrefsSnapshot getAllInternal(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      @Nullable Executor decodeExecutor) {
+    Map<TypedPrefs, List<AbstractPrefKey<?>>> grouped = groupByShard(prefKeys);
+    if (grouped.size() <= 1) {
+      TypedPrefs shard = grouped.isEmpty() ? mDefaultShard : grouped.keySet().iterator().next();
+      return getAll(shard, prefKeys, decodeExecutor);
+    }
+    // every requested value is decoded by its own shard, so the merged snapshot doesn't need to decode anything
+    List<TypedPrefsSnapshot> snapshots = new ArrayList<>(grouped.size());
+    for (Map.Entry<TypedPrefs, List<AbstractPrefKey<?>>> entry : grouped.entrySet()) {
+      snapshots.add(getAll(entry.getKey(), entry.getValue(), decodeExecutor));
+    }
+    return TypedPrefsSnapshot.merge(snapshots);
+  }
+
+  private static TypedPrefsSnapshot getAll(
+      TypedPrefs shard,
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      @Nullable Executor decodeExecutor) {
+    return decodeExecutor == null ? shard.getAll(prefKeys) : shard.getAll(prefKeys, decodeExecutor);
+  }
+
+  /**
+   * Opens an editor on each shard the first time one of its keys is edited, and applies/commits all of them
+   */
+  private class ShardedEditor implements TypedPrefs.Editor {
+
+    private final Map<TypedPrefs, Editor> mShardEditors = new LinkedHashMap<>();
+
+    @TargetApi(9)
+    @Override
+    public void apply() {
+      for (Editor editor : mShardEditors.values()) {
+        editor.apply();
+      }
+    }
+
+    @Override
+    public void commit() {
+      for (Editor editor : mShardEditors.values()) {
+        editor.commit();
+      }
+    }
+
+    @Override
+    public void commit(final CommitCallback callback) {
+      Preconditions.checkNotNull(callback);
+      if (mShardEditors.isEmpty()) {
+        callback.onCommitted(true);
+        return;
+      }
+      // calls back once every shard has been committed
+      final AtomicInteger remaining = new AtomicInteger(mShardEditors.size());
+      final AtomicBoolean success = new AtomicBoolean(true);
+      CommitCallback shardCallback = new CommitCallback() {
+        @Override
+        public void onCommitted(boolean shardSuccess) {
+          if (!shardSuccess) {
+            success.set(false);
+          }
+          if (remaining.decrementAndGet() == 0) {
+            callback.onCommitted(success.get());
+          }
+        }
+      };
+      for (Editor editor : mShardEditors.values()) {
+        editor.commit(shardCallback);
+      }
+    }
+
+    @Override
+    public <T> Editor put(PrefKey<T> prefKey, T instance) {
+      getEditor(getShard(prefKey)).put(prefKey, instance);
+      return this;
+    }
+
+    @Override
+    public <T> Editor put(OptPrefKey<T> prefKey, @Nullable T instance) {
+      getEditor(getShard(prefKey)).put(prefKey, instance);
+      return this;
+    }
+
+    @Override
+    public Editor putInt(IntPrefKey prefKey, int value) {
+      getEditor(getShard(prefKey)).putInt(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor putLong(LongPrefKey prefKey, long value) {
+      getEditor(getShard(prefKey)).putLong(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor putBoolean(BoolPrefKey prefKey, boolean value) {
+      getEditor(getShard(prefKey)).putBoolean(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor putFloat(FloatPrefKey prefKey, float value) {
+      getEditor(getShard(prefKey)).putFloat(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor putDouble(DoublePrefKey prefKey, double value) {
+      getEditor(getShard(prefKey)).putDouble(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor clear() {
+      for (TypedPrefs shard : mAllShards) {
+        getEditor(shard).clear();
+      }
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrefKey<?> prefKey) {
+      getEditor(getShard(prefKey)).remove(prefKey);
+      return this;
+    }
+
+    @Override
+    public Editor remove(OptPrefKey<?> prefKey) {
+      getEditor(getShard(prefKey)).remove(prefKey);
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrimitivePrefKey<?> prefKey) {
+      getEditor(getShard(prefKey)).remove(prefKey);
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrefNamespace namespace) {
+      for (TypedPrefs shard : getShards(namespace)) {
+        getEditor(shard).remove(namespace);
+      }
+      return this;
+    }
+
+    @Override
+    public Editor putAll(TypedPrefsSnapshot snapshot) {
+      Map<TypedPrefs, Map<String, Object>> rawValuesByShard = new LinkedHashMap<>();
+      for (Map.Entry<String, ?> entry : snapshot.getResolvedValues().entrySet()) {
+        getShardRawValues(rawValuesByShard, resolveShard(entry.getKey())).put(entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<TypedPrefs, Map<String, Object>> entry : rawValuesByShard.entrySet()) {
+        getEditor(entry.getKey()).putAll(new TypedPrefsSnapshot(entry.getValue(), snapshot.getGsonSupplier()));
+      }
+      return this;
+    }
+
+    private Editor getEditor(TypedPrefs shard) {
+      Editor editor = mShardEditors.get(shard);
+      if (editor == null) {
+        editor = shard.edit();
+        mShardEditors.put(shard, editor);
+      }
+      return editor;
+    }
+
+    private Map<String, Object> getShardRawValues(
+        Map<TypedPrefs, Map<String, Object>> rawValuesByShard,
+        TypedPrefs shard) {
+      Map<String, Object> shardRawValues = rawValuesByShard.get(shard);
+      if (shardRawValues == null) {
+        shardRawValues = new HashMap<>();
+        rawValuesByShard.put(shard, shardRawValues);
+      }
+      return shardRawValues;
+    }
+  }
+}
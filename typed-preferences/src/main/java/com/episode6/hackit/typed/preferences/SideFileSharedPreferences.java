@@ -0,0 +1,331 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.annotation.TargetApi;
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+/**
+ * Wraps a {@link SharedPreferences} so that String values longer than a threshold (i.e. large gson/codec-translated
+ * objects) are written to their own files in a directory, and only a small pointer (the file's name and a checksum)
+ * is kept in the backing SharedPreferences. That keeps the backing file small and quick to load, while large values
+ * are only read from disk the first time they're requested.
+ *
+ * {@link #getAll()} returns values exactly as they're stored, so a {@link TypedPrefsSnapshot} only reads the side
+ * files of the keys it decodes, and only unescapes values through {@link StoredValueResolver}.
+ *
+ * Side files are only deleted once nothing stored points to them anymore and the backing prefs have been committed,
+ * so an applied edit never leaves its old pointer on disk without a side file. Every successful commit deletes the
+ * files in the directory that aren't pointed to (including those replaced by earlier applies). If a side file is
+ * missing or doesn't match its checksum, its key reads as unset.
+ */
+@TargetApi(11)
+class SideFileSharedPreferences implements SharedPreferences, StoredValueResolver {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  // stored strings that start with TAG are either a pointer to a side file, or an escaped value that happened
+  // to start with TAG
+  private static final char TAG = '\uE000';
+  private static final char TAG_POINTER = 'p';
+  private static final char TAG_ESCAPED = 'e';
+  private static final char POINTER_SEPARATOR = ':';
+
+  private final SharedPreferences mBackingPrefs;
+  private final File mDirectory;
+  private final int mThreshold;
+
+  // held while an editor swaps pointers, so concurrent editors can't leave a side file orphaned
+  private final Object mEditLock = new Object();
+
+  // side file contents that have already been loaded, by pointer
+  private final ConcurrentMap<String, String> mLoaded = new ConcurrentHashMap<>();
+
+  SideFileSharedPreferences(SharedPreferences backingPrefs, File directory, int threshold) {
+    mBackingPrefs = Preconditions.checkNotNull(backingPrefs);
+    mDirectory = Preconditions.checkNotNull(directory);
+    mThreshold = threshold;
+  }
+
+  /**
+   * @return every value exactly as it's stored, i.e. pointers and escaped values are left for
+   * {@link #resolve(String, Object)}
+   */
+  @Override
+  public Map<String, ?> getAll() {
+    return mBackingPrefs.getAll();
+  }
+
+  @Override
+  public @Nullable Object resolve(String keyName, Object storedValue) {
+    return storedValue instanceof String ? resolve((String) storedValue) : storedValue;
+  }
+
+  @Override
+  public String getString(String key, String defValue) {
+    String stored = mBackingPrefs.getString(key, null);
+    if (stored == null) {
+      return defValue;
+    }
+    String value = resolve(stored);
+    return value == null ? defValue : value;
+  }
+
+  @Override
+  public Set<String> getStringSet(String key, Set<String> defValues) {
+    return mBackingPrefs.getStringSet(key, defValues);
+  }
+
+  @Override
+  public int getInt(String key, int defValue) {
+    return mBackingPrefs.getInt(key, defValue);
+  }
+
+  @Override
+  public long getLong(String key, long defValue) {
+    return mBackingPrefs.getLong(key, defValue);
+  }
+
+  @Override
+  public float getFloat(String key, float defValue) {
+    return mBackingPrefs.getFloat(key, defValue);
+  }
+
+  @Override
+  public boolean getBoolean(String key, boolean defValue) {
+    return mBackingPrefs.getBoolean(key, defValue);
+  }
+
+  /**
+   * A key pointing to a side file that's missing or doesn't match its checksum reads as unset, so it's not contained
+   * either (checking loads the side file, which the next read reuses)
+   */
+  @Override
+  public boolean contains(String key) {
+    String stored;
+    try {
+      stored = mBackingPrefs.getString(key, null);
+    } catch (ClassCastException e) {
+      // set to something other than a String, which is never written to a side file
+      return true;
+    }
+    return stored != null && resolve(stored) != null;
+  }
+
+  @Override
+  public Editor edit() {
+    return new SideFileEditor();
+  }
+
+  @Override
+  public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    mBackingPrefs.registerOnSharedPreferenceChangeListener(listener);
+  }
+
+  @Override
+  public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    mBackingPrefs.unregisterOnSharedPreferenceChangeListener(listener);
+  }
+
+  /**
+   * @return the value a stored string stands for (loading its side file if needed), or null if its side file
+   * can't be read
+   */
+  private @Nullable String resolve(String stored) {
+    if (stored.isEmpty() || stored.charAt(0) != TAG) {
+      return stored;
+    }
+    if (isEscaped(stored)) {
+      return stored.substring(2);
+    }
+    String value = mLoaded.get(stored);
+    if (value == null) {
+      value = load(stored);
+      if (value != null) {
+        mLoaded.put(stored, value);
+      }
+    }
+    return value;
+  }
+
+  private @Nullable String load(String pointer) {
+    int separator = pointer.lastIndexOf(POINTER_SEPARATOR);
+    if (separator < 2) {
+      return null;
+    }
+    byte[] bytes;
+    try {
+      bytes = readFile(new File(mDirectory, pointer.substring(2, separator)));
+    } catch (IOException e) {
+      return null;
+    }
+    if (!checksum(bytes).equals(pointer.substring(separator + 1))) {
+      return null;
+    }
+    return new String(bytes, UTF_8);
+  }
+
+  // returns the value to store in the backing prefs, writing it to a new side file if it's too large
+  private String toStored(String value, List<File> outWrittenFiles) {
+    if (value.length() > mThreshold) {
+      byte[] bytes = value.getBytes(UTF_8);
+      String fileName = UUID.randomUUID().toString();
+      File file = new File(mDirectory, fileName);
+      try {
+        writeFile(file, bytes);
+        outWrittenFiles.add(file);
+        return String.valueOf(TAG) + TAG_POINTER + fileName + POINTER_SEPARATOR + checksum(bytes);
+      } catch (IOException e) {
+        // fall back to storing the value inline
+        file.delete();
+      }
+    }
+    if (!value.isEmpty() && value.charAt(0) == TAG) {
+      return String.valueOf(TAG) + TAG_ESCAPED + value;
+    }
+    return value;
+  }
+
+  // deletes the side files that no stored value (or file written by the current commit) points to
+  private void deleteOrphanedSideFiles(List<File> writtenFiles) {
+    File[] files = mDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+    Set<String> referenced = new HashSet<>();
+    for (File file : writtenFiles) {
+      referenced.add(file.getName());
+    }
+    Set<String> pointers = new HashSet<>();
+    for (Object value : mBackingPrefs.getAll().values()) {
+      if (value instanceof String && isPointer((String) value)) {
+        String pointer = (String) value;
+        pointers.add(pointer);
+        int separator = pointer.lastIndexOf(POINTER_SEPARATOR);
+        if (separator >= 2) {
+          referenced.add(pointer.substring(2, separator));
+        }
+      }
+    }
+    mLoaded.keySet().retainAll(pointers);
+    for (File file : files) {
+      if (!referenced.contains(file.getName())) {
+        file.delete();
+      }
+    }
+  }
+
+  private static boolean isEscaped(String stored) {
+    return stored.length() > 1 && stored.charAt(0) == TAG && stored.charAt(1) == TAG_ESCAPED;
+  }
+
+  private static boolean isPointer(String stored) {
+    return stored.length() > 1 && stored.charAt(0) == TAG && stored.charAt(1) == TAG_POINTER;
+  }
+
+  private static String checksum(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length);
+    return Long.toHexString(crc.getValue());
+  }
+
+  private void writeFile(File file, byte[] bytes) throws IOException {
+    if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+      throw new IOException("Could not create side file directory " + mDirectory);
+    }
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(bytes);
+    } finally {
+      out.close();
+    }
+  }
+
+  private static byte[] readFile(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Collects edits like android's editor does, writes large values to side files and hands the rest (and the
+   * pointers) to a backing editor
+   */
+  private class SideFileEditor extends BufferedEditor {
+
+    /**
+     * Writes the side files, then commits the backing prefs. Once the commit succeeds, every side file that's no
+     * longer pointed to is deleted (or the new ones, if it fails).
+     */
+    @Override
+    public synchronized boolean commit() {
+      synchronized (mEditLock) {
+        List<File> writtenFiles = new ArrayList<>();
+        boolean success = toBackingEditor(writtenFiles).commit();
+        if (success) {
+          deleteOrphanedSideFiles(writtenFiles);
+        } else {
+          for (File file : writtenFiles) {
+            file.delete();
+          }
+        }
+        return success;
+      }
+    }
+
+    /**
+     * Writes the side files on the calling thread, then applies the backing prefs. The side files this replaces are
+     * left in place until the next successful commit, since the old pointers stay on disk until the apply has been
+     * written.
+     */
+    @Override
+    public synchronized void apply() {
+      synchronized (mEditLock) {
+        toBackingEditor(new ArrayList<File>()).apply();
+      }
+    }
+
+    private SharedPreferences.Editor toBackingEditor(List<File> outWrittenFiles) {
+      SharedPreferences.Editor editor = mBackingPrefs.edit();
+      if (mClear) {
+        editor.clear();
+      }
+      for (Map.Entry<String, Object> entry : mModified.entrySet()) {
+        Object value = entry.getValue();
+        if (value instanceof String) {
+          value = toStored((String) value, outWrittenFiles);
+        }
+        putValue(editor, entry.getKey(), value);
+      }
+      reset();
+      return editor;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.episode6.hackit.typed.preferences;
+
+import javax.annotation.Nullable;
+
+/**
+ * Implemented by SharedPreferences decorators whose {@link android.content.SharedPreferences#getAll()} returns some
+ * values in a stored form that's expensive to resolve (see {@link SideFileSharedPreferences}). A
+ * {@link TypedPrefsSnapshot} only resolves a value when its key is read, so taking a snapshot stays cheap.
+ */
+interface StoredValueResolver {
+
+  /**
+   * @param keyName The name the value was stored under
+   * @param storedValue A value returned by getAll()
+   * @return The value it stands for, or null if it can't be resolved (in which case the key reads as unset)
+   */
+  @Nullable Object resolve(String keyName, Object storedValue);
+}
@@ -0,0 +1,17 @@
+package com.episode6.hackit.typed.preferences;
+
+import java.util.Set;
+
+/**
+ * Listens for changes to a group of keys, coalesced into batches.
+ * See {@link TypedPrefs#addBatchListener(java.util.Collection, long, TypedBatchListener)}
+ */
+public interface TypedBatchListener {
+
+  /**
+   * Called once per batch of changes, with every watched key that changed since the last batch.
+   * Values are not decoded for batch listeners, read the ones you need from the {@link TypedPrefs}.
+   * @param changedKeys An unmodifiable set of the watched keys that changed
+   */
+  void onPrefsChanged(Set<AbstractPrefKey<?>> changedKeys);
+}
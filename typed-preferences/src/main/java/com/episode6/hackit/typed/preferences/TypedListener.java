@@ -0,0 +1,19 @@
+package com.episode6.hackit.typed.preferences;
+
+import javax.annotation.Nullable;
+
+/**
+ * Listens for changes to the value of a single {@link PrefKey} or {@link OptPrefKey}.
+ * See {@link TypedPrefs#addListener(PrefKey, TypedListener)}
+ * @param <V> The type of value the key holds
+ */
+public interface TypedListener<V> {
+
+  /**
+   * Called (on android's main thread) after the key's value has been changed or removed. The new value is
+   * decoded once per change and shared between every listener of the key, so it should not be modified.
+   * @param prefKey The key that changed
+   * @param newValue The key's new value, or its default value (null for an {@link OptPrefKey}) if it was removed
+   */
+  void onPrefChanged(AbstractPrefKey<V> prefKey, @Nullable V newValue);
+}
@@ -5,10 +5,16 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import com.episode6.hackit.typed.core.util.Preconditions;
 import com.episode6.hackit.typed.core.util.Supplier;
 import com.google.gson.Gson;
 
 import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Interface for accessing and modifying data stored in android's {@link android.content.SharedPreferences} using
@@ -50,6 +56,366 @@ public interface TypedPrefs {
     public static TypedPrefs sharedPrefs(SharedPreferences sharedPreferences, Supplier<Gson> gsonSupplier) {
       return new TypedPrefsImpl(sharedPreferences, gsonSupplier);
     }
+
+    /**
+     * Wrap an existing instance of android's {@link SharedPreferences} with a TypedPrefs implementation that
+     * caches decoded values (see {@link #cachingSharedPrefs(SharedPreferences, Supplier)}).
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @return A caching implementation of TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static TypedPrefs cachingSharedPrefs(SharedPreferences sharedPreferences) {
+      return cachingSharedPrefs(sharedPreferences, new DefaultGsonSupplier());
+    }
+
+    /**
+     * Wrap an existing instance of android's {@link SharedPreferences} with a TypedPrefs implementation that
+     * caches the decoded values of codec/gson-translated keys, so they aren't deserialized on every read.
+     * Cached values are invalidated when they're written through the returned TypedPrefs, or when a
+     * {@link SharedPreferences.OnSharedPreferenceChangeListener} reports a change to them.
+     *
+     * Cached objects are shared between callers, so they should not be modified without being put back.
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @param gsonSupplier A supplier for a {@link Gson} instance, which will be used to translate
+     *                     non-primitive objects
+     * @return A caching implementation of TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static TypedPrefs cachingSharedPrefs(SharedPreferences sharedPreferences, Supplier<Gson> gsonSupplier) {
+      return builder(sharedPreferences)
+          .gson(gsonSupplier)
+          .caching()
+          .build();
+    }
+
+    /**
+     * Wrap an existing instance of android's {@link SharedPreferences} with a TypedPrefs implementation that group
+     * commits (see {@link #groupCommitSharedPrefs(SharedPreferences, Supplier, ScheduledExecutorService, long)}).
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @param scheduler The executor to schedule and write group commits on
+     * @param windowMillis How long to collect edits for before committing them
+     * @return A group-committing implementation of TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static TypedPrefs groupCommitSharedPrefs(
+        SharedPreferences sharedPreferences,
+        ScheduledExecutorService scheduler,
+        long windowMillis) {
+      return groupCommitSharedPrefs(sharedPreferences, new DefaultGsonSupplier(), scheduler, windowMillis);
+    }
+
+    /**
+     * Wrap an existing instance of android's {@link SharedPreferences} with a TypedPrefs implementation that group
+     * commits: the changes of every editor applied within windowMillis of the first one are merged (the last write
+     * to a key wins) and written to the SharedPreferences with a single commit, on the scheduler's thread.
+     * Applied values are visible to the returned TypedPrefs right away, like with a regular apply().
+     *
+     * Use {@link Editor#commit(CommitCallback)} to find out when an edit has been written. {@link Editor#commit()}
+     * writes the pending group along with its own changes right away.
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @param gsonSupplier A supplier for a {@link Gson} instance, which will be used to translate
+     *                     non-primitive objects
+     * @param scheduler The executor to schedule and write group commits on
+     * @param windowMillis How long to collect edits for before committing them
+     * @return A group-committing implementation of TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static TypedPrefs groupCommitSharedPrefs(
+        SharedPreferences sharedPreferences,
+        Supplier<Gson> gsonSupplier,
+        ScheduledExecutorService scheduler,
+        long windowMillis) {
+      return builder(sharedPreferences)
+          .gson(gsonSupplier)
+          .groupCommit(scheduler, windowMillis)
+          .build();
+    }
+
+    /**
+     * Wrap an existing instance of android's {@link SharedPreferences} with a TypedPrefs implementation that
+     * skips no-op writes (see {@link #dirtyCheckingSharedPrefs(SharedPreferences, Supplier)}).
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @return A dirty-checking implementation of TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static TypedPrefs dirtyCheckingSharedPrefs(SharedPreferences sharedPreferences) {
+      return dirtyCheckingSharedPrefs(sharedPreferences, new DefaultGsonSupplier());
+    }
+
+    /**
+     * Wrap an existing instance of android's {@link SharedPreferences} with a TypedPrefs implementation that
+     * compares every value written by an editor against the stored one (gson/codec-translated objects are
+     * compared by their encoded form) and drops the ones that haven't changed. If nothing has changed, the
+     * commit/apply is skipped entirely, so the file isn't rewritten and no change listeners are called.
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @param gsonSupplier A supplier for a {@link Gson} instance, which will be used to translate
+     *                     non-primitive objects
+     * @return A dirty-checking implementation of TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static TypedPrefs dirtyCheckingSharedPrefs(
+        SharedPreferences sharedPreferences,
+        Supplier<Gson> gsonSupplier) {
+      return builder(sharedPreferences)
+          .gson(gsonSupplier)
+          .dirtyChecking()
+          .build();
+    }
+
+    /**
+     * Wrap an existing instance of android's {@link SharedPreferences} with a TypedPrefs implementation that
+     * stores large values in side files (see {@link #sideFileSharedPrefs(SharedPreferences, Supplier, File, int)}).
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @param directory The directory to write side files to, it should only be used by this TypedPrefs
+     * @param thresholdChars The stored length (in chars) above which a value is moved to a side file
+     * @return An implementation of TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static TypedPrefs sideFileSharedPrefs(
+        SharedPreferences sharedPreferences,
+        File directory,
+        int thresholdChars) {
+      return sideFileSharedPrefs(sharedPreferences, new DefaultGsonSupplier(), directory, thresholdChars);
+    }
+
+    /**
+     * Wrap an existing instance of android's {@link SharedPreferences} with a TypedPrefs implementation that
+     * writes every stored value longer than thresholdChars (i.e. large gson/codec-translated objects) to its own
+     * file in directory, and only keeps a small pointer and checksum in the SharedPreferences. This keeps the
+     * SharedPreferences file quick to load, and large values are only read from disk the first time they're
+     * requested (snapshots only read the side files of the keys they decode). Once a commit succeeds, side files
+     * that are no longer pointed to (because their keys were overwritten or removed) are deleted. Side files
+     * replaced by an apply() are kept until the next commit, since the old pointers may still be on disk until then.
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @param gsonSupplier A supplier for a {@link Gson} instance, which will be used to translate
+     *                     non-primitive objects
+     * @param directory The directory to write side files to, it should only be used by this TypedPrefs
+     * @param thresholdChars The stored length (in chars) above which a value is moved to a side file
+     * @return An implementation of TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static TypedPrefs sideFileSharedPrefs(
+        SharedPreferences sharedPreferences,
+        Supplier<Gson> gsonSupplier,
+        File directory,
+        int thresholdChars) {
+      return builder(sharedPreferences)
+          .gson(gsonSupplier)
+          .sideFiles(directory, thresholdChars)
+          .build();
+    }
+
+    /**
+     * Start building a TypedPrefs that combines several of the write modes offered here (i.e. dirty-checking
+     * group commits) over a single {@link SharedPreferences}. See {@link Builder}.
+     * @param sharedPreferences The {@link SharedPreferences} instance to Wrap
+     * @return A {@link Builder} for a TypedPrefs wrapping the supplied instance of SharedPreferences
+     */
+    public static Builder builder(SharedPreferences sharedPreferences) {
+      return new Builder(sharedPreferences);
+    }
+
+    /**
+     * Load this context's default {@link SharedPreferences} in the background
+     * (see {@link #preloadSharedPrefs(Supplier, Supplier, Executor, Collection)}).
+     * @param context android Context
+     * @param loadExecutor The executor to load the SharedPreferences and decode the startup keys on
+     * @param startupKeys The keys to decode ahead of time
+     * @return An implementation of TypedPrefs that's ready once your app's default shared preferences are loaded
+     */
+    public static PreloadedTypedPrefs preloadDefaultSharedPrefs(
+        final Context context,
+        Executor loadExecutor,
+        Collection<? extends AbstractPrefKey<?>> startupKeys) {
+      Supplier<SharedPreferences> sharedPrefsSupplier = new Supplier<SharedPreferences>() {
+        @Override
+        public SharedPreferences get() {
+          return PreferenceManager.getDefaultSharedPreferences(context);
+        }
+      };
+      return preloadSharedPrefs(sharedPrefsSupplier, new DefaultGsonSupplier(), loadExecutor, startupKeys);
+    }
+
+    /**
+     * Load a {@link SharedPreferences} in the background
+     * (see {@link #preloadSharedPrefs(Supplier, Supplier, Executor, Collection)}).
+     * @param sharedPrefsSupplier Supplies the SharedPreferences to wrap, it's called on the loadExecutor
+     * @param loadExecutor The executor to load the SharedPreferences and decode the startup keys on
+     * @param startupKeys The keys to decode ahead of time
+     * @return An implementation of TypedPrefs that's ready once the SharedPreferences are loaded
+     */
+    public static PreloadedTypedPrefs preloadSharedPrefs(
+        Supplier<SharedPreferences> sharedPrefsSupplier,
+        Executor loadExecutor,
+        Collection<? extends AbstractPrefKey<?>> startupKeys) {
+      return preloadSharedPrefs(sharedPrefsSupplier, new DefaultGsonSupplier(), loadExecutor, startupKeys);
+    }
+
+    /**
+     * Get a {@link SharedPreferences} and wait for it to be loaded from disk on a background executor, then build
+     * the Gson instance and decode the startup keys once, so their classes and Gson adapters are loaded before
+     * the first reads. To also keep the startup keys' decoded values for their first reads, use
+     * {@link #preloadCachingSharedPrefs(Supplier, Supplier, Executor, Collection)}.
+     *
+     * Every method of the returned TypedPrefs waits for the load to finish. Use {@link PreloadedTypedPrefs#isReady()}
+     * or {@link PreloadedTypedPrefs#whenReady(PreloadCallback)} to keep the main thread from waiting on it.
+     * @param sharedPrefsSupplier Supplies the SharedPreferences to wrap, it's called on the loadExecutor
+     * @param gsonSupplier A supplier for a {@link Gson} instance, which will be used to translate
+     *                     non-primitive objects
+     * @param loadExecutor The executor to load the SharedPreferences and decode the startup keys on
+     * @param startupKeys The keys to decode ahead of time
+     * @return An implementation of TypedPrefs that's ready once the SharedPreferences are loaded
+     */
+    public static PreloadedTypedPrefs preloadSharedPrefs(
+        Supplier<SharedPreferences> sharedPrefsSupplier,
+        Supplier<Gson> gsonSupplier,
+        Executor loadExecutor,
+        Collection<? extends AbstractPrefKey<?>> startupKeys) {
+      return new PreloadingTypedPrefs(sharedPrefsSupplier, gsonSupplier, loadExecutor, startupKeys, false);
+    }
+
+    /**
+     * Load a {@link SharedPreferences} in the background and cache decoded values
+     * (see {@link #preloadCachingSharedPrefs(Supplier, Supplier, Executor, Collection)}).
+     * @param sharedPrefsSupplier Supplies the SharedPreferences to wrap, it's called on the loadExecutor
+     * @param loadExecutor The executor to load the SharedPreferences and decode the startup keys on
+     * @param startupKeys The keys to decode ahead of time
+     * @return A caching implementation of TypedPrefs that's ready once the SharedPreferences are loaded
+     */
+    public static PreloadedTypedPrefs preloadCachingSharedPrefs(
+        Supplier<SharedPreferences> sharedPrefsSupplier,
+        Executor loadExecutor,
+        Collection<? extends AbstractPrefKey<?>> startupKeys) {
+      return preloadCachingSharedPrefs(sharedPrefsSupplier, new DefaultGsonSupplier(), loadExecutor, startupKeys);
+    }
+
+    /**
+     * Like {@link #preloadSharedPrefs(Supplier, Supplier, Executor, Collection)}, but the returned TypedPrefs caches
+     * decoded values (see {@link #cachingSharedPrefs(SharedPreferences, Supplier)}), so the startup keys' values
+     * are decoded on the loadExecutor and kept until they're read.
+     * @param sharedPrefsSupplier Supplies the SharedPreferences to wrap, it's called on the loadExecutor
+     * @param gsonSupplier A supplier for a {@link Gson} instance, which will be used to translate
+     *                     non-primitive objects
+     * @param loadExecutor The executor to load the SharedPreferences and decode the startup keys on
+     * @param startupKeys The keys to decode ahead of time
+     * @return A caching implementation of TypedPrefs that's ready once the SharedPreferences are loaded
+     */
+    public static PreloadedTypedPrefs preloadCachingSharedPrefs(
+        Supplier<SharedPreferences> sharedPrefsSupplier,
+        Supplier<Gson> gsonSupplier,
+        Executor loadExecutor,
+        Collection<? extends AbstractPrefKey<?>> startupKeys) {
+      return new PreloadingTypedPrefs(sharedPrefsSupplier, gsonSupplier, loadExecutor, startupKeys, true);
+    }
+
+    /**
+     * Combine several TypedPrefs (usually wrapping separate SharedPreferences files) into a single sharded TypedPrefs.
+     * Each key is read from and written to the shard mapped to its closest {@link PrefNamespace} (its own namespace
+     * or the nearest ancestor in namespaceShards), or to the defaultShard if there isn't one. Editors split their
+     * changes by shard, so writing a hot key only rewrites the file it lives in.
+     *
+     * Shards are expected to share the same Gson configuration. Note that each shard is a separate file, so
+     * edits that span shards are not atomic.
+     * @param defaultShard The TypedPrefs to store keys that aren't in a mapped namespace
+     * @param namespaceShards The TypedPrefs to store each namespace's keys (including its sub-namespaces) in
+     * @return A sharded implementation of TypedPrefs
+     */
+    public static TypedPrefs sharded(TypedPrefs defaultShard, Map<PrefNamespace, TypedPrefs> namespaceShards) {
+      return new ShardedTypedPrefs(defaultShard, namespaceShards);
+    }
+
+    /**
+     * Wrap a TypedPrefs so that {@link Editor#apply()} encodes and applies its values on a background executor,
+     * instead of on the calling thread. Edits are applied in the order apply() was called, and their values are
+     * visible to the returned TypedPrefs' getters as soon as apply() returns.
+     *
+     * Objects that have been put into an applied editor should not be modified, since they may not be encoded yet.
+     * @param typedPrefs The TypedPrefs to write to
+     * @param serializeExecutor The executor to encode and apply edits on
+     * @return A TypedPrefs with an asynchronous {@link Editor#apply()}
+     */
+    public static TypedPrefs asyncApply(TypedPrefs typedPrefs, Executor serializeExecutor) {
+      return new AsyncApplyTypedPrefs(typedPrefs, serializeExecutor);
+    }
+
+    /**
+     * Builds a TypedPrefs out of any combination of the modes offered by {@link Wrap}. However they're enabled, the
+     * modes are always stacked in the same order: values are cached above everything else, dirty-checked against
+     * what's stored or pending, merged into group commits and finally moved to side files as they're written.
+     */
+    public static class Builder {
+
+      private final SharedPreferences mSharedPreferences;
+      private Supplier<Gson> mGsonSupplier = new DefaultGsonSupplier();
+      private @Nullable File mSideFileDirectory = null;
+      private int mSideFileThreshold;
+      private @Nullable ScheduledExecutorService mGroupCommitScheduler = null;
+      private long mGroupCommitWindowMillis;
+      private boolean mDirtyChecking = false;
+      private boolean mCaching = false;
+
+      Builder(SharedPreferences sharedPreferences) {
+        mSharedPreferences = Preconditions.checkNotNull(sharedPreferences);
+      }
+
+      /**
+       * @param gsonSupplier A supplier for a {@link Gson} instance, which will be used to translate
+       *                     non-primitive objects
+       */
+      public Builder gson(Supplier<Gson> gsonSupplier) {
+        mGsonSupplier = Preconditions.checkNotNull(gsonSupplier);
+        return this;
+      }
+
+      /**
+       * Store large values in side files (see {@link #sideFileSharedPrefs(SharedPreferences, Supplier, File, int)})
+       * @param directory The directory to write side files to, it should only be used by this TypedPrefs
+       * @param thresholdChars The stored length (in chars) above which a value is moved to a side file
+       */
+      public Builder sideFiles(File directory, int thresholdChars) {
+        mSideFileDirectory = Preconditions.checkNotNull(directory);
+        mSideFileThreshold = thresholdChars;
+        return this;
+      }
+
+      /**
+       * Group commit applied edits
+       * (see {@link #groupCommitSharedPrefs(SharedPreferences, Supplier, ScheduledExecutorService, long)})
+       * @param scheduler The executor to schedule and write group commits on
+       * @param windowMillis How long to collect edits for before committing them
+       */
+      public Builder groupCommit(ScheduledExecutorService scheduler, long windowMillis) {
+        mGroupCommitScheduler = Preconditions.checkNotNull(scheduler);
+        mGroupCommitWindowMillis = windowMillis;
+        return this;
+      }
+
+      /**
+       * Skip no-op writes (see {@link #dirtyCheckingSharedPrefs(SharedPreferences, Supplier)})
+       */
+      public Builder dirtyChecking() {
+        mDirtyChecking = true;
+        return this;
+      }
+
+      /**
+       * Cache decoded values (see {@link #cachingSharedPrefs(SharedPreferences, Supplier)})
+       */
+      public Builder caching() {
+        mCaching = true;
+        return this;
+      }
+
+      public TypedPrefs build() {
+        SharedPreferences sharedPreferences = mSharedPreferences;
+        if (mSideFileDirectory != null) {
+          sharedPreferences = new SideFileSharedPreferences(sharedPreferences, mSideFileDirectory, mSideFileThreshold);
+        }
+        if (mGroupCommitScheduler != null) {
+          sharedPreferences = new GroupCommitSharedPreferences(
+              sharedPreferences,
+              mGroupCommitScheduler,
+              mGroupCommitWindowMillis);
+        }
+        if (mDirtyChecking) {
+          sharedPreferences = new DirtyCheckingSharedPreferences(sharedPreferences);
+        }
+        TypedPrefsImpl typedPrefs = new TypedPrefsImpl(sharedPreferences, mGsonSupplier);
+        return mCaching ? new CachingTypedPrefs(sharedPreferences, typedPrefs) : typedPrefs;
+      }
+    }
   }
 
   /**
@@ -82,6 +448,155 @@ public interface TypedPrefs {
    */
   boolean contains(OptPrefKey<?> prefKey);
 
+  /**
+   * Get the value for a given {@link IntPrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in {@link android.content.SharedPreferences} or the key's default value (if its not set)
+   */
+  int getInt(IntPrefKey prefKey);
+
+  /**
+   * Get the value for a given {@link LongPrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in {@link android.content.SharedPreferences} or the key's default value (if its not set)
+   */
+  long getLong(LongPrefKey prefKey);
+
+  /**
+   * Get the value for a given {@link BoolPrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in {@link android.content.SharedPreferences} or the key's default value (if its not set)
+   */
+  boolean getBoolean(BoolPrefKey prefKey);
+
+  /**
+   * Get the value for a given {@link FloatPrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in {@link android.content.SharedPreferences} or the key's default value (if its not set)
+   */
+  float getFloat(FloatPrefKey prefKey);
+
+  /**
+   * Get the value for a given {@link DoublePrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in {@link android.content.SharedPreferences} or the key's default value (if its not set)
+   */
+  double getDouble(DoublePrefKey prefKey);
+
+  /**
+   * Check if a given {@link PrimitivePrefKey} has been set in {@link android.content.SharedPreferences}
+   * @param prefKey The key to check for existence of
+   * @return true if the key exists in {@link android.content.SharedPreferences}, false otherwise
+   */
+  boolean contains(PrimitivePrefKey<?> prefKey);
+
+  /**
+   * Read a batch of keys with a single access to the {@link android.content.SharedPreferences}. Codec/gson-translated
+   * values are decoded before this method returns.
+   * @param prefKeys The {@link PrefKey}s and/or {@link OptPrefKey}s to read
+   * @return An immutable {@link TypedPrefsSnapshot} holding the values of the given keys
+   */
+  TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys);
+
+  /**
+   * Read a batch of keys with a single access to the {@link android.content.SharedPreferences}. Codec/gson-translated
+   * values are decoded before this method returns. When there are enough of them, they're decoded in parallel
+   * on the supplied executor (and the calling thread).
+   * @param prefKeys The {@link PrefKey}s and/or {@link OptPrefKey}s to read
+   * @param decodeExecutor An executor to decode values on
+   * @return An immutable {@link TypedPrefsSnapshot} holding the values of the given keys
+   */
+  TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys, Executor decodeExecutor);
+
+  /**
+   * Copy every value stored in the {@link android.content.SharedPreferences} with a single call to
+   * {@link SharedPreferences#getAll()}. The snapshot gives consistent reads across multiple keys,
+   * and reading from it never touches the SharedPreferences again.
+   * @return An immutable {@link TypedPrefsSnapshot} containing every value that was set
+   */
+  TypedPrefsSnapshot snapshot();
+
+  /**
+   * Copy the stored values of every key registered under the given namespace (and its sub-namespaces).
+   * Only the keys in the namespace are read, the rest of the {@link android.content.SharedPreferences}
+   * are never touched. Keys are registered when they're built, so values of keys whose declaring classes
+   * haven't been loaded yet are not included.
+   * @param namespace The namespace to take a snapshot of
+   * @return An immutable {@link TypedPrefsSnapshot} containing the values that were set under the namespace
+   */
+  TypedPrefsSnapshot snapshot(PrefNamespace namespace);
+
+  /**
+   * Register a listener to be called whenever the value of the given {@link PrefKey} changes. All listeners are
+   * backed by a single {@link SharedPreferences.OnSharedPreferenceChangeListener}, and each change is decoded once
+   * and shared between the key's listeners.
+   *
+   * Listeners are only held as long as this TypedPrefs object is.
+   * @param prefKey The key to listen to
+   * @param listener The listener to call when the key's value changes
+   * @param <T> The type of value the key holds
+   */
+  <T> void addListener(PrefKey<T> prefKey, TypedListener<T> listener);
+
+  /**
+   * Register a listener to be called whenever the value of the given {@link OptPrefKey} changes.
+   * See {@link #addListener(PrefKey, TypedListener)}
+   * @param prefKey The key to listen to
+   * @param listener The listener to call when the key's value changes
+   * @param <T> The type of value the key holds
+   */
+  <T> void addListener(OptPrefKey<T> prefKey, TypedListener<T> listener);
+
+  /**
+   * Unregister a listener that was added via {@link #addListener(PrefKey, TypedListener)}
+   * @param prefKey The key the listener was registered for
+   * @param listener The listener to remove
+   * @param <T> The type of value the key holds
+   */
+  <T> void removeListener(PrefKey<T> prefKey, TypedListener<T> listener);
+
+  /**
+   * Unregister a listener that was added via {@link #addListener(OptPrefKey, TypedListener)}
+   * @param prefKey The key the listener was registered for
+   * @param listener The listener to remove
+   * @param <T> The type of value the key holds
+   */
+  <T> void removeListener(OptPrefKey<T> prefKey, TypedListener<T> listener);
+
+  /**
+   * Register a listener to be called on android's main thread with the set of watched keys that changed.
+   * Changes are coalesced: the first change to a watched key opens a window of windowMillis, and every
+   * change made within it is delivered in a single batch once it closes. So a bulk edit of many keys
+   * results in one callback instead of one per key.
+   * @param prefKeys The keys to watch
+   * @param windowMillis How long to collect changes for before delivering them
+   * @param listener The listener to call with each batch of changes
+   */
+  void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      TypedBatchListener listener);
+
+  /**
+   * Register a listener to be called on the supplied executor with the set of watched keys that changed.
+   * See {@link #addBatchListener(Collection, long, TypedBatchListener)}
+   * @param prefKeys The keys to watch
+   * @param windowMillis How long to collect changes for before delivering them
+   * @param deliveryExecutor The executor to schedule and deliver batches on
+   * @param listener The listener to call with each batch of changes
+   */
+  void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      ScheduledExecutorService deliveryExecutor,
+      TypedBatchListener listener);
+
+  /**
+   * Unregister a batch listener. Changes that are still waiting to be delivered to it are dropped.
+   * @param listener The listener to remove
+   */
+  void removeBatchListener(TypedBatchListener listener);
+
   /**
    * @return a {@link TypedPrefs.Editor} to edit the {@link android.content.SharedPreferences}
    */
@@ -105,6 +620,15 @@ public interface TypedPrefs {
      */
     void commit();
 
+    /**
+     * Commit your preferences changes and notify the callback with the result. For a TypedPrefs that group commits
+     * (see {@link Wrap#groupCommitSharedPrefs(SharedPreferences, ScheduledExecutorService, long)}), the changes
+     * join the next group commit and the callback is called from the scheduler's thread once it's written.
+     * Otherwise this is the same as {@link #commit()}, followed by the callback.
+     * @param callback The callback to notify once the changes have been committed
+     */
+    void commit(CommitCallback callback);
+
     /**
      * Set a value in this preference editor, to be written back once {@link #commit()} or {@link #apply()} are called.
      * This method will throw a NullPointerException if instance is null.
@@ -125,6 +649,46 @@ public interface TypedPrefs {
      */
     <T> Editor put(OptPrefKey<T> prefKey, @Nullable T instance);
 
+    /**
+     * Set a value in this preference editor, to be written back once {@link #commit()} or {@link #apply()} are called.
+     * @param prefKey The key for which to write this data
+     * @param value The value to write
+     * @return this {@link Editor}
+     */
+    Editor putInt(IntPrefKey prefKey, int value);
+
+    /**
+     * Set a value in this preference editor, to be written back once {@link #commit()} or {@link #apply()} are called.
+     * @param prefKey The key for which to write this data
+     * @param value The value to write
+     * @return this {@link Editor}
+     */
+    Editor putLong(LongPrefKey prefKey, long value);
+
+    /**
+     * Set a value in this preference editor, to be written back once {@link #commit()} or {@link #apply()} are called.
+     * @param prefKey The key for which to write this data
+     * @param value The value to write
+     * @return this {@link Editor}
+     */
+    Editor putBoolean(BoolPrefKey prefKey, boolean value);
+
+    /**
+     * Set a value in this preference editor, to be written back once {@link #commit()} or {@link #apply()} are called.
+     * @param prefKey The key for which to write this data
+     * @param value The value to write
+     * @return this {@link Editor}
+     */
+    Editor putFloat(FloatPrefKey prefKey, float value);
+
+    /**
+     * Set a value in this preference editor, to be written back once {@link #commit()} or {@link #apply()} are called.
+     * @param prefKey The key for which to write this data
+     * @param value The value to write
+     * @return this {@link Editor}
+     */
+    Editor putDouble(DoublePrefKey prefKey, double value);
+
     /**
      * Mark in the editor to remove all values from the preferences. Once commit is called, the only remaining
      * preferences will be any that you have defined in this editor.
@@ -150,5 +714,32 @@ public interface TypedPrefs {
      * @return this {@link Editor}
      */
     Editor remove(OptPrefKey<?> prefKey);
+
+    /**
+     * Mark in the editor that a preference value should be removed, which will be done in the actual preferences once
+     * {@link #commit()} or {@link #apply()} is called
+     * @param prefKey The key to remove
+     * @return this {@link Editor}
+     */
+    Editor remove(PrimitivePrefKey<?> prefKey);
+
+    /**
+     * Mark in the editor that every preference registered under the given namespace (and its sub-namespaces)
+     * should be removed, which will be done in the actual preferences once {@link #commit()} or {@link #apply()}
+     * is called. Unlike {@link #clear()}, preferences outside the namespace are left alone. Keys are registered
+     * when they're built, so values of keys whose declaring classes haven't been loaded yet are not removed.
+     * @param namespace The namespace to remove
+     * @return this {@link Editor}
+     */
+    Editor remove(PrefNamespace namespace);
+
+    /**
+     * Copy every value in the provided snapshot into this editor, to be written back once {@link #commit()} or
+     * {@link #apply()} are called. Values are copied in their stored form, without being deserialized.
+     * Any values set via put/remove methods on this editor take precedence over those in the snapshot.
+     * @param snapshot The snapshot to copy values from
+     * @return this {@link Editor}
+     */
+    Editor putAll(TypedPrefsSnapshot snapshot);
   }
 }
@@ -3,15 +3,26 @@ package com.episode6.hackit.typed.preferences;
 import android.annotation.TargetApi;
 import android.content.SharedPreferences;
 import com.episode6.hackit.typed.core.TypedKey;
+import com.episode6.hackit.typed.core.TypedKeyMap;
+import com.episode6.hackit.typed.core.TypedKeyRegistry;
+import com.episode6.hackit.typed.core.metrics.Metrics;
+import com.episode6.hackit.typed.core.metrics.TypedMetrics;
 import com.episode6.hackit.typed.core.util.Preconditions;
 import com.episode6.hackit.typed.core.util.Supplier;
 import com.episode6.hackit.typed.core.util.Suppliers;
 import com.google.gson.Gson;
 
 import javax.annotation.Nullable;
-import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Actual implementation of {@link TypedPrefs}
@@ -20,22 +31,31 @@ class TypedPrefsImpl implements TypedPrefs {
 
   private final SharedPreferences mBackingPrefs;
   private final Supplier<Gson> mGsonSupplier;
+  private final @Nullable StoredValueResolver mResolver;
+
+  // values that were migrated to a newer schema version when read, to be written back on the next edit
+  private final ConcurrentMap<String, PendingMigration> mPendingMigrations = new ConcurrentHashMap<>();
+
+  private final TypedPrefsListeners mListeners;
 
   TypedPrefsImpl(
       SharedPreferences backingPrefs,
       Supplier<Gson> gsonSupplier) {
     mBackingPrefs = backingPrefs;
     mGsonSupplier = Suppliers.memoize(gsonSupplier);
+    mResolver = backingPrefs instanceof StoredValueResolver ? (StoredValueResolver) backingPrefs : null;
+    mListeners = new TypedPrefsListeners(backingPrefs, this);
   }
 
   @Override
   public <T> T get(PrefKey<T> prefKey) {
-    if (!containsInternal(prefKey)) {
-      return prefKey.getDefaultValue();
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(prefKey);
     }
-    T instance = getFromSharedPrefs(prefKey);
+    T instance = getFromSharedPrefs(prefKey, metrics);
     if (instance == null) {
-      return prefKey.getDefaultValue();
+      return getDefaultValue(prefKey, metrics);
     }
     return instance;
   }
@@ -43,21 +63,145 @@ class TypedPrefsImpl implements TypedPrefs {
   @Nullable
   @Override
   public <T> T get(OptPrefKey<T> prefKey) {
-    if (!containsInternal(prefKey)) {
-      return null;
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onGet(prefKey);
     }
-    return getFromSharedPrefs(prefKey);
+    return getFromSharedPrefs(prefKey, metrics);
   }
 
 
   @Override
   public boolean contains(PrefKey<?> prefKey) {
-    return containsInternal(prefKey);
+    return containsInstrumented(prefKey);
   }
 
   @Override
   public boolean contains(OptPrefKey<?> prefKey) {
-    return containsInternal(prefKey);
+    return containsInstrumented(prefKey);
+  }
+
+  @Override
+  public int getInt(IntPrefKey prefKey) {
+    if (isUnsetInstrumented(prefKey)) {
+      return prefKey.getDefaultValue();
+    }
+    return mBackingPrefs.getInt(prefKey.getKeyName().toString(), prefKey.getDefaultValue());
+  }
+
+  @Override
+  public long getLong(LongPrefKey prefKey) {
+    if (isUnsetInstrumented(prefKey)) {
+      return prefKey.getDefaultValue();
+    }
+    return mBackingPrefs.getLong(prefKey.getKeyName().toString(), prefKey.getDefaultValue());
+  }
+
+  @Override
+  public boolean getBoolean(BoolPrefKey prefKey) {
+    if (isUnsetInstrumented(prefKey)) {
+      return prefKey.getDefaultValue();
+    }
+    return mBackingPrefs.getBoolean(prefKey.getKeyName().toString(), prefKey.getDefaultValue());
+  }
+
+  @Override
+  public float getFloat(FloatPrefKey prefKey) {
+    if (isUnsetInstrumented(prefKey)) {
+      return prefKey.getDefaultValue();
+    }
+    return mBackingPrefs.getFloat(prefKey.getKeyName().toString(), prefKey.getDefaultValue());
+  }
+
+  @Override
+  public double getDouble(DoublePrefKey prefKey) {
+    if (isUnsetInstrumented(prefKey)) {
+      return prefKey.getDefaultValue();
+    }
+    // doubles are stored as their raw long bits
+    long doubleBits = mBackingPrefs.getLong(
+        prefKey.getKeyName().toString(),
+        Double.doubleToRawLongBits(prefKey.getDefaultValue()));
+    return Double.longBitsToDouble(doubleBits);
+  }
+
+  @Override
+  public boolean contains(PrimitivePrefKey<?> prefKey) {
+    return containsInstrumented(prefKey);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys) {
+    return getAllInternal(prefKeys, null);
+  }
+
+  @Override
+  public TypedPrefsSnapshot getAll(Collection<? extends AbstractPrefKey<?>> prefKeys, Executor decodeExecutor) {
+    return getAllInternal(prefKeys, Preconditions.checkNotNull(decodeExecutor));
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot() {
+    // getAll() already returns a copy of the backing map
+    return new TypedPrefsSnapshot(mBackingPrefs.getAll(), mGsonSupplier, mResolver);
+  }
+
+  @Override
+  public TypedPrefsSnapshot snapshot(PrefNamespace namespace) {
+    Map<String, Object> rawValues = new HashMap<>();
+    for (TypedKey<?> key : TypedKeyRegistry.getKeys(namespace)) {
+      if (!(key instanceof AbstractPrefKey)) {
+        continue;
+      }
+      String keyName = key.getKeyName().toString();
+      if (!rawValues.containsKey(keyName) && mBackingPrefs.contains(keyName)) {
+        rawValues.put(keyName, getUndecodedFromSharedPrefs((AbstractPrefKey<?>) key));
+      }
+    }
+    // values read one at a time are already resolved, so they mustn't be resolved again
+    return new TypedPrefsSnapshot(rawValues, mGsonSupplier);
+  }
+
+  @Override
+  public <T> void addListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    mListeners.add(prefKey, listener);
+  }
+
+  @Override
+  public <T> void addListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    mListeners.add(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(PrefKey<T> prefKey, TypedListener<T> listener) {
+    mListeners.remove(prefKey, listener);
+  }
+
+  @Override
+  public <T> void removeListener(OptPrefKey<T> prefKey, TypedListener<T> listener) {
+    mListeners.remove(prefKey, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      TypedBatchListener listener) {
+    mListeners.addBatch(prefKeys, windowMillis, null, listener);
+  }
+
+  @Override
+  public void addBatchListener(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      ScheduledExecutorService deliveryExecutor,
+      TypedBatchListener listener) {
+    mListeners.addBatch(prefKeys, windowMillis, Preconditions.checkNotNull(deliveryExecutor), listener);
+  }
+
+  @Override
+  public void removeBatchListener(TypedBatchListener listener) {
+    mListeners.removeBatch(listener);
   }
 
   @Override
@@ -65,27 +209,102 @@ class TypedPrefsImpl implements TypedPrefs {
     return new EditorImpl(mBackingPrefs.edit());
   }
 
+  private TypedPrefsSnapshot getAllInternal(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      @Nullable Executor decodeExecutor) {
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    Map<String, ?> allValues = mBackingPrefs.getAll();
+    Map<String, Object> rawValues = new HashMap<>();
+    for (AbstractPrefKey<?> prefKey : prefKeys) {
+      if (metrics != null) {
+        metrics.onGet(prefKey);
+      }
+      String keyName = prefKey.getKeyName().toString();
+      Object rawValue = allValues.get(keyName);
+      if (rawValue != null) {
+        rawValues.put(keyName, rawValue);
+      }
+    }
+    TypedPrefsSnapshot snapshot = new TypedPrefsSnapshot(rawValues, mGsonSupplier, mResolver);
+    snapshot.decodeAll(prefKeys, decodeExecutor);
+    return snapshot;
+  }
+
+  /**
+   * Read and decode a key's stored value, without falling back to its default value.
+   * Used by {@link CachingTypedPrefs}, which reports its own metrics, and {@link TypedPrefsListeners}.
+   * @return The stored value, or null if the key is not set
+   */
+  @Nullable <T> T getStored(AbstractPrefKey<T> prefKey) {
+    return getFromSharedPrefs(prefKey, Metrics.get());
+  }
+
+  // reads the value with a single lookup (in the common case), returns null if the key is not set
   @SuppressWarnings("unchecked")
-  private @Nullable <T> T getFromSharedPrefs(TypedKey<T> prefKey) {
-    Type objType = prefKey.getObjectType();
+  private @Nullable <T> T getFromSharedPrefs(AbstractPrefKey<T> prefKey, @Nullable TypedMetrics metrics) {
+    String keyName = prefKey.getKeyName().toString();
+    final @Nullable PrefTranslator translator = prefKey.getTranslator();
+    if (translator != null) {
+      return (T) translator.getFromPrefs(mBackingPrefs, keyName);
+    }
+    String encoded = mBackingPrefs.getString(keyName, null);
+    if (encoded != null) {
+      String migrated = prefKey.migrate(encoded);
+      if (migrated != null) {
+        mPendingMigrations.put(keyName, new PendingMigration(encoded, migrated));
+        encoded = migrated;
+      }
+    }
+    if (metrics == null || encoded == null) {
+      return prefKey.decode(encoded, mGsonSupplier);
+    }
+    long startNanos = System.nanoTime();
+    T instance = prefKey.decode(encoded, mGsonSupplier);
+    metrics.onDecode(prefKey, System.nanoTime() - startNanos, encoded.length());
+    return instance;
+  }
+
+  private <T> T getDefaultValue(PrefKey<T> prefKey, @Nullable TypedMetrics metrics) {
+    if (metrics != null) {
+      metrics.onDefaultValue(prefKey);
+    }
+    return prefKey.getDefaultValue();
+  }
+
+  // returns the value without decoding it, i.e. codec/gson-translated objects are left as Strings
+  private @Nullable Object getUndecodedFromSharedPrefs(AbstractPrefKey<?> prefKey) {
     String keyName = prefKey.getKeyName().toString();
-    if (objType == Boolean.class) {
-      return (T)(Boolean) mBackingPrefs.getBoolean(keyName, false);
-    } else if (objType == Float.class) {
-      return (T)(Float) mBackingPrefs.getFloat(keyName, 0f);
-    } else if (objType == Integer.class) {
-      return (T)(Integer) mBackingPrefs.getInt(keyName, 0);
-    } else if (objType == Long.class) {
-      return (T)(Long) mBackingPrefs.getLong(keyName, 0L);
-    } else if (objType == String.class) {
-      return (T) mBackingPrefs.getString(keyName, null);
-    } else if (objType == Double.class) {
-      long doubleBits = mBackingPrefs.getLong(keyName, 0L);
-      return (T)(Double) Double.longBitsToDouble(doubleBits);
-    } else {
-      String translation = mBackingPrefs.getString(keyName, null);
-      return mGsonSupplier.get().fromJson(translation, objType);
+    final @Nullable PrefTranslator translator = prefKey.getTranslator();
+    if (translator != null) {
+      return translator.getFromPrefs(mBackingPrefs, keyName);
     }
+    return mBackingPrefs.getString(keyName, null);
+  }
+
+  /**
+   * Reports a get to the installed metrics (if any). Only when metrics are installed do we need to know whether
+   * the key is set, otherwise the SharedPreferences' own default value does the job.
+   * @return true if metrics are installed and the key is not set
+   */
+  private boolean isUnsetInstrumented(PrimitivePrefKey<?> prefKey) {
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics == null) {
+      return false;
+    }
+    metrics.onGet(prefKey);
+    if (containsInternal(prefKey)) {
+      return false;
+    }
+    metrics.onDefaultValue(prefKey);
+    return true;
+  }
+
+  private boolean containsInstrumented(TypedKey<?> key) {
+    final @Nullable TypedMetrics metrics = Metrics.get();
+    if (metrics != null) {
+      metrics.onContains(key);
+    }
+    return containsInternal(key);
   }
 
   private boolean containsInternal(TypedKey<?> key) {
@@ -95,7 +314,9 @@ class TypedPrefsImpl implements TypedPrefs {
   private class EditorImpl implements TypedPrefs.Editor {
 
     private final SharedPreferences.Editor mEditor;
-    private HashMap<TypedKey<?>, Object> mPutMap = new HashMap<>();
+    private final TypedKeyMap<AbstractPrefKey<?>, Object> mPutMap = new TypedKeyMap<>();
+    private Map<String, Object> mRawPutMap = new LinkedHashMap<>();
+    private boolean mCleared = false;
 
     private EditorImpl(SharedPreferences.Editor editor) {
       mEditor = editor;
@@ -114,6 +335,17 @@ class TypedPrefsImpl implements TypedPrefs {
       mEditor.commit();
     }
 
+    @Override
+    public void commit(CommitCallback callback) {
+      Preconditions.checkNotNull(callback);
+      processPutMap();
+      if (mEditor instanceof CallbackEditor) {
+        ((CallbackEditor) mEditor).commit(callback);
+      } else {
+        callback.onCommitted(mEditor.commit());
+      }
+    }
+
     @Override
     public <T> Editor put(PrefKey<T> prefKey, T instance) {
       Preconditions.checkNotNull(instance);
@@ -127,8 +359,39 @@ class TypedPrefsImpl implements TypedPrefs {
       return this;
     }
 
+    @Override
+    public Editor putInt(IntPrefKey prefKey, int value) {
+      mPutMap.put(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor putLong(LongPrefKey prefKey, long value) {
+      mPutMap.put(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor putBoolean(BoolPrefKey prefKey, boolean value) {
+      mPutMap.put(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor putFloat(FloatPrefKey prefKey, float value) {
+      mPutMap.put(prefKey, value);
+      return this;
+    }
+
+    @Override
+    public Editor putDouble(DoublePrefKey prefKey, double value) {
+      mPutMap.put(prefKey, value);
+      return this;
+    }
+
     @Override
     public Editor clear() {
+      mCleared = true;
       mEditor.clear();
       return this;
     }
@@ -145,35 +408,111 @@ class TypedPrefsImpl implements TypedPrefs {
       return this;
     }
 
+    @Override
+    public Editor remove(PrimitivePrefKey<?> prefKey) {
+      mPutMap.put(prefKey, null);
+      return this;
+    }
+
+    @Override
+    public Editor remove(PrefNamespace namespace) {
+      // registered keys override anything already put in this editor
+      for (TypedKey<?> key : TypedKeyRegistry.getKeys(namespace)) {
+        if (key instanceof AbstractPrefKey) {
+          mPutMap.put((AbstractPrefKey<?>) key, null);
+        }
+      }
+      // values copied into this editor by name are dropped too
+      for (String keyName : mRawPutMap.keySet()) {
+        if (namespace.containsKeyName(keyName)) {
+          mRawPutMap.put(keyName, null);
+        }
+      }
+      return this;
+    }
+
+    @Override
+    public Editor putAll(TypedPrefsSnapshot snapshot) {
+      mRawPutMap.putAll(snapshot.getResolvedValues());
+      return this;
+    }
+
     private void processPutMap() {
-      for (Map.Entry<TypedKey<?>, Object> entry : mPutMap.entrySet()) {
-        if (entry.getValue() == null) {
-          removeInternal(entry.getKey());
+      if (!mPendingMigrations.isEmpty()) {
+        processPendingMigrations();
+      }
+      for (Map.Entry<String, Object> entry : mRawPutMap.entrySet()) {
+        putRawInternal(entry.getKey(), entry.getValue());
+      }
+      final @Nullable TypedMetrics metrics = Metrics.get();
+      for (int i = 0; i < mPutMap.size(); i++) {
+        Object value = mPutMap.valueAt(i);
+        if (value == null) {
+          removeInternal(mPutMap.keyAt(i));
         } else {
-          putInternal(entry.getKey(), entry.getValue());
+          putInternal(mPutMap.keyAt(i), value, metrics);
+        }
+      }
+    }
+
+    // write back migrated values, unless this edit overwrites them or they've changed since they were read
+    private void processPendingMigrations() {
+      Set<String> editedKeyNames = new HashSet<>(mRawPutMap.keySet());
+      for (int i = 0; i < mPutMap.size(); i++) {
+        editedKeyNames.add(mPutMap.keyAt(i).getKeyName().toString());
+      }
+      for (Map.Entry<String, PendingMigration> entry : mPendingMigrations.entrySet()) {
+        String keyName = entry.getKey();
+        PendingMigration pendingMigration = entry.getValue();
+        if (!mPendingMigrations.remove(keyName, pendingMigration) ||
+            mCleared ||
+            editedKeyNames.contains(keyName)) {
+          continue;
+        }
+        if (pendingMigration.mStoredValue.equals(mBackingPrefs.getString(keyName, null))) {
+          mEditor.putString(keyName, pendingMigration.mMigratedValue);
         }
       }
     }
 
-    private void putInternal(TypedKey<?> prefKey, Object instance) {
-      Type objType = prefKey.getObjectType();
+    @SuppressWarnings("unchecked")
+    private void putInternal(AbstractPrefKey<?> prefKey, Object instance, @Nullable TypedMetrics metrics) {
       String keyName = prefKey.getKeyName().toString();
-      if (objType == Boolean.class) {
-        mEditor.putBoolean(keyName, (Boolean) instance);
-      } else if (objType == Float.class) {
-        mEditor.putFloat(keyName, (Float) instance);
-      } else if (objType == Integer.class) {
-        mEditor.putInt(keyName, (Integer) instance);
-      } else if (objType == Long.class) {
-        mEditor.putLong(keyName, (Long) instance);
-      } else if (objType == String.class) {
-        mEditor.putString(keyName, (String) instance);
-      } else if (objType == Double.class) {
-        long doubleBits = Double.doubleToRawLongBits((Double) instance);
-        mEditor.putLong(keyName, doubleBits);
+      final @Nullable PrefTranslator translator = prefKey.getTranslator();
+      if (metrics != null) {
+        metrics.onPut(prefKey);
+      }
+      if (translator != null) {
+        translator.writeToEditor(mEditor, keyName, instance);
+      } else if (metrics == null) {
+        mEditor.putString(keyName, ((AbstractPrefKey<Object>) prefKey).encode(instance, mGsonSupplier));
+      } else {
+        long startNanos = System.nanoTime();
+        String encoded = ((AbstractPrefKey<Object>) prefKey).encode(instance, mGsonSupplier);
+        metrics.onEncode(prefKey, System.nanoTime() - startNanos, encoded.length());
+        mEditor.putString(keyName, encoded);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void putRawInternal(String keyName, @Nullable Object rawValue) {
+      if (rawValue == null) {
+        mEditor.remove(keyName);
+      } else if (rawValue instanceof Boolean) {
+        mEditor.putBoolean(keyName, (Boolean) rawValue);
+      } else if (rawValue instanceof Float) {
+        mEditor.putFloat(keyName, (Float) rawValue);
+      } else if (rawValue instanceof Integer) {
+        mEditor.putInt(keyName, (Integer) rawValue);
+      } else if (rawValue instanceof Long) {
+        mEditor.putLong(keyName, (Long) rawValue);
+      } else if (rawValue instanceof Double) {
+        mEditor.putLong(keyName, Double.doubleToRawLongBits((Double) rawValue));
+      } else if (rawValue instanceof Set) {
+        // string sets aren't used by typed keys, but can be copied from a full snapshot
+        mEditor.putStringSet(keyName, (Set<String>) rawValue);
       } else {
-        String translation = mGsonSupplier.get().toJson(instance, objType);
-        mEditor.putString(keyName, translation);
+        mEditor.putString(keyName, (String) rawValue);
       }
     }
 
@@ -181,4 +520,14 @@ class TypedPrefsImpl implements TypedPrefs {
       mEditor.remove(prefKey.getKeyName().toString());
     }
   }
+
+  private static class PendingMigration {
+    final String mStoredValue;
+    final String mMigratedValue;
+
+    PendingMigration(String storedValue, String migratedValue) {
+      mStoredValue = storedValue;
+      mMigratedValue = migratedValue;
+    }
+  }
 }
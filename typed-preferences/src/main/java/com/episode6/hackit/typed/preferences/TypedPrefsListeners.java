@@ -0,0 +1,288 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import com.episode6.hackit.typed.core.util.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches changes from a single {@link SharedPreferences.OnSharedPreferenceChangeListener} to the
+ * {@link TypedListener}s and {@link TypedBatchListener}s of the changed key, via maps keyed by key name.
+ * The underlying listener is only registered while there are listeners to dispatch to.
+ */
+class TypedPrefsListeners {
+
+  private final SharedPreferences mBackingPrefs;
+  private final TypedPrefsImpl mTypedPrefs;
+
+  // keys that share a name (but not a type) each get their own entry in the list
+  private final ConcurrentMap<String, List<KeyListeners<?>>> mDispatchMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, List<BatchEntry>> mBatchDispatchMap = new ConcurrentHashMap<>();
+  private final Map<TypedBatchListener, BatchSubscription> mBatchSubscriptions = new HashMap<>(); // guarded by this
+  private boolean mRegistered = false; // guarded by this
+
+  // SharedPreferences only holds weak references to its listeners, so we have to keep a strong one
+  private final SharedPreferences.OnSharedPreferenceChangeListener mChangeListener =
+      new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, @Nullable String key) {
+          // a null key means the prefs were cleared (on newer versions of android)
+          if (key == null) {
+            dispatchAll();
+          } else {
+            dispatch(key);
+          }
+        }
+      };
+
+  TypedPrefsListeners(SharedPreferences backingPrefs, TypedPrefsImpl typedPrefs) {
+    mBackingPrefs = backingPrefs;
+    mTypedPrefs = typedPrefs;
+  }
+
+  synchronized <T> void add(AbstractPrefKey<T> prefKey, TypedListener<T> listener) {
+    Preconditions.checkNotNull(listener);
+    String keyName = prefKey.getKeyName().toString();
+    List<KeyListeners<?>> keyListenersList = mDispatchMap.get(keyName);
+    if (keyListenersList == null) {
+      keyListenersList = new CopyOnWriteArrayList<>();
+      mDispatchMap.put(keyName, keyListenersList);
+    }
+    KeyListeners<T> keyListeners = find(keyListenersList, prefKey);
+    if (keyListeners == null) {
+      keyListeners = new KeyListeners<>(prefKey);
+      keyListenersList.add(keyListeners);
+    }
+    keyListeners.mListeners.add(listener);
+    registerIfNeeded();
+  }
+
+  synchronized <T> void remove(AbstractPrefKey<T> prefKey, TypedListener<T> listener) {
+    String keyName = prefKey.getKeyName().toString();
+    List<KeyListeners<?>> keyListenersList = mDispatchMap.get(keyName);
+    if (keyListenersList == null) {
+      return;
+    }
+    KeyListeners<T> keyListeners = find(keyListenersList, prefKey);
+    if (keyListeners == null || !keyListeners.mListeners.remove(listener)) {
+      return;
+    }
+    if (keyListeners.mListeners.isEmpty()) {
+      keyListenersList.remove(keyListeners);
+    }
+    if (keyListenersList.isEmpty()) {
+      mDispatchMap.remove(keyName);
+    }
+    unregisterIfUnused();
+  }
+
+  void addBatch(
+      Collection<? extends AbstractPrefKey<?>> prefKeys,
+      long windowMillis,
+      @Nullable ScheduledExecutorService deliveryExecutor,
+      TypedBatchListener listener) {
+    Preconditions.checkNotNull(listener);
+    Scheduler scheduler = deliveryExecutor == null ?
+        new MainThreadScheduler() :
+        new ExecutorScheduler(deliveryExecutor);
+    BatchSubscription subscription = new BatchSubscription(windowMillis, scheduler, listener);
+    synchronized (this) {
+      removeBatch(listener);
+      mBatchSubscriptions.put(listener, subscription);
+      for (AbstractPrefKey<?> prefKey : prefKeys) {
+        String keyName = prefKey.getKeyName().toString();
+        List<BatchEntry> entries = mBatchDispatchMap.get(keyName);
+        if (entries == null) {
+          entries = new CopyOnWriteArrayList<>();
+          mBatchDispatchMap.put(keyName, entries);
+        }
+        entries.add(new BatchEntry(prefKey, subscription));
+      }
+      registerIfNeeded();
+    }
+  }
+
+  synchronized void removeBatch(TypedBatchListener listener) {
+    BatchSubscription subscription = mBatchSubscriptions.remove(listener);
+    if (subscription == null) {
+      return;
+    }
+    subscription.mRemoved = true;
+    for (Map.Entry<String, List<BatchEntry>> mapEntry : mBatchDispatchMap.entrySet()) {
+      List<BatchEntry> entries = mapEntry.getValue();
+      for (BatchEntry entry : entries) {
+        if (entry.mSubscription == subscription) {
+          entries.remove(entry);
+        }
+      }
+      if (entries.isEmpty()) {
+        mBatchDispatchMap.remove(mapEntry.getKey());
+      }
+    }
+    unregisterIfUnused();
+  }
+
+  private void registerIfNeeded() {
+    if (!mRegistered) {
+      mBackingPrefs.registerOnSharedPreferenceChangeListener(mChangeListener);
+      mRegistered = true;
+    }
+  }
+
+  private void unregisterIfUnused() {
+    if (mRegistered && mDispatchMap.isEmpty() && mBatchDispatchMap.isEmpty()) {
+      mBackingPrefs.unregisterOnSharedPreferenceChangeListener(mChangeListener);
+      mRegistered = false;
+    }
+  }
+
+  private void dispatch(String keyName) {
+    List<KeyListeners<?>> keyListenersList = mDispatchMap.get(keyName);
+    if (keyListenersList != null) {
+      for (KeyListeners<?> keyListeners : keyListenersList) {
+        keyListeners.dispatch();
+      }
+    }
+    List<BatchEntry> entries = mBatchDispatchMap.get(keyName);
+    if (entries != null) {
+      for (BatchEntry entry : entries) {
+        entry.mSubscription.onChanged(entry.mPrefKey);
+      }
+    }
+  }
+
+  private void dispatchAll() {
+    for (List<KeyListeners<?>> keyListenersList : mDispatchMap.values()) {
+      for (KeyListeners<?> keyListeners : keyListenersList) {
+        keyListeners.dispatch();
+      }
+    }
+    for (List<BatchEntry> entries : mBatchDispatchMap.values()) {
+      for (BatchEntry entry : entries) {
+        entry.mSubscription.onChanged(entry.mPrefKey);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static @Nullable <T> KeyListeners<T> find(List<KeyListeners<?>> keyListenersList, AbstractPrefKey<T> prefKey) {
+    for (KeyListeners<?> keyListeners : keyListenersList) {
+      if (keyListeners.mPrefKey.equals(prefKey)) {
+        return (KeyListeners<T>) keyListeners;
+      }
+    }
+    return null;
+  }
+
+  private class KeyListeners<T> {
+    final AbstractPrefKey<T> mPrefKey;
+    final List<TypedListener<T>> mListeners = new CopyOnWriteArrayList<>();
+
+    KeyListeners(AbstractPrefKey<T> prefKey) {
+      mPrefKey = prefKey;
+    }
+
+    // decodes the new value once and hands the same instance to every listener
+    void dispatch() {
+      T newValue = mTypedPrefs.getStored(mPrefKey);
+      if (newValue == null && mPrefKey instanceof PrefKey) {
+        newValue = ((PrefKey<T>) mPrefKey).getDefaultValue();
+      }
+      for (TypedListener<T> listener : mListeners) {
+        listener.onPrefChanged(mPrefKey, newValue);
+      }
+    }
+  }
+
+  private static class BatchEntry {
+    final AbstractPrefKey<?> mPrefKey;
+    final BatchSubscription mSubscription;
+
+    BatchEntry(AbstractPrefKey<?> prefKey, BatchSubscription subscription) {
+      mPrefKey = prefKey;
+      mSubscription = subscription;
+    }
+  }
+
+  /**
+   * Collects the changed keys of a single {@link TypedBatchListener}. The first change schedules a delivery
+   * windowMillis later, which hands over every key that changed in the meantime.
+   */
+  private static class BatchSubscription implements Runnable {
+    final long mWindowMillis;
+    final Scheduler mScheduler;
+    final TypedBatchListener mListener;
+    volatile boolean mRemoved = false;
+
+    private Set<AbstractPrefKey<?>> mChangedKeys = new LinkedHashSet<>(); // guarded by this
+
+    BatchSubscription(long windowMillis, Scheduler scheduler, TypedBatchListener listener) {
+      mWindowMillis = windowMillis;
+      mScheduler = scheduler;
+      mListener = listener;
+    }
+
+    void onChanged(AbstractPrefKey<?> prefKey) {
+      boolean schedule;
+      synchronized (this) {
+        schedule = mChangedKeys.isEmpty();
+        mChangedKeys.add(prefKey);
+      }
+      if (schedule) {
+        mScheduler.schedule(this, mWindowMillis);
+      }
+    }
+
+    @Override
+    public void run() {
+      Set<AbstractPrefKey<?>> changedKeys;
+      synchronized (this) {
+        changedKeys = mChangedKeys;
+        mChangedKeys = new LinkedHashSet<>();
+      }
+      if (!mRemoved && !changedKeys.isEmpty()) {
+        mListener.onPrefsChanged(Collections.unmodifiableSet(changedKeys));
+      }
+    }
+  }
+
+  private interface Scheduler {
+    void schedule(Runnable runnable, long delayMillis);
+  }
+
+  private static class MainThreadScheduler implements Scheduler {
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void schedule(Runnable runnable, long delayMillis) {
+      mHandler.postDelayed(runnable, delayMillis);
+    }
+  }
+
+  private static class ExecutorScheduler implements Scheduler {
+    private final ScheduledExecutorService mExecutor;
+
+    ExecutorScheduler(ScheduledExecutorService executor) {
+      mExecutor = Preconditions.checkNotNull(executor);
+    }
+
+    @Override
+    public void schedule(Runnable runnable, long delayMillis) {
+      mExecutor.schedule(runnable, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+}
@@ -0,0 +1,311 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.core.util.Supplier;
+import com.google.gson.Gson;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An immutable copy of the values stored in a {@link TypedPrefs} object, as returned by
+ * {@link TypedPrefs#snapshot()}, {@link TypedPrefs#snapshot(PrefNamespace)} and {@link TypedPrefs#getAll(Collection)}. Codec/gson-translated values
+ * are held in their encoded form (and only decoded when read), so a snapshot can be written back to any
+ * {@link TypedPrefs} via {@link TypedPrefs.Editor#putAll(TypedPrefsSnapshot)} without being deserialized.
+ *
+ * Reads never touch the backing {@link android.content.SharedPreferences} and are safe from any thread, though
+ * values kept in side files (see {@link TypedPrefs.Wrap#sideFileSharedPrefs}) are only loaded the first time
+ * they're read. Decoded values are memoized, so every read of a key returns the same instance, which should not
+ * be modified.
+ */
+public final class TypedPrefsSnapshot {
+
+  // stands in for values that decode to null, which the ConcurrentMap can't hold
+  private static final Object NULL_VALUE = new Object();
+
+  // the minimum number of values to decode before decodeAll() will use its executor
+  private static final int PARALLEL_DECODE_THRESHOLD = 4;
+
+  private final Map<String, ?> mRawValues;
+  private final Supplier<Gson> mGsonSupplier;
+  private final @Nullable StoredValueResolver mResolver;
+  private final ConcurrentMap<AbstractPrefKey<?>, Object> mDecodedValues = new ConcurrentHashMap<>();
+
+  TypedPrefsSnapshot(Map<String, ?> rawValues, Supplier<Gson> gsonSupplier) {
+    this(rawValues, gsonSupplier, null);
+  }
+
+  TypedPrefsSnapshot(Map<String, ?> rawValues, Supplier<Gson> gsonSupplier, @Nullable StoredValueResolver resolver) {
+    mRawValues = Collections.unmodifiableMap(rawValues);
+    mGsonSupplier = gsonSupplier;
+    mResolver = resolver;
+  }
+
+  /**
+   * Get the value for a given {@link PrefKey}
+   * @param prefKey The key to fetch a value for
+   * @param <T> The type being returned
+   * @return The value stored in this snapshot or the key's default value (if its not set)
+   */
+  public <T> T get(PrefKey<T> prefKey) {
+    T instance = getInternal(prefKey);
+    if (instance == null) {
+      return prefKey.getDefaultValue();
+    }
+    return instance;
+  }
+
+  /**
+   * Get the value for a given {@link OptPrefKey}
+   * @param prefKey The key to fetch a value for
+   * @param <T> The type being returned
+   * @return The value stored in this snapshot or null (if its not set)
+   */
+  public @Nullable <T> T get(OptPrefKey<T> prefKey) {
+    return getInternal(prefKey);
+  }
+
+  /**
+   * Get the value for a given {@link IntPrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in this snapshot or the key's default value (if its not set)
+   */
+  public int getInt(IntPrefKey prefKey) {
+    Object value = mRawValues.get(prefKey.getKeyName().toString());
+    return value == null ? prefKey.getDefaultValue() : (Integer) value;
+  }
+
+  /**
+   * Get the value for a given {@link LongPrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in this snapshot or the key's default value (if its not set)
+   */
+  public long getLong(LongPrefKey prefKey) {
+    Object value = mRawValues.get(prefKey.getKeyName().toString());
+    return value == null ? prefKey.getDefaultValue() : (Long) value;
+  }
+
+  /**
+   * Get the value for a given {@link BoolPrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in this snapshot or the key's default value (if its not set)
+   */
+  public boolean getBoolean(BoolPrefKey prefKey) {
+    Object value = mRawValues.get(prefKey.getKeyName().toString());
+    return value == null ? prefKey.getDefaultValue() : (Boolean) value;
+  }
+
+  /**
+   * Get the value for a given {@link FloatPrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in this snapshot or the key's default value (if its not set)
+   */
+  public float getFloat(FloatPrefKey prefKey) {
+    Object value = mRawValues.get(prefKey.getKeyName().toString());
+    return value == null ? prefKey.getDefaultValue() : (Float) value;
+  }
+
+  /**
+   * Get the value for a given {@link DoublePrefKey}, without boxing it
+   * @param prefKey The key to fetch a value for
+   * @return The value stored in this snapshot or the key's default value (if its not set)
+   */
+  public double getDouble(DoublePrefKey prefKey) {
+    Object value = mRawValues.get(prefKey.getKeyName().toString());
+    if (value == null) {
+      return prefKey.getDefaultValue();
+    }
+    // doubles are stored as their raw long bits, which is how they come back from getAll()
+    return value instanceof Long ? Double.longBitsToDouble((Long) value) : (Double) value;
+  }
+
+  /**
+   * @param prefKey The key to check for existence of
+   * @return true if the key was set when this snapshot was taken, false otherwise
+   */
+  public boolean contains(PrefKey<?> prefKey) {
+    return containsKeyName(prefKey.getKeyName().toString());
+  }
+
+  /**
+   * @param prefKey The key to check for existence of
+   * @return true if the key was set when this snapshot was taken, false otherwise
+   */
+  public boolean contains(OptPrefKey<?> prefKey) {
+    return containsKeyName(prefKey.getKeyName().toString());
+  }
+
+  /**
+   * @param prefKey The key to check for existence of
+   * @return true if the key was set when this snapshot was taken, false otherwise
+   */
+  public boolean contains(PrimitivePrefKey<?> prefKey) {
+    return containsKeyName(prefKey.getKeyName().toString());
+  }
+
+  Map<String, ?> getRawValues() {
+    return mRawValues;
+  }
+
+  /**
+   * @return the raw values with every stored form resolved (i.e. side files loaded), for copying them elsewhere.
+   * Values that can't be resolved are left out.
+   */
+  Map<String, ?> getResolvedValues() {
+    if (mResolver == null) {
+      return mRawValues;
+    }
+    Map<String, Object> resolved = new HashMap<>();
+    for (String keyName : mRawValues.keySet()) {
+      Object value = getRawValue(keyName);
+      if (value != null) {
+        resolved.put(keyName, value);
+      }
+    }
+    return resolved;
+  }
+
+  Supplier<Gson> getGsonSupplier() {
+    return mGsonSupplier;
+  }
+
+  /**
+   * Combine snapshots of disjoint sets of keys (i.e. from different shards) into one. Values that were already
+   * decoded stay decoded, the rest are decoded with the first snapshot's gson.
+   */
+  static TypedPrefsSnapshot merge(List<TypedPrefsSnapshot> snapshots) {
+    Map<String, Object> rawValues = new HashMap<>();
+    final Map<String, StoredValueResolver> resolvers = new HashMap<>();
+    for (TypedPrefsSnapshot snapshot : snapshots) {
+      rawValues.putAll(snapshot.mRawValues);
+      if (snapshot.mResolver != null) {
+        for (String keyName : snapshot.mRawValues.keySet()) {
+          resolvers.put(keyName, snapshot.mResolver);
+        }
+      }
+    }
+    // each value is still resolved by the snapshot it came from
+    StoredValueResolver resolver = resolvers.isEmpty() ? null : new StoredValueResolver() {
+      @Nullable
+      @Override
+      public Object resolve(String keyName, Object storedValue) {
+        StoredValueResolver keyResolver = resolvers.get(keyName);
+        return keyResolver == null ? storedValue : keyResolver.resolve(keyName, storedValue);
+      }
+    };
+    TypedPrefsSnapshot merged = new TypedPrefsSnapshot(rawValues, snapshots.get(0).mGsonSupplier, resolver);
+    for (TypedPrefsSnapshot snapshot : snapshots) {
+      merged.mDecodedValues.putAll(snapshot.mDecodedValues);
+    }
+    return merged;
+  }
+
+  /**
+   * Eagerly decode (and memoize) the values of the given keys. If an executor is supplied and there are enough
+   * values to decode, the work is shared between the executor and the calling thread.
+   */
+  void decodeAll(Collection<? extends AbstractPrefKey<?>> prefKeys, @Nullable Executor executor) {
+    final Queue<AbstractPrefKey<?>> pending = new ConcurrentLinkedQueue<>();
+    for (AbstractPrefKey<?> prefKey : prefKeys) {
+      if (prefKey.getTranslator() == null && mRawValues.containsKey(prefKey.getKeyName().toString())) {
+        pending.add(prefKey);
+      }
+    }
+    if (executor == null || pending.size() < PARALLEL_DECODE_THRESHOLD) {
+      for (AbstractPrefKey<?> prefKey : pending) {
+        getInternal(prefKey);
+      }
+      return;
+    }
+
+    final CountDownLatch decodedLatch = new CountDownLatch(pending.size());
+    final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    Runnable worker = new Runnable() {
+      @Override
+      public void run() {
+        decodePending(pending, decodedLatch, failure);
+      }
+    };
+    int workerCount = Math.min(pending.size() - 1, Runtime.getRuntime().availableProcessors());
+    for (int i = 0; i < workerCount; i++) {
+      executor.execute(worker);
+    }
+    // the calling thread works too, so we never wait on workers that haven't started (i.e. a saturated executor)
+    decodePending(pending, decodedLatch, failure);
+    try {
+      decodedLatch.await();
+    } catch (InterruptedException e) {
+      // anything that isn't decoded yet will be decoded lazily, when it's read
+      Thread.currentThread().interrupt();
+      return;
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+  }
+
+  private void decodePending(
+      Queue<AbstractPrefKey<?>> pending,
+      CountDownLatch decodedLatch,
+      AtomicReference<RuntimeException> failure) {
+    AbstractPrefKey<?> prefKey;
+    while ((prefKey = pending.poll()) != null) {
+      try {
+        getInternal(prefKey);
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        decodedLatch.countDown();
+      }
+    }
+  }
+
+  // a value whose stored form can't be resolved (i.e. a missing side file) reads as unset
+  private boolean containsKeyName(String keyName) {
+    return mRawValues.containsKey(keyName) && getRawValue(keyName) != null;
+  }
+
+  // a raw value, resolved from its stored form if needed
+  private @Nullable Object getRawValue(String keyName) {
+    Object value = mRawValues.get(keyName);
+    if (value == null || mResolver == null || !(value instanceof String)) {
+      return value;
+    }
+    return mResolver.resolve(keyName, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  private @Nullable <T> T getInternal(AbstractPrefKey<T> prefKey) {
+    Object value = getRawValue(prefKey.getKeyName().toString());
+    if (value == null) {
+      return null;
+    }
+    if (prefKey.getTranslator() != null) {
+      // doubles are stored as their raw long bits, which is how they come back from getAll()
+      if (value instanceof Long && prefKey.getObjectType() == Double.class) {
+        return (T) (Double) Double.longBitsToDouble((Long) value);
+      }
+      return (T) value;
+    }
+    Object decoded = mDecodedValues.get(prefKey);
+    if (decoded == null) {
+      T instance = prefKey.decode((String) value, mGsonSupplier);
+      decoded = instance == null ? NULL_VALUE : instance;
+      Object existing = mDecodedValues.putIfAbsent(prefKey, decoded);
+      if (existing != null) {
+        decoded = existing;
+      }
+    }
+    return decoded == NULL_VALUE ? null : (T) decoded;
+  }
+}
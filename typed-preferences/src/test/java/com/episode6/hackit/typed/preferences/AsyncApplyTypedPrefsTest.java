@@ -0,0 +1,164 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.testing.Answers;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link AsyncApplyTypedPrefs}
+ */
+public class AsyncApplyTypedPrefsTest {
+
+  static class TestObj {}
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("asyncApplyTest");
+  private static final PrefKey<Integer> INT_PREF = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(5);
+  private static final OptPrefKey<TestObj> OBJ_PREF = NAMESPACE.key(TestObj.class)
+      .named("obj")
+      .buildOptional();
+
+  private final List<Runnable> mScheduled = new ArrayList<>();
+  private final Executor mExecutor = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      mScheduled.add(command);
+    }
+  };
+
+  private TypedPrefs mDelegate;
+  private TypedPrefs.Editor mDelegateEditor;
+  private TypedPrefs mAsyncPrefs;
+
+  @Before
+  public void setup() {
+    mDelegate = mock(TypedPrefs.class);
+    mDelegateEditor = mock(TypedPrefs.Editor.class, Answers.builderAnswer());
+    when(mDelegate.edit()).thenReturn(mDelegateEditor);
+    mAsyncPrefs = TypedPrefs.Wrap.asyncApply(mDelegate, mExecutor);
+  }
+
+  private void runScheduled() {
+    for (Runnable runnable : mScheduled) {
+      runnable.run();
+    }
+    mScheduled.clear();
+  }
+
+  @Test
+  public void testApplyRunsOnExecutor() {
+    TestObj value = new TestObj();
+
+    mAsyncPrefs.edit()
+        .put(OBJ_PREF, value)
+        .apply();
+
+    verify(mDelegateEditor).put(OBJ_PREF, value);
+    verify(mDelegateEditor, never()).apply();
+
+    runScheduled();
+
+    verify(mDelegateEditor).apply();
+  }
+
+  @Test
+  public void testPendingValuesAreVisible() {
+    TestObj value = new TestObj();
+
+    mAsyncPrefs.edit()
+        .put(OBJ_PREF, value)
+        .put(INT_PREF, 12)
+        .apply();
+
+    assertThat(mAsyncPrefs.get(OBJ_PREF)).isSameAs(value);
+    assertThat(mAsyncPrefs.get(INT_PREF)).isEqualTo(12);
+    assertThat(mAsyncPrefs.contains(INT_PREF)).isTrue();
+    verify(mDelegate, never()).get(OBJ_PREF);
+    verify(mDelegate, never()).get(INT_PREF);
+  }
+
+  @Test
+  public void testPendingRemoveReadsDefault() {
+    mAsyncPrefs.edit()
+        .remove(INT_PREF)
+        .apply();
+
+    assertThat(mAsyncPrefs.get(INT_PREF)).isEqualTo(5);
+    assertThat(mAsyncPrefs.contains(INT_PREF)).isFalse();
+    verify(mDelegate, never()).get(INT_PREF);
+  }
+
+  @Test
+  public void testPendingClearHidesOtherValues() {
+    mAsyncPrefs.edit()
+        .clear()
+        .put(INT_PREF, 12)
+        .apply();
+
+    assertThat(mAsyncPrefs.get(OBJ_PREF)).isNull();
+    assertThat(mAsyncPrefs.get(INT_PREF)).isEqualTo(12);
+    verify(mDelegate, never()).get(OBJ_PREF);
+  }
+
+  @Test
+  public void testReadsGoToDelegateOnceApplied() {
+    TestObj storedValue = new TestObj();
+    when(mDelegate.get(OBJ_PREF)).thenReturn(storedValue);
+
+    mAsyncPrefs.edit()
+        .put(OBJ_PREF, new TestObj())
+        .apply();
+    runScheduled();
+
+    assertThat(mAsyncPrefs.get(OBJ_PREF)).isSameAs(storedValue);
+  }
+
+  @Test
+  public void testCommitAppliesPendingEditsFirst() {
+    TypedPrefs.Editor secondDelegateEditor = mock(TypedPrefs.Editor.class, Answers.builderAnswer());
+
+    mAsyncPrefs.edit()
+        .put(INT_PREF, 12)
+        .apply();
+    when(mDelegate.edit()).thenReturn(secondDelegateEditor);
+    mAsyncPrefs.edit()
+        .put(INT_PREF, 13)
+        .commit();
+
+    InOrder inOrder = inOrder(mDelegateEditor, secondDelegateEditor);
+    inOrder.verify(mDelegateEditor).apply();
+    inOrder.verify(secondDelegateEditor).commit();
+
+    // the scheduled drain has nothing left to do
+    runScheduled();
+    verify(mDelegateEditor).put(INT_PREF, 12);
+    verify(mDelegateEditor).apply();
+    verifyNoMoreInteractions(mDelegateEditor);
+  }
+
+  @Test
+  public void testSnapshotAppliesPendingEditsFirst() {
+    mAsyncPrefs.edit()
+        .put(INT_PREF, 12)
+        .apply();
+    mAsyncPrefs.snapshot();
+
+    InOrder inOrder = inOrder(mDelegateEditor, mDelegate);
+    inOrder.verify(mDelegateEditor).apply();
+    inOrder.verify(mDelegate).snapshot();
+  }
+}
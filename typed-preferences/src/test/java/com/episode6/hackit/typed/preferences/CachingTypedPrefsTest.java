@@ -0,0 +1,154 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.util.Supplier;
+import com.episode6.hackit.typed.testing.Rules;
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link CachingTypedPrefs}
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class CachingTypedPrefsTest {
+
+  static class TestObj {}
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("cachingTest");
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedCodec<TestObj> mCodec;
+  @Mock Supplier<Gson> mGsonSupplier;
+
+  private OptPrefKey<TestObj> mCodecPref;
+  private String mKeyName;
+  private TypedPrefs mCachingPrefs;
+  private SharedPreferences.OnSharedPreferenceChangeListener mChangeListener;
+
+  @Before
+  public void setup() {
+    mCodecPref = NAMESPACE.key(TestObj.class)
+        .named("testObj")
+        .codec(mCodec)
+        .buildOptional();
+    mKeyName = mCodecPref.getKeyName().toString();
+    when(mGsonSupplier.get()).thenReturn(t.mGson);
+    when(t.mSharedPreferences.getString(mKeyName, null)).thenReturn("encoded");
+    when(mCodec.decode("encoded")).thenReturn(new TestObj());
+
+    mCachingPrefs = TypedPrefs.Wrap.cachingSharedPrefs(t.mSharedPreferences, mGsonSupplier);
+
+    ArgumentCaptor<SharedPreferences.OnSharedPreferenceChangeListener> listenerCaptor =
+        ArgumentCaptor.forClass(SharedPreferences.OnSharedPreferenceChangeListener.class);
+    verify(t.mSharedPreferences).registerOnSharedPreferenceChangeListener(listenerCaptor.capture());
+    mChangeListener = listenerCaptor.getValue();
+  }
+
+  @Test
+  public void testDecodeOnlyOnFirstGet() {
+    TestObj result1 = mCachingPrefs.get(mCodecPref);
+    TestObj result2 = mCachingPrefs.get(mCodecPref);
+
+    assertThat(result1).isSameAs(result2);
+    verify(t.mSharedPreferences, times(1)).getString(mKeyName, null);
+    verify(mCodec, times(1)).decode("encoded");
+  }
+
+  @Test
+  public void testUnsetValueIsCached() {
+    OptPrefKey<TestObj> unsetPref = NAMESPACE.key(TestObj.class)
+        .named("unsetObj")
+        .codec(mCodec)
+        .buildOptional();
+    String unsetKeyName = unsetPref.getKeyName().toString();
+
+    assertThat(mCachingPrefs.get(unsetPref)).isNull();
+    assertThat(mCachingPrefs.get(unsetPref)).isNull();
+
+    verify(t.mSharedPreferences, times(1)).getString(unsetKeyName, null);
+  }
+
+  @Test
+  public void testChangeListenerInvalidates() {
+    TestObj result1 = mCachingPrefs.get(mCodecPref);
+    mChangeListener.onSharedPreferenceChanged(t.mSharedPreferences, mKeyName);
+    TestObj result2 = mCachingPrefs.get(mCodecPref);
+
+    assertThat(result1).isNotSameAs(result2);
+    verify(mCodec, times(2)).decode("encoded");
+  }
+
+  @Test
+  public void testChangeListenerIgnoresOtherKeys() {
+    mCachingPrefs.get(mCodecPref);
+    mChangeListener.onSharedPreferenceChanged(t.mSharedPreferences, "someOtherKey");
+    mCachingPrefs.get(mCodecPref);
+
+    verify(mCodec, times(1)).decode("encoded");
+  }
+
+  @Test
+  public void testChangeListenerNullKeyInvalidatesAll() {
+    mCachingPrefs.get(mCodecPref);
+    mChangeListener.onSharedPreferenceChanged(t.mSharedPreferences, null);
+    mCachingPrefs.get(mCodecPref);
+
+    verify(mCodec, times(2)).decode("encoded");
+  }
+
+  @Test
+  public void testEditorInvalidates() {
+    TestObj newValue = new TestObj();
+    when(mCodec.encode(newValue)).thenReturn("newEncoded");
+
+    mCachingPrefs.get(mCodecPref);
+    mCachingPrefs.edit()
+        .put(mCodecPref, newValue)
+        .commit();
+    mCachingPrefs.get(mCodecPref);
+
+    verify(t.mEditor).putString(mKeyName, "newEncoded");
+    verify(mCodec, times(2)).decode("encoded");
+  }
+
+  @Test
+  public void testEditorClearInvalidates() {
+    mCachingPrefs.get(mCodecPref);
+    mCachingPrefs.edit()
+        .clear()
+        .apply();
+    mCachingPrefs.get(mCodecPref);
+
+    verify(mCodec, times(2)).decode("encoded");
+  }
+
+  @Test
+  public void testDirectKeysAreNotCached() {
+    PrefKey<Integer> intPref = NAMESPACE.key(Integer.class)
+        .named("testInt")
+        .buildWithDefault(3);
+
+    mCachingPrefs.get(intPref);
+    mCachingPrefs.get(intPref);
+
+    verify(t.mSharedPreferences, times(2)).getInt(eq(intPref.getKeyName().toString()), anyInt());
+  }
+}
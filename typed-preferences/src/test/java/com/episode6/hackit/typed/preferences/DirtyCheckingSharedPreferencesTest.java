@@ -0,0 +1,117 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.testing.Answers;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link DirtyCheckingSharedPreferences}
+ */
+public class DirtyCheckingSharedPreferencesTest {
+
+  private SharedPreferences mBackingPrefs;
+  private SharedPreferences.Editor mBackingEditor;
+  private DirtyCheckingSharedPreferences mDirtyCheckingPrefs;
+
+  @Before
+  public void setup() {
+    mBackingPrefs = mock(SharedPreferences.class);
+    mBackingEditor = mock(SharedPreferences.Editor.class, Answers.builderAnswer());
+    when(mBackingPrefs.edit()).thenReturn(mBackingEditor);
+    when(mBackingEditor.commit()).thenReturn(true);
+    when(mBackingPrefs.contains("string")).thenReturn(true);
+    when(mBackingPrefs.getString("string", null)).thenReturn("stored");
+    when(mBackingPrefs.contains("int")).thenReturn(true);
+    when(mBackingPrefs.getInt("int", 0)).thenReturn(5);
+    mDirtyCheckingPrefs = new DirtyCheckingSharedPreferences(mBackingPrefs);
+  }
+
+  @Test
+  public void testUnchangedValuesSkipCommit() {
+    boolean result = mDirtyCheckingPrefs.edit()
+        .putString("string", "stored")
+        .putInt("int", 5)
+        .remove("missing")
+        .commit();
+
+    assertThat(result).isTrue();
+    verify(mBackingPrefs, never()).edit();
+  }
+
+  @Test
+  public void testUnchangedValuesSkipApply() {
+    mDirtyCheckingPrefs.edit()
+        .putString("string", "stored")
+        .apply();
+
+    verify(mBackingPrefs, never()).edit();
+  }
+
+  @Test
+  public void testOnlyChangedValuesWritten() {
+    mDirtyCheckingPrefs.edit()
+        .putString("string", "stored")
+        .putInt("int", 6)
+        .putBoolean("missing", true)
+        .commit();
+
+    verify(mBackingEditor, never()).putString("string", "stored");
+    verify(mBackingEditor).putInt("int", 6);
+    verify(mBackingEditor).putBoolean("missing", true);
+    verify(mBackingEditor).commit();
+  }
+
+  @Test
+  public void testDifferentTypeIsAChange() {
+    when(mBackingPrefs.getInt("string", 0)).thenThrow(new ClassCastException());
+
+    mDirtyCheckingPrefs.edit()
+        .putInt("string", 5)
+        .apply();
+
+    verify(mBackingEditor).putInt("string", 5);
+    verify(mBackingEditor).apply();
+  }
+
+  @Test
+  public void testClearWritesEverything() {
+    mDirtyCheckingPrefs.edit()
+        .clear()
+        .putString("string", "stored")
+        .commit();
+
+    verify(mBackingEditor).clear();
+    verify(mBackingEditor).putString("string", "stored");
+    verify(mBackingEditor).commit();
+  }
+
+  @Test
+  public void testCallbackHandedToBackingCallbackEditor() {
+    CallbackEditor backingEditor = mock(CallbackEditor.class, Answers.builderAnswer());
+    when(mBackingPrefs.edit()).thenReturn(backingEditor);
+    CommitCallback callback = mock(CommitCallback.class);
+
+    ((CallbackEditor) mDirtyCheckingPrefs.edit().putInt("int", 6)).commit(callback);
+
+    verify(backingEditor).putInt("int", 6);
+    verify(backingEditor).commit(callback);
+    verify(backingEditor, never()).commit();
+  }
+
+  @Test
+  public void testNoOpCallsBackRightAway() {
+    CommitCallback callback = mock(CommitCallback.class);
+
+    ((CallbackEditor) mDirtyCheckingPrefs.edit().putInt("int", 5)).commit(callback);
+
+    verify(callback).onCommitted(true);
+    verify(mBackingPrefs, never()).edit();
+  }
+}
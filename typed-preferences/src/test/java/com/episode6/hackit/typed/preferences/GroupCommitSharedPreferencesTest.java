@@ -0,0 +1,169 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.testing.Answers;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link GroupCommitSharedPreferences}
+ */
+public class GroupCommitSharedPreferencesTest {
+
+  private SharedPreferences mBackingPrefs;
+  private SharedPreferences.Editor mBackingEditor;
+  private ScheduledExecutorService mScheduler;
+  private GroupCommitSharedPreferences mGroupPrefs;
+
+  @Before
+  public void setup() {
+    mBackingPrefs = mock(SharedPreferences.class);
+    mBackingEditor = mock(SharedPreferences.Editor.class, Answers.builderAnswer());
+    mScheduler = mock(ScheduledExecutorService.class);
+    when(mBackingPrefs.edit()).thenReturn(mBackingEditor);
+    when(mBackingEditor.commit()).thenReturn(true);
+    when(mBackingPrefs.getString(anyString(), anyString())).thenReturn("backing");
+    mGroupPrefs = new GroupCommitSharedPreferences(mBackingPrefs, mScheduler, 100);
+  }
+
+  private void runScheduledFlush() {
+    runScheduledFlush(1);
+  }
+
+  private void runScheduledFlush(int timesScheduled) {
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(mScheduler, times(timesScheduled)).schedule(captor.capture(), eq(100L), eq(TimeUnit.MILLISECONDS));
+    captor.getValue().run();
+  }
+
+  @Test
+  public void testAppliedEditorsShareOneCommit() {
+    mGroupPrefs.edit().putString("a", "1").apply();
+    mGroupPrefs.edit().putString("b", "2").apply();
+
+    verify(mBackingPrefs, never()).edit();
+
+    runScheduledFlush();
+
+    verify(mBackingPrefs, times(1)).edit();
+    verify(mBackingEditor).putString("a", "1");
+    verify(mBackingEditor).putString("b", "2");
+    verify(mBackingEditor, times(1)).commit();
+  }
+
+  @Test
+  public void testLastWriterWins() {
+    mGroupPrefs.edit().putString("a", "1").apply();
+    mGroupPrefs.edit().putString("a", "2").apply();
+    runScheduledFlush();
+
+    verify(mBackingEditor, never()).putString("a", "1");
+    verify(mBackingEditor).putString("a", "2");
+  }
+
+  @Test
+  public void testPendingValuesAreReadable() {
+    mGroupPrefs.edit()
+        .putString("a", "1")
+        .remove("b")
+        .apply();
+
+    assertThat(mGroupPrefs.getString("a", null)).isEqualTo("1");
+    assertThat(mGroupPrefs.getString("b", "default")).isEqualTo("default");
+    assertThat(mGroupPrefs.getString("c", null)).isEqualTo("backing");
+    verify(mBackingPrefs, never()).getString("a", null);
+  }
+
+  @Test
+  public void testPendingClearWrittenFirst() {
+    mGroupPrefs.edit().clear().putString("a", "1").apply();
+    runScheduledFlush();
+
+    InOrder inOrder = inOrder(mBackingEditor);
+    inOrder.verify(mBackingEditor).clear();
+    inOrder.verify(mBackingEditor).putString("a", "1");
+    inOrder.verify(mBackingEditor).commit();
+  }
+
+  @Test
+  public void testCallbacksGetResult() {
+    CommitCallback callback1 = mock(CommitCallback.class);
+    CommitCallback callback2 = mock(CommitCallback.class);
+    when(mBackingEditor.commit()).thenReturn(false);
+
+    ((CallbackEditor) mGroupPrefs.edit().putString("a", "1")).commit(callback1);
+    ((CallbackEditor) mGroupPrefs.edit().putString("b", "2")).commit(callback2);
+    verify(callback1, never()).onCommitted(anyBoolean());
+
+    runScheduledFlush();
+
+    verify(callback1).onCommitted(false);
+    verify(callback2).onCommitted(false);
+    verify(mBackingEditor, times(1)).commit();
+  }
+
+  @Test
+  public void testCommitFlushesPendingGroup() {
+    mGroupPrefs.edit().putString("a", "1").apply();
+
+    boolean result = mGroupPrefs.edit().putString("b", "2").commit();
+
+    assertThat(result).isTrue();
+    verify(mBackingEditor).putString("a", "1");
+    verify(mBackingEditor).putString("b", "2");
+    verify(mBackingEditor, times(1)).commit();
+
+    // the scheduled flush has nothing left to do
+    runScheduledFlush();
+    verify(mBackingEditor, times(1)).commit();
+  }
+
+  @Test
+  public void testFailedGroupIsRetried() {
+    when(mBackingEditor.commit()).thenReturn(false, true);
+    mGroupPrefs.edit()
+        .putString("a", "1")
+        .putString("b", "1")
+        .apply();
+    runScheduledFlush();
+
+    mGroupPrefs.edit().putString("b", "2").apply();
+
+    assertThat(mGroupPrefs.getString("a", null)).isEqualTo("1");
+    assertThat(mGroupPrefs.getString("b", null)).isEqualTo("2");
+
+    runScheduledFlush(2);
+
+    verify(mBackingEditor, times(2)).putString("a", "1");
+    verify(mBackingEditor, times(1)).putString("b", "1");
+    verify(mBackingEditor).putString("b", "2");
+    verify(mBackingEditor, times(2)).commit();
+  }
+
+  @Test
+  public void testFailedGroupDroppedAfterClear() {
+    when(mBackingEditor.commit()).thenReturn(false, true);
+    mGroupPrefs.edit().putString("a", "1").apply();
+    runScheduledFlush();
+
+    mGroupPrefs.edit().clear().apply();
+
+    assertThat(mGroupPrefs.getString("a", "default")).isEqualTo("default");
+  }
+}
@@ -0,0 +1,176 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.core.util.Supplier;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link PreloadingTypedPrefs}
+ */
+public class PreloadingTypedPrefsTest {
+
+  static class TestObj {
+    String value;
+  }
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("preloadTest");
+  private static final OptPrefKey<TestObj> OBJ_PREF = NAMESPACE.key(TestObj.class)
+      .named("obj")
+      .buildOptional();
+  private static final IntPrefKey INT_PREF = NAMESPACE.intKey("int", 5);
+
+  private static final String OBJ_NAME = OBJ_PREF.getKeyName().toString();
+
+  private final List<Runnable> mScheduled = new ArrayList<>();
+  private final Executor mExecutor = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      mScheduled.add(command);
+    }
+  };
+
+  private SharedPreferences mSharedPreferences;
+  private Supplier<SharedPreferences> mSharedPrefsSupplier;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() {
+    mSharedPreferences = mock(SharedPreferences.class);
+    mSharedPrefsSupplier = mock(Supplier.class);
+    when(mSharedPrefsSupplier.get()).thenReturn(mSharedPreferences);
+    when(mSharedPreferences.contains(OBJ_NAME)).thenReturn(true);
+    when(mSharedPreferences.getString(OBJ_NAME, null)).thenReturn("{\"value\":\"hi\"}");
+  }
+
+  private void runScheduled() {
+    for (Runnable runnable : mScheduled) {
+      runnable.run();
+    }
+    mScheduled.clear();
+  }
+
+  @Test
+  public void testLoadsOnExecutor() {
+    PreloadedTypedPrefs typedPrefs = TypedPrefs.Wrap.preloadSharedPrefs(
+        mSharedPrefsSupplier,
+        mExecutor,
+        Collections.<AbstractPrefKey<?>>emptyList());
+
+    verify(mSharedPrefsSupplier, never()).get();
+    assertThat(typedPrefs.isReady()).isFalse();
+
+    runScheduled();
+
+    verify(mSharedPreferences).getAll();
+    assertThat(typedPrefs.isReady()).isTrue();
+  }
+
+  @Test
+  public void testStartupKeysDecodedDuringLoad() {
+    PreloadedTypedPrefs typedPrefs = TypedPrefs.Wrap.preloadSharedPrefs(
+        mSharedPrefsSupplier,
+        mExecutor,
+        Arrays.<AbstractPrefKey<?>>asList(OBJ_PREF, INT_PREF));
+
+    runScheduled();
+    verify(mSharedPreferences).getString(OBJ_NAME, null);
+    verify(mSharedPreferences, never()).getInt(anyString(), anyInt());
+
+    TestObj result = typedPrefs.get(OBJ_PREF);
+
+    // decoded values aren't cached unless asked for
+    assertThat(result.value).isEqualTo("hi");
+    verify(mSharedPreferences, times(2)).getString(OBJ_NAME, null);
+  }
+
+  @Test
+  public void testCachingStartupKeysReadFromCache() {
+    PreloadedTypedPrefs typedPrefs = TypedPrefs.Wrap.preloadCachingSharedPrefs(
+        mSharedPrefsSupplier,
+        mExecutor,
+        Arrays.<AbstractPrefKey<?>>asList(OBJ_PREF, INT_PREF));
+
+    runScheduled();
+    verify(mSharedPreferences).getString(OBJ_NAME, null);
+
+    TestObj result = typedPrefs.get(OBJ_PREF);
+
+    assertThat(result.value).isEqualTo("hi");
+    verify(mSharedPreferences, times(1)).getString(OBJ_NAME, null);
+    verify(mSharedPreferences, never()).getInt(anyString(), anyInt());
+  }
+
+  @Test
+  public void testCallbackCalledWhenReady() {
+    PreloadedTypedPrefs typedPrefs = TypedPrefs.Wrap.preloadSharedPrefs(
+        mSharedPrefsSupplier,
+        mExecutor,
+        Collections.<AbstractPrefKey<?>>emptyList());
+    PreloadCallback callback = mock(PreloadCallback.class);
+
+    typedPrefs.whenReady(callback);
+    verify(callback, never()).onPreloaded(true);
+
+    runScheduled();
+
+    verify(callback).onPreloaded(true);
+  }
+
+  @Test
+  public void testCallbackCalledRightAwayWhenAlreadyReady() {
+    PreloadedTypedPrefs typedPrefs = TypedPrefs.Wrap.preloadSharedPrefs(
+        mSharedPrefsSupplier,
+        mExecutor,
+        Collections.<AbstractPrefKey<?>>emptyList());
+    runScheduled();
+    PreloadCallback callback = mock(PreloadCallback.class);
+
+    typedPrefs.whenReady(callback);
+
+    verify(callback).onPreloaded(true);
+  }
+
+  @Test
+  public void testFailedLoad() {
+    when(mSharedPrefsSupplier.get()).thenThrow(new RuntimeException("no prefs"));
+    PreloadedTypedPrefs typedPrefs = TypedPrefs.Wrap.preloadSharedPrefs(
+        mSharedPrefsSupplier,
+        mExecutor,
+        Collections.<AbstractPrefKey<?>>emptyList());
+    PreloadCallback callback = mock(PreloadCallback.class);
+    typedPrefs.whenReady(callback);
+
+    runScheduled();
+
+    verify(callback).onPreloaded(false);
+    assertThat(typedPrefs.isReady()).isTrue();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadAfterFailedLoadThrows() {
+    when(mSharedPrefsSupplier.get()).thenThrow(new RuntimeException("no prefs"));
+    PreloadedTypedPrefs typedPrefs = TypedPrefs.Wrap.preloadSharedPrefs(
+        mSharedPrefsSupplier,
+        mExecutor,
+        Collections.<AbstractPrefKey<?>>emptyList());
+    runScheduled();
+
+    typedPrefs.get(OBJ_PREF);
+  }
+}
@@ -0,0 +1,175 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.typed.core.util.DefaultGsonSupplier;
+import com.episode6.hackit.typed.testing.Answers;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link ShardedTypedPrefs}
+ */
+public class ShardedTypedPrefsTest {
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("shardedTest");
+  private static final PrefNamespace HOT_NAMESPACE = NAMESPACE.extend("hot");
+  private static final PrefKey<Integer> COLD_PREF = NAMESPACE.key(Integer.class)
+      .named("cold")
+      .buildWithDefault(0);
+  private static final PrefKey<Integer> HOT_PREF = HOT_NAMESPACE.key(Integer.class)
+      .named("hot")
+      .buildWithDefault(0);
+  private static final OptPrefKey<String> NESTED_HOT_PREF = HOT_NAMESPACE.extend("nested").key(String.class)
+      .named("nested")
+      .buildOptional();
+
+  private TypedPrefs mDefaultShard;
+  private TypedPrefs.Editor mDefaultEditor;
+  private TypedPrefs mHotShard;
+  private TypedPrefs.Editor mHotEditor;
+  private TypedPrefs mShardedPrefs;
+
+  @Before
+  public void setup() {
+    mDefaultShard = mock(TypedPrefs.class);
+    mDefaultEditor = mock(TypedPrefs.Editor.class, Answers.builderAnswer());
+    mHotShard = mock(TypedPrefs.class);
+    mHotEditor = mock(TypedPrefs.Editor.class, Answers.builderAnswer());
+    when(mDefaultShard.edit()).thenReturn(mDefaultEditor);
+    when(mHotShard.edit()).thenReturn(mHotEditor);
+    Map<PrefNamespace, TypedPrefs> namespaceShards = new HashMap<>();
+    namespaceShards.put(HOT_NAMESPACE, mHotShard);
+    mShardedPrefs = TypedPrefs.Wrap.sharded(mDefaultShard, namespaceShards);
+  }
+
+  @Test
+  public void testReadsRouteByNamespace() {
+    mShardedPrefs.get(COLD_PREF);
+    mShardedPrefs.get(HOT_PREF);
+    mShardedPrefs.get(NESTED_HOT_PREF);
+
+    verify(mDefaultShard).get(COLD_PREF);
+    verify(mHotShard).get(HOT_PREF);
+    verify(mHotShard).get(NESTED_HOT_PREF);
+    verify(mDefaultShard, never()).get(HOT_PREF);
+  }
+
+  @Test
+  public void testEditOnlyTouchesEditedShards() {
+    mShardedPrefs.edit()
+        .put(HOT_PREF, 5)
+        .remove(NESTED_HOT_PREF)
+        .commit();
+
+    verify(mHotEditor).put(HOT_PREF, 5);
+    verify(mHotEditor).remove(NESTED_HOT_PREF);
+    verify(mHotEditor).commit();
+    verify(mDefaultShard, never()).edit();
+  }
+
+  @Test
+  public void testEditSplitsAcrossShards() {
+    mShardedPrefs.edit()
+        .put(HOT_PREF, 5)
+        .put(COLD_PREF, 6)
+        .apply();
+
+    verify(mHotEditor).put(HOT_PREF, 5);
+    verify(mHotEditor).apply();
+    verify(mDefaultEditor).put(COLD_PREF, 6);
+    verify(mDefaultEditor).apply();
+  }
+
+  @Test
+  public void testCommitCallbackWaitsForEveryShard() {
+    CommitCallback callback = mock(CommitCallback.class);
+
+    mShardedPrefs.edit()
+        .put(HOT_PREF, 5)
+        .put(COLD_PREF, 6)
+        .commit(callback);
+
+    ArgumentCaptor<CommitCallback> hotCallback = ArgumentCaptor.forClass(CommitCallback.class);
+    ArgumentCaptor<CommitCallback> defaultCallback = ArgumentCaptor.forClass(CommitCallback.class);
+    verify(mHotEditor).commit(hotCallback.capture());
+    verify(mDefaultEditor).commit(defaultCallback.capture());
+
+    hotCallback.getValue().onCommitted(false);
+    verify(callback, never()).onCommitted(anyBoolean());
+
+    defaultCallback.getValue().onCommitted(true);
+    verify(callback).onCommitted(false);
+  }
+
+  @Test
+  public void testClearClearsEveryShard() {
+    mShardedPrefs.edit()
+        .clear()
+        .commit();
+
+    verify(mHotEditor).clear();
+    verify(mHotEditor).commit();
+    verify(mDefaultEditor).clear();
+    verify(mDefaultEditor).commit();
+  }
+
+  @Test
+  public void testPutAllRoutesUnbuiltKeyNames() {
+    Map<String, Object> rawValues = new HashMap<>();
+    rawValues.put(HOT_PREF.getKeyName().toString(), 5);
+    rawValues.put(HOT_NAMESPACE.extend("unbuilt").toString() + "/key", "hot");
+    rawValues.put(NAMESPACE.toString() + "/unbuiltKey", "cold");
+
+    mShardedPrefs.edit()
+        .putAll(new TypedPrefsSnapshot(rawValues, new DefaultGsonSupplier()))
+        .commit();
+
+    ArgumentCaptor<TypedPrefsSnapshot> hotSnapshot = ArgumentCaptor.forClass(TypedPrefsSnapshot.class);
+    ArgumentCaptor<TypedPrefsSnapshot> defaultSnapshot = ArgumentCaptor.forClass(TypedPrefsSnapshot.class);
+    verify(mHotEditor).putAll(hotSnapshot.capture());
+    verify(mDefaultEditor).putAll(defaultSnapshot.capture());
+    assertThat(hotSnapshot.getValue().getRawValues().keySet()).containsOnly(
+        HOT_PREF.getKeyName().toString(),
+        HOT_NAMESPACE.extend("unbuilt").toString() + "/key");
+    assertThat(defaultSnapshot.getValue().getRawValues().keySet()).containsOnly(
+        NAMESPACE.toString() + "/unbuiltKey");
+  }
+
+  @Test
+  public void testRemoveNamespaceOnlyTouchesItsShards() {
+    mShardedPrefs.edit()
+        .remove(HOT_NAMESPACE.extend("nested"))
+        .commit();
+
+    verify(mHotEditor).remove(HOT_NAMESPACE.extend("nested"));
+    verify(mDefaultShard, never()).edit();
+  }
+
+  @Test
+  public void testRemoveParentNamespaceIncludesMappedChildren() {
+    mShardedPrefs.edit()
+        .remove(NAMESPACE)
+        .commit();
+
+    verify(mDefaultEditor).remove(NAMESPACE);
+    verify(mHotEditor).remove(NAMESPACE);
+  }
+
+  @Test
+  public void testSnapshotNamespaceOnlyReadsItsShards() {
+    mShardedPrefs.snapshot(HOT_NAMESPACE);
+
+    verify(mHotShard).snapshot(HOT_NAMESPACE);
+    verify(mDefaultShard, never()).snapshot(HOT_NAMESPACE);
+  }
+}
@@ -5,21 +5,30 @@ import com.episode6.hackit.mockspresso.annotation.RealObject;
 import com.episode6.hackit.typed.core.TypedKey;
 import com.episode6.hackit.typed.testing.Answers;
 import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.junit.Before;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.core.spi.PowerMockPolicy;
 import org.powermock.mockpolicies.MockPolicyClassLoadingSettings;
 import org.powermock.mockpolicies.MockPolicyInterceptionSettings;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 
+import static org.mockito.AdditionalAnswers.returnsSecondArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyFloat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.*;
@@ -45,6 +54,7 @@ public class SharedTestResources {
   @Mock SharedPreferences mSharedPreferences;
   /*Mock*/ SharedPreferences.Editor mEditor;
   @Mock Gson mGson;
+  @Mock TypeAdapter<Object> mTypeAdapter;
 
   @RealObject(implementation = TypedPrefsImpl.class) TypedPrefs mTypedPrefs;
 
@@ -52,12 +62,50 @@ public class SharedTestResources {
   public void init() {
     mEditor = mock(SharedPreferences.Editor.class, Answers.builderAnswer());
     when(mSharedPreferences.edit()).thenReturn(mEditor);
-    when(mGson.toJson(any(), any(Type.class))).thenReturn("someFakeJson");
+    // like the real thing, return the defValue for any key that isn't set up
+    when(mSharedPreferences.getBoolean(anyString(), anyBoolean())).then(returnsSecondArg());
+    when(mSharedPreferences.getFloat(anyString(), anyFloat())).then(returnsSecondArg());
+    when(mSharedPreferences.getInt(anyString(), anyInt())).then(returnsSecondArg());
+    when(mSharedPreferences.getLong(anyString(), anyLong())).then(returnsSecondArg());
+    when(mGson.getAdapter(any(TypeToken.class))).thenReturn(mTypeAdapter);
+    try {
+      doAnswer(new Answer() {
+        @Override
+        public Object answer(InvocationOnMock invocation) throws Throwable {
+          ((JsonWriter) invocation.getArgument(0)).jsonValue("someFakeJson");
+          return null;
+        }
+      }).when(mTypeAdapter).write(any(JsonWriter.class), any());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  void verifyAdapterResolved(InOrder inOrder, Type type) {
+    inOrder.verify(mGson).getAdapter(TypeToken.get(type));
+    inOrder.verify(mGson).htmlSafe();
+    inOrder.verify(mGson).serializeNulls();
   }
 
   void verifyPrefDidntExist(TypedKey key) {
+    String keyName = key.getKeyName().toString();
+    Type objectType = key.getObjectType();
     InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
-    inOrder.verify(mSharedPreferences).contains(key.getKeyName().toString());
+    if (objectType == Boolean.class) {
+      inOrder.verify(mSharedPreferences).getBoolean(eq(keyName), anyBoolean());
+    } else if (objectType == Float.class) {
+      inOrder.verify(mSharedPreferences).getFloat(eq(keyName), anyFloat());
+    } else if (objectType == Integer.class) {
+      inOrder.verify(mSharedPreferences).getInt(eq(keyName), anyInt());
+    } else if (objectType == Long.class || objectType == Double.class) {
+      inOrder.verify(mSharedPreferences).getLong(eq(keyName), anyLong());
+    } else {
+      // Strings (and encoded values) are null when unset, so no contains() check is needed
+      inOrder.verify(mSharedPreferences).getString(keyName, null);
+      verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
+      return;
+    }
+    inOrder.verify(mSharedPreferences).contains(keyName);
     verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
   }
 
@@ -69,29 +117,48 @@ public class SharedTestResources {
     verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
   }
 
-  <T> void setupPrefExists(TypedKey<T> key, T expectedValue) {
+  <T> void setupPrefExists(TypedKey<T> key, final T expectedValue) {
     String keyName = key.getKeyName().toString();
     when(mSharedPreferences.contains(keyName)).thenReturn(true);
     when(mSharedPreferences.getString(keyName, null)).thenReturn("someFakeJson");
-    when(mGson.fromJson("someFakeJson", key.getObjectType())).thenReturn(expectedValue);
+    try {
+      when(mTypeAdapter.read(any(JsonReader.class))).thenAnswer(new Answer<Object>() {
+        @Override
+        public Object answer(InvocationOnMock invocation) throws Throwable {
+          ((JsonReader) invocation.getArgument(0)).skipValue();
+          return expectedValue;
+        }
+      });
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
   }
 
   <T> void verifyPrefExisted(TypedKey<T> key) {
     String keyName = key.getKeyName().toString();
-    InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
-    inOrder.verify(mSharedPreferences).contains(keyName);
+    InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson, mTypeAdapter);
     inOrder.verify(mSharedPreferences).getString(keyName, null);
-    inOrder.verify(mGson).fromJson("someFakeJson", key.getObjectType());
-    verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
+    verifyAdapterResolved(inOrder, key.getObjectType());
+    try {
+      inOrder.verify(mTypeAdapter).read(any(JsonReader.class));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson, mTypeAdapter);
   }
 
   <T> void verifyPrefWasSet(TypedKey<T> key, T expectedValue) {
-    InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
+    InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson, mTypeAdapter);
     inOrder.verify(mSharedPreferences).edit();
-    inOrder.verify(mGson).toJson(expectedValue, key.getObjectType());
+    verifyAdapterResolved(inOrder, key.getObjectType());
+    try {
+      inOrder.verify(mTypeAdapter).write(any(JsonWriter.class), eq(expectedValue));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
     inOrder.verify(mEditor).putString(key.getKeyName().toString(), "someFakeJson");
     inOrder.verify(mEditor).apply();
-    verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
+    verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson, mTypeAdapter);
   }
 
   void setupBooleanExists(TypedKey<Boolean> key, boolean expectedValue) {
@@ -100,11 +167,14 @@ public class SharedTestResources {
     when(mSharedPreferences.getBoolean(eq(keyName), anyBoolean())).thenReturn(expectedValue);
   }
 
-  void verifyBooleanExisted(TypedKey<Boolean> key) {
+  void verifyBooleanExisted(TypedKey<Boolean> key, boolean expectedValue) {
     String keyName = key.getKeyName().toString();
     InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
-    inOrder.verify(mSharedPreferences).contains(keyName);
     inOrder.verify(mSharedPreferences).getBoolean(eq(keyName), anyBoolean());
+    if (!expectedValue) {
+      // false can't be told apart from unset without a second lookup
+      inOrder.verify(mSharedPreferences).contains(keyName);
+    }
     verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
   }
 
@@ -125,7 +195,6 @@ public class SharedTestResources {
   void verifyFloatExisted(TypedKey<Float> key) {
     String keyName = key.getKeyName().toString();
     InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
-    inOrder.verify(mSharedPreferences).contains(keyName);
     inOrder.verify(mSharedPreferences).getFloat(eq(keyName), anyFloat());
     verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
   }
@@ -147,7 +216,6 @@ public class SharedTestResources {
   void verifyIntegerExisted(TypedKey<Integer> key) {
     String keyName = key.getKeyName().toString();
     InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
-    inOrder.verify(mSharedPreferences).contains(keyName);
     inOrder.verify(mSharedPreferences).getInt(eq(keyName), anyInt());
     verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
   }
@@ -169,7 +237,6 @@ public class SharedTestResources {
   void verifyLongExisted(TypedKey<Long> key) {
     String keyName = key.getKeyName().toString();
     InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
-    inOrder.verify(mSharedPreferences).contains(keyName);
     inOrder.verify(mSharedPreferences).getLong(eq(keyName), anyLong());
     verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
   }
@@ -191,7 +258,6 @@ public class SharedTestResources {
   void verifyStringExisted(TypedKey<String> key) {
     String keyName = key.getKeyName().toString();
     InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
-    inOrder.verify(mSharedPreferences).contains(keyName);
     inOrder.verify(mSharedPreferences).getString(eq(keyName), nullable(String.class));
     verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
   }
@@ -214,7 +280,6 @@ public class SharedTestResources {
   void verifyDoubleExisted(TypedKey<Double> key) {
     String keyName = key.getKeyName().toString();
     InOrder inOrder = Mockito.inOrder(mSharedPreferences, mEditor, mGson);
-    inOrder.verify(mSharedPreferences).contains(keyName);
     inOrder.verify(mSharedPreferences).getLong(eq(keyName), anyLong());
     verifyNoMoreInteractions(mSharedPreferences, mEditor, mGson);
   }
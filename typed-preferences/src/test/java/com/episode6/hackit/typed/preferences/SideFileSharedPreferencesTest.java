@@ -0,0 +1,214 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.testing.Answers;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link SideFileSharedPreferences}
+ */
+public class SideFileSharedPreferencesTest {
+
+  private static final String LARGE_VALUE = "a value that is longer than the threshold";
+
+  @Rule public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+  private SharedPreferences mBackingPrefs;
+  private SharedPreferences.Editor mBackingEditor;
+  private File mDirectory;
+  private SideFileSharedPreferences mSideFilePrefs;
+
+  @Before
+  public void setup() {
+    mBackingPrefs = mock(SharedPreferences.class);
+    mBackingEditor = mock(SharedPreferences.Editor.class, Answers.builderAnswer());
+    when(mBackingPrefs.edit()).thenReturn(mBackingEditor);
+    when(mBackingEditor.commit()).thenReturn(true);
+    mDirectory = new File(mTemporaryFolder.getRoot(), "sideFiles");
+    mSideFilePrefs = new SideFileSharedPreferences(mBackingPrefs, mDirectory, 10);
+  }
+
+  private String commitAndGetStored(String key, String value) {
+    mSideFilePrefs.edit()
+        .putString(key, value)
+        .commit();
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(mBackingEditor).putString(eq(key), captor.capture());
+    when(mBackingPrefs.getString(key, null)).thenReturn(captor.getValue());
+    when(mBackingPrefs.contains(key)).thenReturn(true);
+    return captor.getValue();
+  }
+
+  @Test
+  public void testSmallValuesStoredInline() {
+    String stored = commitAndGetStored("small", "short");
+
+    assertThat(stored).isEqualTo("short");
+    assertThat(mDirectory.exists()).isFalse();
+  }
+
+  @Test
+  public void testLargeValuesStoredInSideFile() {
+    String stored = commitAndGetStored("large", LARGE_VALUE);
+
+    assertThat(stored.length()).isLessThan(LARGE_VALUE.length() + 30);
+    assertThat(stored).doesNotContain(LARGE_VALUE);
+    assertThat(mDirectory.listFiles()).hasSize(1);
+    assertThat(mSideFilePrefs.getString("large", null)).isEqualTo(LARGE_VALUE);
+  }
+
+  @Test
+  public void testSideFilesLoadedLazily() {
+    commitAndGetStored("large", LARGE_VALUE);
+
+    SideFileSharedPreferences freshPrefs = new SideFileSharedPreferences(mBackingPrefs, mDirectory, 10);
+
+    assertThat(freshPrefs.getString("large", null)).isEqualTo(LARGE_VALUE);
+  }
+
+  @Test
+  public void testCorruptSideFileReadsAsUnset() throws Exception {
+    commitAndGetStored("large", LARGE_VALUE);
+    FileOutputStream out = new FileOutputStream(mDirectory.listFiles()[0], true);
+    out.write('x');
+    out.close();
+
+    SideFileSharedPreferences freshPrefs = new SideFileSharedPreferences(mBackingPrefs, mDirectory, 10);
+
+    assertThat(freshPrefs.getString("large", "default")).isEqualTo("default");
+    assertThat(freshPrefs.contains("large")).isFalse();
+  }
+
+  @Test
+  public void testMissingSideFileNotContained() {
+    commitAndGetStored("large", LARGE_VALUE);
+    SideFileSharedPreferences freshPrefs = new SideFileSharedPreferences(mBackingPrefs, mDirectory, 10);
+    mDirectory.listFiles()[0].delete();
+
+    assertThat(freshPrefs.contains("large")).isFalse();
+  }
+
+  @Test
+  public void testContainsValuesThatArentStrings() {
+    when(mBackingPrefs.getString("int", null)).thenThrow(new ClassCastException());
+
+    assertThat(mSideFilePrefs.contains("int")).isTrue();
+  }
+
+  @Test
+  public void testRemoveDeletesSideFile() {
+    commitAndGetStored("large", LARGE_VALUE);
+
+    mSideFilePrefs.edit()
+        .remove("large")
+        .commit();
+
+    verify(mBackingEditor).remove("large");
+    assertThat(mDirectory.listFiles()).isEmpty();
+  }
+
+  @Test
+  public void testFailedCommitDeletesNewSideFile() {
+    when(mBackingEditor.commit()).thenReturn(false);
+
+    boolean result = mSideFilePrefs.edit()
+        .putString("large", LARGE_VALUE)
+        .commit();
+
+    assertThat(result).isFalse();
+    assertThat(mDirectory.listFiles()).isEmpty();
+  }
+
+  @Test
+  public void testValuesThatLookLikePointersAreEscaped() {
+    String value = "\uE000p";
+
+    String stored = commitAndGetStored("small", value);
+
+    assertThat(stored).isNotEqualTo(value);
+    assertThat(mSideFilePrefs.getString("small", null)).isEqualTo(value);
+  }
+
+  @Test
+  public void testGetAllLeavesPointersUnresolved() {
+    String stored = commitAndGetStored("large", LARGE_VALUE);
+    Mockito.<Map<String, ?>>when(mBackingPrefs.getAll()).thenReturn(Collections.singletonMap("large", stored));
+    SideFileSharedPreferences freshPrefs = new SideFileSharedPreferences(mBackingPrefs, mDirectory, 10);
+    mDirectory.listFiles()[0].delete();
+
+    Object rawValue = freshPrefs.getAll().get("large");
+
+    assertThat(rawValue).isEqualTo(stored);
+    assertThat(freshPrefs.resolve("large", rawValue)).isNull();
+  }
+
+  @Test
+  public void testGetAllLeavesEscapedValuesEscaped() {
+    String value = "\uE000pnot-a-file:0";
+    String stored = commitAndGetStored("small", value);
+    Mockito.<Map<String, ?>>when(mBackingPrefs.getAll()).thenReturn(Collections.singletonMap("small", stored));
+
+    Object rawValue = mSideFilePrefs.getAll().get("small");
+
+    assertThat(rawValue).isEqualTo(stored);
+    assertThat(mSideFilePrefs.resolve("small", rawValue)).isEqualTo(value);
+    assertThat(mSideFilePrefs.contains("small")).isTrue();
+  }
+
+  @Test
+  public void testResolveLoadsSideFile() {
+    String stored = commitAndGetStored("large", LARGE_VALUE);
+    SideFileSharedPreferences freshPrefs = new SideFileSharedPreferences(mBackingPrefs, mDirectory, 10);
+
+    assertThat(freshPrefs.resolve("large", stored)).isEqualTo(LARGE_VALUE);
+  }
+
+  @Test
+  public void testApplyKeepsReplacedSideFileUntilCommit() {
+    commitAndGetStored("large", LARGE_VALUE);
+
+    mSideFilePrefs.edit()
+        .remove("large")
+        .apply();
+
+    assertThat(mDirectory.listFiles()).hasSize(1);
+
+    mSideFilePrefs.edit()
+        .putString("small", "short")
+        .commit();
+
+    assertThat(mDirectory.listFiles()).isEmpty();
+  }
+
+  @Test
+  public void testCommitDeletesOrphanedSideFiles() throws Exception {
+    String stored = commitAndGetStored("large", LARGE_VALUE);
+    Mockito.<Map<String, ?>>when(mBackingPrefs.getAll()).thenReturn(Collections.singletonMap("large", stored));
+    File orphan = new File(mDirectory, "orphan");
+    assertThat(orphan.createNewFile()).isTrue();
+
+    mSideFilePrefs.edit()
+        .putString("small", "short")
+        .commit();
+
+    assertThat(orphan.exists()).isFalse();
+    assertThat(mDirectory.listFiles()).hasSize(1);
+    assertThat(mSideFilePrefs.getString("large", null)).isEqualTo(LARGE_VALUE);
+  }
+}
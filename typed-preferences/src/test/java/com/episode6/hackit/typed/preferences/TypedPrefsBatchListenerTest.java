@@ -0,0 +1,137 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * Tests {@link TypedPrefs#addBatchListener(java.util.Collection, long, ScheduledExecutorService, TypedBatchListener)}
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class TypedPrefsBatchListenerTest {
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("batchListenerTest");
+  private static final PrefKey<Integer> INT_PREF = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(5);
+  private static final OptPrefKey<String> STRING_PREF = NAMESPACE.key(String.class)
+      .named("string")
+      .buildOptional();
+  private static final OptPrefKey<Long> UNWATCHED_PREF = NAMESPACE.key(Long.class)
+      .named("unwatched")
+      .buildOptional();
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock ScheduledExecutorService mExecutor;
+  @Mock TypedBatchListener mBatchListener;
+
+  private SharedPreferences.OnSharedPreferenceChangeListener mChangeListener;
+
+  @Before
+  public void setup() {
+    t.mTypedPrefs.addBatchListener(Arrays.asList(INT_PREF, STRING_PREF), 100, mExecutor, mBatchListener);
+
+    ArgumentCaptor<SharedPreferences.OnSharedPreferenceChangeListener> listenerCaptor =
+        ArgumentCaptor.forClass(SharedPreferences.OnSharedPreferenceChangeListener.class);
+    verify(t.mSharedPreferences).registerOnSharedPreferenceChangeListener(listenerCaptor.capture());
+    mChangeListener = listenerCaptor.getValue();
+  }
+
+  private void notifyChanged(AbstractPrefKey<?> prefKey) {
+    mChangeListener.onSharedPreferenceChanged(t.mSharedPreferences, prefKey.getKeyName().toString());
+  }
+
+  private Runnable captureScheduledDelivery() {
+    ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(mExecutor).schedule(runnableCaptor.capture(), anyLong(), any(TimeUnit.class));
+    return runnableCaptor.getValue();
+  }
+
+  @Test
+  public void testChangesCoalescedIntoOneBatch() {
+    notifyChanged(INT_PREF);
+    notifyChanged(STRING_PREF);
+    notifyChanged(INT_PREF);
+
+    verify(mExecutor, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    verify(mBatchListener, never()).onPrefsChanged(any(Set.class));
+
+    captureScheduledDelivery().run();
+
+    Set<AbstractPrefKey<?>> expected = new HashSet<>();
+    expected.add(INT_PREF);
+    expected.add(STRING_PREF);
+    verify(mBatchListener).onPrefsChanged(expected);
+  }
+
+  @Test
+  public void testWindowIsScheduledOnExecutor() {
+    notifyChanged(INT_PREF);
+
+    verify(mExecutor).schedule(any(Runnable.class), eq(100L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testNextChangeStartsNewBatch() {
+    notifyChanged(INT_PREF);
+    captureScheduledDelivery().run();
+    notifyChanged(STRING_PREF);
+
+    verify(mExecutor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    verify(mBatchListener).onPrefsChanged(Collections.<AbstractPrefKey<?>>singleton(INT_PREF));
+  }
+
+  @Test
+  public void testUnwatchedKeysIgnored() {
+    notifyChanged(UNWATCHED_PREF);
+    mChangeListener.onSharedPreferenceChanged(t.mSharedPreferences, "someOtherKey");
+
+    verifyNoMoreInteractions(mExecutor, mBatchListener);
+  }
+
+  @Test
+  public void testNullKeyMarksAllWatchedKeys() {
+    mChangeListener.onSharedPreferenceChanged(t.mSharedPreferences, null);
+    captureScheduledDelivery().run();
+
+    Set<AbstractPrefKey<?>> expected = new HashSet<>();
+    expected.add(INT_PREF);
+    expected.add(STRING_PREF);
+    verify(mBatchListener).onPrefsChanged(expected);
+  }
+
+  @Test
+  public void testRemovedListenerDropsPendingBatch() {
+    notifyChanged(INT_PREF);
+    t.mTypedPrefs.removeBatchListener(mBatchListener);
+    captureScheduledDelivery().run();
+
+    verify(mBatchListener, never()).onPrefsChanged(any(Set.class));
+    verify(t.mSharedPreferences).unregisterOnSharedPreferenceChangeListener(mChangeListener);
+  }
+}
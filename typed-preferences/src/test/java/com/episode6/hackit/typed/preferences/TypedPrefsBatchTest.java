@@ -0,0 +1,122 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedPrefs#getAll(java.util.Collection)}
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class TypedPrefsBatchTest {
+
+  static class TestObj {}
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("batchTest");
+  private static final PrefKey<Integer> INT_PREF = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(5);
+  private static final OptPrefKey<String> STRING_PREF = NAMESPACE.key(String.class)
+      .named("string")
+      .buildOptional();
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedCodec<TestObj> mCodec;
+  @Mock Executor mExecutor;
+
+  private List<OptPrefKey<TestObj>> buildCodecPrefs(int count) {
+    List<OptPrefKey<TestObj>> prefKeys = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      prefKeys.add(NAMESPACE.key(TestObj.class)
+          .named("testObj" + i)
+          .codec(mCodec)
+          .buildOptional());
+    }
+    return prefKeys;
+  }
+
+  @Test
+  public void testGetAllReadsStoreOnce() {
+    OptPrefKey<TestObj> codecPref = buildCodecPrefs(1).get(0);
+    Map<String, Object> stored = new HashMap<>();
+    stored.put(INT_PREF.getKeyName().toString(), 12);
+    stored.put(codecPref.getKeyName().toString(), "encoded");
+    stored.put("someOtherKey", "notRequested");
+    TestObj expected = new TestObj();
+    when(t.mSharedPreferences.getAll()).thenReturn((Map) stored);
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    TypedPrefsSnapshot result = t.mTypedPrefs.getAll(Arrays.<AbstractPrefKey<?>>asList(
+        INT_PREF,
+        STRING_PREF,
+        codecPref));
+
+    // values are decoded eagerly
+    verify(mCodec).decode("encoded");
+    assertThat(result.get(INT_PREF)).isEqualTo(12);
+    assertThat(result.get(STRING_PREF)).isNull();
+    assertThat(result.get(codecPref)).isSameAs(expected);
+    assertThat(result.getRawValues()).hasSize(2);
+    verify(t.mSharedPreferences).getAll();
+    verifyNoMoreInteractions(t.mSharedPreferences, t.mEditor, t.mGson, mCodec);
+  }
+
+  @Test
+  public void testSmallBatchDoesNotUseExecutor() {
+    List<OptPrefKey<TestObj>> codecPrefs = buildCodecPrefs(2);
+    Map<String, Object> stored = new HashMap<>();
+    for (OptPrefKey<TestObj> codecPref : codecPrefs) {
+      stored.put(codecPref.getKeyName().toString(), "encoded");
+    }
+    when(t.mSharedPreferences.getAll()).thenReturn((Map) stored);
+
+    t.mTypedPrefs.getAll(codecPrefs, mExecutor);
+
+    verify(mCodec, times(2)).decode("encoded");
+    verify(mExecutor, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testLargeBatchCompletesWhenExecutorDoesNotRun() {
+    List<OptPrefKey<TestObj>> codecPrefs = buildCodecPrefs(8);
+    Map<String, Object> stored = new HashMap<>();
+    for (OptPrefKey<TestObj> codecPref : codecPrefs) {
+      stored.put(codecPref.getKeyName().toString(), "encoded");
+    }
+    when(t.mSharedPreferences.getAll()).thenReturn((Map) stored);
+    when(mCodec.decode("encoded")).thenReturn(new TestObj());
+
+    // the mock executor never runs its workers, so the calling thread has to decode everything
+    TypedPrefsSnapshot result = t.mTypedPrefs.getAll(codecPrefs, mExecutor);
+
+    verify(mExecutor, atLeastOnce()).execute(any(Runnable.class));
+    verify(mCodec, times(8)).decode("encoded");
+    for (OptPrefKey<TestObj> codecPref : codecPrefs) {
+      assertThat(result.get(codecPref)).isNotNull();
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.BinaryCodec;
+import com.episode6.hackit.typed.core.codec.Compression;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedPrefsImpl} with keys that use a custom {@link TypedCodec}
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class TypedPrefsCodecTest {
+
+  static class TestObj {}
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedCodec<TestObj> mCodec;
+  @Mock BinaryCodec<TestObj> mBinaryCodec;
+
+  private OptPrefKey<TestObj> buildCodecPref() {
+    return PrefNamespace.ROOT.extend("codecTest")
+        .key(TestObj.class)
+        .named("testObj")
+        .codec(mCodec)
+        .buildOptional();
+  }
+
+  @Test
+  public void testGetWithCodec() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+    String keyName = codecPref.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("encoded");
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    TestObj result = t.mTypedPrefs.get(codecPref);
+
+    assertThat(result).isEqualTo(expected);
+    InOrder inOrder = Mockito.inOrder(t.mSharedPreferences, mCodec);
+    inOrder.verify(t.mSharedPreferences).getString(keyName, null);
+    inOrder.verify(mCodec).decode("encoded");
+    verifyNoMoreInteractions(t.mSharedPreferences, t.mEditor, t.mGson, mCodec);
+  }
+
+  @Test
+  public void testPutWithCodec() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+    String keyName = codecPref.getKeyName().toString();
+    TestObj value = new TestObj();
+    when(mCodec.encode(value)).thenReturn("encoded");
+
+    t.mTypedPrefs.edit()
+        .put(codecPref, value)
+        .commit();
+
+    InOrder inOrder = Mockito.inOrder(t.mSharedPreferences, t.mEditor, mCodec);
+    inOrder.verify(t.mSharedPreferences).edit();
+    inOrder.verify(mCodec).encode(value);
+    inOrder.verify(t.mEditor).putString(keyName, "encoded");
+    inOrder.verify(t.mEditor).commit();
+    verifyNoMoreInteractions(t.mSharedPreferences, t.mEditor, t.mGson, mCodec);
+  }
+
+  @Test
+  public void testPutWithBinaryCodec() {
+    OptPrefKey<TestObj> binaryPref = PrefNamespace.ROOT.extend("codecTest")
+        .key(TestObj.class)
+        .named("testBinaryObj")
+        .binaryCodec(mBinaryCodec)
+        .buildOptional();
+    String keyName = binaryPref.getKeyName().toString();
+    TestObj value = new TestObj();
+    when(mBinaryCodec.encode(value)).thenReturn(new byte[]{'M', 'a'});
+
+    t.mTypedPrefs.edit()
+        .put(binaryPref, value)
+        .commit();
+
+    InOrder inOrder = Mockito.inOrder(t.mSharedPreferences, t.mEditor, mBinaryCodec);
+    inOrder.verify(t.mSharedPreferences).edit();
+    inOrder.verify(mBinaryCodec).encode(value);
+    inOrder.verify(t.mEditor).putString(keyName, "TWE=");
+    inOrder.verify(t.mEditor).commit();
+    verifyNoMoreInteractions(t.mSharedPreferences, t.mEditor, t.mGson, mBinaryCodec);
+  }
+
+  @Test
+  public void testPutCompressed() {
+    OptPrefKey<TestObj> compressedPref = PrefNamespace.ROOT.extend("codecTest")
+        .key(TestObj.class)
+        .named("testCompressedObj")
+        .codec(mCodec)
+        .compressed(16)
+        .buildOptional();
+    String keyName = compressedPref.getKeyName().toString();
+    TestObj smallValue = new TestObj();
+    TestObj largeValue = new TestObj();
+    when(mCodec.encode(smallValue)).thenReturn("small");
+    when(mCodec.encode(largeValue)).thenReturn("largelargelargelargelargelargelarge");
+
+    t.mTypedPrefs.edit()
+        .put(compressedPref, smallValue)
+        .commit();
+    t.mTypedPrefs.edit()
+        .put(compressedPref, largeValue)
+        .commit();
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(t.mEditor).putString(keyName, "small");
+    verify(t.mEditor, times(2)).putString(eq(keyName), captor.capture());
+    assertThat(captor.getValue()).startsWith("~z");
+  }
+
+  @Test
+  public void testGetCompressed() {
+    OptPrefKey<TestObj> compressedPref = PrefNamespace.ROOT.extend("codecTest")
+        .key(TestObj.class)
+        .named("testCompressedObj")
+        .codec(mCodec)
+        .compressed(16)
+        .buildOptional();
+    String keyName = compressedPref.getKeyName().toString();
+    String encoded = "largelargelargelargelargelargelarge";
+    TestObj expected = new TestObj();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn(new Compression(16).compressToString(encoded));
+    when(mCodec.decode(encoded)).thenReturn(expected);
+
+    TestObj result = t.mTypedPrefs.get(compressedPref);
+
+    assertThat(result).isEqualTo(expected);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCompressingDirectKeyFails() {
+    PrefNamespace.ROOT.extend("codecTest")
+        .key(Integer.class)
+        .named("testCompressedInt")
+        .compressed()
+        .buildWithDefault(1);
+  }
+}
@@ -1,6 +1,7 @@
 package com.episode6.hackit.typed.preferences;
 
 import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.util.Copier;
 import com.episode6.hackit.typed.core.util.Supplier;
 import com.episode6.hackit.typed.testing.Rules;
 import com.google.gson.reflect.TypeToken;
@@ -46,6 +47,33 @@ public class TypedPrefsGenericsTest {
           return map;
         }
       });
+  private static final PrefKey<SimpleTestClass> MEMOIZED_DEFAULT_PREF = PREF_NAMESPACE
+      .key(SimpleTestClass.class)
+      .named("memoizedDefaultPref")
+      .buildWithMemoizedDefault(new Supplier<SimpleTestClass>() {
+        @Override
+        public SimpleTestClass get() {
+          return new SimpleTestClass("memoizedValue");
+        }
+      });
+  private static final PrefKey<HashMap<String, SimpleTestClass>> COPIED_DEFAULT_PREF = PREF_NAMESPACE
+      .key(new TypeToken<HashMap<String, SimpleTestClass>>() {})
+      .named("copiedDefaultPref")
+      .buildWithDefault(
+          new Supplier<HashMap<String, SimpleTestClass>>() {
+            @Override
+            public HashMap<String, SimpleTestClass> get() {
+              HashMap<String, SimpleTestClass> map = new HashMap<>();
+              map.put("key1", new SimpleTestClass("value1"));
+              return map;
+            }
+          },
+          new Copier<HashMap<String, SimpleTestClass>>() {
+            @Override
+            public HashMap<String, SimpleTestClass> copy(HashMap<String, SimpleTestClass> instance) {
+              return new HashMap<>(instance);
+            }
+          });
   private static final OptPrefKey<HashMap<String, SimpleTestClass>> COMPLEX_MAP_NULL_PREF = PREF_NAMESPACE
       .key(new TypeToken<HashMap<String, SimpleTestClass>>() {})
       .named("complexMapNullPref")
@@ -255,6 +283,26 @@ public class TypedPrefsGenericsTest {
     t.verifyPrefWasRemoved(COMPLEX_MAP_NULL_PREF);
   }
 
+  @Test
+  public void testMemoizedDefaultIsShared() {
+    SimpleTestClass first = t.mTypedPrefs.get(MEMOIZED_DEFAULT_PREF);
+    SimpleTestClass second = t.mTypedPrefs.get(MEMOIZED_DEFAULT_PREF);
+
+    assertThat(first.value).isEqualTo("memoizedValue");
+    assertThat(first).isSameAs(second);
+  }
+
+  @Test
+  public void testCopiedDefaultIsCopied() {
+    HashMap<String, SimpleTestClass> first = t.mTypedPrefs.get(COPIED_DEFAULT_PREF);
+    first.clear();
+    HashMap<String, SimpleTestClass> second = t.mTypedPrefs.get(COPIED_DEFAULT_PREF);
+
+    assertThat(first).isNotSameAs(second);
+    assertThat(second).hasSize(1);
+    assertThat(second.get("key1").value).isEqualTo("value1");
+  }
+
   public static class SimpleTestClass {
     final String value;
 
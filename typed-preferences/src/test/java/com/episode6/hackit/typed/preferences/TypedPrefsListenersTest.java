@@ -0,0 +1,137 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedPrefs#addListener(PrefKey, TypedListener)} and friends
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class TypedPrefsListenersTest {
+
+  static class TestObj {}
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("listenersTest");
+  private static final PrefKey<Integer> INT_PREF = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(5);
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedCodec<TestObj> mCodec;
+  @Mock TypedListener<TestObj> mObjListener1;
+  @Mock TypedListener<TestObj> mObjListener2;
+  @Mock TypedListener<Integer> mIntListener;
+
+  private OptPrefKey<TestObj> buildCodecPref() {
+    return NAMESPACE.key(TestObj.class)
+        .named("testObj")
+        .codec(mCodec)
+        .buildOptional();
+  }
+
+  private SharedPreferences.OnSharedPreferenceChangeListener captureChangeListener() {
+    ArgumentCaptor<SharedPreferences.OnSharedPreferenceChangeListener> listenerCaptor =
+        ArgumentCaptor.forClass(SharedPreferences.OnSharedPreferenceChangeListener.class);
+    verify(t.mSharedPreferences).registerOnSharedPreferenceChangeListener(listenerCaptor.capture());
+    return listenerCaptor.getValue();
+  }
+
+  @Test
+  public void testSingleUnderlyingListener() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+
+    t.mTypedPrefs.addListener(codecPref, mObjListener1);
+    t.mTypedPrefs.addListener(codecPref, mObjListener2);
+    t.mTypedPrefs.addListener(INT_PREF, mIntListener);
+
+    verify(t.mSharedPreferences, times(1)).registerOnSharedPreferenceChangeListener(
+        any(SharedPreferences.OnSharedPreferenceChangeListener.class));
+  }
+
+  @Test
+  public void testValueDecodedOncePerChange() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+    String keyName = codecPref.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("encoded");
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    t.mTypedPrefs.addListener(codecPref, mObjListener1);
+    t.mTypedPrefs.addListener(codecPref, mObjListener2);
+    captureChangeListener().onSharedPreferenceChanged(t.mSharedPreferences, keyName);
+
+    verify(mCodec, times(1)).decode("encoded");
+    verify(mObjListener1).onPrefChanged(codecPref, expected);
+    verify(mObjListener2).onPrefChanged(codecPref, expected);
+  }
+
+  @Test
+  public void testRemovedValueDispatchesDefault() {
+    String keyName = INT_PREF.getKeyName().toString();
+
+    t.mTypedPrefs.addListener(INT_PREF, mIntListener);
+    captureChangeListener().onSharedPreferenceChanged(t.mSharedPreferences, keyName);
+
+    verify(mIntListener).onPrefChanged(INT_PREF, 5);
+  }
+
+  @Test
+  public void testOtherKeysAreIgnored() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+
+    t.mTypedPrefs.addListener(codecPref, mObjListener1);
+    t.mTypedPrefs.addListener(INT_PREF, mIntListener);
+    captureChangeListener().onSharedPreferenceChanged(t.mSharedPreferences, "someOtherKey");
+
+    verifyNoMoreInteractions(mObjListener1, mIntListener, mCodec);
+  }
+
+  @Test
+  public void testNullKeyDispatchesToAll() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+
+    t.mTypedPrefs.addListener(codecPref, mObjListener1);
+    t.mTypedPrefs.addListener(INT_PREF, mIntListener);
+    captureChangeListener().onSharedPreferenceChanged(t.mSharedPreferences, null);
+
+    verify(mObjListener1).onPrefChanged(codecPref, null);
+    verify(mIntListener).onPrefChanged(INT_PREF, 5);
+  }
+
+  @Test
+  public void testRemoveLastListenerUnregisters() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+    String keyName = codecPref.getKeyName().toString();
+
+    t.mTypedPrefs.addListener(codecPref, mObjListener1);
+    t.mTypedPrefs.addListener(codecPref, mObjListener2);
+    SharedPreferences.OnSharedPreferenceChangeListener changeListener = captureChangeListener();
+    t.mTypedPrefs.removeListener(codecPref, mObjListener1);
+    verify(t.mSharedPreferences, never()).unregisterOnSharedPreferenceChangeListener(changeListener);
+
+    changeListener.onSharedPreferenceChanged(t.mSharedPreferences, keyName);
+    t.mTypedPrefs.removeListener(codecPref, mObjListener2);
+
+    verify(mObjListener1, never()).onPrefChanged(codecPref, null);
+    verify(mObjListener2).onPrefChanged(codecPref, null);
+    verify(t.mSharedPreferences).unregisterOnSharedPreferenceChangeListener(changeListener);
+  }
+}
@@ -0,0 +1,138 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.metrics.Metrics;
+import com.episode6.hackit.typed.core.metrics.TypedMetrics;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that {@link TypedPrefsImpl} reports to the installed {@link TypedMetrics}
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class TypedPrefsMetricsTest {
+
+  static class TestObj {}
+
+  static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("metricsTest");
+  static final PrefKey<Integer> INT_PREF = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(5);
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedMetrics mMetrics;
+  @Mock TypedCodec<TestObj> mCodec;
+
+  @Before
+  public void setUp() {
+    Metrics.install(mMetrics);
+  }
+
+  @After
+  public void tearDown() {
+    Metrics.install(null);
+  }
+
+  private OptPrefKey<TestObj> buildCodecPref() {
+    return NAMESPACE.key(TestObj.class)
+        .named("codecObj")
+        .codec(mCodec)
+        .buildOptional();
+  }
+
+  @Test
+  public void testGetDefaultValue() {
+    Integer result = t.mTypedPrefs.get(INT_PREF);
+
+    assertThat(result).isEqualTo(5);
+    InOrder inOrder = Mockito.inOrder(mMetrics);
+    inOrder.verify(mMetrics).onGet(INT_PREF);
+    inOrder.verify(mMetrics).onDefaultValue(INT_PREF);
+    verifyNoMoreInteractions(mMetrics);
+  }
+
+  @Test
+  public void testGetPrimitive() {
+    String keyName = INT_PREF.getKeyName().toString();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getInt(eq(keyName), anyInt())).thenReturn(7);
+
+    Integer result = t.mTypedPrefs.get(INT_PREF);
+
+    assertThat(result).isEqualTo(7);
+    Mockito.verify(mMetrics).onGet(INT_PREF);
+    verifyNoMoreInteractions(mMetrics);
+  }
+
+  @Test
+  public void testGetDecoded() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+    String keyName = codecPref.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("encoded");
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    TestObj result = t.mTypedPrefs.get(codecPref);
+
+    assertThat(result).isEqualTo(expected);
+    InOrder inOrder = Mockito.inOrder(mMetrics);
+    inOrder.verify(mMetrics).onGet(codecPref);
+    inOrder.verify(mMetrics).onDecode(eq(codecPref), anyLong(), eq(7));
+    verifyNoMoreInteractions(mMetrics);
+  }
+
+  @Test
+  public void testPutEncoded() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+    TestObj value = new TestObj();
+    when(mCodec.encode(value)).thenReturn("encoded");
+
+    t.mTypedPrefs.edit()
+        .put(codecPref, value)
+        .put(INT_PREF, 6)
+        .commit();
+
+    Mockito.verify(mMetrics).onPut(codecPref);
+    Mockito.verify(mMetrics).onEncode(eq(codecPref), anyLong(), eq(7));
+    Mockito.verify(mMetrics).onPut(INT_PREF);
+    verifyNoMoreInteractions(mMetrics);
+  }
+
+  @Test
+  public void testContains() {
+    t.mTypedPrefs.contains(INT_PREF);
+
+    Mockito.verify(mMetrics).onContains(INT_PREF);
+    verifyNoMoreInteractions(mMetrics);
+  }
+
+  @Test
+  public void testNothingReportedWhenUninstalled() {
+    Metrics.install(null);
+
+    t.mTypedPrefs.get(INT_PREF);
+    t.mTypedPrefs.contains(INT_PREF);
+
+    verifyNoMoreInteractions(mMetrics);
+  }
+}
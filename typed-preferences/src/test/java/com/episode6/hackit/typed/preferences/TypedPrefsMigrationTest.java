@@ -0,0 +1,161 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.core.migration.Migration;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedPrefsImpl} with versioned keys
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class TypedPrefsMigrationTest {
+
+  static class TestObj {}
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedCodec<TestObj> mCodec;
+  @Mock Migration mMigration;
+
+  private OptPrefKey<TestObj> buildVersionedPref() {
+    return PrefNamespace.ROOT.extend("migrationTest")
+        .key(TestObj.class)
+        .named("testObj")
+        .codec(mCodec)
+        .version(1)
+        .migration(0, mMigration)
+        .buildOptional();
+  }
+
+  @Test
+  public void testPutIsTagged() {
+    OptPrefKey<TestObj> versionedPref = buildVersionedPref();
+    String keyName = versionedPref.getKeyName().toString();
+    TestObj value = new TestObj();
+    when(mCodec.encode(value)).thenReturn("encoded");
+
+    t.mTypedPrefs.edit()
+        .put(versionedPref, value)
+        .commit();
+
+    verify(t.mEditor).putString(keyName, "~v1:encoded");
+  }
+
+  @Test
+  public void testGetCurrentVersion() {
+    OptPrefKey<TestObj> versionedPref = buildVersionedPref();
+    String keyName = versionedPref.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("~v1:encoded");
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    TestObj result = t.mTypedPrefs.get(versionedPref);
+    t.mTypedPrefs.edit().commit();
+
+    assertThat(result).isEqualTo(expected);
+    verify(mMigration, never()).migrate(anyString());
+    verify(t.mEditor, never()).putString(anyString(), anyString());
+  }
+
+  @Test
+  public void testGetLegacyValueMigratesAndWritesBackOnNextEdit() {
+    OptPrefKey<TestObj> versionedPref = buildVersionedPref();
+    String keyName = versionedPref.getKeyName().toString();
+    TestObj expected = new TestObj();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("legacy");
+    when(mMigration.migrate("legacy")).thenReturn("migrated");
+    when(mCodec.decode("migrated")).thenReturn(expected);
+
+    TestObj result = t.mTypedPrefs.get(versionedPref);
+    t.mTypedPrefs.edit().commit();
+
+    assertThat(result).isEqualTo(expected);
+    InOrder inOrder = Mockito.inOrder(t.mEditor);
+    inOrder.verify(t.mEditor).putString(keyName, "~v1:migrated");
+    inOrder.verify(t.mEditor).commit();
+  }
+
+  @Test
+  public void testMigrationIsNotWrittenBackIfValueChanged() {
+    OptPrefKey<TestObj> versionedPref = buildVersionedPref();
+    String keyName = versionedPref.getKeyName().toString();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("legacy");
+    when(mMigration.migrate("legacy")).thenReturn("migrated");
+
+    t.mTypedPrefs.get(versionedPref);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("~v1:changed");
+    t.mTypedPrefs.edit().commit();
+
+    verify(t.mEditor, never()).putString(anyString(), anyString());
+  }
+
+  @Test
+  public void testMigrationIsNotWrittenBackIfKeyIsEdited() {
+    OptPrefKey<TestObj> versionedPref = buildVersionedPref();
+    String keyName = versionedPref.getKeyName().toString();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("legacy");
+    when(mMigration.migrate("legacy")).thenReturn("migrated");
+
+    t.mTypedPrefs.get(versionedPref);
+    t.mTypedPrefs.edit()
+        .remove(versionedPref)
+        .commit();
+
+    verify(t.mEditor).remove(keyName);
+    verify(t.mEditor, never()).putString(anyString(), anyString());
+  }
+
+  @Test
+  public void testMigrationIsOnlyWrittenBackOnce() {
+    OptPrefKey<TestObj> versionedPref = buildVersionedPref();
+    String keyName = versionedPref.getKeyName().toString();
+    when(t.mSharedPreferences.contains(keyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(keyName, null)).thenReturn("legacy");
+    when(mMigration.migrate("legacy")).thenReturn("migrated");
+
+    t.mTypedPrefs.get(versionedPref);
+    t.mTypedPrefs.edit().commit();
+    t.mTypedPrefs.edit().commit();
+
+    verify(t.mEditor).putString(keyName, "~v1:migrated");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMigrationWithoutVersionFails() {
+    PrefNamespace.ROOT.extend("migrationTest")
+        .key(TestObj.class)
+        .named("unversioned")
+        .codec(mCodec)
+        .migration(0, mMigration)
+        .buildOptional();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testVersioningDirectKeyFails() {
+    PrefNamespace.ROOT.extend("migrationTest")
+        .key(Integer.class)
+        .named("intKey")
+        .version(1)
+        .buildOptional();
+  }
+}
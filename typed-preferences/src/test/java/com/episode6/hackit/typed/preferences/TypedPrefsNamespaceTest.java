@@ -0,0 +1,97 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedPrefsImpl} namespace-scoped operations
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class TypedPrefsNamespaceTest {
+
+  private static final PrefNamespace FEATURE_NAMESPACE = PrefNamespace.ROOT.extend("testNamespace").extend("feature");
+  private static final PrefNamespace OTHER_NAMESPACE = PrefNamespace.ROOT.extend("testNamespace").extend("otherFeature");
+
+  private static final PrefKey<Integer> INT_PREF = FEATURE_NAMESPACE.key(Integer.class)
+      .named("testInt")
+      .buildWithDefault(3);
+  private static final OptPrefKey<String> STRING_PREF = FEATURE_NAMESPACE.extend("sub").key(String.class)
+      .named("testString")
+      .buildOptional();
+  private static final PrefKey<Long> OTHER_PREF = OTHER_NAMESPACE.key(Long.class)
+      .named("testLong")
+      .buildWithDefault(5L);
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Test
+  public void testRemoveNamespace() {
+    t.mTypedPrefs.edit()
+        .remove(PrefNamespace.ROOT.extend("testNamespace").extend("feature"))
+        .commit();
+
+    InOrder inOrder = Mockito.inOrder(t.mSharedPreferences, t.mEditor);
+    inOrder.verify(t.mSharedPreferences).edit();
+    inOrder.verify(t.mEditor).commit();
+    verify(t.mEditor).remove(INT_PREF.getKeyName().toString());
+    verify(t.mEditor).remove(STRING_PREF.getKeyName().toString());
+    verifyNoMoreInteractions(t.mSharedPreferences, t.mEditor);
+  }
+
+  @Test
+  public void testSnapshotNamespace() {
+    String intKeyName = INT_PREF.getKeyName().toString();
+    String stringKeyName = STRING_PREF.getKeyName().toString();
+    when(t.mSharedPreferences.contains(intKeyName)).thenReturn(true);
+    when(t.mSharedPreferences.getInt(eq(intKeyName), anyInt())).thenReturn(12);
+
+    TypedPrefsSnapshot snapshot = t.mTypedPrefs.snapshot(FEATURE_NAMESPACE);
+
+    assertThat(snapshot.contains(INT_PREF)).isTrue();
+    assertThat(snapshot.get(INT_PREF)).isEqualTo(12);
+    assertThat(snapshot.contains(STRING_PREF)).isFalse();
+    assertThat(snapshot.get(STRING_PREF)).isNull();
+    assertThat(snapshot.get(OTHER_PREF)).isEqualTo(5L);
+    verify(t.mSharedPreferences).contains(intKeyName);
+    verify(t.mSharedPreferences).getInt(eq(intKeyName), anyInt());
+    verify(t.mSharedPreferences).contains(stringKeyName);
+    verifyNoMoreInteractions(t.mSharedPreferences, t.mEditor, t.mGson);
+  }
+
+  @Test
+  public void testCopyNamespace() {
+    String intKeyName = INT_PREF.getKeyName().toString();
+    String stringKeyName = STRING_PREF.getKeyName().toString();
+    when(t.mSharedPreferences.contains(intKeyName)).thenReturn(true);
+    when(t.mSharedPreferences.getInt(eq(intKeyName), anyInt())).thenReturn(12);
+    when(t.mSharedPreferences.contains(stringKeyName)).thenReturn(true);
+    when(t.mSharedPreferences.getString(eq(stringKeyName), nullable(String.class))).thenReturn("hi");
+    TypedPrefsSnapshot snapshot = t.mTypedPrefs.snapshot(FEATURE_NAMESPACE);
+
+    t.mTypedPrefs.edit()
+        .putAll(snapshot)
+        .apply();
+
+    verify(t.mEditor).putInt(intKeyName, 12);
+    verify(t.mEditor).putString(stringKeyName, "hi");
+    verify(t.mEditor).apply();
+    verify(t.mSharedPreferences, Mockito.never()).getLong(eq(OTHER_PREF.getKeyName().toString()), anyLong());
+  }
+}
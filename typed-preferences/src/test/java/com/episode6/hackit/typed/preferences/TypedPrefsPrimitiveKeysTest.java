@@ -0,0 +1,129 @@
+package com.episode6.hackit.typed.preferences;
+
+import android.content.SharedPreferences;
+import com.episode6.hackit.typed.testing.Answers;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedPrefsImpl} usage with primitive keys, i.e. {@link IntPrefKey}
+ */
+public class TypedPrefsPrimitiveKeysTest {
+
+  private static final PrefNamespace PREF_NAMESPACE = PrefNamespace.ROOT.extend("primitiveKeysTest");
+
+  private static final IntPrefKey INT_PREF = PREF_NAMESPACE.intKey("testInt", 3);
+  private static final LongPrefKey LONG_PREF = PREF_NAMESPACE.longKey("testLong", 123L);
+  private static final BoolPrefKey BOOL_PREF = PREF_NAMESPACE.boolKey("testBool", true);
+  private static final FloatPrefKey FLOAT_PREF = PREF_NAMESPACE.floatKey("testFloat", 1.2f);
+  private static final DoublePrefKey DOUBLE_PREF = PREF_NAMESPACE.doubleKey("testDouble", 1.2d);
+
+  private static final String INT_NAME = INT_PREF.getKeyName().toString();
+  private static final String LONG_NAME = LONG_PREF.getKeyName().toString();
+  private static final String BOOL_NAME = BOOL_PREF.getKeyName().toString();
+  private static final String FLOAT_NAME = FLOAT_PREF.getKeyName().toString();
+  private static final String DOUBLE_NAME = DOUBLE_PREF.getKeyName().toString();
+
+  private SharedPreferences mSharedPreferences;
+  private SharedPreferences.Editor mEditor;
+  private TypedPrefs mTypedPrefs;
+
+  @Before
+  public void setup() {
+    mSharedPreferences = mock(SharedPreferences.class);
+    mEditor = mock(SharedPreferences.Editor.class, Answers.builderAnswer());
+    when(mSharedPreferences.edit()).thenReturn(mEditor);
+    mTypedPrefs = TypedPrefs.Wrap.sharedPrefs(mSharedPreferences);
+  }
+
+  @Test
+  public void testGetIntPassesDefault() {
+    when(mSharedPreferences.getInt(INT_NAME, 3)).thenReturn(3);
+
+    int result = mTypedPrefs.getInt(INT_PREF);
+
+    verify(mSharedPreferences).getInt(INT_NAME, 3);
+    verify(mSharedPreferences, never()).contains(INT_NAME);
+    assertThat(result).isEqualTo(3);
+  }
+
+  @Test
+  public void testGetLong() {
+    when(mSharedPreferences.getLong(LONG_NAME, 123L)).thenReturn(5L);
+
+    long result = mTypedPrefs.getLong(LONG_PREF);
+
+    assertThat(result).isEqualTo(5L);
+  }
+
+  @Test
+  public void testGetBoolean() {
+    when(mSharedPreferences.getBoolean(BOOL_NAME, true)).thenReturn(false);
+
+    boolean result = mTypedPrefs.getBoolean(BOOL_PREF);
+
+    assertThat(result).isFalse();
+  }
+
+  @Test
+  public void testGetFloat() {
+    when(mSharedPreferences.getFloat(FLOAT_NAME, 1.2f)).thenReturn(2.5f);
+
+    float result = mTypedPrefs.getFloat(FLOAT_PREF);
+
+    assertThat(result).isEqualTo(2.5f);
+  }
+
+  @Test
+  public void testGetDoubleReadsRawBits() {
+    when(mSharedPreferences.getLong(DOUBLE_NAME, Double.doubleToRawLongBits(1.2d)))
+        .thenReturn(Double.doubleToRawLongBits(4.5d));
+
+    double result = mTypedPrefs.getDouble(DOUBLE_PREF);
+
+    assertThat(result).isEqualTo(4.5d);
+  }
+
+  @Test
+  public void testPutPrimitives() {
+    mTypedPrefs.edit()
+        .putInt(INT_PREF, 7)
+        .putLong(LONG_PREF, 8L)
+        .putBoolean(BOOL_PREF, false)
+        .putFloat(FLOAT_PREF, 9.5f)
+        .putDouble(DOUBLE_PREF, 10.5d)
+        .commit();
+
+    verify(mEditor).putInt(INT_NAME, 7);
+    verify(mEditor).putLong(LONG_NAME, 8L);
+    verify(mEditor).putBoolean(BOOL_NAME, false);
+    verify(mEditor).putFloat(FLOAT_NAME, 9.5f);
+    verify(mEditor).putLong(DOUBLE_NAME, Double.doubleToRawLongBits(10.5d));
+    verify(mEditor).commit();
+  }
+
+  @Test
+  public void testRemovePrimitive() {
+    mTypedPrefs.edit()
+        .remove(INT_PREF)
+        .commit();
+
+    verify(mEditor).remove(INT_NAME);
+    verify(mEditor).commit();
+  }
+
+  @Test
+  public void testContainsPrimitive() {
+    when(mSharedPreferences.contains(INT_NAME)).thenReturn(true);
+
+    boolean result = mTypedPrefs.contains(INT_PREF);
+
+    assertThat(result).isTrue();
+  }
+}
@@ -1,12 +1,14 @@
 package com.episode6.hackit.typed.preferences;
 
 import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.util.Supplier;
 import com.episode6.hackit.typed.testing.Rules;
 import org.junit.Rule;
 import org.junit.Test;
 import org.powermock.core.classloader.annotations.MockPolicy;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 /**
  * Tests {@link TypedPrefsImpl} usage with Primitives
@@ -46,6 +48,15 @@ public class TypedPrefsPrimitivesTest {
   private static final OptPrefKey<String> STRING_NULL_PREF = PREF_NAMESPACE.key(String.class)
       .named("testNullString")
       .buildOptional();
+  private static final PrefKey<String> STRING_SUPPLIED_PREF = PREF_NAMESPACE.key(String.class)
+      .named("testSuppliedString")
+      .buildWithDefault(new Supplier<String>() {
+        @Override
+        public String get() {
+          fail("default value should only be built when the pref is unset");
+          return null;
+        }
+      });
   private static final PrefKey<Double> DOUBLE_PREF = PREF_NAMESPACE.key(Double.class)
       .named("testDouble")
       .buildWithDefault(1.2d);
@@ -72,7 +83,7 @@ public class TypedPrefsPrimitivesTest {
 
     boolean result = t.mTypedPrefs.get(BOOL_PREF);
 
-    t.verifyBooleanExisted(BOOL_PREF);
+    t.verifyBooleanExisted(BOOL_PREF, false);
     assertThat(result).isFalse();
   }
 
@@ -114,7 +125,7 @@ public class TypedPrefsPrimitivesTest {
 
     Boolean result = t.mTypedPrefs.get(BOOL_NULL_PREF);
 
-    t.verifyBooleanExisted(BOOL_NULL_PREF);
+    t.verifyBooleanExisted(BOOL_NULL_PREF, true);
     assertThat(result)
         .isNotNull()
         .isTrue();
@@ -434,6 +445,16 @@ public class TypedPrefsPrimitivesTest {
     assertThat(result).isEqualTo("sup");
   }
 
+  @Test
+  public void testStringDoesExistSkipsDefault() {
+    t.setupStringExists(STRING_SUPPLIED_PREF, "sup");
+
+    String result = t.mTypedPrefs.get(STRING_SUPPLIED_PREF);
+
+    t.verifyStringExisted(STRING_SUPPLIED_PREF);
+    assertThat(result).isEqualTo("sup");
+  }
+
   @Test
   public void testSetString() {
     t.mTypedPrefs.edit()
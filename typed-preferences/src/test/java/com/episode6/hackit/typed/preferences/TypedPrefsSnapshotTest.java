@@ -0,0 +1,126 @@
+package com.episode6.hackit.typed.preferences;
+
+import com.episode6.hackit.mockspresso.Mockspresso;
+import com.episode6.hackit.typed.core.codec.TypedCodec;
+import com.episode6.hackit.typed.testing.Rules;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.MockPolicy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TypedPrefs#snapshot()}
+ */
+@MockPolicy(SharedTestResources.MockPolicy.class)
+public class TypedPrefsSnapshotTest {
+
+  static class TestObj {}
+
+  private static final PrefNamespace NAMESPACE = PrefNamespace.ROOT.extend("snapshotTest");
+  private static final PrefKey<Integer> INT_PREF = NAMESPACE.key(Integer.class)
+      .named("int")
+      .buildWithDefault(5);
+  private static final PrefKey<Double> DOUBLE_PREF = NAMESPACE.key(Double.class)
+      .named("double")
+      .buildWithDefault(1.5d);
+  private static final OptPrefKey<String> STRING_PREF = NAMESPACE.key(String.class)
+      .named("string")
+      .buildOptional();
+
+  final SharedTestResources t = new SharedTestResources();
+  @Rule public final Mockspresso.Rule mockspresso = Rules.mockspressoBuilder()
+      .testResources(t)
+      .buildRule();
+
+  @Mock TypedCodec<TestObj> mCodec;
+
+  private OptPrefKey<TestObj> buildCodecPref() {
+    return NAMESPACE.key(TestObj.class)
+        .named("testObj")
+        .codec(mCodec)
+        .buildOptional();
+  }
+
+  @Test
+  public void testSnapshotReadsStoreOnce() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+    Map<String, Object> stored = new HashMap<>();
+    stored.put(INT_PREF.getKeyName().toString(), 12);
+    stored.put(DOUBLE_PREF.getKeyName().toString(), Double.doubleToRawLongBits(3.25d));
+    stored.put(codecPref.getKeyName().toString(), "encoded");
+    TestObj expected = new TestObj();
+    when(t.mSharedPreferences.getAll()).thenReturn((Map) stored);
+    when(mCodec.decode("encoded")).thenReturn(expected);
+
+    TypedPrefsSnapshot snapshot = t.mTypedPrefs.snapshot();
+
+    assertThat(snapshot.get(INT_PREF)).isEqualTo(12);
+    assertThat(snapshot.get(DOUBLE_PREF)).isEqualTo(3.25d);
+    assertThat(snapshot.contains(STRING_PREF)).isFalse();
+    assertThat(snapshot.get(STRING_PREF)).isNull();
+    assertThat(snapshot.get(codecPref)).isSameAs(expected);
+    verify(t.mSharedPreferences).getAll();
+    verifyNoMoreInteractions(t.mSharedPreferences, t.mEditor, t.mGson);
+  }
+
+  @Test
+  public void testSnapshotIsNotAffectedByLaterWrites() {
+    Map<String, Object> stored = new HashMap<>();
+    stored.put(INT_PREF.getKeyName().toString(), 12);
+    when(t.mSharedPreferences.getAll()).thenReturn((Map) stored);
+
+    TypedPrefsSnapshot snapshot = t.mTypedPrefs.snapshot();
+    t.mTypedPrefs.edit()
+        .put(INT_PREF, 13)
+        .commit();
+
+    assertThat(snapshot.get(INT_PREF)).isEqualTo(12);
+  }
+
+  @Test
+  public void testDecodedValuesAreMemoized() {
+    OptPrefKey<TestObj> codecPref = buildCodecPref();
+    Map<String, Object> stored = new HashMap<>();
+    stored.put(codecPref.getKeyName().toString(), "encoded");
+    when(t.mSharedPreferences.getAll()).thenReturn((Map) stored);
+    when(mCodec.decode("encoded")).thenReturn(new TestObj());
+
+    TypedPrefsSnapshot snapshot = t.mTypedPrefs.snapshot();
+    TestObj result1 = snapshot.get(codecPref);
+    TestObj result2 = snapshot.get(codecPref);
+
+    assertThat(result1).isSameAs(result2);
+    verify(mCodec, times(1)).decode("encoded");
+  }
+
+  @Test
+  public void testPutAllFullSnapshot() {
+    Set<String> stringSet = Collections.singleton("value");
+    Map<String, Object> stored = new HashMap<>();
+    stored.put(INT_PREF.getKeyName().toString(), 12);
+    stored.put(DOUBLE_PREF.getKeyName().toString(), Double.doubleToRawLongBits(3.25d));
+    stored.put("untypedStringSet", stringSet);
+    when(t.mSharedPreferences.getAll()).thenReturn((Map) stored);
+
+    TypedPrefsSnapshot snapshot = t.mTypedPrefs.snapshot();
+    t.mTypedPrefs.edit()
+        .putAll(snapshot)
+        .commit();
+
+    verify(t.mEditor).putInt(INT_PREF.getKeyName().toString(), 12);
+    verify(t.mEditor).putLong(DOUBLE_PREF.getKeyName().toString(), Double.doubleToRawLongBits(3.25d));
+    verify(t.mEditor).putStringSet("untypedStringSet", stringSet);
+    verify(t.mEditor).commit();
+  }
+}